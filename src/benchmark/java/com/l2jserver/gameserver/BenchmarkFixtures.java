@@ -0,0 +1,484 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.handler.EffectHandler;
+import com.l2jserver.gameserver.model.L2Object;
+import com.l2jserver.gameserver.model.L2World;
+import com.l2jserver.gameserver.model.StatsSet;
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+import com.l2jserver.gameserver.model.actor.templates.L2CharTemplate;
+import com.l2jserver.gameserver.model.conditions.Condition;
+import com.l2jserver.gameserver.model.effects.AbstractEffect;
+import com.l2jserver.gameserver.model.items.L2Item;
+import com.l2jserver.gameserver.model.items.L2Weapon;
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+import com.l2jserver.gameserver.model.skills.AbnormalType;
+import com.l2jserver.gameserver.model.stats.BaseStats;
+import com.l2jserver.geodriver.Cell;
+
+/**
+ * Synthetic fixtures of the benchmarks, so they run without a database nor a datapack.<br>
+ * Everything is written to a temporary datapack root which is deleted when the JVM exits:
+ * <ul>
+ * <li>one geodata region of flat and complex blocks, the complex ones holding walls with gaps;</li>
+ * <li>skill XML files of buffs with level tables and stat functions;</li>
+ * <li>the base stat bonus table used by the stat formulas.</li>
+ * </ul>
+ * Also provides a bare character and a bare object to put in the world, and the configuration of the services they use.
+ */
+public final class BenchmarkFixtures
+{
+	/** Geodata region of the fixtures. */
+	public static final int REGION_X = 22;
+	public static final int REGION_Y = 22;
+	/** Size of a region in world units. */
+	public static final int REGION_SIZE = 32768;
+	/** World coordinates of the north west corner of the region. */
+	public static final int REGION_WORLD_X = (REGION_X - L2World.TILE_ZERO_COORD_X) * REGION_SIZE;
+	public static final int REGION_WORLD_Y = (REGION_Y - L2World.TILE_ZERO_COORD_Y) * REGION_SIZE;
+	/** Ground height of the region. */
+	public static final int GROUND_Z = -3400;
+	
+	/** Every this many blocks, a column of blocks is crossed by a wall. */
+	public static final int WALL_SPACING = 8;
+	/** Height of the walls above the ground. */
+	public static final int WALL_HEIGHT = 256;
+	
+	private static final int BLOCKS = 256;
+	private static final int CELLS = 8;
+	/** Abnormal types of the skills, the ones of buffs which stack with each other. */
+	private static final AbnormalType[] ABNORMAL_TYPES = Arrays.stream(AbnormalType.values()).filter(type -> !type.isNone()).toArray(AbnormalType[]::new);
+	
+	private static Path _root;
+	private static boolean _geoData;
+	private static boolean _skills;
+	private static boolean _statBonus;
+	private static boolean _effects;
+	
+	private BenchmarkFixtures()
+	{
+	}
+	
+	/**
+	 * @return the temporary datapack root, created on the first call
+	 */
+	public static synchronized Path getRoot()
+	{
+		if (_root == null)
+		{
+			try
+			{
+				_root = Files.createTempDirectory("l2j-benchmark");
+			}
+			catch (IOException e)
+			{
+				throw new IllegalStateException("Could not create the benchmark datapack root!", e);
+			}
+			
+			final Path root = _root;
+			Runtime.getRuntime().addShutdownHook(new Thread(() ->
+			{
+				try (Stream<Path> paths = Files.walk(root))
+				{
+					paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+				}
+				catch (IOException e)
+				{
+					// Left in the temporary directory.
+				}
+			}));
+			Config.DATAPACK_ROOT = _root.toFile();
+		}
+		return _root;
+	}
+	
+	/**
+	 * Writes the geodata region and configures geodata and path finding to use it.<br>
+	 * Must be called before the first use of {@link GeoData}.
+	 */
+	public static synchronized void initGeoData()
+	{
+		if (_geoData)
+		{
+			return;
+		}
+		
+		final Path geoPath = getRoot().resolve("geodata");
+		try
+		{
+			Files.createDirectories(geoPath);
+			Files.write(geoPath.resolve(REGION_X + "_" + REGION_Y + ".l2j"), createRegion());
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not write the benchmark geodata!", e);
+		}
+		
+		Config.GEODATA_PATH = geoPath;
+		Config.GEODATA_REGIONS = new HashMap<>();
+		Config.GEODATA_REGIONS.put(REGION_X + "_" + REGION_Y, true);
+		Config.TRY_LOAD_UNSPECIFIED_REGIONS = false;
+		Config.PATHFINDING = 1;
+		Config.PATHFIND_BUFFERS = "100x6;128x6;192x6;256x4;320x4;384x4;500x2";
+		Config.LOW_WEIGHT = 0.5f;
+		Config.MEDIUM_WEIGHT = 2;
+		Config.HIGH_WEIGHT = 3;
+		Config.ADVANCED_DIAGONAL_STRATEGY = true;
+		Config.DIAGONAL_WEIGHT = 0.707f;
+		Config.MAX_POSTFILTER_PASSES = 3;
+		Config.DEBUG_PATH = false;
+		_geoData = true;
+	}
+	
+	/**
+	 * Blocks are flat, except every {@link #WALL_SPACING} block columns where a wall runs north to south through the middle of the blocks.<br>
+	 * One block out of four of a wall is left open, so paths exist but have to go around.
+	 */
+	private static byte[] createRegion()
+	{
+		final int wallBlocks = (BLOCKS / WALL_SPACING) * BLOCKS;
+		final ByteBuffer buffer = ByteBuffer.allocate((((BLOCKS * BLOCKS) - wallBlocks) * 3) + (wallBlocks * (1 + (CELLS * CELLS * 2)))).order(ByteOrder.LITTLE_ENDIAN);
+		for (int blockX = 0; blockX < BLOCKS; blockX++)
+		{
+			for (int blockY = 0; blockY < BLOCKS; blockY++)
+			{
+				if ((blockX % WALL_SPACING) != (WALL_SPACING / 2))
+				{
+					buffer.put((byte) 0);
+					buffer.putShort((short) GROUND_Z);
+					continue;
+				}
+				
+				final boolean open = (blockY % 4) == 0;
+				buffer.put((byte) 1);
+				for (int cellX = 0; cellX < CELLS; cellX++)
+				{
+					for (int cellY = 0; cellY < CELLS; cellY++)
+					{
+						int height = GROUND_Z;
+						int nswe = Cell.NSWE_ALL;
+						if (!open)
+						{
+							if (cellX == (CELLS / 2))
+							{
+								height += WALL_HEIGHT;
+								nswe = 0;
+							}
+							else if (cellX == ((CELLS / 2) - 1))
+							{
+								nswe &= ~Cell.NSWE_EAST;
+							}
+							else if (cellX == ((CELLS / 2) + 1))
+							{
+								nswe &= ~Cell.NSWE_WEST;
+							}
+						}
+						buffer.putShort((short) (((height << 1) & 0xFFF0) | nswe));
+					}
+				}
+			}
+		}
+		return buffer.array();
+	}
+	
+	/**
+	 * Writes the skill files, {@code skillsPerFile} buffs of three levels in each, and registers the effect handler they use.
+	 * @param files the number of skill files
+	 * @param skillsPerFile the number of skills per file
+	 * @return the directory of the skill files
+	 */
+	public static synchronized File initSkills(int files, int skillsPerFile)
+	{
+		final Path skillPath = getRoot().resolve("data/stats/skills");
+		if (_skills)
+		{
+			return skillPath.toFile();
+		}
+		
+		initStatBonus();
+		EffectHandler.getInstance().registerHandler(Buff.class);
+		try
+		{
+			Files.createDirectories(skillPath);
+			int skillId = 1;
+			for (int file = 0; file < files; file++)
+			{
+				try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(skillPath.resolve(String.format("%05d-%05d.xml", skillId, (skillId + skillsPerFile) - 1)), StandardCharsets.UTF_8)))
+				{
+					out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+					out.println("<list>");
+					for (int i = 0; i < skillsPerFile; i++, skillId++)
+					{
+						writeSkill(out, skillId);
+					}
+					out.println("</list>");
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not write the benchmark skills!", e);
+		}
+		_skills = true;
+		return skillPath.toFile();
+	}
+	
+	private static void writeSkill(PrintWriter out, int skillId)
+	{
+		out.println("\t<skill id=\"" + skillId + "\" levels=\"3\" name=\"Benchmark Buff " + skillId + "\">");
+		out.println("\t\t<table name=\"#abnormalLvl\"> 1 2 3 </table>");
+		out.println("\t\t<table name=\"#mpConsume\"> 20 28 35 </table>");
+		out.println("\t\t<table name=\"#pAtk\"> 1.08 1.12 1.15 </table>");
+		out.println("\t\t<table name=\"#pDef\"> 20 35 50 </table>");
+		out.println("\t\t<set name=\"abnormalLvl\" val=\"#abnormalLvl\" />");
+		out.println("\t\t<set name=\"abnormalTime\" val=\"1200\" />");
+		out.println("\t\t<set name=\"abnormalType\" val=\"" + ABNORMAL_TYPES[skillId % ABNORMAL_TYPES.length] + "\" />");
+		out.println("\t\t<set name=\"castRange\" val=\"400\" />");
+		out.println("\t\t<set name=\"effectPoint\" val=\"100\" />");
+		out.println("\t\t<set name=\"effectRange\" val=\"900\" />");
+		out.println("\t\t<set name=\"hitTime\" val=\"4000\" />");
+		out.println("\t\t<set name=\"icon\" val=\"icon.skill" + skillId + "\" />");
+		out.println("\t\t<set name=\"magicLvl\" val=\"40\" />");
+		out.println("\t\t<set name=\"mpConsume\" val=\"#mpConsume\" />");
+		out.println("\t\t<set name=\"operateType\" val=\"A2\" />");
+		out.println("\t\t<set name=\"reuseDelay\" val=\"2000\" />");
+		out.println("\t\t<set name=\"targetType\" val=\"ONE\" />");
+		out.println("\t\t<for>");
+		out.println("\t\t\t<effect name=\"Buff\">");
+		out.println("\t\t\t\t<mul stat=\"pAtk\" val=\"#pAtk\" />");
+		out.println("\t\t\t\t<add stat=\"pDef\" val=\"#pDef\" />");
+		out.println("\t\t\t</effect>");
+		out.println("\t\t</for>");
+		out.println("\t</skill>");
+	}
+	
+	/**
+	 * Writes the base stat bonus table, each point of a base stat above 30 giving one more percent.<br>
+	 * Must be called before the first use of {@link BaseStats}, creating a {@link BenchmarkCharacter} or the skills does it.
+	 */
+	public static synchronized void initStatBonus()
+	{
+		if (_statBonus)
+		{
+			return;
+		}
+		
+		final Path statsPath = getRoot().resolve("data/stats");
+		try
+		{
+			Files.createDirectories(statsPath);
+			try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(statsPath.resolve("statBonus.xml"), StandardCharsets.UTF_8)))
+			{
+				out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+				out.println("<list>");
+				for (String stat : new String[]
+				{
+					"STR",
+					"INT",
+					"DEX",
+					"WIT",
+					"CON",
+					"MEN"
+				})
+				{
+					out.println("\t<" + stat + ">");
+					for (int value = 1; value < BaseStats.MAX_STAT_VALUE; value++)
+					{
+						out.println("\t\t<stat value=\"" + value + "\" bonus=\"" + String.format(Locale.US, "%.4f", Math.pow(1.01, value - 30)) + "\" />");
+					}
+					out.println("\t</" + stat + ">");
+				}
+				out.println("</list>");
+			}
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not write the benchmark stat bonus!", e);
+		}
+		_statBonus = true;
+	}
+	
+	/**
+	 * Configures the buff limits and starts the game time and the effect thread pools, needed to add effects to characters.
+	 */
+	public static synchronized void initEffects()
+	{
+		if (_effects)
+		{
+			return;
+		}
+		
+		Config.BUFFS_MAX_AMOUNT = 20;
+		Config.TRIGGERED_BUFFS_MAX_AMOUNT = 12;
+		Config.DANCES_MAX_AMOUNT = 12;
+		Config.EFFECT_TICK_RATIO = 666;
+		Config.THREAD_P_EFFECTS = 2;
+		Config.THREAD_P_GENERAL = 2;
+		Config.THREAD_E_EVENTS = 1;
+		Config.GENERAL_PACKET_THREAD_CORE_SIZE = 1;
+		Config.IO_PACKET_THREAD_CORE_SIZE = 1;
+		Config.GENERAL_THREAD_CORE_SIZE = 1;
+		Config.AI_MAX_THREAD = 1;
+		Config.EVENT_MAX_THREAD = 1;
+		GameTimeController.init();
+		ThreadPoolManager.getInstance();
+		_effects = true;
+	}
+	
+	/**
+	 * Continuous effect applying the stat functions of its skill.
+	 */
+	public static final class Buff extends AbstractEffect
+	{
+		public Buff(Condition attachCond, Condition applyCond, StatsSet set, StatsSet params)
+		{
+			super(attachCond, applyCond, set, params);
+		}
+	}
+	
+	/**
+	 * Character without equipment nor AI, its calculators start empty.
+	 */
+	public static final class BenchmarkCharacter extends L2Character
+	{
+		private final int _level;
+		
+		public BenchmarkCharacter(int objectId, int level)
+		{
+			super(objectId, new L2CharTemplate(createTemplate()));
+			_level = level;
+		}
+		
+		private static StatsSet createTemplate()
+		{
+			initStatBonus();
+			final StatsSet set = new StatsSet();
+			set.set("baseSTR", 40);
+			set.set("baseCON", 43);
+			set.set("baseDEX", 30);
+			set.set("baseINT", 21);
+			set.set("baseWIT", 11);
+			set.set("baseMEN", 25);
+			set.set("baseHpMax", 1200);
+			set.set("baseMpMax", 600);
+			set.set("basePAtk", 300);
+			set.set("baseMAtk", 200);
+			set.set("basePDef", 250);
+			set.set("baseMDef", 180);
+			return set;
+		}
+		
+		@Override
+		public void updateAbnormalEffect()
+		{
+		}
+		
+		@Override
+		public L2ItemInstance getActiveWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public L2Weapon getActiveWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public L2ItemInstance getSecondaryWeaponInstance()
+		{
+			return null;
+		}
+		
+		@Override
+		public L2Item getSecondaryWeaponItem()
+		{
+			return null;
+		}
+		
+		@Override
+		public int getLevel()
+		{
+			return _level;
+		}
+		
+		@Override
+		public int getId()
+		{
+			return 0;
+		}
+		
+		@Override
+		public boolean isAutoAttackable(L2Character attacker)
+		{
+			return false;
+		}
+		
+		@Override
+		public void sendInfo(L2PcInstance activeChar)
+		{
+		}
+	}
+	
+	/**
+	 * Object which only takes place in the world.
+	 */
+	public static final class BenchmarkObject extends L2Object
+	{
+		public BenchmarkObject(int objectId)
+		{
+			super(objectId);
+		}
+		
+		@Override
+		public int getId()
+		{
+			return 0;
+		}
+		
+		@Override
+		public boolean isAutoAttackable(L2Character attacker)
+		{
+			return false;
+		}
+		
+		@Override
+		public void sendInfo(L2PcInstance activeChar)
+		{
+		}
+	}
+}
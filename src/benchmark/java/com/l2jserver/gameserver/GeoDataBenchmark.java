@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.data.xml.impl.DoorData;
+import com.l2jserver.gameserver.model.Location;
+
+/**
+ * Line of sight and movement checks on the synthetic geodata of {@link BenchmarkFixtures}.<br>
+ * Endpoints are random pairs at a fixed distance, about one pair out of two crossing a wall.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoDataBenchmark
+{
+	/** Number of endpoint pairs, cycled through. */
+	private static final int PAIRS = 4096;
+	/** Distance kept from the region borders. */
+	private static final int MARGIN = 4096;
+	
+	@Param(
+	{
+		"300",
+		"1500"
+	})
+	public int distance;
+	
+	/** With the cache, the pairs repeat and measure the cache hits. */
+	@Param(
+	{
+		"false",
+		"true"
+	})
+	public boolean losCache;
+	
+	private final int[] _x = new int[PAIRS];
+	private final int[] _y = new int[PAIRS];
+	private final int[] _tx = new int[PAIRS];
+	private final int[] _ty = new int[PAIRS];
+	private GeoData _geoData;
+	private int _index;
+	
+	@Setup
+	public void setUp()
+	{
+		BenchmarkFixtures.initGeoData();
+		Config.LOS_CACHE = losCache;
+		Config.LOS_CACHE_SIZE = 65536;
+		Config.LOS_CACHE_TTL = 60000;
+		_geoData = GeoData.getInstance();
+		DoorData.getInstance();
+		
+		final Random rnd = new Random(distance);
+		for (int i = 0; i < PAIRS; i++)
+		{
+			final double angle = rnd.nextDouble() * 2 * Math.PI;
+			_x[i] = BenchmarkFixtures.REGION_WORLD_X + MARGIN + rnd.nextInt(BenchmarkFixtures.REGION_SIZE - (2 * MARGIN));
+			_y[i] = BenchmarkFixtures.REGION_WORLD_Y + MARGIN + rnd.nextInt(BenchmarkFixtures.REGION_SIZE - (2 * MARGIN));
+			_tx[i] = _x[i] + (int) (Math.cos(angle) * distance);
+			_ty[i] = _y[i] + (int) (Math.sin(angle) * distance);
+		}
+	}
+	
+	private int next()
+	{
+		return _index = (_index + 1) & (PAIRS - 1);
+	}
+	
+	@Benchmark
+	public boolean canSeeTarget()
+	{
+		final int i = next();
+		return _geoData.canSeeTarget(_x[i], _y[i], BenchmarkFixtures.GROUND_Z, 0, _tx[i], _ty[i], BenchmarkFixtures.GROUND_Z);
+	}
+	
+	@Benchmark
+	public Location moveCheck()
+	{
+		final int i = next();
+		return _geoData.moveCheck(_x[i], _y[i], BenchmarkFixtures.GROUND_Z, _tx[i], _ty[i], BenchmarkFixtures.GROUND_Z, 0);
+	}
+}
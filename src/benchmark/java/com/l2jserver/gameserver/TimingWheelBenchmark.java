@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the {@link TimingWheel} against the {@link ScheduledThreadPoolExecutor} for the periodic character tasks.<br>
+ * Schedules a large number of fixed rate tasks (buff ticks, regeneration, AI think), then cancels and schedules them again from several threads as buffs and AI tasks do, and lets them run for a while.<br>
+ * Usage: TimingWheelBenchmark [tasks] [threads] [run seconds]
+ */
+public final class TimingWheelBenchmark
+{
+	private static final int POOL_THREADS = 4;
+	private static final long TICK = 50;
+	
+	private interface Scheduler
+	{
+		ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period);
+		
+		/**
+		 * @return the number of entries kept by the scheduler, cancelled tasks included
+		 */
+		int getQueuedEntries();
+		
+		void shutdown();
+	}
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		
+		System.out.println("Scheduling " + tasks + " fixed rate tasks from " + threads + " threads, running " + seconds + " seconds.");
+		for (int round = 0; round < 2; round++)
+		{
+			// The first round warms up both implementations.
+			final boolean print = round == 1;
+			run("ScheduledThreadPoolExecutor", tasks, threads, seconds, print, () ->
+			{
+				final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(POOL_THREADS);
+				return new Scheduler()
+				{
+					@Override
+					public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period)
+					{
+						return executor.scheduleAtFixedRate(task, initialDelay, period, TimeUnit.MILLISECONDS);
+					}
+					
+					@Override
+					public int getQueuedEntries()
+					{
+						return executor.getQueue().size();
+					}
+					
+					@Override
+					public void shutdown()
+					{
+						executor.shutdownNow();
+					}
+				};
+			});
+			run("TimingWheel", tasks, threads, seconds, print, () ->
+			{
+				final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(POOL_THREADS);
+				final TimingWheel wheel = new TimingWheel("TimingWheelBenchmark", TICK);
+				return new Scheduler()
+				{
+					@Override
+					public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period)
+					{
+						return wheel.scheduleAtFixedRate(task, executor, initialDelay, period);
+					}
+					
+					@Override
+					public int getQueuedEntries()
+					{
+						return wheel.getActiveTimers();
+					}
+					
+					@Override
+					public void shutdown()
+					{
+						wheel.shutdown();
+						executor.shutdownNow();
+					}
+				};
+			});
+		}
+		System.exit(0);
+	}
+	
+	private interface SchedulerFactory
+	{
+		Scheduler create();
+	}
+	
+	private static void run(String name, int tasks, int threads, int seconds, boolean print, SchedulerFactory factory) throws Exception
+	{
+		System.gc();
+		final Scheduler scheduler = factory.create();
+		final LongAdder executions = new LongAdder();
+		final Runnable task = executions::increment;
+		@SuppressWarnings("unchecked")
+		final List<ScheduledFuture<?>>[] futures = new List[threads];
+		
+		// Initial schedule, periods between 1 and 5 seconds as buff ticks, regeneration and AI tasks.
+		final long scheduleNanos = parallel(threads, thread ->
+		{
+			final ThreadLocalRandom rnd = ThreadLocalRandom.current();
+			futures[thread] = new ArrayList<>(tasks / threads);
+			for (int i = 0; i < (tasks / threads); i++)
+			{
+				final long period = 1000 + rnd.nextInt(4000);
+				futures[thread].add(scheduler.scheduleAtFixedRate(task, period, period));
+			}
+		});
+		
+		// Churn: every task is cancelled and scheduled again, as when buffs are replaced or AI tasks restarted.
+		final long churnNanos = parallel(threads, thread ->
+		{
+			final ThreadLocalRandom rnd = ThreadLocalRandom.current();
+			final List<ScheduledFuture<?>> list = futures[thread];
+			for (int i = 0; i < list.size(); i++)
+			{
+				list.get(i).cancel(false);
+				final long period = 1000 + rnd.nextInt(4000);
+				list.set(i, scheduler.scheduleAtFixedRate(task, period, period));
+			}
+		});
+		
+		final long start = System.nanoTime();
+		Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+		final int queued = scheduler.getQueuedEntries();
+		final double runSeconds = (System.nanoTime() - start) / 1e9;
+		final long executed = executions.sum();
+		
+		final long cancelNanos = parallel(threads, thread ->
+		{
+			for (ScheduledFuture<?> future : futures[thread])
+			{
+				future.cancel(false);
+			}
+		});
+		scheduler.shutdown();
+		
+		if (print)
+		{
+			final int done = (tasks / threads) * threads;
+			System.out.println(String.format("%-28s schedule %7.1f ns/op, cancel+schedule %7.1f ns/op, cancel %7.1f ns/op, %9.0f executions/s, %7d queued entries", name, scheduleNanos / (double) done, churnNanos / (double) done, cancelNanos / (double) done, executed / runSeconds, queued));
+		}
+	}
+	
+	private interface ThreadBody
+	{
+		void run(int thread);
+	}
+	
+	private static long parallel(int threads, ThreadBody body) throws InterruptedException
+	{
+		final List<Thread> list = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++)
+		{
+			final int thread = i;
+			list.add(new Thread(() -> body.run(thread)));
+		}
+		
+		final long start = System.nanoTime();
+		for (Thread thread : list)
+		{
+			thread.start();
+		}
+		for (Thread thread : list)
+		{
+			thread.join();
+		}
+		return System.nanoTime() - start;
+	}
+}
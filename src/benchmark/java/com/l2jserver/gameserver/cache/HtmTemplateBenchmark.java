@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.gameserver.util.Util;
+
+/**
+ * Rendering of a buffer page and extraction of its bypasses, with regular expression replacements and a rescan of the page against a {@link HtmTemplate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmTemplateBenchmark
+{
+	private static final int BUFFS = 60;
+	private static final String[] TOKENS =
+	{
+		"%objectId%",
+		"%playerName%",
+		"%adena%",
+		"%level%"
+	};
+	private static final String[] VALUES =
+	{
+		"268435456",
+		"Benchmark",
+		"1234567890",
+		"85"
+	};
+	
+	private String _html;
+	private HtmTemplate _template;
+	private final List<String> _tokens = new ArrayList<>();
+	private final List<String> _values = new ArrayList<>();
+	
+	@Setup
+	public void setUp()
+	{
+		final StringBuilder sb = new StringBuilder("<html><body>Welcome %playerName% (level %level%), you have %adena% adena.<br><table>");
+		for (int i = 0; i < BUFFS; i++)
+		{
+			sb.append("<tr><td><button value=\"Buff ").append(i).append("\" action=\"bypass -h npc_%objectId%_buff ").append(i).append("\" width=120 height=25 back=\"L2UI_ct1.button_df\" fore=\"L2UI_ct1.button_df\"></td></tr>");
+		}
+		sb.append("</table><a action=\"link default/buffer-help.htm\">Help</a></body></html>");
+		_html = sb.toString();
+		_template = new HtmTemplate(_html);
+		for (int i = 0; i < TOKENS.length; i++)
+		{
+			_tokens.add(TOKENS[i]);
+			_values.add(VALUES[i]);
+		}
+	}
+	
+	@Benchmark
+	public int replaceAll()
+	{
+		String html = _html;
+		for (int i = 0; i < TOKENS.length; i++)
+		{
+			html = html.replaceAll(TOKENS[i], VALUES[i].replaceAll("\\$", "\\\\\\$"));
+		}
+		
+		// The bypass scan of Util.buildHtmlActionCache.
+		int actions = 0;
+		final String htmlLower = html.toLowerCase(Locale.ENGLISH);
+		int start = htmlLower.indexOf("=\"bypass ");
+		while (start != -1)
+		{
+			final int end = htmlLower.indexOf('"', start + 9);
+			actions += Util.parseHtmlBypass(html.substring(start + 9, end)).length();
+			start = htmlLower.indexOf("=\"bypass ", end);
+		}
+		return html.length() + actions;
+	}
+	
+	@Benchmark
+	public int template()
+	{
+		final String html = _template.render(_tokens, _values);
+		int actions = 0;
+		for (String action : _template.getActions(_tokens, _values))
+		{
+			actions += action.length();
+		}
+		return html.length() + actions;
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.engines;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.BenchmarkFixtures;
+
+/**
+ * Parsing of skill files, the bulk of the startup of the server.<br>
+ * Also compares parsing the XML with a cold XML snapshot cache, written on every load, and with a warm one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentEngineBenchmark
+{
+	private static final int FILES = 10;
+	private static final int SKILLS_PER_FILE = 100;
+	
+	private File[] _files;
+	
+	/**
+	 * Empties the snapshot cache before each load.
+	 */
+	@State(Scope.Thread)
+	public static class ColdCache
+	{
+		@Setup(Level.Invocation)
+		public void clear() throws IOException
+		{
+			final Path cache = new File(Config.XML_SNAPSHOT_CACHE_PATH).toPath();
+			if (Files.exists(cache))
+			{
+				try (Stream<Path> paths = Files.walk(cache))
+				{
+					paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+				}
+			}
+		}
+	}
+	
+	@Setup
+	public void setUp()
+	{
+		_files = BenchmarkFixtures.initSkills(FILES, SKILLS_PER_FILE).listFiles();
+		Config.XML_SNAPSHOT_CACHE_PATH = new File(Config.DATAPACK_ROOT, "xmlcache").getPath();
+		DocumentEngine.getInstance();
+	}
+	
+	@Benchmark
+	public int loadSkills()
+	{
+		Config.XML_SNAPSHOT_CACHE = false;
+		return load();
+	}
+	
+	@Benchmark
+	public int loadSkillsColdCache(ColdCache cache)
+	{
+		Config.XML_SNAPSHOT_CACHE = true;
+		return load();
+	}
+	
+	@Benchmark
+	public int loadSkillsWarmCache()
+	{
+		Config.XML_SNAPSHOT_CACHE = true;
+		return load();
+	}
+	
+	private int load()
+	{
+		int skills = 0;
+		for (File file : _files)
+		{
+			skills += DocumentEngine.getInstance().loadSkills(file).size();
+		}
+		return skills;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.instancemanager;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.gameserver.model.entity.Message;
+
+/**
+ * Compares the {@link MailIndex} of the mail manager against the scan of all stored messages it used to do, for the unread check of each login and the inbox and outbox of a character.<br>
+ * Messages are sent between {@link #CHARACTERS} characters, a third of them are read and a tenth deleted by their receiver.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MailIndexBenchmark
+{
+	private static final int CHARACTERS = 20000;
+	/** Number of lookups, cycled through. */
+	private static final int LOOKUPS = 1024;
+	
+	@Param(
+	{
+		"10000",
+		"500000"
+	})
+	public int messages;
+	
+	private final Map<Integer, Message> _messages = new ConcurrentHashMap<>();
+	private final MailIndex _index = new MailIndex();
+	private final int[] _objectIds = new int[LOOKUPS];
+	private int _i;
+	
+	@Setup
+	public void setUp() throws SQLException
+	{
+		final Random rnd = new Random(messages);
+		final Map<String, Object> row = new HashMap<>();
+		final ResultSet rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]
+		{
+			ResultSet.class
+		}, (proxy, method, args) -> row.get(args[0]));
+		for (int i = 0; i < messages; i++)
+		{
+			row.put("messageId", 0x10000000 + i);
+			row.put("senderId", 0x20000000 + rnd.nextInt(CHARACTERS));
+			row.put("receiverId", 0x20000000 + rnd.nextInt(CHARACTERS));
+			row.put("subject", "Subject");
+			row.put("content", "Content");
+			row.put("expiration", Long.MAX_VALUE);
+			row.put("reqAdena", 0L);
+			row.put("hasAttachments", false);
+			row.put("isUnread", (i % 3) != 0);
+			row.put("isDeletedBySender", false);
+			row.put("isDeletedByReceiver", (i % 10) == 0);
+			row.put("sendBySystem", 0);
+			row.put("isReturned", false);
+			final Message msg = new Message(rs);
+			_messages.put(msg.getId(), msg);
+			_index.add(msg);
+		}
+		
+		for (int i = 0; i < LOOKUPS; i++)
+		{
+			_objectIds[i] = 0x20000000 + rnd.nextInt(CHARACTERS);
+		}
+	}
+	
+	private int next()
+	{
+		return _objectIds[_i = (_i + 1) & (LOOKUPS - 1)];
+	}
+	
+	@Benchmark
+	public boolean indexHasUnreadPost()
+	{
+		return _index.getUnreadCount(next()) > 0;
+	}
+	
+	@Benchmark
+	public boolean scanHasUnreadPost()
+	{
+		final int objectId = next();
+		for (Message msg : _messages.values())
+		{
+			if ((msg != null) && (msg.getReceiverId() == objectId) && msg.isUnread())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Benchmark
+	public int indexInboxSize()
+	{
+		return _index.getInboxSize(next());
+	}
+	
+	@Benchmark
+	public int scanInboxSize()
+	{
+		final int objectId = next();
+		int size = 0;
+		for (Message msg : _messages.values())
+		{
+			if ((msg != null) && (msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver())
+			{
+				size++;
+			}
+		}
+		return size;
+	}
+	
+	@Benchmark
+	public List<Message> indexGetOutbox()
+	{
+		return _index.getOutbox(next());
+	}
+	
+	@Benchmark
+	public List<Message> scanGetOutbox()
+	{
+		final int objectId = next();
+		final List<Message> outbox = new ArrayList<>();
+		for (Message msg : _messages.values())
+		{
+			if ((msg != null) && (msg.getSenderId() == objectId) && !msg.isDeletedBySender())
+			{
+				outbox.add(msg);
+			}
+		}
+		return outbox;
+	}
+}
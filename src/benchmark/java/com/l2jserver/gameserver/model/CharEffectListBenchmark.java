@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.gameserver.BenchmarkFixtures;
+import com.l2jserver.gameserver.BenchmarkFixtures.BenchmarkCharacter;
+import com.l2jserver.gameserver.engines.DocumentEngine;
+import com.l2jserver.gameserver.model.effects.AbstractEffect;
+import com.l2jserver.gameserver.model.skills.BuffInfo;
+import com.l2jserver.gameserver.model.skills.EffectScope;
+import com.l2jserver.gameserver.model.skills.Skill;
+
+/**
+ * Adding and removing a buff on a character already holding a number of other buffs.<br>
+ * Each buff brings stat functions, so this includes the update of the calculators.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharEffectListBenchmark
+{
+	/** Number of skills loaded, each of its own abnormal type. */
+	private static final int SKILLS = 50;
+	/** Number of distinct buffs added and removed, cycled through. */
+	private static final int PROBES = 16;
+	
+	/** Number of buffs the character holds. */
+	@Param(
+	{
+		"0",
+		"18"
+	})
+	public int buffs;
+	
+	private final Skill[] _probes = new Skill[PROBES];
+	private BenchmarkCharacter _character;
+	private int _index;
+	
+	@Setup
+	public void setUp()
+	{
+		BenchmarkFixtures.initEffects();
+		final List<Skill> skills = DocumentEngine.getInstance().loadSkills(BenchmarkFixtures.initSkills(1, SKILLS).listFiles()[0]);
+		
+		// Skills are listed level by level, the held buffs and the probes are of distinct skills.
+		_character = new BenchmarkCharacter(1, 80);
+		for (int i = 0; i < buffs; i++)
+		{
+			_character.getEffectList().add(createBuff(skills.get(i * 3)));
+		}
+		for (int i = 0; i < PROBES; i++)
+		{
+			_probes[i] = skills.get((SKILLS - PROBES - 1 + i) * 3);
+		}
+	}
+	
+	private BuffInfo createBuff(Skill skill)
+	{
+		final BuffInfo info = new BuffInfo(_character, _character, skill);
+		for (AbstractEffect effect : skill.getEffects(EffectScope.GENERAL))
+		{
+			info.addEffect(effect);
+		}
+		return info;
+	}
+	
+	@Benchmark
+	public BuffInfo addRemove()
+	{
+		_index = (_index + 1) % PROBES;
+		final BuffInfo info = createBuff(_probes[_index]);
+		_character.getEffectList().add(info);
+		_character.getEffectList().remove(true, info);
+		return info;
+	}
+}
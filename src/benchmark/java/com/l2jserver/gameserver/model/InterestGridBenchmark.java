@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+import com.l2jserver.gameserver.model.actor.knownlist.ObjectKnownList;
+import com.l2jserver.gameserver.taskmanager.KnownListUpdateTaskManager;
+
+/**
+ * Compares the region based knownlist update against the {@link InterestGrid}.<br>
+ * Simulates a crowd of players walking randomly inside one area, and measures the CPU time and the allocations of one knownlist update per movement step.<br>
+ * Each moving player reads its known list after its step, as a broadcast of the move does, which brings it up to date with the interest grid.<br>
+ * Usage: InterestGridBenchmark [players] [passes] [moving percent]
+ */
+public final class InterestGridBenchmark
+{
+	private static final int CENTER_X = 83000;
+	private static final int CENTER_Y = 148000;
+	private static final int CENTER_Z = -3400;
+	private static final int AREA_SIZE = 6000;
+	/** Distance walked between two updates, a running player during KnownListUpdateInterval. */
+	private static final int STEP = 200;
+	private static final int WARMUP_PASSES = 10;
+	
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
+	/**
+	 * Known list with the watch and forget distances of a player in a crowded area.
+	 */
+	private static final class CrowdKnownList extends ObjectKnownList
+	{
+		public CrowdKnownList(L2Object activeObject)
+		{
+			super(activeObject);
+		}
+		
+		@Override
+		public int getDistanceToWatchObject(L2Object object)
+		{
+			return 1700;
+		}
+		
+		@Override
+		public int getDistanceToForgetObject(L2Object object)
+		{
+			return 2310;
+		}
+	}
+	
+	private static final class CrowdObject extends L2Object
+	{
+		public CrowdObject(int objectId)
+		{
+			super(objectId);
+		}
+		
+		@Override
+		public void initKnownList()
+		{
+			setKnownList(new CrowdKnownList(this));
+		}
+		
+		@Override
+		public int getId()
+		{
+			return 0;
+		}
+		
+		@Override
+		public boolean isAutoAttackable(L2Character attacker)
+		{
+			return false;
+		}
+		
+		@Override
+		public void sendInfo(L2PcInstance activeChar)
+		{
+		}
+	}
+	
+	private static final class Result
+	{
+		long updateNanos;
+		long moveNanos;
+		long readNanos;
+		long allocatedBytes;
+		long knownObjects;
+		int passes;
+		int players;
+		
+		@Override
+		public String toString()
+		{
+			return String.format("update %8.3f ms/pass, read %8.3f ms/pass, move %6.3f ms/pass, allocated %10.1f KB/pass, average known %6.1f", (updateNanos / 1e6) / passes, (readNanos / 1e6) / passes, (moveNanos / 1e6) / passes, (allocatedBytes / 1024.0) / passes, knownObjects / ((double) passes * players));
+		}
+	}
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int players = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		final int passes = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+		final int moving = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+		
+		Config.GRIDS_ALWAYS_ON = true;
+		Config.INTEREST_GRID_CELL_SIZE = 512;
+		Config.INTEREST_GRID_SCAN_RANGE = 4096;
+		Config.INTEREST_GRID_DIRTY_DISTANCE = 256;
+		Config.KNOWNLIST_UPDATE_INTERVAL = TimeUnit.DAYS.toMillis(1);
+		// The manager schedules its own pass once after one second, let it run on the empty world.
+		KnownListUpdateTaskManager.getInstance();
+		Thread.sleep(1500);
+		
+		System.out.println("Simulating " + players + " players in a " + AREA_SIZE + "x" + AREA_SIZE + " area, " + passes + " passes, " + moving + "% moving.");
+		final Result regions = run(players, passes, moving, false);
+		System.out.println("Region knownlist: " + regions);
+		final Result grid = run(players, passes, moving, true);
+		System.out.println("Interest grid:    " + grid);
+		System.out.println(String.format("Update speedup: %.2fx, update and read speedup: %.2fx, allocation ratio: %.2f", regions.updateNanos / (double) grid.updateNanos, (regions.updateNanos + regions.readNanos) / (double) (grid.updateNanos + grid.readNanos), grid.allocatedBytes / (double) Math.max(1, regions.allocatedBytes)));
+		System.exit(0);
+	}
+	
+	private static Result run(int players, int passes, int moving, boolean useGrid)
+	{
+		Config.INTEREST_GRID = useGrid;
+		
+		final Random rnd = new Random(players);
+		final List<L2Object> objects = new ArrayList<>(players);
+		for (int i = 0; i < players; i++)
+		{
+			final L2Object object = new CrowdObject(0x10000000 + i);
+			object.spawnMe(CENTER_X + rnd.nextInt(AREA_SIZE), CENTER_Y + rnd.nextInt(AREA_SIZE), CENTER_Z);
+			objects.add(object);
+		}
+		
+		final Result result = new Result();
+		result.players = players;
+		boolean forgetPass = true;
+		for (int pass = 0; pass < (WARMUP_PASSES + passes); pass++)
+		{
+			final boolean measured = pass >= WARMUP_PASSES;
+			
+			long start = System.nanoTime();
+			for (int i = 0; i < ((players * moving) / 100); i++)
+			{
+				final L2Object object = objects.get(i);
+				final int x = Math.max(CENTER_X, Math.min(CENTER_X + AREA_SIZE, (object.getX() + rnd.nextInt(2 * STEP)) - STEP));
+				final int y = Math.max(CENTER_Y, Math.min(CENTER_Y + AREA_SIZE, (object.getY() + rnd.nextInt(2 * STEP)) - STEP));
+				object.setXYZ(x, y, CENTER_Z);
+			}
+			final long moveNanos = System.nanoTime() - start;
+			
+			final long allocated = THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+			start = System.nanoTime();
+			for (int i = 0; i < ((players * moving) / 100); i++)
+			{
+				objects.get(i).getKnownList().getKnownObjects();
+			}
+			final long readNanos = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			if (useGrid)
+			{
+				InterestGrid.getInstance().updateDirtyObjects();
+			}
+			else
+			{
+				// Players always scan all the surrounding regions, as a full update does.
+				for (L2WorldRegion[] column : L2World.getInstance().getWorldRegions())
+				{
+					for (L2WorldRegion region : column)
+					{
+						if (!region.getVisibleObjects().isEmpty())
+						{
+							KnownListUpdateTaskManager.getInstance().updateRegion(region, true, forgetPass);
+						}
+					}
+				}
+				forgetPass = !forgetPass;
+			}
+			final long updateNanos = System.nanoTime() - start;
+			
+			if (measured)
+			{
+				result.updateNanos += updateNanos;
+				result.moveNanos += moveNanos;
+				result.readNanos += readNanos;
+				result.allocatedBytes += THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+				for (L2Object object : objects)
+				{
+					result.knownObjects += object.getKnownList().getKnownObjects().size();
+				}
+				result.passes++;
+			}
+		}
+		
+		for (L2Object object : objects)
+		{
+			object.decayMe();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.BenchmarkFixtures.BenchmarkObject;
+
+/**
+ * Visible object scans around objects of a crowded area, the query of skill targets and of aggression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class L2WorldBenchmark
+{
+	private static final int CENTER_X = 83000;
+	private static final int CENTER_Y = 148000;
+	private static final int CENTER_Z = -3400;
+	private static final int AREA_SIZE = 6000;
+	
+	/** Number of objects in the area. */
+	@Param(
+	{
+		"1000",
+		"10000"
+	})
+	public int objects;
+	
+	@Param(
+	{
+		"300",
+		"1000"
+	})
+	public int radius;
+	
+	private L2Object[] _objects;
+	private int _index;
+	
+	@Setup
+	public void setUp()
+	{
+		Config.GRIDS_ALWAYS_ON = true;
+		
+		final Random rnd = new Random(objects);
+		_objects = new L2Object[objects];
+		for (int i = 0; i < objects; i++)
+		{
+			_objects[i] = new BenchmarkObject(0x10000000 + i);
+			_objects[i].spawnMe(CENTER_X + rnd.nextInt(AREA_SIZE), CENTER_Y + rnd.nextInt(AREA_SIZE), CENTER_Z);
+		}
+	}
+	
+	@Benchmark
+	public List<L2Object> getVisibleObjects()
+	{
+		_index = (_index + 1) % objects;
+		return L2World.getInstance().getVisibleObjects(_objects[_index], radius);
+	}
+}
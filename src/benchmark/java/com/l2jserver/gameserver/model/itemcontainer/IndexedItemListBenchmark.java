@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.itemcontainer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.gameserver.model.StatsSet;
+import com.l2jserver.gameserver.model.items.L2EtcItem;
+import com.l2jserver.gameserver.model.items.L2Item;
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Compares the {@link IndexedItemList} of the item containers against the copy on write list they used to scan, from an inventory to a clan warehouse.<br>
+ * Items are of {@link #TEMPLATES} item ids, the stacks and equipment of a player.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexedItemListBenchmark
+{
+	private static final int TEMPLATES = 256;
+	/** Number of lookups, cycled through. */
+	private static final int LOOKUPS = 1024;
+	
+	@Param(
+	{
+		"100",
+		"1000",
+		"10000"
+	})
+	public int items;
+	
+	private final IndexedItemList _indexed = new IndexedItemList();
+	private final List<L2ItemInstance> _list = new CopyOnWriteArrayList<>();
+	private final int[] _objectIds = new int[LOOKUPS];
+	private final int[] _itemIds = new int[LOOKUPS];
+	private L2ItemInstance _extra;
+	private int _index;
+	
+	@Setup
+	public void setUp()
+	{
+		final L2Item[] templates = new L2Item[TEMPLATES + 1];
+		for (int i = 0; i < templates.length; i++)
+		{
+			final StatsSet set = new StatsSet();
+			set.set("item_id", 1 + i);
+			set.set("name", "Benchmark Item " + (1 + i));
+			templates[i] = new L2EtcItem(set);
+		}
+		
+		for (int i = 0; i < items; i++)
+		{
+			final L2ItemInstance item = new L2ItemInstance(0x10000000 + i, templates[i % TEMPLATES]);
+			_indexed.add(item);
+			_list.add(item);
+		}
+		_extra = new L2ItemInstance(0x10000000 + items, templates[TEMPLATES]);
+		
+		final Random rnd = new Random(items);
+		for (int i = 0; i < LOOKUPS; i++)
+		{
+			_objectIds[i] = 0x10000000 + rnd.nextInt(items);
+			_itemIds[i] = 1 + rnd.nextInt(Math.min(items, TEMPLATES));
+		}
+	}
+	
+	private int next()
+	{
+		return _index = (_index + 1) & (LOOKUPS - 1);
+	}
+	
+	@Benchmark
+	public L2ItemInstance indexedGetByObjectId()
+	{
+		return _indexed.getByObjectId(_objectIds[next()]);
+	}
+	
+	@Benchmark
+	public L2ItemInstance listGetByObjectId()
+	{
+		final int objectId = _objectIds[next()];
+		for (L2ItemInstance item : _list)
+		{
+			if (item.getObjectId() == objectId)
+			{
+				return item;
+			}
+		}
+		return null;
+	}
+	
+	@Benchmark
+	public L2ItemInstance indexedGetByItemId()
+	{
+		return _indexed.getFirstByItemId(_itemIds[next()]);
+	}
+	
+	@Benchmark
+	public L2ItemInstance listGetByItemId()
+	{
+		final int itemId = _itemIds[next()];
+		for (L2ItemInstance item : _list)
+		{
+			if (item.getId() == itemId)
+			{
+				return item;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * An item picked up then used up.
+	 */
+	@Benchmark
+	public boolean indexedAddRemove()
+	{
+		_indexed.add(_extra);
+		return _indexed.remove(_extra);
+	}
+	
+	@Benchmark
+	public boolean listAddRemove()
+	{
+		_list.add(_extra);
+		return _list.remove(_extra);
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.stats;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.BenchmarkFixtures;
+import com.l2jserver.gameserver.BenchmarkFixtures.BenchmarkCharacter;
+import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
+import com.l2jserver.gameserver.model.stats.functions.FuncAdd;
+import com.l2jserver.gameserver.model.stats.functions.FuncMul;
+import com.l2jserver.gameserver.model.stats.functions.formulas.FuncPAtkMod;
+
+/**
+ * Stat calculation through function chains of growing length, the functions of the equipment, buffs and passives of a character.<br>
+ * Measures the bare {@link Calculator} and the stat of a character, without and with the stat cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark
+{
+	private static final double BASE_PATK = 300;
+	
+	/** Number of functions of the chain. */
+	@Param(
+	{
+		"4",
+		"16",
+		"64"
+	})
+	public int funcs;
+	
+	private final Calculator _calculator = new Calculator();
+	private BenchmarkCharacter _character;
+	private BenchmarkCharacter _cachedCharacter;
+	
+	@Setup
+	public void setUp()
+	{
+		BenchmarkFixtures.initStatBonus();
+		Config.STAT_CACHE = false;
+		_character = createCharacter(1);
+		Config.STAT_CACHE = true;
+		_cachedCharacter = createCharacter(2);
+		
+		for (AbstractFunction function : createFunctions(_calculator))
+		{
+			_calculator.addFunc(function);
+		}
+	}
+	
+	private BenchmarkCharacter createCharacter(int objectId)
+	{
+		final BenchmarkCharacter character = new BenchmarkCharacter(objectId, 80);
+		character.addStatFunc(FuncPAtkMod.getInstance());
+		for (AbstractFunction function : createFunctions(character))
+		{
+			character.addStatFunc(function);
+		}
+		return character;
+	}
+	
+	/**
+	 * @return additions and multiplications alternating, with the orders of the functions of item and skill templates
+	 */
+	private AbstractFunction[] createFunctions(Object owner)
+	{
+		final AbstractFunction[] functions = new AbstractFunction[funcs];
+		for (int i = 0; i < funcs; i++)
+		{
+			functions[i] = (i % 2) == 0 ? new FuncMul(Stats.POWER_ATTACK, 0x30, owner, 1.01 + (i * 0.001), null) : new FuncAdd(Stats.POWER_ATTACK, 0x40, owner, 10 + i, null);
+		}
+		return functions;
+	}
+	
+	@Benchmark
+	public double calc()
+	{
+		return _calculator.calc(_character, null, null, BASE_PATK);
+	}
+	
+	@Benchmark
+	public double calcStat()
+	{
+		return _character.getStat().calcStat(Stats.POWER_ATTACK, BASE_PATK, null, null);
+	}
+	
+	@Benchmark
+	public double calcStatCached()
+	{
+		return _cachedCharacter.getStat().calcStat(Stats.POWER_ATTACK, BASE_PATK, null, null);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Packet encryption and decryption of the game client connection, for packet sizes from a movement request to a full item list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameCryptBenchmark
+{
+	@Param(
+	{
+		"16",
+		"256",
+		"4096"
+	})
+	public int size;
+	
+	private final GameCrypt _crypt = new GameCrypt();
+	private byte[] _packet;
+	
+	@Setup
+	public void setUp()
+	{
+		final Random rnd = new Random(size);
+		final byte[] key = new byte[16];
+		rnd.nextBytes(key);
+		_crypt.setKey(key);
+		// The first packet sent, the key packet, is not encrypted and enables the encryption.
+		_crypt.encrypt(new byte[0], 0, 0);
+		
+		_packet = new byte[size];
+		rnd.nextBytes(_packet);
+	}
+	
+	@Benchmark
+	public byte[] encrypt()
+	{
+		_crypt.encrypt(_packet, 0, size);
+		return _packet;
+	}
+	
+	@Benchmark
+	public byte[] decrypt()
+	{
+		_crypt.decrypt(_packet, 0, size);
+		return _packet;
+	}
+}
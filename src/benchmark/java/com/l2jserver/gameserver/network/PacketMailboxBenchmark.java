@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.l2jserver.gameserver.enums.PacketLane;
+import com.l2jserver.mmocore.ReceivablePacket;
+
+/**
+ * Queuing and running a burst of packets of a game client, with the lock based queue and with the {@link PacketMailbox}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketMailboxBenchmark
+{
+	private static final class NoPacket extends ReceivablePacket<L2GameClient>
+	{
+		public NoPacket()
+		{
+		}
+		
+		@Override
+		protected boolean read()
+		{
+			return true;
+		}
+		
+		@Override
+		public void run()
+		{
+		}
+	}
+	
+	@Param(
+	{
+		"1",
+		"8"
+	})
+	public int burst;
+	
+	private final NoPacket _packet = new NoPacket();
+	private ArrayBlockingQueue<ReceivablePacket<L2GameClient>> _queue;
+	private final ReentrantLock _queueLock = new ReentrantLock();
+	private PacketMailbox _mailbox;
+	
+	@Setup
+	public void setUp()
+	{
+		_queue = new ArrayBlockingQueue<>(burst + 2);
+		_mailbox = new PacketMailbox(burst + 2, new ClientStats());
+	}
+	
+	@Benchmark
+	public void lockedQueue(Blackhole bh)
+	{
+		for (int i = 0; i < burst; i++)
+		{
+			_queue.offer(_packet);
+			bh.consume(_queueLock.isLocked());
+		}
+		
+		_queueLock.tryLock();
+		try
+		{
+			ReceivablePacket<L2GameClient> packet;
+			while ((packet = _queue.poll()) != null)
+			{
+				bh.consume(packet);
+			}
+		}
+		finally
+		{
+			_queueLock.unlock();
+		}
+	}
+	
+	@Benchmark
+	public void mailbox(Blackhole bh)
+	{
+		for (int i = 0; i < burst; i++)
+		{
+			_mailbox.offer(_packet, (i & 1) == 0 ? PacketLane.ACTION : PacketLane.NORMAL);
+			bh.consume(_mailbox.schedule());
+		}
+		
+		ReceivablePacket<L2GameClient> packet;
+		do
+		{
+			while ((packet = _mailbox.poll()) != null)
+			{
+				bh.consume(packet);
+			}
+		}
+		while (_mailbox.unschedule());
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.pathfinding.cellnodes;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.l2jserver.gameserver.BenchmarkFixtures;
+import com.l2jserver.gameserver.GeoData;
+import com.l2jserver.gameserver.data.xml.impl.DoorData;
+import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
+
+/**
+ * Path searches on the synthetic geodata of {@link BenchmarkFixtures}.<br>
+ * Searches go from one side of a wall to the other, so they have to find one of its gaps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellPathFindingBenchmark
+{
+	/** Number of searches, cycled through. */
+	private static final int SEARCHES = 256;
+	/** Width of a geodata block in world units. */
+	private static final int BLOCK_SIZE = 128;
+	
+	/** Distance from the start to the wall, and from the wall to the destination. */
+	@Param(
+	{
+		"200",
+		"800"
+	})
+	public int distance;
+	
+	private final int[] _x = new int[SEARCHES];
+	private final int[] _y = new int[SEARCHES];
+	private final int[] _tx = new int[SEARCHES];
+	private final int[] _ty = new int[SEARCHES];
+	private CellPathFinding _pathFinding;
+	private int _index;
+	
+	@Setup
+	public void setUp()
+	{
+		BenchmarkFixtures.initGeoData();
+		GeoData.getInstance();
+		DoorData.getInstance();
+		_pathFinding = CellPathFinding.getInstance();
+		
+		final Random rnd = new Random(distance);
+		final int walls = (BenchmarkFixtures.REGION_SIZE / BLOCK_SIZE / BenchmarkFixtures.WALL_SPACING) - 2;
+		for (int i = 0; i < SEARCHES; i++)
+		{
+			// The middle of the wall blocks of a random wall.
+			final int wallX = BenchmarkFixtures.REGION_WORLD_X + ((((1 + rnd.nextInt(walls)) * BenchmarkFixtures.WALL_SPACING) + (BenchmarkFixtures.WALL_SPACING / 2)) * BLOCK_SIZE) + (BLOCK_SIZE / 2);
+			_x[i] = wallX - distance;
+			_tx[i] = wallX + distance;
+			_y[i] = BenchmarkFixtures.REGION_WORLD_Y + BenchmarkFixtures.REGION_SIZE / 4 + rnd.nextInt(BenchmarkFixtures.REGION_SIZE / 2);
+			_ty[i] = _y[i] + rnd.nextInt(2 * BLOCK_SIZE) - BLOCK_SIZE;
+		}
+	}
+	
+	@Benchmark
+	public List<AbstractNodeLoc> findPath()
+	{
+		final int i = _index = (_index + 1) & (SEARCHES - 1);
+		return _pathFinding.findPath(_x[i], _y[i], BenchmarkFixtures.GROUND_Z, _tx[i], _ty[i], BenchmarkFixtures.GROUND_Z, 0, true);
+	}
+}
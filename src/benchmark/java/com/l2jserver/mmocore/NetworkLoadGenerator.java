@@ -0,0 +1,416 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.mmocore;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Loopback load generator of the network engine.<br>
+ * Starts a {@link SelectorThread} and connects thousands of fake clients to it. Each client sends a ping at a fixed interval, the server answers with a pong and broadcasts a shared movement packet to random clients, as a player moving in a crowd does.<br>
+ * Reports the packet rates, the ping round trip times and the statistics of the engine.<br>
+ * Usage: NetworkLoadGenerator [clients] [seconds] [selector threads, 0 for one per processor] [ping interval ms] [broadcast fanout] [client threads]
+ */
+public final class NetworkLoadGenerator
+{
+	private static final int PORT = 17777;
+	private static final int PING = 0x01;
+	private static final int PONG = 0x02;
+	private static final int MOVE = 0x03;
+	/** Round trip time histogram resolution, in microseconds. */
+	private static final int BUCKET_MICROS = 10;
+	private static final int BUCKETS = 100000;
+	
+	protected static AtomicReferenceArray<LoadClient> _clients;
+	protected static final AtomicInteger _clientCount = new AtomicInteger();
+	protected static int _fanout;
+	
+	/**
+	 * Server side client, without encryption.
+	 */
+	protected static final class LoadClient extends MMOClient<MMOConnection<LoadClient>>
+	{
+		public LoadClient(MMOConnection<LoadClient> con)
+		{
+			super(con);
+		}
+		
+		@Override
+		public boolean decrypt(ByteBuffer buf, int size)
+		{
+			return true;
+		}
+		
+		@Override
+		public boolean encrypt(ByteBuffer buf, int size)
+		{
+			buf.position(buf.position() + size);
+			return true;
+		}
+		
+		@Override
+		protected void onDisconnection()
+		{
+		}
+		
+		@Override
+		protected void onForcedDisconnection()
+		{
+		}
+	}
+	
+	protected static final class Ping extends ReceivablePacket<LoadClient>
+	{
+		private long _time;
+		
+		@Override
+		protected boolean read()
+		{
+			_time = readQ();
+			return true;
+		}
+		
+		@Override
+		public void run()
+		{
+			getClient().getConnection().sendPacket(new Pong(_time));
+			
+			final Move move = new Move(_time);
+			final ThreadLocalRandom rnd = ThreadLocalRandom.current();
+			final int count = _clientCount.get();
+			for (int i = 0; (i < _fanout) && (count > 0); i++)
+			{
+				final LoadClient client = _clients.get(rnd.nextInt(count));
+				if (client != null)
+				{
+					client.getConnection().sendPacket(move);
+				}
+			}
+		}
+	}
+	
+	protected static final class Pong extends SendablePacket<LoadClient>
+	{
+		private final long _time;
+		
+		public Pong(long time)
+		{
+			_time = time;
+		}
+		
+		@Override
+		protected void write()
+		{
+			writeC(PONG);
+			writeQ(_time);
+		}
+	}
+	
+	/**
+	 * Shared by all clients it is broadcast to, the size of a movement packet.
+	 */
+	protected static final class Move extends SendablePacket<LoadClient>
+	{
+		private final long _seed;
+		
+		public Move(long seed)
+		{
+			_seed = seed;
+		}
+		
+		@Override
+		protected void write()
+		{
+			writeC(MOVE);
+			writeD((int) _seed);
+			writeD((int) (_seed >>> 8));
+			writeD((int) (_seed >>> 16));
+			writeD((int) (_seed >>> 24));
+			writeD((int) (_seed >>> 32));
+			writeD((int) (_seed >>> 40));
+			writeD((int) (_seed >>> 48));
+		}
+	}
+	
+	protected static final class LoadHandler implements IPacketHandler<LoadClient>, IClientFactory<LoadClient>, IMMOExecutor<LoadClient>
+	{
+		private final ExecutorService _pool;
+		
+		public LoadHandler(ExecutorService pool)
+		{
+			_pool = pool;
+		}
+		
+		@Override
+		public ReceivablePacket<LoadClient> handlePacket(ByteBuffer buf, LoadClient client)
+		{
+			return (buf.get() & 0xFF) == PING ? new Ping() : null;
+		}
+		
+		@Override
+		public LoadClient create(MMOConnection<LoadClient> con)
+		{
+			final LoadClient client = new LoadClient(con);
+			_clients.set(_clientCount.getAndIncrement(), client);
+			return client;
+		}
+		
+		@Override
+		public void execute(ReceivablePacket<LoadClient> packet)
+		{
+			_pool.execute(packet);
+		}
+	}
+	
+	/**
+	 * Client side connection.
+	 */
+	private static final class FakeClient
+	{
+		protected final SocketChannel _channel;
+		protected final ByteBuffer _in = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+		protected final ByteBuffer _out = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+		protected long _nextPing;
+		
+		protected FakeClient(SocketChannel channel, long nextPing)
+		{
+			_channel = channel;
+			_nextPing = nextPing;
+			_out.flip();
+		}
+	}
+	
+	/**
+	 * Drives a share of the fake clients on one selector.
+	 */
+	private static final class ClientThread extends Thread
+	{
+		private final Selector _selector;
+		private final List<FakeClient> _fakeClients = new ArrayList<>();
+		private final long _interval;
+		protected long _end;
+		protected final long[] _histogram = new long[BUCKETS + 1];
+		protected long _pings;
+		protected long _pongs;
+		protected long _moves;
+		protected long _backlogged;
+		protected long _maxRtt;
+		
+		protected ClientThread(int id, long interval) throws IOException
+		{
+			super("ClientThread-" + id);
+			_selector = Selector.open();
+			_interval = interval;
+		}
+		
+		protected void add(SocketChannel channel) throws IOException
+		{
+			channel.configureBlocking(false);
+			final FakeClient client = new FakeClient(channel, System.nanoTime() + ThreadLocalRandom.current().nextLong(_interval));
+			channel.register(_selector, SelectionKey.OP_READ, client);
+			_fakeClients.add(client);
+		}
+		
+		@Override
+		public void run()
+		{
+			try
+			{
+				while (System.nanoTime() < _end)
+				{
+					_selector.select(1);
+					for (SelectionKey key : _selector.selectedKeys())
+					{
+						read((FakeClient) key.attachment());
+					}
+					_selector.selectedKeys().clear();
+					
+					final long now = System.nanoTime();
+					for (FakeClient client : _fakeClients)
+					{
+						if (client._nextPing > now)
+						{
+							continue;
+						}
+						client._nextPing += _interval;
+						if (client._out.hasRemaining())
+						{
+							_backlogged++;
+						}
+						else
+						{
+							client._out.clear();
+							client._out.putShort((short) 11);
+							client._out.put((byte) PING);
+							client._out.putLong(now);
+							client._out.flip();
+							_pings++;
+						}
+						client._channel.write(client._out);
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+		}
+		
+		private void read(FakeClient client) throws IOException
+		{
+			final ByteBuffer in = client._in;
+			if (client._channel.read(in) < 0)
+			{
+				throw new IOException("Connection closed by the server.");
+			}
+			in.flip();
+			while (in.remaining() >= 2)
+			{
+				final int size = in.getShort(in.position()) & 0xFFFF;
+				if (in.remaining() < size)
+				{
+					break;
+				}
+				final int next = in.position() + size;
+				in.position(in.position() + 2);
+				switch (in.get())
+				{
+					case PONG:
+						final long rtt = System.nanoTime() - in.getLong();
+						_histogram[(int) Math.min(BUCKETS, TimeUnit.NANOSECONDS.toMicros(rtt) / BUCKET_MICROS)]++;
+						_maxRtt = Math.max(_maxRtt, rtt);
+						_pongs++;
+						break;
+					case MOVE:
+						_moves++;
+						break;
+				}
+				in.position(next);
+			}
+			in.compact();
+		}
+	}
+	
+	public static void main(String[] args) throws Exception
+	{
+		final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		final int selectorThreads = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		final int interval = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+		_fanout = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+		final int clientThreads = args.length > 5 ? Integer.parseInt(args[5]) : 4;
+		
+		_clients = new AtomicReferenceArray<>(clients);
+		final ExecutorService pool = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+		final LoadHandler handler = new LoadHandler(pool);
+		final SelectorConfig sc = new SelectorConfig();
+		sc.SELECTOR_THREADS = selectorThreads;
+		final SelectorThread<LoadClient> server = new SelectorThread<>(sc, handler, handler, handler, null);
+		server.openServerSocket(InetAddress.getLoopbackAddress(), PORT);
+		server.start();
+		
+		final ClientThread[] threads = new ClientThread[clientThreads];
+		for (int i = 0; i < clientThreads; i++)
+		{
+			threads[i] = new ClientThread(i + 1, TimeUnit.MILLISECONDS.toNanos(interval));
+		}
+		
+		final long connectStart = System.nanoTime();
+		for (int i = 0; i < clients; i++)
+		{
+			// Stay within the accept backlog of the server socket.
+			while ((i - _clientCount.get()) > 32)
+			{
+				Thread.sleep(1);
+			}
+			threads[i % clientThreads].add(SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT)));
+		}
+		System.out.println(String.format("Connected %d clients in %.2f s, %d ms ping interval, broadcast fanout %d.", clients, (System.nanoTime() - connectStart) / 1e9, interval, _fanout));
+		
+		final long start = System.nanoTime();
+		for (ClientThread thread : threads)
+		{
+			thread._end = start + TimeUnit.SECONDS.toNanos(seconds);
+			thread.start();
+		}
+		for (ClientThread thread : threads)
+		{
+			thread.join();
+		}
+		final double elapsed = (System.nanoTime() - start) / 1e9;
+		
+		long pings = 0;
+		long pongs = 0;
+		long moves = 0;
+		long backlogged = 0;
+		long maxRtt = 0;
+		final long[] histogram = new long[BUCKETS + 1];
+		for (ClientThread thread : threads)
+		{
+			pings += thread._pings;
+			pongs += thread._pongs;
+			moves += thread._moves;
+			backlogged += thread._backlogged;
+			maxRtt = Math.max(maxRtt, thread._maxRtt);
+			for (int i = 0; i <= BUCKETS; i++)
+			{
+				histogram[i] += thread._histogram[i];
+			}
+		}
+		
+		System.out.println(String.format("Sent %.0f pings/s, received %.0f pongs/s and %.0f moves/s, %d pings backlogged.", pings / elapsed, pongs / elapsed, moves / elapsed, backlogged));
+		System.out.println(String.format("Ping round trip: p50 %s, p90 %s, p99 %s, max %.2f ms.", percentile(histogram, pongs, 0.5), percentile(histogram, pongs, 0.9), percentile(histogram, pongs, 0.99), maxRtt / 1e6));
+		for (String line : server.getStats())
+		{
+			System.out.println(line);
+		}
+		
+		server.shutdown();
+		pool.shutdown();
+		System.exit(0);
+	}
+	
+	private static String percentile(long[] histogram, long total, double rank)
+	{
+		long count = 0;
+		for (int i = 0; i < histogram.length; i++)
+		{
+			count += histogram[i];
+			if (count >= (total * rank))
+			{
+				return i < BUCKETS ? String.format("%.2f ms", ((i + 1) * BUCKET_MICROS) / 1000.0) : ">" + ((BUCKETS * BUCKET_MICROS) / 1000) + " ms";
+			}
+		}
+		return "n/a";
+	}
+}
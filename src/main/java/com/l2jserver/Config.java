@@ -169,6 +169,7 @@ public final class Config
 	public static int MAX_EVASION;
 	public static int MIN_ABNORMAL_STATE_SUCCESS_RATE;
 	public static int MAX_ABNORMAL_STATE_SUCCESS_RATE;
+	public static boolean STAT_CACHE;
 	public static byte MAX_SUBCLASS;
 	public static byte BASE_SUBCLASS_LEVEL;
 	public static byte MAX_SUBCLASS_LEVEL;
@@ -470,6 +471,14 @@ public final class Config
 	public static int GENERAL_THREAD_CORE_SIZE;
 	public static int AI_MAX_THREAD;
 	public static int EVENT_MAX_THREAD;
+	public static int TIMING_WHEEL_TICK;
+	public static boolean TIMING_WHEEL_BUFFS;
+	public static boolean TIMING_WHEEL_REGENERATION;
+	public static boolean TIMING_WHEEL_FOLLOW;
+	public static boolean TIMING_WHEEL_ATTACKABLE_AI;
+	public static boolean ATTACKABLE_AI_LOD;
+	public static int[] ATTACKABLE_AI_LOD_DISTANCES;
+	public static int[] ATTACKABLE_AI_LOD_INTERVALS;
 	public static int CLIENT_PACKET_QUEUE_SIZE;
 	public static int CLIENT_PACKET_QUEUE_MAX_BURST_SIZE;
 	public static int CLIENT_PACKET_QUEUE_MAX_PACKETS_PER_SECOND;
@@ -479,9 +488,16 @@ public final class Config
 	public static int CLIENT_PACKET_QUEUE_MAX_OVERFLOWS_PER_MIN;
 	public static int CLIENT_PACKET_QUEUE_MAX_UNDERFLOWS_PER_MIN;
 	public static int CLIENT_PACKET_QUEUE_MAX_UNKNOWN_PER_MIN;
+	public static boolean CLIENT_PACKET_QUEUE_LANES;
 	public static boolean DEADLOCK_DETECTOR;
 	public static int DEADLOCK_CHECK_INTERVAL;
 	public static boolean RESTART_ON_DEADLOCK;
+	public static boolean PARALLEL_STARTUP;
+	public static int STARTUP_THREADS;
+	public static boolean XML_PARALLEL_LOAD;
+	public static int XML_LOAD_THREADS;
+	public static boolean XML_SNAPSHOT_CACHE;
+	public static String XML_SNAPSHOT_CACHE_PATH;
 	public static boolean ALLOW_DISCARDITEM;
 	public static int AUTODESTROY_ITEM_AFTER;
 	public static int HERB_AUTO_DESTROY_TIME;
@@ -491,6 +507,14 @@ public final class Config
 	public static int CHAR_STORE_INTERVAL;
 	public static boolean LAZY_ITEMS_UPDATE;
 	public static boolean UPDATE_ITEMS_ON_CHAR_STORE;
+	public static boolean ITEMS_WRITE_BEHIND;
+	public static int ITEMS_WRITE_BEHIND_INTERVAL;
+	public static int ITEMS_WRITE_BEHIND_BATCH_SIZE;
+	public static boolean QUEST_VARS_WRITE_BEHIND;
+	public static int QUEST_VARS_WRITE_BEHIND_INTERVAL;
+	public static int QUEST_VARS_WRITE_BEHIND_BATCH_SIZE;
+	public static boolean CHARACTER_LOAD_PIPELINE;
+	public static int CHARACTER_LOAD_THREADS;
 	public static boolean DESTROY_DROPPED_PLAYER_ITEM;
 	public static boolean DESTROY_EQUIPABLE_PLAYER_ITEM;
 	public static boolean SAVE_DROPPED_ITEM;
@@ -502,6 +526,7 @@ public final class Config
 	public static boolean MULTIPLE_ITEM_DROP;
 	public static boolean FORCE_INVENTORY_UPDATE;
 	public static boolean LAZY_CACHE;
+	public static boolean HTML_TEMPLATES;
 	public static boolean CACHE_CHAR_NAMES;
 	public static int MIN_NPC_ANIMATION;
 	public static int MAX_NPC_ANIMATION;
@@ -513,6 +538,14 @@ public final class Config
 	public static int GRID_NEIGHBOR_TURNOFF_TIME;
 	public static boolean MOVE_BASED_KNOWNLIST;
 	public static long KNOWNLIST_UPDATE_INTERVAL;
+	public static boolean INTEREST_GRID;
+	public static int INTEREST_GRID_CELL_SIZE;
+	public static int INTEREST_GRID_SCAN_RANGE;
+	public static int INTEREST_GRID_DIRTY_DISTANCE;
+	public static boolean KNOWNLIST_PARALLEL_UPDATE;
+	public static int KNOWNLIST_UPDATE_THREADS;
+	public static int KNOWNLIST_STRIPE_WIDTH;
+	public static int MOVEMENT_TICK_THREADS;
 	public static int PEACE_ZONE_MODE;
 	public static String DEFAULT_GLOBAL_CHAT;
 	public static String DEFAULT_TRADE_CHAT;
@@ -925,6 +958,12 @@ public final class Config
 	public static String LOGIN_BIND_ADDRESS;
 	public static int LOGIN_TRY_BEFORE_BAN;
 	public static int LOGIN_BLOCK_AFTER_BAN;
+	public static int LOGIN_PACKET_THREADS;
+	public static boolean LOGIN_ADMISSION;
+	public static int LOGIN_ADMISSION_CRYPTO_THREADS;
+	public static int LOGIN_ADMISSION_DATABASE_THREADS;
+	public static int LOGIN_ADMISSION_WINDOW;
+	public static long LOGIN_ACCOUNT_CACHE_TIME;
 	public static String GAMESERVER_HOSTNAME;
 	public static String DATABASE_DRIVER;
 	public static String DATABASE_URL;
@@ -949,7 +988,7 @@ public final class Config
 	// --------------------------------------------------
 	// MMO Settings
 	// --------------------------------------------------
-	public static int MMO_SELECTOR_SLEEP_TIME;
+	public static int MMO_SELECTOR_THREADS;
 	public static int MMO_MAX_SEND_PER_PASS;
 	public static int MMO_MAX_READ_PER_PASS;
 	public static int MMO_HELPER_BUFFER_COUNT;
@@ -1111,6 +1150,14 @@ public final class Config
 	public static Path GEODATA_PATH;
 	public static boolean TRY_LOAD_UNSPECIFIED_REGIONS;
 	public static Map<String, Boolean> GEODATA_REGIONS;
+	public static boolean LOS_CACHE;
+	public static int LOS_CACHE_SIZE;
+	public static long LOS_CACHE_TTL;
+	public static boolean PATHFIND_ASYNC;
+	public static int PATHFIND_THREADS;
+	public static boolean PATH_CACHE;
+	public static int PATH_CACHE_SIZE;
+	public static long PATH_CACHE_TTL;
 	
 	/**
 	 * This class initializes all global variables for configuration.<br>
@@ -1502,6 +1549,7 @@ public final class Config
 			MAX_EVASION = character.getInt("MaxEvasion", 250);
 			MIN_ABNORMAL_STATE_SUCCESS_RATE = character.getInt("MinAbnormalStateSuccessRate", 10);
 			MAX_ABNORMAL_STATE_SUCCESS_RATE = character.getInt("MaxAbnormalStateSuccessRate", 90);
+			STAT_CACHE = character.getBoolean("StatCache", false);
 			MAX_SUBCLASS = character.getByte("MaxSubclass", (byte) 3);
 			BASE_SUBCLASS_LEVEL = character.getByte("BaseSubclassLevel", (byte) 40);
 			MAX_SUBCLASS_LEVEL = character.getByte("MaxSubclassLevel", (byte) 80);
@@ -1703,7 +1751,7 @@ public final class Config
 			// MMO
 			final PropertiesParser mmoSettings = new PropertiesParser(MMO_CONFIG_FILE);
 			
-			MMO_SELECTOR_SLEEP_TIME = mmoSettings.getInt("SleepTime", 20);
+			MMO_SELECTOR_THREADS = mmoSettings.getInt("SelectorThreads", 1);
 			MMO_MAX_SEND_PER_PASS = mmoSettings.getInt("MaxSendPerPass", 12);
 			MMO_MAX_READ_PER_PASS = mmoSettings.getInt("MaxReadPerPass", 12);
 			MMO_HELPER_BUFFER_COUNT = mmoSettings.getInt("HelperBufferCount", 20);
@@ -1766,6 +1814,34 @@ public final class Config
 			GENERAL_THREAD_CORE_SIZE = General.getInt("GeneralThreadCoreSize", 4);
 			AI_MAX_THREAD = General.getInt("AiMaxThread", 6);
 			EVENT_MAX_THREAD = General.getInt("EventsMaxThread", 5);
+			TIMING_WHEEL_TICK = General.getInt("TimingWheelTick", 50);
+			TIMING_WHEEL_BUFFS = General.getBoolean("TimingWheelBuffs", false);
+			TIMING_WHEEL_REGENERATION = General.getBoolean("TimingWheelRegeneration", false);
+			TIMING_WHEEL_FOLLOW = General.getBoolean("TimingWheelFollow", false);
+			TIMING_WHEEL_ATTACKABLE_AI = General.getBoolean("TimingWheelAttackableAi", false);
+			ATTACKABLE_AI_LOD = General.getBoolean("AttackableAiLod", false);
+			String[] lodDistances = General.getString("AttackableAiLodDistances", "1500,3000").split(",");
+			ATTACKABLE_AI_LOD_DISTANCES = new int[lodDistances.length];
+			for (int i = 0; i < lodDistances.length; i++)
+			{
+				ATTACKABLE_AI_LOD_DISTANCES[i] = Integer.parseInt(lodDistances[i].trim());
+			}
+			String[] lodIntervals = General.getString("AttackableAiLodIntervals", "1,3,10").split(",");
+			if (lodIntervals.length != (ATTACKABLE_AI_LOD_DISTANCES.length + 1))
+			{
+				_log.warn("AttackableAiLodIntervals needs one interval more than AttackableAiLodDistances, AI level of detail disabled.");
+				ATTACKABLE_AI_LOD = false;
+				lodIntervals = new String[]
+				{
+					"1"
+				};
+				ATTACKABLE_AI_LOD_DISTANCES = new int[0];
+			}
+			ATTACKABLE_AI_LOD_INTERVALS = new int[lodIntervals.length];
+			for (int i = 0; i < lodIntervals.length; i++)
+			{
+				ATTACKABLE_AI_LOD_INTERVALS[i] = Math.max(1, Integer.parseInt(lodIntervals[i].trim()));
+			}
 			CLIENT_PACKET_QUEUE_SIZE = General.getInt("ClientPacketQueueSize", 0);
 			if (CLIENT_PACKET_QUEUE_SIZE == 0)
 			{
@@ -1783,9 +1859,24 @@ public final class Config
 			CLIENT_PACKET_QUEUE_MAX_OVERFLOWS_PER_MIN = General.getInt("ClientPacketQueueMaxOverflowsPerMin", 1);
 			CLIENT_PACKET_QUEUE_MAX_UNDERFLOWS_PER_MIN = General.getInt("ClientPacketQueueMaxUnderflowsPerMin", 1);
 			CLIENT_PACKET_QUEUE_MAX_UNKNOWN_PER_MIN = General.getInt("ClientPacketQueueMaxUnknownPerMin", 5);
+			CLIENT_PACKET_QUEUE_LANES = General.getBoolean("ClientPacketQueueLanes", false);
 			DEADLOCK_DETECTOR = General.getBoolean("DeadLockDetector", true);
 			DEADLOCK_CHECK_INTERVAL = General.getInt("DeadLockCheckInterval", 20);
 			RESTART_ON_DEADLOCK = General.getBoolean("RestartOnDeadlock", false);
+			PARALLEL_STARTUP = General.getBoolean("ParallelStartup", false);
+			STARTUP_THREADS = General.getInt("StartupThreads", 0);
+			if (STARTUP_THREADS <= 0)
+			{
+				STARTUP_THREADS = Runtime.getRuntime().availableProcessors();
+			}
+			XML_PARALLEL_LOAD = General.getBoolean("XmlParallelLoad", false);
+			XML_LOAD_THREADS = General.getInt("XmlLoadThreads", 0);
+			if (XML_LOAD_THREADS <= 0)
+			{
+				XML_LOAD_THREADS = Runtime.getRuntime().availableProcessors();
+			}
+			XML_SNAPSHOT_CACHE = General.getBoolean("XmlSnapshotCache", false);
+			XML_SNAPSHOT_CACHE_PATH = General.getString("XmlSnapshotCachePath", "./data/xmlcache");
 			ALLOW_DISCARDITEM = General.getBoolean("AllowDiscardItem", true);
 			AUTODESTROY_ITEM_AFTER = General.getInt("AutoDestroyDroppedItemAfter", 600);
 			HERB_AUTO_DESTROY_TIME = General.getInt("AutoDestroyHerbTime", 60) * 1000;
@@ -1800,6 +1891,18 @@ public final class Config
 			CHAR_STORE_INTERVAL = General.getInt("CharacterDataStoreInterval", 15);
 			LAZY_ITEMS_UPDATE = General.getBoolean("LazyItemsUpdate", false);
 			UPDATE_ITEMS_ON_CHAR_STORE = General.getBoolean("UpdateItemsOnCharStore", false);
+			ITEMS_WRITE_BEHIND = General.getBoolean("ItemsWriteBehind", false);
+			ITEMS_WRITE_BEHIND_INTERVAL = General.getInt("ItemsWriteBehindInterval", 1000);
+			ITEMS_WRITE_BEHIND_BATCH_SIZE = General.getInt("ItemsWriteBehindBatchSize", 500);
+			QUEST_VARS_WRITE_BEHIND = General.getBoolean("QuestVarsWriteBehind", false);
+			QUEST_VARS_WRITE_BEHIND_INTERVAL = General.getInt("QuestVarsWriteBehindInterval", 1000);
+			QUEST_VARS_WRITE_BEHIND_BATCH_SIZE = General.getInt("QuestVarsWriteBehindBatchSize", 500);
+			CHARACTER_LOAD_PIPELINE = General.getBoolean("CharacterLoadPipeline", false);
+			CHARACTER_LOAD_THREADS = General.getInt("CharacterLoadThreads", 0);
+			if (CHARACTER_LOAD_THREADS <= 0)
+			{
+				CHARACTER_LOAD_THREADS = Runtime.getRuntime().availableProcessors();
+			}
 			DESTROY_DROPPED_PLAYER_ITEM = General.getBoolean("DestroyPlayerDroppedItem", false);
 			DESTROY_EQUIPABLE_PLAYER_ITEM = General.getBoolean("DestroyEquipableItem", false);
 			SAVE_DROPPED_ITEM = General.getBoolean("SaveDroppedItem", false);
@@ -1811,6 +1914,7 @@ public final class Config
 			MULTIPLE_ITEM_DROP = General.getBoolean("MultipleItemDrop", true);
 			FORCE_INVENTORY_UPDATE = General.getBoolean("ForceInventoryUpdate", false);
 			LAZY_CACHE = General.getBoolean("LazyCache", true);
+			HTML_TEMPLATES = General.getBoolean("HtmlTemplates", false);
 			CACHE_CHAR_NAMES = General.getBoolean("CacheCharNames", true);
 			MIN_NPC_ANIMATION = General.getInt("MinNPCAnimation", 10);
 			MAX_NPC_ANIMATION = General.getInt("MaxNPCAnimation", 20);
@@ -1818,6 +1922,14 @@ public final class Config
 			MAX_MONSTER_ANIMATION = General.getInt("MaxMonsterAnimation", 20);
 			MOVE_BASED_KNOWNLIST = General.getBoolean("MoveBasedKnownlist", false);
 			KNOWNLIST_UPDATE_INTERVAL = General.getLong("KnownListUpdateInterval", 1250);
+			INTEREST_GRID = General.getBoolean("InterestGrid", false);
+			INTEREST_GRID_CELL_SIZE = General.getInt("InterestGridCellSize", 512);
+			INTEREST_GRID_SCAN_RANGE = General.getInt("InterestGridScanRange", 4096);
+			INTEREST_GRID_DIRTY_DISTANCE = General.getInt("InterestGridDirtyDistance", 256);
+			KNOWNLIST_PARALLEL_UPDATE = General.getBoolean("KnownListParallelUpdate", false);
+			KNOWNLIST_UPDATE_THREADS = General.getInt("KnownListUpdateThreads", 0);
+			KNOWNLIST_STRIPE_WIDTH = General.getInt("KnownListStripeWidth", 4);
+			MOVEMENT_TICK_THREADS = General.getInt("MovementTickThreads", 0);
 			GRIDS_ALWAYS_ON = General.getBoolean("GridsAlwaysOn", false);
 			GRID_NEIGHBOR_TURNON_TIME = General.getInt("GridNeighborTurnOnTime", 1);
 			GRID_NEIGHBOR_TURNOFF_TIME = General.getInt("GridNeighborTurnOffTime", 90);
@@ -2699,6 +2811,14 @@ public final class Config
 			COORD_SYNCHRONIZE = geoData.getInt("CoordSynchronize", -1);
 			GEODATA_PATH = Paths.get(geoData.getString("GeoDataPath", "./data/geodata"));
 			TRY_LOAD_UNSPECIFIED_REGIONS = geoData.getBoolean("TryLoadUnspecifiedRegions", true);
+			LOS_CACHE = geoData.getBoolean("LosCache", false);
+			LOS_CACHE_SIZE = geoData.getInt("LosCacheSize", 65536);
+			LOS_CACHE_TTL = geoData.getLong("LosCacheTtl", 1000);
+			PATHFIND_ASYNC = geoData.getBoolean("PathFindAsync", false);
+			PATHFIND_THREADS = geoData.getInt("PathFindThreads", 2);
+			PATH_CACHE = geoData.getBoolean("PathCache", false);
+			PATH_CACHE_SIZE = geoData.getInt("PathCacheSize", 4096);
+			PATH_CACHE_TTL = geoData.getLong("PathCacheTtl", 3000);
 			GEODATA_REGIONS = new HashMap<>();
 			for (int regionX = L2World.TILE_X_MIN; regionX <= L2World.TILE_X_MAX; regionX++)
 			{
@@ -2756,6 +2876,13 @@ public final class Config
 			
 			AUTO_CREATE_ACCOUNTS = ServerSettings.getBoolean("AutoCreateAccounts", true);
 			
+			LOGIN_PACKET_THREADS = ServerSettings.getInt("PacketThreads", 4);
+			LOGIN_ADMISSION = ServerSettings.getBoolean("LoginAdmission", false);
+			LOGIN_ADMISSION_CRYPTO_THREADS = ServerSettings.getInt("LoginAdmissionCryptoThreads", 0);
+			LOGIN_ADMISSION_DATABASE_THREADS = ServerSettings.getInt("LoginAdmissionDatabaseThreads", 4);
+			LOGIN_ADMISSION_WINDOW = ServerSettings.getInt("LoginAdmissionWindow", 64);
+			LOGIN_ACCOUNT_CACHE_TIME = ServerSettings.getLong("AccountCacheTime", 0);
+			
 			FLOOD_PROTECTION = ServerSettings.getBoolean("EnableFloodProtection", true);
 			FAST_CONNECTION_LIMIT = ServerSettings.getInt("FastConnectionLimit", 15);
 			NORMAL_CONNECTION_TIME = ServerSettings.getInt("NormalConnectionTime", 700);
@@ -2765,7 +2892,7 @@ public final class Config
 			// MMO
 			final PropertiesParser mmoSettings = new PropertiesParser(MMO_CONFIG_FILE);
 			
-			MMO_SELECTOR_SLEEP_TIME = mmoSettings.getInt("SleepTime", 20);
+			MMO_SELECTOR_THREADS = mmoSettings.getInt("SelectorThreads", 1);
 			MMO_MAX_SEND_PER_PASS = mmoSettings.getInt("MaxSendPerPass", 12);
 			MMO_MAX_READ_PER_PASS = mmoSettings.getInt("MaxReadPerPass", 12);
 			MMO_HELPER_BUFFER_COUNT = mmoSettings.getInt("HelperBufferCount", 20);
@@ -142,6 +142,7 @@ import com.l2jserver.mmocore.SelectorThread;
 import com.l2jserver.status.Status;
 import com.l2jserver.util.DeadLockDetector;
 import com.l2jserver.util.IPv4Filter;
+import com.l2jserver.util.data.xml.XmlSnapshotCache;
 
 public final class GameServer
 {
@@ -172,113 +173,142 @@ public final class GameServer
 		
 		new File("log/game").mkdirs();
 		
+		// Stages without dependencies between them load concurrently when the parallel startup is enabled.
+		final StartupOrchestrator startup = new StartupOrchestrator(Config.PARALLEL_STARTUP ? Config.STARTUP_THREADS : 1);
 		// load script engines
-		printSection("Engines");
-		L2ScriptEngineManager.getInstance();
-		
-		printSection("World");
-		// start game time control early
-		GameTimeController.init();
-		InstanceManager.getInstance();
-		L2World.getInstance();
-		MapRegionManager.getInstance();
-		AnnouncementsTable.getInstance();
-		GlobalVariablesManager.getInstance();
-		
-		printSection("Data");
-		CategoryData.getInstance();
-		SecondaryAuthData.getInstance();
-		
-		printSection("Effects");
-		EffectHandler.getInstance().executeScript();
-		printSection("Enchant Skill Groups");
-		EnchantSkillGroupsData.getInstance();
-		printSection("Skill Trees");
-		SkillTreesData.getInstance();
-		printSection("Skills");
-		SkillData.getInstance();
-		SummonSkillsTable.getInstance();
-		
-		printSection("Items");
-		ItemTable.getInstance();
-		EnchantItemGroupsData.getInstance();
-		EnchantItemData.getInstance();
-		EnchantItemOptionsData.getInstance();
-		OptionData.getInstance();
-		EnchantItemHPBonusData.getInstance();
-		MerchantPriceConfigTable.getInstance().loadInstances();
-		BuyListData.getInstance();
-		MultisellData.getInstance();
-		RecipeData.getInstance();
-		ArmorSetsData.getInstance();
-		FishData.getInstance();
-		FishingMonstersData.getInstance();
-		FishingRodsData.getInstance();
-		HennaData.getInstance();
-		
-		printSection("Characters");
-		ClassListData.getInstance();
-		InitialEquipmentData.getInstance();
-		InitialShortcutData.getInstance();
-		ExperienceData.getInstance();
-		PlayerXpPercentLostData.getInstance();
-		KarmaData.getInstance();
-		HitConditionBonusData.getInstance();
-		PlayerTemplateData.getInstance();
-		CharNameTable.getInstance();
-		AdminData.getInstance();
-		RaidBossPointsManager.getInstance();
-		PetDataTable.getInstance();
-		CharSummonTable.getInstance().init();
-		
-		printSection("Clans");
-		ClanTable.getInstance();
-		CHSiegeManager.getInstance();
-		ClanHallManager.getInstance();
-		AuctionManager.getInstance();
-		
-		printSection("Geodata");
-		GeoData.getInstance();
-		
-		if (Config.PATHFINDING > 0)
+		startup.add("Engines", L2ScriptEngineManager::getInstance);
+		
+		startup.add("World", () ->
 		{
-			PathFinding.getInstance();
-		}
+			// start game time control early
+			GameTimeController.init();
+			InstanceManager.getInstance();
+			L2World.getInstance();
+			MapRegionManager.getInstance();
+			AnnouncementsTable.getInstance();
+			GlobalVariablesManager.getInstance();
+		});
+		
+		startup.add("Data", () ->
+		{
+			CategoryData.getInstance();
+			SecondaryAuthData.getInstance();
+		});
+		
+		startup.add("Effects", () -> EffectHandler.getInstance().executeScript(), "Engines");
+		
+		startup.add("Skills", () ->
+		{
+			EnchantSkillGroupsData.getInstance();
+			SkillTreesData.getInstance();
+			SkillData.getInstance();
+			SummonSkillsTable.getInstance();
+		}, "Effects", "Data");
+		
+		startup.add("Items", () ->
+		{
+			ItemTable.getInstance();
+			EnchantItemGroupsData.getInstance();
+			EnchantItemData.getInstance();
+			EnchantItemOptionsData.getInstance();
+			OptionData.getInstance();
+			EnchantItemHPBonusData.getInstance();
+			MerchantPriceConfigTable.getInstance().loadInstances();
+			BuyListData.getInstance();
+			MultisellData.getInstance();
+			RecipeData.getInstance();
+			ArmorSetsData.getInstance();
+			FishData.getInstance();
+			FishingMonstersData.getInstance();
+			FishingRodsData.getInstance();
+			HennaData.getInstance();
+		}, "Skills");
+		
+		startup.add("Characters", () ->
+		{
+			ClassListData.getInstance();
+			InitialEquipmentData.getInstance();
+			InitialShortcutData.getInstance();
+			ExperienceData.getInstance();
+			PlayerXpPercentLostData.getInstance();
+			KarmaData.getInstance();
+			HitConditionBonusData.getInstance();
+			PlayerTemplateData.getInstance();
+			CharNameTable.getInstance();
+			AdminData.getInstance();
+			RaidBossPointsManager.getInstance();
+			PetDataTable.getInstance();
+			CharSummonTable.getInstance().init();
+		}, "World", "Items");
+		
+		startup.add("Clans", () ->
+		{
+			ClanTable.getInstance();
+			CHSiegeManager.getInstance();
+			ClanHallManager.getInstance();
+			AuctionManager.getInstance();
+		}, "Characters");
+		
+		startup.add("Geodata", () ->
+		{
+			GeoData.getInstance();
+			
+			if (Config.PATHFINDING > 0)
+			{
+				PathFinding.getInstance();
+			}
+		});
+		
+		startup.add("NPCs", () ->
+		{
+			SkillLearnData.getInstance();
+			NpcData.getInstance();
+			WalkingManager.getInstance();
+			StaticObjectData.getInstance();
+			ZoneManager.getInstance();
+			DoorData.getInstance();
+			CastleManager.getInstance().loadInstances();
+			NpcBufferTable.getInstance();
+			GrandBossManager.getInstance().initZones();
+			EventDroplist.getInstance();
+		}, "Clans", "Geodata");
+		
+		startup.add("Auction Manager", ItemAuctionManager::getInstance, "NPCs");
+		
+		startup.add("Olympiad", () ->
+		{
+			Olympiad.getInstance();
+			Hero.getInstance();
+		}, "Auction Manager");
 		
-		printSection("NPCs");
-		SkillLearnData.getInstance();
-		NpcData.getInstance();
-		WalkingManager.getInstance();
-		StaticObjectData.getInstance();
-		ZoneManager.getInstance();
-		DoorData.getInstance();
-		CastleManager.getInstance().loadInstances();
-		NpcBufferTable.getInstance();
-		GrandBossManager.getInstance().initZones();
-		EventDroplist.getInstance();
-		printSection("Auction Manager");
-		ItemAuctionManager.getInstance();
-		
-		printSection("Olympiad");
-		Olympiad.getInstance();
-		Hero.getInstance();
-		
-		printSection("Seven Signs");
-		SevenSigns.getInstance();
+		startup.add("Seven Signs", SevenSigns::getInstance, "Olympiad");
+		
+		startup.add("HTML Cache", HtmCache::getInstance);
 		
 		// Call to load caches
-		printSection("Cache");
-		HtmCache.getInstance();
-		CrestTable.getInstance();
-		TeleportLocationTable.getInstance();
-		UIData.getInstance();
-		PartyMatchWaitingList.getInstance();
-		PartyMatchRoomList.getInstance();
-		PetitionManager.getInstance();
-		AugmentationData.getInstance();
-		CursedWeaponsManager.getInstance();
-		TransformData.getInstance();
-		BotReportTable.getInstance();
+		startup.add("Cache", () ->
+		{
+			CrestTable.getInstance();
+			TeleportLocationTable.getInstance();
+			UIData.getInstance();
+			PartyMatchWaitingList.getInstance();
+			PartyMatchRoomList.getInstance();
+			PetitionManager.getInstance();
+			AugmentationData.getInstance();
+			CursedWeaponsManager.getInstance();
+			TransformData.getInstance();
+			BotReportTable.getInstance();
+		}, "Seven Signs", "HTML Cache");
+		
+		try
+		{
+			startup.run();
+		}
+		catch (Exception e)
+		{
+			_log.error("{}: Startup failed!", getClass().getSimpleName(), e);
+			System.exit(1);
+		}
 		
 		printSection("Scripts");
 		QuestManager.getInstance();
@@ -391,7 +421,7 @@ public final class GameServer
 		final SelectorConfig sc = new SelectorConfig();
 		sc.MAX_READ_PER_PASS = Config.MMO_MAX_READ_PER_PASS;
 		sc.MAX_SEND_PER_PASS = Config.MMO_MAX_SEND_PER_PASS;
-		sc.SLEEP_TIME = Config.MMO_SELECTOR_SLEEP_TIME;
+		sc.SELECTOR_THREADS = Config.MMO_SELECTOR_THREADS;
 		sc.HELPER_BUFFER_COUNT = Config.MMO_HELPER_BUFFER_COUNT;
 		sc.TCP_NODELAY = Config.MMO_TCP_NODELAY;
 		
@@ -425,6 +455,13 @@ public final class GameServer
 		
 		_log.info("{}: Maximum numbers of connected players: {}", getClass().getSimpleName(), Config.MAXIMUM_ONLINE_USERS);
 		_log.info("{}: Server loaded in {} seconds.", getClass().getSimpleName(), TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - serverLoadStart));
+		if (Config.XML_SNAPSHOT_CACHE)
+		{
+			for (String line : XmlSnapshotCache.getInstance().getStats())
+			{
+				_log.info(line);
+			}
+		}
 		
 		printSection("UPnP");
 		UPnPService.getInstance();
@@ -18,14 +18,24 @@
  */
 package com.l2jserver.gameserver;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.instancemanager.DayNightSpawnManager;
+import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.L2Character;
 
 /**
@@ -45,10 +55,26 @@ public final class GameTimeController extends Thread
 	public static final int TICKS_PER_IG_DAY = SECONDS_PER_IG_DAY * TICKS_PER_SECOND;
 	public static final int TICKS_SUN_STATE_CHANGE = TICKS_PER_IG_DAY / 4;
 	
+	/** Below this number of moving characters the tick is not worth splitting. */
+	private static final int PARALLEL_MOVE_THRESHOLD = 256;
+	private static final int MIN_MOVE_TASK_SIZE = 64;
+	/** Tick durations histogram, one bucket per millisecond, the last one holds the longer ticks. */
+	private static final int TICK_HISTOGRAM_SIZE = 250;
+	
 	private static GameTimeController _instance;
 	
 	private final Set<L2Character> _movingObjects = ConcurrentHashMap.newKeySet();
 	private final long _referenceTime;
+	/** Pool of the parallel movement tick, {@code null} when the characters are moved by this thread. */
+	private final ForkJoinPool _movePool;
+	
+	// Tick metrics, only written by this thread
+	private final long[] _tickHistogram = new long[TICK_HISTOGRAM_SIZE];
+	private volatile long _ticks;
+	private volatile long _overruns;
+	private volatile long _lastTickTime;
+	private volatile long _maxTickTime;
+	private volatile int _lastMovingObjects;
 	
 	private GameTimeController()
 	{
@@ -63,6 +89,21 @@ public final class GameTimeController extends Thread
 		c.set(Calendar.MILLISECOND, 0);
 		_referenceTime = c.getTimeInMillis();
 		
+		if (Config.MOVEMENT_TICK_THREADS > 0)
+		{
+			_movePool = new ForkJoinPool(Config.MOVEMENT_TICK_THREADS, pool ->
+			{
+				final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("MovementTick-" + thread.getPoolIndex());
+				thread.setPriority(MAX_PRIORITY);
+				return thread;
+			}, null, false);
+		}
+		else
+		{
+			_movePool = null;
+		}
+		
 		super.start();
 	}
 	
@@ -127,12 +168,163 @@ public final class GameTimeController extends Thread
 	 */
 	private final void moveObjects()
 	{
-		_movingObjects.removeIf(L2Character::updatePosition);
+		_lastMovingObjects = _movingObjects.size();
+		if ((_movePool == null) || (_lastMovingObjects < PARALLEL_MOVE_THRESHOLD))
+		{
+			_movingObjects.removeIf(L2Character::updatePosition);
+			return;
+		}
+		
+		// Characters are grouped by the region they stand in at the start of the tick, each region being moved by its own task.
+		// A character crossing into another region is still moved by its task, and grouped with its new region on the next tick.
+		final Map<L2WorldRegion, List<L2Character>> regions = new HashMap<>();
+		int count = 0;
+		for (L2Character cha : _movingObjects)
+		{
+			regions.computeIfAbsent(cha.getWorldRegion(), k -> new ArrayList<>()).add(cha);
+			count++;
+		}
+		
+		// Only a region with more characters than the task size is split between several tasks.
+		final int taskSize = Math.max(MIN_MOVE_TASK_SIZE, count / (_movePool.getParallelism() * 4));
+		final List<MoveTask> tasks = new ArrayList<>(regions.size());
+		for (List<L2Character> region : regions.values())
+		{
+			final MoveTask task = new MoveTask(region, 0, region.size(), taskSize);
+			_movePool.execute(task);
+			tasks.add(task);
+		}
+		for (MoveTask task : tasks)
+		{
+			task.join();
+		}
+	}
+	
+	/**
+	 * Moves a range of the characters of a region, split until it fits the task size.
+	 */
+	private final class MoveTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final List<L2Character> _characters;
+		private final int _from;
+		private final int _to;
+		private final int _taskSize;
+		
+		protected MoveTask(List<L2Character> characters, int from, int to, int taskSize)
+		{
+			_characters = characters;
+			_from = from;
+			_to = to;
+			_taskSize = taskSize;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if ((_to - _from) > _taskSize)
+			{
+				final int middle = (_from + _to) >>> 1;
+				invokeAll(new MoveTask(_characters, _from, middle, _taskSize), new MoveTask(_characters, middle, _to, _taskSize));
+				return;
+			}
+			
+			for (int i = _from; i < _to; i++)
+			{
+				final L2Character cha = _characters.get(i);
+				try
+				{
+					if (cha.updatePosition())
+					{
+						_movingObjects.remove(cha);
+					}
+				}
+				catch (Exception e)
+				{
+					_log.warn("Unable to move {}!", cha, e);
+				}
+			}
+		}
+	}
+	
+	private void tickDone(long nanos)
+	{
+		final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		_tickHistogram[(int) Math.min(millis, TICK_HISTOGRAM_SIZE - 1)]++;
+		_ticks++;
+		if (millis >= MILLIS_IN_TICK)
+		{
+			_overruns++;
+		}
+		_lastTickTime = nanos;
+		_maxTickTime = Math.max(_maxTickTime, nanos);
+	}
+	
+	/**
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the tick duration in milliseconds below which the given percentage of the ticks completed
+	 */
+	public final int getTickPercentile(double percentile)
+	{
+		final long[] histogram = _tickHistogram.clone();
+		long total = 0;
+		for (long count : histogram)
+		{
+			total += count;
+		}
+		
+		final long rank = (long) Math.ceil((total * percentile) / 100);
+		long count = 0;
+		for (int i = 0; i < histogram.length; i++)
+		{
+			count += histogram[i];
+			if ((count >= rank) && (count > 0))
+			{
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+	
+	public final String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		stats.add("Movement Tick:");
+		stats.add(" |- Threads:         " + (_movePool != null ? _movePool.getParallelism() : 1));
+		stats.add(" |- MovingObjects:   " + _lastMovingObjects);
+		stats.add(" |- Ticks:           " + _ticks);
+		stats.add(" |- Overruns:        " + _overruns);
+		stats.add(" |- LastTickTime:    " + String.format("%.3f ms", _lastTickTime / 1e6));
+		stats.add(" |- MaxTickTime:     " + String.format("%.3f ms", _maxTickTime / 1e6));
+		stats.add(" |- P50TickTime:     < " + getTickPercentile(50) + " ms");
+		stats.add(" |- P99TickTime:     < " + getTickPercentile(99) + " ms");
+		stats.add(" + Tick Histogram:");
+		
+		// Ten milliseconds per line, empty ranges are skipped.
+		final long[] histogram = _tickHistogram.clone();
+		for (int from = 0; from < histogram.length; from += 10)
+		{
+			long count = 0;
+			for (int i = from; i < Math.min(histogram.length, from + 10); i++)
+			{
+				count += histogram[i];
+			}
+			if (count > 0)
+			{
+				stats.add(" |- " + ((from + 10) < histogram.length ? String.format("%3d-%3d ms: ", from, from + 9) : String.format("%3d+    ms: ", from)) + count);
+			}
+		}
+		return stats.toArray(new String[stats.size()]);
 	}
 	
 	public final void stopTimer()
 	{
 		super.interrupt();
+		if (_movePool != null)
+		{
+			_movePool.shutdown();
+		}
 		_log.info("Stopping {}", getClass().getSimpleName());
 	}
 	
@@ -153,6 +345,7 @@ public final class GameTimeController extends Thread
 		{
 			nextTickTime = ((System.currentTimeMillis() / MILLIS_IN_TICK) * MILLIS_IN_TICK) + 100;
 			
+			final long tickStart = System.nanoTime();
 			try
 			{
 				moveObjects();
@@ -161,6 +354,7 @@ public final class GameTimeController extends Thread
 			{
 				_log.warn("Unable to move objects!", e);
 			}
+			tickDone(System.nanoTime() - tickStart);
 			
 			sleepTime = nextTickTime - System.currentTimeMillis();
 			if (sleepTime > 0)
@@ -49,6 +49,7 @@ public class GeoData
 	private static final int SPAWN_Z_DELTA_LIMIT = 100;
 	
 	private final GeoDriver _driver = new GeoDriver();
+	private final LineOfSightCache _losCache = Config.LOS_CACHE ? new LineOfSightCache(Config.LOS_CACHE_SIZE, Config.LOS_CACHE_TTL) : null;
 	
 	protected GeoData()
 	{
@@ -274,6 +275,28 @@ public class GeoData
 	 * @return {@code true} if there is line of sight between the given coordinate sets, {@code false} otherwise
 	 */
 	public boolean canSeeTarget(int x, int y, int z, int instanceId, int tx, int ty, int tz)
+	{
+		if (_losCache == null)
+		{
+			return computeCanSeeTarget(x, y, z, instanceId, tx, ty, tz);
+		}
+		
+		final long key1 = LineOfSightCache.key1(instanceId, getGeoX(x), getGeoY(y), z);
+		final long key2 = LineOfSightCache.key2(instanceId, getGeoX(tx), getGeoY(ty), tz);
+		// Read before computing, so a door changing meanwhile leaves a result which is already stale.
+		final int doorVersion = DoorData.getInstance().getStateVersion();
+		final Boolean cached = _losCache.get(key1, key2, doorVersion);
+		if (cached != null)
+		{
+			return cached;
+		}
+		
+		final boolean canSee = computeCanSeeTarget(x, y, z, instanceId, tx, ty, tz);
+		_losCache.put(key1, key2, doorVersion, canSee);
+		return canSee;
+	}
+	
+	private boolean computeCanSeeTarget(int x, int y, int z, int instanceId, int tx, int ty, int tz)
 	{
 		if (DoorData.getInstance().checkIfDoorsBetween(x, y, z, tx, ty, tz, instanceId, true))
 		{
@@ -282,6 +305,14 @@ public class GeoData
 		return canSeeTarget(x, y, z, tx, ty, tz);
 	}
 	
+	/**
+	 * @return the line of sight cache, {@code null} if disabled
+	 */
+	public LineOfSightCache getLosCache()
+	{
+		return _losCache;
+	}
+	
 	private int getLosGeoZ(int prevX, int prevY, int prevGeoZ, int curX, int curY, int nswe)
 	{
 		if ((((nswe & Cell.NSWE_NORTH) != 0) && ((nswe & Cell.NSWE_SOUTH) != 0)) || (((nswe & Cell.NSWE_WEST) != 0) && ((nswe & Cell.NSWE_EAST) != 0)))
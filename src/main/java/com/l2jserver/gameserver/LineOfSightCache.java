@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of line of sight results.<br>
+ * Results are keyed by the instance and both endpoints, quantized to geodata cells and to {@link #Z_STEP} units of height, so characters standing in the same cells share them.<br>
+ * The table is direct mapped and bounded: a new result replaces whatever was stored at its slot. Results expire after a short time to live, and all of them are dropped when the door state version changes.
+ */
+public final class LineOfSightCache
+{
+	/** Height quantization of the endpoints, small compared to the see-over height of the line of sight check. */
+	public static final int Z_STEP = 8;
+	
+	private static final class Entry
+	{
+		protected final long _key1;
+		protected final long _key2;
+		protected final long _expireTime;
+		protected final int _doorVersion;
+		protected final boolean _canSee;
+		
+		protected Entry(long key1, long key2, long expireTime, int doorVersion, boolean canSee)
+		{
+			_key1 = key1;
+			_key2 = key2;
+			_expireTime = expireTime;
+			_doorVersion = doorVersion;
+			_canSee = canSee;
+		}
+	}
+	
+	private final Entry[] _table;
+	private final int _mask;
+	private final long _ttl;
+	
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _expired = new LongAdder();
+	private final LongAdder _invalidated = new LongAdder();
+	
+	/**
+	 * @param size the number of slots, rounded up to a power of two
+	 * @param ttl the time to live of the results, in milliseconds
+	 */
+	public LineOfSightCache(int size, long ttl)
+	{
+		final int slots = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+		_table = new Entry[slots];
+		_mask = slots - 1;
+		_ttl = ttl;
+	}
+	
+	/**
+	 * @param instanceId the instance id
+	 * @param geoX the geodata x of the endpoint
+	 * @param geoY the geodata y of the endpoint
+	 * @param z the world z of the endpoint
+	 * @return the first half of the key of a line of sight
+	 */
+	public static long key1(int instanceId, int geoX, int geoY, int z)
+	{
+		return ((long) (instanceId & 0xFFFF) << 48) | endpoint(geoX, geoY, z);
+	}
+	
+	/**
+	 * @param instanceId the instance id
+	 * @param geoX the geodata x of the endpoint
+	 * @param geoY the geodata y of the endpoint
+	 * @param z the world z of the endpoint
+	 * @return the second half of the key of a line of sight
+	 */
+	public static long key2(int instanceId, int geoX, int geoY, int z)
+	{
+		return ((long) (instanceId >>> 16) << 48) | endpoint(geoX, geoY, z);
+	}
+	
+	private static long endpoint(int geoX, int geoY, int z)
+	{
+		return ((long) (geoX & 0xFFFF) << 32) | ((long) (geoY & 0xFFFF) << 16) | (Math.floorDiv(z, Z_STEP) & 0xFFFF);
+	}
+	
+	private int index(long key1, long key2)
+	{
+		long h = (key1 * 0x9E3779B97F4A7C15L) ^ (key2 * 0xC2B2AE3D27D4EB4FL);
+		h ^= h >>> 31;
+		return (int) h & _mask;
+	}
+	
+	/**
+	 * @param key1 the first half of the key
+	 * @param key2 the second half of the key
+	 * @param doorVersion the current door state version
+	 * @return {@link Boolean#TRUE} or {@link Boolean#FALSE} if a valid result is cached, {@code null} otherwise
+	 */
+	public Boolean get(long key1, long key2, int doorVersion)
+	{
+		final Entry entry = _table[index(key1, key2)];
+		if ((entry == null) || (entry._key1 != key1) || (entry._key2 != key2))
+		{
+			_misses.increment();
+			return null;
+		}
+		if (entry._doorVersion != doorVersion)
+		{
+			_invalidated.increment();
+			_misses.increment();
+			return null;
+		}
+		if (entry._expireTime < System.currentTimeMillis())
+		{
+			_expired.increment();
+			_misses.increment();
+			return null;
+		}
+		_hits.increment();
+		return entry._canSee;
+	}
+	
+	/**
+	 * Stores a result, replacing the one at its slot.
+	 * @param key1 the first half of the key
+	 * @param key2 the second half of the key
+	 * @param doorVersion the door state version the result was computed with
+	 * @param canSee the result
+	 */
+	public void put(long key1, long key2, int doorVersion, boolean canSee)
+	{
+		_table[index(key1, key2)] = new Entry(key1, key2, System.currentTimeMillis() + _ttl, doorVersion, canSee);
+	}
+	
+	public String[] getStats()
+	{
+		final long hits = _hits.sum();
+		final long misses = _misses.sum();
+		final long total = hits + misses;
+		return new String[]
+		{
+			"Line of Sight Cache:",
+			" |- Size:        " + _table.length,
+			" |- TTL:         " + _ttl + "ms",
+			" |- Hits:        " + hits,
+			" |- Misses:      " + misses,
+			" |- Expired:     " + _expired.sum(),
+			" |- Invalidated: " + _invalidated.sum(),
+			" |- HitRatio:    " + (total > 0 ? String.format("%.2f%%", (hits * 100.0) / total) : "n/a"),
+		};
+	}
+}
@@ -18,14 +18,11 @@
  */
 package com.l2jserver.gameserver;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.math.BigInteger;
-import java.net.Socket;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
-import java.net.UnknownHostException;
+import java.nio.channels.SocketChannel;
 import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.interfaces.RSAPublicKey;
@@ -39,7 +36,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,8 +75,15 @@ import com.l2jserver.util.Rnd;
 import com.l2jserver.util.Util;
 import com.l2jserver.util.crypt.NewCrypt;
 import com.l2jserver.util.network.BaseSendablePacket;
+import com.l2jserver.util.network.LinkConnection;
+import com.l2jserver.util.network.LinkHandler;
+import com.l2jserver.util.network.LinkSelector;
 
-public class LoginServerThread extends Thread
+/**
+ * Link to the login server.<br>
+ * The connection is non-blocking and served by this thread: packets are queued by the calling threads and written in batches, the replies being read meanwhile. Pending player authentications are kept by account, and are completed on the general pool.
+ */
+public class LoginServerThread extends Thread implements LinkHandler
 {
 	protected static final Logger _log = LoggerFactory.getLogger(LoginServerThread.class);
 	protected static final Logger _logAccounting = LoggerFactory.getLogger("accounting");
@@ -88,26 +93,43 @@ public class LoginServerThread extends Thread
 	private final String _hostname;
 	private final int _port;
 	private final int _gamePort;
-	private Socket _loginSocket;
-	private OutputStream _out;
+	
+	/** Most accounts sent in a single {@link PlayerInGame}, keeping the packet well below the largest frame. */
+	private static final int MAX_PLAYERS_IN_GAME = 1000;
 	
 	/**
-	 * The BlowFish engine used to encrypt packets<br>
-	 * It is first initialized with a unified key:<br>
+	 * The connection to the login server.<br>
+	 * Its BlowFish engine is first initialized with a unified key:<br>
 	 * "_;v.]05-31!|+-%xT!^[$\00"<br>
 	 * <br>
 	 * and then after handshake, with a new key sent by<br>
 	 * login server during the handshake. This new key is stored<br>
 	 * in blowfishKey
 	 */
-	private NewCrypt _blowfish;
+	private volatile LinkConnection _connection;
+	private byte[] _blowfishKey;
 	private byte[] _hexID;
 	private final boolean _acceptAlternate;
 	private int _requestID;
 	private final boolean _reserveHost;
 	private int _maxPlayer;
-	private final List<WaitingClient> _waitingClients;
+	private final Map<String, WaitingClient> _waitingClients = new ConcurrentHashMap<>();
 	private final Map<String, L2GameClient> _accountsInGameServer = new ConcurrentHashMap<>();
+	
+	/** Accounts entered in game, sent in a single packet when the link is written. */
+	private final List<String> _playersInGame = new ArrayList<>();
+	/** If the login server registered this server on the current connection, accounts are only sent afterwards. */
+	private volatile boolean _registered;
+	
+	// Statistics
+	private final LongAdder _connects = new LongAdder();
+	private final LongAdder _authRequests = new LongAdder();
+	private final LongAccumulator _maxPendingAuths = new LongAccumulator(Math::max, 0);
+	private final LongAdder _authResponses = new LongAdder();
+	private final LongAdder _authRoundTrip = new LongAdder();
+	private final LongAccumulator _maxAuthRoundTrip = new LongAccumulator(Math::max, 0);
+	private final LongAdder _playersInGameSent = new LongAdder();
+	private final LongAdder _playersInGamePackets = new LongAdder();
 	private int _status;
 	private String _serverName;
 	private final List<String> _subnets;
@@ -136,213 +158,60 @@ public class LoginServerThread extends Thread
 		_reserveHost = Config.RESERVE_HOST_ON_LOGIN;
 		_subnets = Config.GAME_SERVER_SUBNETS;
 		_hosts = Config.GAME_SERVER_HOSTS;
-		_waitingClients = new CopyOnWriteArrayList<>();
 		_maxPlayer = Config.MAXIMUM_ONLINE_USERS;
 	}
 	
 	@Override
 	public void run()
 	{
+		final LinkSelector selector;
+		try
+		{
+			selector = new LinkSelector();
+		}
+		catch (IOException e)
+		{
+			_log.error("Could not open the login server link selector!", e);
+			return;
+		}
+		
 		while (!isInterrupted())
 		{
-			int lengthHi = 0;
-			int lengthLo = 0;
-			int length = 0;
-			boolean checksumOk = false;
 			try
 			{
 				// Connection
 				_log.info("Connecting to login on {}:{}", _hostname, _port);
-				_loginSocket = new Socket(_hostname, _port);
-				InputStream in = _loginSocket.getInputStream();
-				_out = new BufferedOutputStream(_loginSocket.getOutputStream());
-				
-				// init Blowfish
-				byte[] blowfishKey = Util.generateHex(40);
-				// Protect the new blowfish key what cannot begin with zero
-				if (blowfishKey[0] == 0)
+				final InetSocketAddress address = new InetSocketAddress(_hostname, _port);
+				if (address.isUnresolved())
 				{
-					blowfishKey[0] = (byte) Rnd.get(32, 64);
+					_log.warn("Unknown host {}!", _hostname);
 				}
-				_blowfish = new NewCrypt("_;v.]05-31!|+-%xT!^[$\00");
-				while (!isInterrupted())
+				else
 				{
-					lengthLo = in.read();
-					lengthHi = in.read();
-					length = (lengthHi * 256) + lengthLo;
-					
-					if (lengthHi < 0)
-					{
-						_log.info("LoginServerThread: Login terminated the connection.");
-						break;
-					}
-					
-					byte[] incoming = new byte[length - 2];
-					
-					int receivedBytes = 0;
-					int newBytes = 0;
-					int left = length - 2;
-					while ((newBytes != -1) && (receivedBytes < (length - 2)))
-					{
-						newBytes = in.read(incoming, receivedBytes, left);
-						receivedBytes = receivedBytes + newBytes;
-						left -= newBytes;
-					}
+					final SocketChannel channel = SocketChannel.open(address);
 					
-					if (receivedBytes != (length - 2))
+					// init Blowfish
+					_blowfishKey = Util.generateHex(40);
+					// Protect the new blowfish key what cannot begin with zero
+					if (_blowfishKey[0] == 0)
 					{
-						_log.warn("Incomplete Packet is sent to the server, closing connection.(LS)");
-						break;
+						_blowfishKey[0] = (byte) Rnd.get(32, 64);
 					}
-					
-					// decrypt if we have a key
-					_blowfish.decrypt(incoming, 0, incoming.length);
-					checksumOk = NewCrypt.verifyChecksum(incoming);
-					
-					if (!checksumOk)
+					_connects.increment();
+					synchronized (_playersInGame)
 					{
-						_log.warn("Incorrect packet checksum, ignoring packet (LS)");
-						break;
+						// All players are sent again once registered.
+						_playersInGame.clear();
+						_registered = false;
 					}
-					
-					int packetType = incoming[0] & 0xff;
-					switch (packetType)
+					final LinkConnection con = selector.register(channel, new NewCrypt("_;v.]05-31!|+-%xT!^[$\00"), this);
+					_connection = con;
+					while (!isInterrupted() && !con.isClosed())
 					{
-						case 0x00:
-							InitLS init = new InitLS(incoming);
-							if (init.getRevision() != REVISION)
-							{
-								// TODO: revision mismatch
-								_log.warn("/!\\ Revision mismatch between LS and GS /!\\");
-								break;
-							}
-							
-							RSAPublicKey publicKey;
-							
-							try
-							{
-								KeyFactory kfac = KeyFactory.getInstance("RSA");
-								BigInteger modulus = new BigInteger(init.getRSAKey());
-								RSAPublicKeySpec kspec1 = new RSAPublicKeySpec(modulus, RSAKeyGenParameterSpec.F4);
-								publicKey = (RSAPublicKey) kfac.generatePublic(kspec1);
-							}
-							catch (GeneralSecurityException e)
-							{
-								_log.warn("Trouble while init the public key send by login");
-								break;
-							}
-							// send the blowfish key through the rsa encryption
-							sendPacket(new BlowFishKey(blowfishKey, publicKey));
-							// now, only accept packet with the new encryption
-							_blowfish = new NewCrypt(blowfishKey);
-							sendPacket(new AuthRequest(_requestID, _acceptAlternate, _hexID, _gamePort, _reserveHost, _maxPlayer, _subnets, _hosts));
-							break;
-						case 0x01:
-							LoginServerFail lsf = new LoginServerFail(incoming);
-							_log.info("Damn! Registeration Failed: {}", lsf.getReasonString());
-							// login will close the connection here
-							break;
-						case 0x02:
-							AuthResponse aresp = new AuthResponse(incoming);
-							int serverID = aresp.getServerId();
-							_serverName = aresp.getServerName();
-							Config.saveHexid(serverID, hexToString(_hexID));
-							_log.info("Registered on login as Server {}: {}", serverID, _serverName);
-							ServerStatus st = new ServerStatus();
-							if (Config.SERVER_LIST_BRACKET)
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.ON);
-							}
-							else
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.OFF);
-							}
-							st.addAttribute(ServerStatus.SERVER_TYPE, Config.SERVER_LIST_TYPE);
-							if (Config.SERVER_GMONLY)
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_GM_ONLY);
-							}
-							else
-							{
-								st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_AUTO);
-							}
-							if (Config.SERVER_LIST_AGE == 15)
-							{
-								st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_15);
-							}
-							else if (Config.SERVER_LIST_AGE == 18)
-							{
-								st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_18);
-							}
-							else
-							{
-								st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_ALL);
-							}
-							sendPacket(st);
-							if (L2World.getInstance().getAllPlayersCount() > 0)
-							{
-								final List<String> playerList = new ArrayList<>();
-								for (L2PcInstance player : L2World.getInstance().getPlayers())
-								{
-									playerList.add(player.getAccountName());
-								}
-								sendPacket(new PlayerInGame(playerList));
-							}
-							break;
-						case 0x03:
-							PlayerAuthResponse par = new PlayerAuthResponse(incoming);
-							String account = par.getAccount();
-							WaitingClient wcToRemove = null;
-							synchronized (_waitingClients)
-							{
-								for (WaitingClient wc : _waitingClients)
-								{
-									if (wc.account.equals(account))
-									{
-										wcToRemove = wc;
-									}
-								}
-							}
-							if (wcToRemove != null)
-							{
-								if (par.isAuthed())
-								{
-									PlayerInGame pig = new PlayerInGame(par.getAccount());
-									sendPacket(pig);
-									wcToRemove.gameClient.setState(GameClientState.AUTHED);
-									wcToRemove.gameClient.setSessionId(wcToRemove.session);
-									CharSelectionInfo cl = new CharSelectionInfo(wcToRemove.account, wcToRemove.gameClient.getSessionId().playOkID1);
-									wcToRemove.gameClient.getConnection().sendPacket(cl);
-									wcToRemove.gameClient.setCharSelection(cl.getCharInfo());
-								}
-								else
-								{
-									_log.warn("Session key is not correct. Closing connection for account {}.", wcToRemove.account);
-									// wcToRemove.gameClient.getConnection().sendPacket(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
-									wcToRemove.gameClient.close(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
-									_accountsInGameServer.remove(wcToRemove.account);
-								}
-								_waitingClients.remove(wcToRemove);
-							}
-							break;
-						case 0x04:
-							KickPlayer kp = new KickPlayer(incoming);
-							doKickPlayer(kp.getAccount());
-							break;
-						case 0x05:
-							RequestCharacters rc = new RequestCharacters(incoming);
-							getCharsOnServer(rc.getAccount());
-							break;
-						case 0x06:
-							new ChangePasswordResponse(incoming);
-							break;
+						selector.select(1000);
 					}
 				}
 			}
-			catch (UnknownHostException e)
-			{
-				_log.warn("Unknown host!", e);
-			}
 			catch (SocketException e)
 			{
 				_log.warn("LoginServer not avaible, trying to reconnect...");
@@ -353,16 +222,15 @@ public class LoginServerThread extends Thread
 			}
 			finally
 			{
-				try
+				final LinkConnection con = _connection;
+				if (con != null)
 				{
-					_loginSocket.close();
-					if (isInterrupted())
-					{
-						return;
-					}
+					con.close();
 				}
-				catch (Exception e)
+				if (isInterrupted())
 				{
+					selector.close();
+					return;
 				}
 			}
 			
@@ -372,33 +240,223 @@ public class LoginServerThread extends Thread
 			}
 			catch (InterruptedException e)
 			{
+				selector.close();
 				return; // never swallow an interrupt!
 			}
 		}
+		selector.close();
+	}
+	
+	@Override
+	public void onFrame(LinkConnection con, byte[] incoming)
+	{
+		// decrypt if we have a key
+		if (!con.decrypt(incoming))
+		{
+			_log.warn("Incorrect packet checksum, ignoring packet (LS)");
+			con.close();
+			return;
+		}
+		
+		int packetType = incoming[0] & 0xff;
+		switch (packetType)
+		{
+			case 0x00:
+				InitLS init = new InitLS(incoming);
+				if (init.getRevision() != REVISION)
+				{
+					// TODO: revision mismatch
+					_log.warn("/!\\ Revision mismatch between LS and GS /!\\");
+					break;
+				}
+				
+				RSAPublicKey publicKey;
+				
+				try
+				{
+					KeyFactory kfac = KeyFactory.getInstance("RSA");
+					BigInteger modulus = new BigInteger(init.getRSAKey());
+					RSAPublicKeySpec kspec1 = new RSAPublicKeySpec(modulus, RSAKeyGenParameterSpec.F4);
+					publicKey = (RSAPublicKey) kfac.generatePublic(kspec1);
+				}
+				catch (GeneralSecurityException e)
+				{
+					_log.warn("Trouble while init the public key send by login");
+					break;
+				}
+				// send the blowfish key through the rsa encryption
+				sendPacket(new BlowFishKey(_blowfishKey, publicKey));
+				// now, only accept packet with the new encryption
+				con.setCrypt(new NewCrypt(_blowfishKey));
+				sendPacket(new AuthRequest(_requestID, _acceptAlternate, _hexID, _gamePort, _reserveHost, _maxPlayer, _subnets, _hosts));
+				break;
+			case 0x01:
+				LoginServerFail lsf = new LoginServerFail(incoming);
+				_log.info("Damn! Registeration Failed: {}", lsf.getReasonString());
+				// login will close the connection here
+				break;
+			case 0x02:
+				AuthResponse aresp = new AuthResponse(incoming);
+				int serverID = aresp.getServerId();
+				_serverName = aresp.getServerName();
+				Config.saveHexid(serverID, hexToString(_hexID));
+				_log.info("Registered on login as Server {}: {}", serverID, _serverName);
+				ServerStatus st = new ServerStatus();
+				if (Config.SERVER_LIST_BRACKET)
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.ON);
+				}
+				else
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_SQUARE_BRACKET, ServerStatus.OFF);
+				}
+				st.addAttribute(ServerStatus.SERVER_TYPE, Config.SERVER_LIST_TYPE);
+				if (Config.SERVER_GMONLY)
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_GM_ONLY);
+				}
+				else
+				{
+					st.addAttribute(ServerStatus.SERVER_LIST_STATUS, ServerStatus.STATUS_AUTO);
+				}
+				if (Config.SERVER_LIST_AGE == 15)
+				{
+					st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_15);
+				}
+				else if (Config.SERVER_LIST_AGE == 18)
+				{
+					st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_18);
+				}
+				else
+				{
+					st.addAttribute(ServerStatus.SERVER_AGE, ServerStatus.SERVER_AGE_ALL);
+				}
+				sendPacket(st);
+				_registered = true;
+				for (L2PcInstance player : L2World.getInstance().getPlayers())
+				{
+					sendPlayerInGame(player.getAccountName());
+				}
+				break;
+			case 0x03:
+				PlayerAuthResponse par = new PlayerAuthResponse(incoming);
+				final WaitingClient wc = _waitingClients.remove(par.getAccount());
+				if (wc != null)
+				{
+					final long time = System.nanoTime() - wc.requestTime;
+					_authResponses.increment();
+					_authRoundTrip.add(time);
+					_maxAuthRoundTrip.accumulate(time);
+					// Loading the character selection hits the database, keep it off the link.
+					final boolean authed = par.isAuthed();
+					ThreadPoolManager.getInstance().executeGeneral(() -> completeAuth(wc, authed));
+				}
+				break;
+			case 0x04:
+				KickPlayer kp = new KickPlayer(incoming);
+				doKickPlayer(kp.getAccount());
+				break;
+			case 0x05:
+				RequestCharacters rc = new RequestCharacters(incoming);
+				ThreadPoolManager.getInstance().executeGeneral(() -> getCharsOnServer(rc.getAccount()));
+				break;
+			case 0x06:
+				new ChangePasswordResponse(incoming);
+				break;
+		}
+	}
+	
+	@Override
+	public void onWrite(LinkConnection con)
+	{
+		synchronized (_playersInGame)
+		{
+			flushPlayersInGame(con);
+		}
+	}
+	
+	@Override
+	public void onDisconnection(LinkConnection con)
+	{
+		_log.info("LoginServerThread: Login terminated the connection.");
 	}
 	
 	/**
-	 * Adds the waiting client and send request.
-	 * @param acc the account
-	 * @param client the game client
-	 * @param key the session key
+	 * Completes the authentication of a waiting client, with the response of the login server.
+	 * @param wc the waiting client
+	 * @param authed {@code true} if the session key is correct
 	 */
-	public void addWaitingClientAndSendRequest(String acc, L2GameClient client, SessionKey key)
+	private void completeAuth(WaitingClient wc, boolean authed)
 	{
-		WaitingClient wc = new WaitingClient(acc, client, key);
-		synchronized (_waitingClients)
+		if (authed)
 		{
-			_waitingClients.add(wc);
+			sendPlayerInGame(wc.account);
+			wc.gameClient.setState(GameClientState.AUTHED);
+			wc.gameClient.setSessionId(wc.session);
+			CharSelectionInfo cl = new CharSelectionInfo(wc.account, wc.gameClient.getSessionId().playOkID1);
+			wc.gameClient.getConnection().sendPacket(cl);
+			wc.gameClient.setCharSelection(cl.getCharInfo());
 		}
-		PlayerAuthRequest par = new PlayerAuthRequest(acc, key);
-		try
+		else
 		{
-			sendPacket(par);
+			_log.warn("Session key is not correct. Closing connection for account {}.", wc.account);
+			// wc.gameClient.getConnection().sendPacket(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
+			wc.gameClient.close(new LoginFail(LoginFail.SYSTEM_ERROR_LOGIN_LATER));
+			_accountsInGameServer.remove(wc.account);
 		}
-		catch (IOException e)
+	}
+	
+	/**
+	 * Queues an account entered in game, the accounts queued until the link is written being sent in a single packet.
+	 * @param account the account
+	 */
+	private void sendPlayerInGame(String account)
+	{
+		final LinkConnection con = _connection;
+		if (con == null)
+		{
+			return;
+		}
+		
+		synchronized (_playersInGame)
+		{
+			_playersInGame.add(account);
+		}
+		con.scheduleWrite();
+	}
+	
+	/**
+	 * Sends the queued accounts entered in game, the caller holding the lock of the queue.
+	 * @param con the connection
+	 */
+	private void flushPlayersInGame(LinkConnection con)
+	{
+		if (!_registered)
 		{
-			_log.warn("Error while sending player auth request!");
+			return;
+		}
+		
+		for (int from = 0; from < _playersInGame.size(); from += MAX_PLAYERS_IN_GAME)
+		{
+			con.send(new PlayerInGame(new ArrayList<>(_playersInGame.subList(from, Math.min(from + MAX_PLAYERS_IN_GAME, _playersInGame.size())))));
+			_playersInGamePackets.increment();
 		}
+		_playersInGameSent.add(_playersInGame.size());
+		_playersInGame.clear();
+	}
+	
+	/**
+	 * Adds the waiting client and send request.
+	 * @param acc the account
+	 * @param client the game client
+	 * @param key the session key
+	 */
+	public void addWaitingClientAndSendRequest(String acc, L2GameClient client, SessionKey key)
+	{
+		_waitingClients.put(acc, new WaitingClient(acc, client, key));
+		_authRequests.increment();
+		_maxPendingAuths.accumulate(_waitingClients.size());
+		sendPacket(new PlayerAuthRequest(acc, key));
 	}
 	
 	/**
@@ -407,20 +465,10 @@ public class LoginServerThread extends Thread
 	 */
 	public void removeWaitingClient(L2GameClient client)
 	{
-		WaitingClient toRemove = null;
-		synchronized (_waitingClients)
+		final String account = client.getAccountName();
+		if (account != null)
 		{
-			for (WaitingClient c : _waitingClients)
-			{
-				if (c.gameClient == client)
-				{
-					toRemove = c;
-				}
-			}
-			if (toRemove != null)
-			{
-				_waitingClients.remove(toRemove);
-			}
+			_waitingClients.computeIfPresent(account, (k, wc) -> wc.gameClient == client ? null : wc);
 		}
 	}
 	
@@ -434,19 +482,8 @@ public class LoginServerThread extends Thread
 		{
 			return;
 		}
-		PlayerLogout pl = new PlayerLogout(account);
-		try
-		{
-			sendPacket(pl);
-		}
-		catch (IOException e)
-		{
-			_log.warn("Error while sending logout packet to login!");
-		}
-		finally
-		{
-			_accountsInGameServer.remove(account);
-		}
+		sendPacket(new PlayerLogout(account));
+		_accountsInGameServer.remove(account);
 	}
 	
 	/**
@@ -468,13 +505,7 @@ public class LoginServerThread extends Thread
 	public void sendAccessLevel(String account, int level)
 	{
 		ChangeAccessLevel cal = new ChangeAccessLevel(account, level);
-		try
-		{
-			sendPacket(cal);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(cal);
 	}
 	
 	/**
@@ -485,13 +516,7 @@ public class LoginServerThread extends Thread
 	public void sendClientTracert(String account, String[] address)
 	{
 		PlayerTracert ptc = new PlayerTracert(account, address[0], address[1], address[2], address[3], address[4]);
-		try
-		{
-			sendPacket(ptc);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(ptc);
 	}
 	
 	/**
@@ -503,13 +528,7 @@ public class LoginServerThread extends Thread
 	public void sendMail(String account, String mailId, String... args)
 	{
 		SendMail sem = new SendMail(account, mailId, args);
-		try
-		{
-			sendPacket(sem);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(sem);
 	}
 	
 	/**
@@ -521,13 +540,7 @@ public class LoginServerThread extends Thread
 	public void sendTempBan(String account, String ip, long time)
 	{
 		TempBan tbn = new TempBan(account, ip, time);
-		try
-		{
-			sendPacket(tbn);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(tbn);
 	}
 	
 	/**
@@ -587,33 +600,26 @@ public class LoginServerThread extends Thread
 		}
 		
 		ReplyCharacters rec = new ReplyCharacters(account, chars, charToDel);
-		try
-		{
-			sendPacket(rec);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(rec);
 	}
 	
 	/**
-	 * Send packet.
+	 * Send packet.<br>
+	 * The packet is queued behind the accounts entered in game so far, the link keeping the order of the packets.
 	 * @param sl the sendable packet
-	 * @throws IOException Signals that an I/O exception has occurred.
 	 */
-	private void sendPacket(BaseSendablePacket sl) throws IOException
+	private void sendPacket(BaseSendablePacket sl)
 	{
-		byte[] data = sl.getContent();
-		NewCrypt.appendChecksum(data);
-		_blowfish.crypt(data, 0, data.length);
+		final LinkConnection con = _connection;
+		if ((con == null) || con.isClosed())
+		{
+			return;
+		}
 		
-		int len = data.length + 2;
-		synchronized (_out) // avoids tow threads writing in the mean time
+		synchronized (_playersInGame)
 		{
-			_out.write(len & 0xff);
-			_out.write((len >> 8) & 0xff);
-			_out.write(data);
-			_out.flush();
+			flushPlayersInGame(con);
+			con.send(sl);
 		}
 	}
 	
@@ -645,13 +651,7 @@ public class LoginServerThread extends Thread
 	{
 		ServerStatus ss = new ServerStatus();
 		ss.addAttribute(id, value);
-		try
-		{
-			sendPacket(ss);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(ss);
 	}
 	
 	/**
@@ -661,13 +661,7 @@ public class LoginServerThread extends Thread
 	{
 		ServerStatus ss = new ServerStatus();
 		ss.addAttribute(ServerStatus.SERVER_TYPE, Config.SERVER_LIST_TYPE);
-		try
-		{
-			sendPacket(ss);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(ss);
 	}
 	
 	/**
@@ -680,13 +674,7 @@ public class LoginServerThread extends Thread
 	public void sendChangePassword(String accountName, String charName, String oldpass, String newpass)
 	{
 		ChangePassword cp = new ChangePassword(accountName, charName, oldpass, newpass);
-		try
-		{
-			sendPacket(cp);
-		}
-		catch (IOException e)
-		{
-		}
+		sendPacket(cp);
 	}
 	
 	/**
@@ -783,6 +771,7 @@ public class LoginServerThread extends Thread
 		public String account;
 		public L2GameClient gameClient;
 		public SessionKey session;
+		public final long requestTime = System.nanoTime();
 		
 		/**
 		 * Instantiates a new waiting client.
@@ -798,6 +787,23 @@ public class LoginServerThread extends Thread
 		}
 	}
 	
+	public String[] getStats()
+	{
+		final LinkConnection con = _connection;
+		final long responses = _authResponses.sum();
+		final long packets = _playersInGamePackets.sum();
+		return new String[]
+		{
+			"Login Server Link:",
+			" |- Connected:     " + ((con != null) && !con.isClosed()) + ", " + _connects.sum() + " connections",
+			" |- PendingAuths:  " + _waitingClients.size() + " in flight (max " + _maxPendingAuths.get() + ")",
+			" |- AuthRequests:  " + _authRequests.sum(),
+			" |- AuthRoundTrip: " + (responses > 0 ? String.format("%.2f", (_authRoundTrip.sum() / 1e6) / responses) : "0") + "ms avg, " + String.format("%.2f", _maxAuthRoundTrip.get() / 1e6) + "ms max, " + responses + " responses",
+			" |- PlayersInGame: " + _playersInGameSent.sum() + " accounts in " + packets + " packets",
+			" |- " + (con != null ? con.getStats() : "Link: none"),
+		};
+	}
+	
 	/**
 	 * Gets the single instance of LoginServerThread.
 	 * @return single instance of LoginServerThread
@@ -47,6 +47,8 @@ import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.gameserverpackets.ServerStatus;
 import com.l2jserver.gameserver.network.serverpackets.ServerClose;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager;
+import com.l2jserver.gameserver.taskmanager.QuestVarUpdateTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 
 /**
@@ -561,6 +563,20 @@ public class Shutdown extends Thread
 			_log.info("Items On Ground Manager: Cleaned up({}ms).", tc.getEstimatedTimeAndRestartCounter());
 		}
 		
+		// Write the items still queued by the write-behind item update
+		if (Config.ITEMS_WRITE_BEHIND)
+		{
+			ItemUpdateTaskManager.getInstance().flush();
+			_log.info("Item Update Task Manager: Queued items saved({}ms).", tc.getEstimatedTimeAndRestartCounter());
+		}
+		
+		// Write the quest variables still queued by the write-behind quest variable update
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().flush();
+			_log.info("Quest Variable Update Task Manager: Queued quest variables saved({}ms).", tc.getEstimatedTimeAndRestartCounter());
+		}
+		
 		// Save bot reports to database
 		if (Config.BOTREPORT_ENABLE)
 		{
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the loaders of the server startup in stages.<br>
+ * Each stage declares the stages it depends on, which must be added before it. With more than one thread, stages whose dependencies are loaded run concurrently on a bounded pool, otherwise they run one after the other in the order they were added.<br>
+ * The first stage to fail stops the startup, and a timing report of the stages is logged once all are loaded.
+ */
+public final class StartupOrchestrator
+{
+	private static final Logger _log = LoggerFactory.getLogger(StartupOrchestrator.class);
+	
+	/**
+	 * Loader of a stage.
+	 */
+	@FunctionalInterface
+	public interface Loader
+	{
+		void load() throws Exception;
+	}
+	
+	private static final class Stage
+	{
+		protected final String _name;
+		protected final Loader _loader;
+		protected final List<Stage> _dependents = new ArrayList<>();
+		protected int _pendingDependencies;
+		protected long _startTime;
+		protected long _endTime;
+		protected String _threadName;
+		
+		protected Stage(String name, Loader loader)
+		{
+			_name = name;
+			_loader = loader;
+		}
+		
+		protected Stage load() throws Exception
+		{
+			_threadName = Thread.currentThread().getName();
+			_startTime = System.nanoTime();
+			_loader.load();
+			_endTime = System.nanoTime();
+			return this;
+		}
+	}
+	
+	private final Map<String, Stage> _stages = new LinkedHashMap<>();
+	private final int _threads;
+	
+	/**
+	 * @param threads the number of threads loading the stages, 1 to load them on the calling thread in the order they were added
+	 */
+	public StartupOrchestrator(int threads)
+	{
+		_threads = Math.max(1, threads);
+	}
+	
+	/**
+	 * @param name the name of the stage
+	 * @param loader the loader of the stage
+	 * @param dependencies the names of the stages to load before, already added
+	 */
+	public void add(String name, Loader loader, String... dependencies)
+	{
+		if (_stages.containsKey(name))
+		{
+			throw new IllegalArgumentException("Startup stage " + name + " is already added!");
+		}
+		
+		final Stage stage = new Stage(name, loader);
+		for (String dependency : dependencies)
+		{
+			final Stage required = _stages.get(dependency);
+			if (required == null)
+			{
+				throw new IllegalArgumentException("Startup stage " + name + " depends on " + dependency + " which is not added before it!");
+			}
+			required._dependents.add(stage);
+			stage._pendingDependencies++;
+		}
+		_stages.put(name, stage);
+	}
+	
+	/**
+	 * Loads all stages, blocking until done.
+	 * @throws Exception if a stage failed, the other stages are then abandoned
+	 */
+	public void run() throws Exception
+	{
+		final long startTime = System.nanoTime();
+		if (_threads == 1)
+		{
+			for (Stage stage : _stages.values())
+			{
+				GameServer.printSection(stage._name);
+				try
+				{
+					stage.load();
+				}
+				catch (Exception | Error e)
+				{
+					throw new Exception("Startup stage " + stage._name + " failed!", e);
+				}
+			}
+		}
+		else
+		{
+			runParallel();
+		}
+		report(System.nanoTime() - startTime);
+	}
+	
+	private void runParallel() throws Exception
+	{
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(_threads, r ->
+		{
+			final Thread thread = new Thread(r, "Startup-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		final CompletionService<Stage> completion = new ExecutorCompletionService<>(executor);
+		final Map<Future<Stage>, Stage> running = new HashMap<>();
+		try
+		{
+			for (Stage stage : _stages.values())
+			{
+				if (stage._pendingDependencies == 0)
+				{
+					running.put(completion.submit(stage::load), stage);
+				}
+			}
+			
+			int loaded = 0;
+			while (loaded < _stages.size())
+			{
+				final Future<Stage> future = completion.take();
+				final Stage stage = running.remove(future);
+				try
+				{
+					future.get();
+				}
+				catch (ExecutionException e)
+				{
+					throw new Exception("Startup stage " + stage._name + " failed!", e.getCause());
+				}
+				
+				loaded++;
+				_log.info("{}: Loaded {} in {} ms.", getClass().getSimpleName(), stage._name, TimeUnit.NANOSECONDS.toMillis(stage._endTime - stage._startTime));
+				for (Stage dependent : stage._dependents)
+				{
+					if (--dependent._pendingDependencies == 0)
+					{
+						running.put(completion.submit(dependent::load), dependent);
+					}
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	private void report(long totalTime)
+	{
+		final List<Stage> stages = new ArrayList<>(_stages.values());
+		stages.sort(Comparator.comparingLong(stage -> stage._startTime));
+		final long origin = stages.isEmpty() ? 0 : stages.get(0)._startTime;
+		long stagesTime = 0;
+		_log.info("{}: Stage timings:", getClass().getSimpleName());
+		for (Stage stage : stages)
+		{
+			final long time = stage._endTime - stage._startTime;
+			stagesTime += time;
+			_log.info(" |- {} {} ms, started at {} ms on {}", String.format("%-17s", stage._name + ":"), TimeUnit.NANOSECONDS.toMillis(time), TimeUnit.NANOSECONDS.toMillis(stage._startTime - origin), stage._threadName);
+		}
+		_log.info("{}: Loaded {} stages in {} ms on {} threads, {} ms of loading.", getClass().getSimpleName(), stages.size(), TimeUnit.NANOSECONDS.toMillis(totalTime), _threads, TimeUnit.NANOSECONDS.toMillis(stagesTime));
+	}
+}
@@ -19,6 +19,7 @@
 package com.l2jserver.gameserver;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.Arrays;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
@@ -108,6 +109,8 @@ public class ThreadPoolManager
 	private final ThreadPoolExecutor _ioPacketsThreadPool;
 	private final ThreadPoolExecutor _generalThreadPool;
 	private final ThreadPoolExecutor _eventThreadPool;
+	/** Timing wheel of the character tasks, {@code null} when no task type uses it. */
+	private final TimingWheel _timingWheel;
 	
 	private boolean _shutdown;
 	
@@ -127,6 +130,15 @@ public class ThreadPoolManager
 		_aiScheduledThreadPool = new ScheduledThreadPoolExecutor(Config.AI_MAX_THREAD, new PriorityThreadFactory("AISTPool", Thread.NORM_PRIORITY));
 		_eventThreadPool = new ThreadPoolExecutor(Config.EVENT_MAX_THREAD, Config.EVENT_MAX_THREAD + 2, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new PriorityThreadFactory("Event Pool", Thread.NORM_PRIORITY));
 		
+		if (Config.TIMING_WHEEL_BUFFS || Config.TIMING_WHEEL_REGENERATION || Config.TIMING_WHEEL_FOLLOW || Config.TIMING_WHEEL_ATTACKABLE_AI)
+		{
+			_timingWheel = new TimingWheel("TimingWheel", Config.TIMING_WHEEL_TICK);
+		}
+		else
+		{
+			_timingWheel = null;
+		}
+		
 		scheduleGeneralAtFixedRate(new PurgeTask(), 10, 5, TimeUnit.MINUTES);
 	}
 	
@@ -366,6 +378,80 @@ public class ThreadPoolManager
 		return scheduleAiAtFixedRate(task, initialDelay, period, TimeUnit.MILLISECONDS);
 	}
 	
+	/**
+	 * Schedules an effect task on the timing wheel, to be executed after the given delay on the effects thread pool.<br>
+	 * Falls back to {@link #scheduleEffect(Runnable, long)} when the timing wheel is not used.
+	 * @param task the task to execute
+	 * @param delay the delay in milliseconds
+	 * @return a ScheduledFuture representing pending completion of the task
+	 */
+	public ScheduledFuture<?> scheduleEffectTimer(Runnable task, long delay)
+	{
+		if (_timingWheel == null)
+		{
+			return scheduleEffect(task, delay);
+		}
+		
+		try
+		{
+			return _timingWheel.schedule(task, _effectsScheduledThreadPool, delay);
+		}
+		catch (RejectedExecutionException e)
+		{
+			return null; /* shutdown, ignore */
+		}
+	}
+	
+	/**
+	 * Schedules an effect task on the timing wheel, to be executed at fixed rate on the effects thread pool.<br>
+	 * Falls back to {@link #scheduleEffectAtFixedRate(Runnable, long, long)} when the timing wheel is not used.
+	 * @param task the task to execute
+	 * @param initialDelay the initial delay in milliseconds
+	 * @param period the period between executions in milliseconds
+	 * @return a ScheduledFuture representing pending completion of the task
+	 */
+	public ScheduledFuture<?> scheduleEffectTimerAtFixedRate(Runnable task, long initialDelay, long period)
+	{
+		if (_timingWheel == null)
+		{
+			return scheduleEffectAtFixedRate(task, initialDelay, period);
+		}
+		
+		try
+		{
+			return _timingWheel.scheduleAtFixedRate(task, _effectsScheduledThreadPool, initialDelay, period);
+		}
+		catch (RejectedExecutionException e)
+		{
+			return null; /* shutdown, ignore */
+		}
+	}
+	
+	/**
+	 * Schedules an AI task on the timing wheel, to be executed at fixed rate on the AI thread pool.<br>
+	 * Falls back to {@link #scheduleAiAtFixedRate(Runnable, long, long)} when the timing wheel is not used.
+	 * @param task the task to execute
+	 * @param initialDelay the initial delay in milliseconds
+	 * @param period the period between executions in milliseconds
+	 * @return a ScheduledFuture representing pending completion of the task
+	 */
+	public ScheduledFuture<?> scheduleAiTimerAtFixedRate(Runnable task, long initialDelay, long period)
+	{
+		if (_timingWheel == null)
+		{
+			return scheduleAiAtFixedRate(task, initialDelay, period);
+		}
+		
+		try
+		{
+			return _timingWheel.scheduleAtFixedRate(task, _aiScheduledThreadPool, initialDelay, period);
+		}
+		catch (RejectedExecutionException e)
+		{
+			return null; /* shutdown, ignore */
+		}
+	}
+	
 	/**
 	 * Executes a packet task sometime in future in another thread.
 	 * @param task the task to execute
@@ -448,7 +534,7 @@ public class ThreadPoolManager
 	
 	public String[] getStats()
 	{
-		return new String[]
+		final String[] stats = new String[]
 		{
 			"STP:",
 			" + Effects:",
@@ -520,6 +606,16 @@ public class ThreadPoolManager
 			" |- QueuedTasks:     " + _eventThreadPool.getQueue().size(),
 			" | -------"
 		};
+		
+		if (_timingWheel == null)
+		{
+			return stats;
+		}
+		
+		final String[] wheelStats = _timingWheel.getStats();
+		final String[] result = Arrays.copyOf(stats, stats.length + wheelStats.length);
+		System.arraycopy(wheelStats, 0, result, stats.length, wheelStats.length);
+		return result;
 	}
 	
 	private static class PriorityThreadFactory implements ThreadFactory
@@ -553,6 +649,10 @@ public class ThreadPoolManager
 	public void shutdown()
 	{
 		_shutdown = true;
+		if (_timingWheel != null)
+		{
+			_timingWheel.shutdown();
+		}
 		try
 		{
 			_effectsScheduledThreadPool.awaitTermination(1, TimeUnit.SECONDS);
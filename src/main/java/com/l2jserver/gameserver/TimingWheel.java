@@ -0,0 +1,534 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchical timing wheel, scheduling a large number of timers with O(1) schedule and cancel.<br>
+ * Four levels of 256 slots cover 2^32 ticks. Timers are placed on the level of the highest tick digit differing from the current tick, and cascade to the lower levels as the wheel turns.<br>
+ * Schedules and cancels are queued lock-free and applied by the wheel thread, which dispatches the expired timers to their executor in batches.<br>
+ * Timers are precise to one tick, and cancelling a running timer never interrupts it.
+ */
+public final class TimingWheel
+{
+	protected static final Logger _log = LoggerFactory.getLogger(TimingWheel.class);
+	
+	private static final int WHEEL_BITS = 8;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int LEVELS = 4;
+	/** Expired timers executed by one task of the executor. */
+	private static final int DISPATCH_BATCH_SIZE = 64;
+	protected static final AtomicIntegerFieldUpdater<Timer> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Timer.class, "_state");
+	
+	private final long _tickNanos;
+	private final long _startTime;
+	private final Timer[][] _wheels = new Timer[LEVELS][WHEEL_SIZE];
+	private final Queue<Timer> _pending = new ConcurrentLinkedQueue<>();
+	private final Queue<Timer> _cancelled = new ConcurrentLinkedQueue<>();
+	private final Thread _thread;
+	private volatile boolean _shutdown;
+	/** Last processed tick, only used by the wheel thread. */
+	private long _tick;
+	
+	private final AtomicInteger _activeTimers = new AtomicInteger();
+	private final LongAdder _scheduledTimers = new LongAdder();
+	private final LongAdder _cancelledTimers = new LongAdder();
+	private final LongAdder _executedTimers = new LongAdder();
+	private final LongAdder _dispatchedBatches = new LongAdder();
+	private volatile long _maxLateTicks;
+	
+	/**
+	 * @param name the name of the wheel thread
+	 * @param tick the duration of a tick in milliseconds
+	 */
+	public TimingWheel(String name, long tick)
+	{
+		_tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tick));
+		_startTime = System.nanoTime();
+		_thread = new Thread(this::run, name);
+		_thread.setDaemon(true);
+		_thread.setPriority(Thread.MAX_PRIORITY);
+		_thread.start();
+	}
+	
+	/**
+	 * Schedules a task to be executed once after the given delay.
+	 * @param task the task to execute
+	 * @param executor the executor running the task
+	 * @param delay the delay in milliseconds
+	 * @return a ScheduledFuture representing pending completion of the task
+	 */
+	public ScheduledFuture<?> schedule(Runnable task, Executor executor, long delay)
+	{
+		return schedule(task, executor, delay, 0);
+	}
+	
+	/**
+	 * Schedules a task to be executed at fixed rate.
+	 * @param task the task to execute
+	 * @param executor the executor running the task
+	 * @param initialDelay the initial delay in milliseconds
+	 * @param period the period between executions in milliseconds
+	 * @return a ScheduledFuture representing pending completion of the task
+	 */
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Executor executor, long initialDelay, long period)
+	{
+		return schedule(task, executor, initialDelay, Math.max(1, toTicks(period)));
+	}
+	
+	private ScheduledFuture<?> schedule(Runnable task, Executor executor, long delay, long periodTicks)
+	{
+		if (_shutdown)
+		{
+			throw new RejectedExecutionException();
+		}
+		
+		final long now = (System.nanoTime() - _startTime) / _tickNanos;
+		final Timer timer = new Timer(task, executor, now + toTicks(delay), periodTicks);
+		_activeTimers.incrementAndGet();
+		_scheduledTimers.increment();
+		_pending.add(timer);
+		return timer;
+	}
+	
+	private long toTicks(long millis)
+	{
+		// Rounded up, a timer never fires before its delay.
+		return ((TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis)) + _tickNanos) - 1) / _tickNanos;
+	}
+	
+	public void shutdown()
+	{
+		_shutdown = true;
+		LockSupport.unpark(_thread);
+	}
+	
+	private void run()
+	{
+		final List<Timer> expired = new ArrayList<>();
+		while (!_shutdown)
+		{
+			try
+			{
+				Timer timer;
+				while ((timer = _cancelled.poll()) != null)
+				{
+					unlink(timer);
+				}
+				while ((timer = _pending.poll()) != null)
+				{
+					if (timer.getState() == Timer.WAITING)
+					{
+						insert(timer, expired);
+					}
+				}
+				
+				final long target = (System.nanoTime() - _startTime) / _tickNanos;
+				if ((target - _tick) > _maxLateTicks)
+				{
+					_maxLateTicks = target - _tick;
+				}
+				while (_tick < target)
+				{
+					_tick++;
+					cascade(expired);
+					expire(_wheels[0][(int) (_tick & WHEEL_MASK)], expired);
+					_wheels[0][(int) (_tick & WHEEL_MASK)] = null;
+				}
+				
+				if (!expired.isEmpty())
+				{
+					dispatch(expired);
+					expired.clear();
+				}
+				
+				final long sleep = (_startTime + ((_tick + 1) * _tickNanos)) - System.nanoTime();
+				if (sleep > 0)
+				{
+					LockSupport.parkNanos(sleep);
+				}
+			}
+			catch (Throwable e)
+			{
+				_log.warn("{}: Unexpected error!", _thread.getName(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Places a timer on the level of the highest tick digit differing from the current tick.
+	 * @param timer the timer
+	 * @param expired the expired timers of this turn
+	 */
+	private void insert(Timer timer, List<Timer> expired)
+	{
+		if (timer._deadline <= _tick)
+		{
+			expired.add(timer);
+			return;
+		}
+		
+		final long diff = timer._deadline ^ _tick;
+		int level = 0;
+		while ((level < (LEVELS - 1)) && ((diff >>> (WHEEL_BITS * (level + 1))) != 0))
+		{
+			level++;
+		}
+		
+		final int index;
+		if ((diff >>> (WHEEL_BITS * LEVELS)) != 0)
+		{
+			// Beyond the last level, the timer waits in its farthest slot and is placed again when it cascades.
+			index = (int) (((_tick >>> (WHEEL_BITS * level)) - 1) & WHEEL_MASK);
+		}
+		else
+		{
+			index = (int) ((timer._deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+		}
+		final Timer head = _wheels[level][index];
+		timer._level = level;
+		timer._index = index;
+		timer._prev = null;
+		timer._next = head;
+		if (head != null)
+		{
+			head._prev = timer;
+		}
+		_wheels[level][index] = timer;
+	}
+	
+	private void unlink(Timer timer)
+	{
+		if (timer._level < 0)
+		{
+			return;
+		}
+		
+		if (timer._prev != null)
+		{
+			timer._prev._next = timer._next;
+		}
+		else
+		{
+			_wheels[timer._level][timer._index] = timer._next;
+		}
+		if (timer._next != null)
+		{
+			timer._next._prev = timer._prev;
+		}
+		timer._level = -1;
+		timer._prev = null;
+		timer._next = null;
+	}
+	
+	/**
+	 * Moves the timers of the upper levels reaching the current tick down the wheel.
+	 * @param expired the expired timers of this turn
+	 */
+	private void cascade(List<Timer> expired)
+	{
+		for (int level = 1; level < LEVELS; level++)
+		{
+			if (((_tick >>> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0)
+			{
+				return;
+			}
+			
+			final int index = (int) ((_tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+			Timer timer = _wheels[level][index];
+			_wheels[level][index] = null;
+			while (timer != null)
+			{
+				final Timer next = timer._next;
+				timer._level = -1;
+				insert(timer, expired);
+				timer = next;
+			}
+		}
+	}
+	
+	private void expire(Timer timer, List<Timer> expired)
+	{
+		while (timer != null)
+		{
+			final Timer next = timer._next;
+			timer._level = -1;
+			timer._prev = null;
+			timer._next = null;
+			expired.add(timer);
+			timer = next;
+		}
+	}
+	
+	/**
+	 * Hands the expired timers to their executors, in batches.
+	 * @param expired the expired timers
+	 */
+	private void dispatch(List<Timer> expired)
+	{
+		final Map<Executor, List<Timer>> batches = new IdentityHashMap<>();
+		for (Timer timer : expired)
+		{
+			List<Timer> batch = batches.get(timer._executor);
+			if (batch == null)
+			{
+				batch = new ArrayList<>(DISPATCH_BATCH_SIZE);
+				batches.put(timer._executor, batch);
+			}
+			batch.add(timer);
+			if (batch.size() == DISPATCH_BATCH_SIZE)
+			{
+				execute(timer._executor, batch);
+				batches.remove(timer._executor);
+			}
+		}
+		
+		for (Map.Entry<Executor, List<Timer>> entry : batches.entrySet())
+		{
+			execute(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	private void execute(Executor executor, List<Timer> batch)
+	{
+		try
+		{
+			executor.execute(() ->
+			{
+				for (Timer timer : batch)
+				{
+					timer.run();
+				}
+			});
+			_dispatchedBatches.increment();
+		}
+		catch (RejectedExecutionException e)
+		{
+			/* shutdown, ignore */
+		}
+	}
+	
+	/**
+	 * @return the number of scheduled timers, cancelled timers excluded
+	 */
+	public int getActiveTimers()
+	{
+		return _activeTimers.get();
+	}
+	
+	public String[] getStats()
+	{
+		return new String[]
+		{
+			" + Timing Wheel:",
+			" |- Tick:            " + TimeUnit.NANOSECONDS.toMillis(_tickNanos) + " ms",
+			" |- ActiveTimers:    " + _activeTimers.get(),
+			" |- ScheduledTimers: " + _scheduledTimers.sum(),
+			" |- CancelledTimers: " + _cancelledTimers.sum(),
+			" |- ExecutedTimers:  " + _executedTimers.sum(),
+			" |- Batches:         " + _dispatchedBatches.sum(),
+			" |- MaxLateTicks:    " + _maxLateTicks,
+		};
+	}
+	
+	/**
+	 * A timer of the wheel, linked in its slot.
+	 */
+	private final class Timer implements ScheduledFuture<Object>
+	{
+		protected static final int WAITING = 0;
+		protected static final int CANCELLED = 1;
+		protected static final int DONE = 2;
+		
+		private final Runnable _task;
+		protected final Executor _executor;
+		private final long _period;
+		protected volatile long _deadline;
+		protected volatile int _state = WAITING;
+		/** Set by the threads waiting for completion, written before they check the state. */
+		private volatile boolean _waiting;
+		
+		// Slot links, only used by the wheel thread
+		protected int _level = -1;
+		protected int _index;
+		protected Timer _prev;
+		protected Timer _next;
+		
+		protected Timer(Runnable task, Executor executor, long deadline, long period)
+		{
+			_task = task;
+			_executor = executor;
+			_deadline = deadline;
+			_period = period;
+		}
+		
+		protected int getState()
+		{
+			return _state;
+		}
+		
+		protected void run()
+		{
+			if ((_state != WAITING) || ((_period == 0) && !STATE_UPDATER.compareAndSet(this, WAITING, DONE)))
+			{
+				return;
+			}
+			
+			try
+			{
+				_task.run();
+			}
+			catch (Throwable e)
+			{
+				final Thread t = Thread.currentThread();
+				final UncaughtExceptionHandler h = t.getUncaughtExceptionHandler();
+				if (h != null)
+				{
+					h.uncaughtException(t, e);
+				}
+			}
+			_executedTimers.increment();
+			
+			if (_period == 0)
+			{
+				done();
+			}
+			else if (_state == WAITING)
+			{
+				_deadline += _period;
+				_pending.add(this);
+			}
+		}
+		
+		private void done()
+		{
+			_activeTimers.decrementAndGet();
+			if (_waiting)
+			{
+				synchronized (this)
+				{
+					notifyAll();
+				}
+			}
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning)
+		{
+			if (!STATE_UPDATER.compareAndSet(this, WAITING, CANCELLED))
+			{
+				return false;
+			}
+			
+			_cancelledTimers.increment();
+			_cancelled.add(this);
+			done();
+			return true;
+		}
+		
+		@Override
+		public boolean isCancelled()
+		{
+			return _state == CANCELLED;
+		}
+		
+		@Override
+		public boolean isDone()
+		{
+			return _state != WAITING;
+		}
+		
+		@Override
+		public long getDelay(TimeUnit unit)
+		{
+			return unit.convert((_startTime + (_deadline * _tickNanos)) - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+		
+		@Override
+		public int compareTo(Delayed o)
+		{
+			return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+		}
+		
+		@Override
+		public Object get() throws InterruptedException, ExecutionException
+		{
+			synchronized (this)
+			{
+				_waiting = true;
+				while (_state == WAITING)
+				{
+					wait();
+				}
+			}
+			if (_state == CANCELLED)
+			{
+				throw new CancellationException();
+			}
+			return null;
+		}
+		
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+		{
+			final long end = System.nanoTime() + unit.toNanos(timeout);
+			synchronized (this)
+			{
+				_waiting = true;
+				while (_state == WAITING)
+				{
+					final long remaining = end - System.nanoTime();
+					if (remaining <= 0)
+					{
+						throw new TimeoutException();
+					}
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			if (_state == CANCELLED)
+			{
+				throw new CancellationException();
+			}
+			return null;
+		}
+	}
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.GameTimeController;
 import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.model.L2Object;
@@ -513,6 +514,12 @@ public abstract class AbstractAI implements Ctrl
 				offset = 10;
 			}
 			
+			// the path to this pawn is still being searched, moving again would drop the search
+			if (_clientMoving && (_target == pawn) && _actor.isPathPending())
+			{
+				return;
+			}
+			
 			// prevent possible extra calls to this function (there is none?),
 			// also don't send movetopawn packets too often
 			boolean sendPacket = true;
@@ -549,7 +556,11 @@ public abstract class AbstractAI implements Ctrl
 			}
 			
 			// Calculate movement data for a move to location action and add the actor to movingObjects of GameTimeController
-			_actor.moveToLocation(pawn.getX(), pawn.getY(), pawn.getZ(), offset);
+			if (_actor.moveToLocation(pawn.getX(), pawn.getY(), pawn.getZ(), offset))
+			{
+				// The path is being searched, the actor broadcasts its move once it is found
+				return;
+			}
 			
 			if (!_actor.isMoving())
 			{
@@ -598,7 +609,11 @@ public abstract class AbstractAI implements Ctrl
 			_clientMovingToPawnOffset = 0;
 			
 			// Calculate movement data for a move to location action and add the actor to movingObjects of GameTimeController
-			_actor.moveToLocation(x, y, z, 0);
+			if (_actor.moveToLocation(x, y, z, 0))
+			{
+				// The path is being searched, the actor broadcasts its move once it is found
+				return;
+			}
 			
 			// Send a Server->Client packet CharMoveToLocation to the actor and all L2PcInstance in its _knownPlayers
 			_actor.broadcastPacket(new MoveToLocation(_actor));
@@ -788,7 +803,14 @@ public abstract class AbstractAI implements Ctrl
 		
 		// Create and Launch an AI Follow Task to execute every 1s
 		_followTarget = target;
-		_followTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new FollowTask(), 5, FOLLOW_INTERVAL);
+		if (Config.TIMING_WHEEL_FOLLOW)
+		{
+			_followTask = ThreadPoolManager.getInstance().scheduleAiTimerAtFixedRate(new FollowTask(), 5, FOLLOW_INTERVAL);
+		}
+		else
+		{
+			_followTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new FollowTask(), 5, FOLLOW_INTERVAL);
+		}
 	}
 	
 	/**
@@ -805,7 +827,14 @@ public abstract class AbstractAI implements Ctrl
 		}
 		
 		_followTarget = target;
-		_followTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new FollowTask(range), 5, ATTACK_FOLLOW_INTERVAL);
+		if (Config.TIMING_WHEEL_FOLLOW)
+		{
+			_followTask = ThreadPoolManager.getInstance().scheduleAiTimerAtFixedRate(new FollowTask(range), 5, ATTACK_FOLLOW_INTERVAL);
+		}
+		else
+		{
+			_followTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new FollowTask(range), 5, ATTACK_FOLLOW_INTERVAL);
+		}
 	}
 	
 	/**
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.ai;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.model.L2Object;
+import com.l2jserver.gameserver.model.actor.L2Attackable;
+import com.l2jserver.gameserver.model.actor.L2Summon;
+import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
+
+/**
+ * Level of detail of the attackable NPC AI.<br>
+ * An NPC is put in a tier by the distance to its nearest known playable (player, pet or servitor), against the bounds of {@link Config#ATTACKABLE_AI_LOD_DISTANCES}. Its think task still ticks every second, but only one tick of {@link Config#ATTACKABLE_AI_LOD_INTERVALS} of its tier runs a think.<br>
+ * Keeps the number of NPCs in each tier and the skipped work.
+ */
+public final class AttackableAiLod
+{
+	/** Tier of the NPCs without a running think task. */
+	public static final int NO_TIER = -1;
+	
+	private final AtomicInteger[] _tierCounts;
+	private final LongAdder _thinks = new LongAdder();
+	private final LongAdder _skippedThinks = new LongAdder();
+	private final LongAdder _skippedScans = new LongAdder();
+	private final LongAdder _promotions = new LongAdder();
+	
+	protected AttackableAiLod()
+	{
+		_tierCounts = new AtomicInteger[Config.ATTACKABLE_AI_LOD_INTERVALS.length];
+		for (int i = 0; i < _tierCounts.length; i++)
+		{
+			_tierCounts[i] = new AtomicInteger();
+		}
+	}
+	
+	/**
+	 * @param npc the NPC
+	 * @return the squared distance to the nearest known playable, {@link Long#MAX_VALUE} if none is known
+	 */
+	public static long getNearestPlayableDistanceSq(L2Attackable npc)
+	{
+		long nearest = Long.MAX_VALUE;
+		for (L2PcInstance player : npc.getKnownList().getKnownPlayers().values())
+		{
+			nearest = Math.min(nearest, distanceSq(npc, player));
+		}
+		for (L2Summon summon : npc.getKnownList().getKnownSummons().values())
+		{
+			nearest = Math.min(nearest, distanceSq(npc, summon));
+		}
+		return nearest;
+	}
+	
+	private static long distanceSq(L2Attackable npc, L2Object object)
+	{
+		final long dx = object.getX() - npc.getX();
+		final long dy = object.getY() - npc.getY();
+		return (dx * dx) + (dy * dy);
+	}
+	
+	/**
+	 * @param distanceSq the squared distance to the nearest known playable
+	 * @return the tier of this distance
+	 */
+	public int getTier(long distanceSq)
+	{
+		final int[] distances = Config.ATTACKABLE_AI_LOD_DISTANCES;
+		for (int i = 0; i < distances.length; i++)
+		{
+			if (distanceSq <= ((long) distances[i] * distances[i]))
+			{
+				return i;
+			}
+		}
+		return distances.length;
+	}
+	
+	/**
+	 * @param tier the tier
+	 * @return the number of think ticks between two thinks in this tier
+	 */
+	public int getInterval(int tier)
+	{
+		return Config.ATTACKABLE_AI_LOD_INTERVALS[tier];
+	}
+	
+	/**
+	 * Moves an NPC from a tier to another.
+	 * @param from the previous tier, {@link #NO_TIER} if none
+	 * @param to the new tier, {@link #NO_TIER} if none
+	 */
+	public void move(int from, int to)
+	{
+		if (from == to)
+		{
+			return;
+		}
+		if (from != NO_TIER)
+		{
+			_tierCounts[from].decrementAndGet();
+		}
+		if (to != NO_TIER)
+		{
+			_tierCounts[to].incrementAndGet();
+		}
+	}
+	
+	public void recordThink()
+	{
+		_thinks.increment();
+	}
+	
+	public void recordSkippedThink()
+	{
+		_skippedThinks.increment();
+	}
+	
+	public void recordSkippedScan()
+	{
+		_skippedScans.increment();
+	}
+	
+	public void recordPromotion()
+	{
+		_promotions.increment();
+	}
+	
+	public String[] getStats()
+	{
+		final int[] distances = Config.ATTACKABLE_AI_LOD_DISTANCES;
+		final String[] stats = new String[_tierCounts.length + 6];
+		int i = 0;
+		stats[i++] = "Attackable AI LOD:";
+		stats[i++] = " |- Enabled:       " + Config.ATTACKABLE_AI_LOD;
+		for (int tier = 0; tier < _tierCounts.length; tier++)
+		{
+			final String range = tier < distances.length ? "<= " + distances[tier] : "> " + (distances.length > 0 ? distances[distances.length - 1] : 0);
+			stats[i++] = " |- Tier " + tier + " (" + range + ", every " + getInterval(tier) + "s): " + _tierCounts[tier].get() + " npcs";
+		}
+		stats[i++] = " |- Thinks:        " + _thinks.sum();
+		stats[i++] = " |- SkippedThinks: " + _skippedThinks.sum();
+		stats[i++] = " |- SkippedScans:  " + _skippedScans.sum();
+		stats[i++] = " |- Promotions:    " + _promotions.sum();
+		return stats;
+	}
+	
+	public static AttackableAiLod getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final AttackableAiLod _instance = new AttackableAiLod();
+	}
+}
@@ -23,6 +23,7 @@ import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_ATTACK;
 import static com.l2jserver.gameserver.ai.CtrlIntention.AI_INTENTION_IDLE;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -122,6 +123,11 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 	// Fear parameters
 	private int _fearTime;
 	private Future<?> _fearTask = null;
+	// Level of detail parameters
+	private int _lodTier = AttackableAiLod.NO_TIER;
+	private int _lodTicks;
+	private int _lodElapsed = 1;
+	private long _nearestPlayableDistanceSq;
 	
 	/**
 	 * Constructor of L2AttackableAI.
@@ -137,10 +143,93 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 	@Override
 	public void run()
 	{
+		// Skip the ticks the level of detail of the actor leaves out
+		if (Config.ATTACKABLE_AI_LOD && !thinkLod())
+		{
+			return;
+		}
+		
 		// Launch actions corresponding to the Event Think
 		onEvtThink();
 	}
 	
+	/**
+	 * Updates the level of detail tier of the actor from the distance to its nearest known playable.<br>
+	 * Only an actor with the intention AI_INTENTION_ACTIVE is slowed down, any other one thinks every tick.
+	 * @return {@code true} if this tick runs a think
+	 */
+	private boolean thinkLod()
+	{
+		final AttackableAiLod lod = AttackableAiLod.getInstance();
+		if (getIntention() != AI_INTENTION_ACTIVE)
+		{
+			setLodTier(0);
+			_lodElapsed = 1;
+			_lodTicks = 0;
+			lod.recordThink();
+			return true;
+		}
+		
+		_nearestPlayableDistanceSq = AttackableAiLod.getNearestPlayableDistanceSq(getActiveChar());
+		final int tier = lod.getTier(_nearestPlayableDistanceSq);
+		setLodTier(tier);
+		
+		if (++_lodTicks < lod.getInterval(tier))
+		{
+			lod.recordSkippedThink();
+			return false;
+		}
+		_lodElapsed = _lodTicks;
+		_lodTicks = 0;
+		lod.recordThink();
+		return true;
+	}
+	
+	private synchronized void setLodTier(int tier)
+	{
+		// A tick running while the task is stopped must not count the actor again
+		if ((tier != AttackableAiLod.NO_TIER) && (_aiTask == null))
+		{
+			tier = AttackableAiLod.NO_TIER;
+		}
+		AttackableAiLod.getInstance().move(_lodTier, tier);
+		_lodTier = tier;
+	}
+	
+	/**
+	 * Brings the actor back to the full think rate on attack or aggression.
+	 */
+	private void promoteLod()
+	{
+		if (Config.ATTACKABLE_AI_LOD && (_lodTier > 0))
+		{
+			setLodTier(0);
+			_lodElapsed = 1;
+			AttackableAiLod.getInstance().recordPromotion();
+		}
+	}
+	
+	/**
+	 * No playable out of the aggro range can be auto attacked, so while the level of detail tier of the actor is reduced and its nearest known playable is out of range, the aggro scan can't find anything.<br>
+	 * Guards and chaotic actors also take NPCs as targets, they always scan.
+	 * @param npc the actor
+	 * @return {@code true} if the aggro scan is skipped
+	 */
+	private boolean isAggroScanSkipped(L2Attackable npc)
+	{
+		if (!Config.ATTACKABLE_AI_LOD || (_lodTier <= 0) || (npc instanceof L2GuardInstance) || npc.isChaos())
+		{
+			return false;
+		}
+		final long range = npc.getAggroRange();
+		if (_nearestPlayableDistanceSq <= (range * range))
+		{
+			return false;
+		}
+		AttackableAiLod.getInstance().recordSkippedScan();
+		return true;
+	}
+	
 	/**
 	 * <B><U> Actor is a L2GuardInstance</U> :</B>
 	 * <ul>
@@ -325,7 +414,14 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 		// If not idle - create an AI task (schedule onEvtThink repeatedly)
 		if (_aiTask == null)
 		{
-			_aiTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
+			if (Config.TIMING_WHEEL_ATTACKABLE_AI)
+			{
+				_aiTask = ThreadPoolManager.getInstance().scheduleAiTimerAtFixedRate(this, 1000, 1000);
+			}
+			else
+			{
+				_aiTask = ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
+			}
 		}
 	}
 	
@@ -337,6 +433,10 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 			_aiTask.cancel(false);
 			_aiTask = null;
 		}
+		if (_lodTier != AttackableAiLod.NO_TIER)
+		{
+			setLodTier(AttackableAiLod.NO_TIER);
+		}
 		super.stopAITask();
 	}
 	
@@ -483,16 +583,16 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 	{
 		L2Attackable npc = getActiveChar();
 		
-		// Update every 1s the _globalAggro counter to come close to 0
+		// Update every 1s the _globalAggro counter to come close to 0, by the seconds elapsed since the last think
 		if (_globalAggro != 0)
 		{
 			if (_globalAggro < 0)
 			{
-				_globalAggro++;
+				_globalAggro = Math.min(0, _globalAggro + _lodElapsed);
 			}
 			else
 			{
-				_globalAggro--;
+				_globalAggro = Math.max(0, _globalAggro - _lodElapsed);
 			}
 		}
 		
@@ -501,7 +601,7 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 		if (_globalAggro >= 0)
 		{
 			// Get all visible objects inside its Aggro Range
-			Collection<L2Object> objs = npc.getKnownList().getKnownObjects().values();
+			Collection<L2Object> objs = isAggroScanSkipped(npc) ? Collections.emptyList() : npc.getKnownList().getKnownObjects().values();
 			
 			for (L2Object obj : objs)
 			{
@@ -2576,6 +2676,9 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 	{
 		L2Attackable me = getActiveChar();
 		
+		// Think at full rate again
+		promoteLod();
+		
 		// Calculate the attack timeout
 		_attackTimeout = MAX_ATTACK_TIMEOUT + GameTimeController.getInstance().getGameTicks();
 		
@@ -2643,6 +2746,9 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 		
 		if (target != null)
 		{
+			// Think at full rate again
+			promoteLod();
+			
 			// Add the target to the actor _aggroList or update hate if already present
 			me.addDamageHate(target, 0, aggro);
 			
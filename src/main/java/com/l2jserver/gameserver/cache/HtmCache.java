@@ -42,6 +42,8 @@ public class HtmCache
 	private static final HTMLFilter HTML_FILTER = new HTMLFilter();
 	
 	private static final Map<String, String> _cache = Config.LAZY_CACHE ? new ConcurrentHashMap<>() : new HashMap<>();
+	/** Templates by page content, pages of several paths sharing theirs. */
+	private static final Map<String, HtmTemplate> _templates = new ConcurrentHashMap<>();
 	
 	private int _loadedFiles;
 	private long _bytesBuffLen;
@@ -58,6 +60,7 @@ public class HtmCache
 	
 	public void reload(File f)
 	{
+		_templates.clear();
 		if (!Config.LAZY_CACHE)
 		{
 			_log.info("Html cache start...");
@@ -136,6 +139,7 @@ public class HtmCache
 			else
 			{
 				_bytesBuffLen = (_bytesBuffLen - oldContent.length()) + bytes;
+				_templates.remove(oldContent);
 			}
 		}
 		catch (Exception e)
@@ -194,6 +198,17 @@ public class HtmCache
 		return content;
 	}
 	
+	/**
+	 * @param prefix the path prefix, may be {@code null}
+	 * @param path the path
+	 * @return the page parsed into a template, {@code null} if the page is missing
+	 */
+	public HtmTemplate getTemplate(String prefix, String path)
+	{
+		final String content = getHtm(prefix, path);
+		return content != null ? _templates.computeIfAbsent(content, HtmTemplate::new) : null;
+	}
+	
 	public boolean contains(String path)
 	{
 		return _cache.containsKey(path);
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.l2jserver.gameserver.util.Util;
+
+/**
+ * HTML page parsed once into literal segments and {@code %name%} placeholder slots.<br>
+ * Pages are rendered in a single pass from the substitutions made on them, in the order they were made: a value can hold placeholders substituted later, as with {@link String#replaceAll(String, String)} calls made one after the other.<br>
+ * The bypasses and links of the page are located when it is parsed, those without placeholders being resolved once and for all.
+ */
+public final class HtmTemplate
+{
+	private static final String BYPASS_START = "=\"bypass ";
+	private static final String LINK_START = "=\"link ";
+	
+	/**
+	 * Bypass or link of the page.
+	 */
+	private static final class Action
+	{
+		protected final boolean _link;
+		protected final int _start;
+		protected final int _end;
+		protected final boolean _hasSlot;
+		/** Resolved action when there is no slot in it, {@code null} if there is one or if the action is invalid. */
+		protected final String _action;
+		
+		protected Action(boolean link, int start, int end, boolean hasSlot, String action)
+		{
+			_link = link;
+			_start = start;
+			_end = end;
+			_hasSlot = hasSlot;
+			_action = action;
+		}
+	}
+	
+	private final String _html;
+	/** Start of each slot in the page. */
+	private final int[] _slotStarts;
+	/** Tokens of the slots, percent signs included. */
+	private final String[] _slots;
+	private final Action[] _actions;
+	/** If the placeholders can build actions, so they have to be searched in the rendered page. */
+	private final boolean _dynamicActions;
+	
+	public HtmTemplate(String html)
+	{
+		_html = html;
+		
+		final List<Integer> starts = new ArrayList<>();
+		final List<String> slots = new ArrayList<>();
+		int pos = html.indexOf('%');
+		while (pos != -1)
+		{
+			final int end = tokenEnd(html, pos);
+			if (end != -1)
+			{
+				starts.add(pos);
+				slots.add(html.substring(pos, end));
+				pos = html.indexOf('%', end);
+			}
+			else
+			{
+				pos = html.indexOf('%', pos + 1);
+			}
+		}
+		_slotStarts = new int[starts.size()];
+		for (int i = 0; i < _slotStarts.length; i++)
+		{
+			_slotStarts[i] = starts.get(i);
+		}
+		_slots = slots.toArray(new String[slots.size()]);
+		
+		final String htmlLower = html.toLowerCase(Locale.ENGLISH);
+		final List<Action> actions = new ArrayList<>();
+		findActions(htmlLower, BYPASS_START, false, actions);
+		findActions(htmlLower, LINK_START, true, actions);
+		_actions = actions.toArray(new Action[actions.size()]);
+		
+		// A placeholder right after an attribute start, or in its keyword, can make it a bypass or a link.
+		boolean dynamicActions = false;
+		int attribute = htmlLower.indexOf("=\"");
+		while (!dynamicActions && (attribute != -1))
+		{
+			final int slot = nextSlot(attribute);
+			dynamicActions = (slot < _slotStarts.length) && (_slotStarts[slot] < (attribute + BYPASS_START.length()));
+			attribute = htmlLower.indexOf("=\"", attribute + 2);
+		}
+		_dynamicActions = dynamicActions;
+	}
+	
+	/**
+	 * @return the end of the {@code %name%} token starting at the specified position, -1 if there is none
+	 */
+	private static int tokenEnd(CharSequence text, int start)
+	{
+		int pos = start + 1;
+		while ((pos < text.length()) && isTokenChar(text.charAt(pos)))
+		{
+			pos++;
+		}
+		return (pos > (start + 1)) && (pos < text.length()) && (text.charAt(pos) == '%') ? pos + 1 : -1;
+	}
+	
+	private static boolean isTokenChar(char c)
+	{
+		return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9')) || (c == '_');
+	}
+	
+	/**
+	 * @param pattern a {@link String#replaceAll(String, String)} pattern
+	 * @return {@code true} if the pattern is a single {@code %name%} token, matching itself only
+	 */
+	public static boolean isToken(String pattern)
+	{
+		return (pattern.length() > 2) && (pattern.charAt(0) == '%') && (tokenEnd(pattern, 0) == pattern.length());
+	}
+	
+	/**
+	 * @return the index of the first slot at or after the specified position
+	 */
+	private int nextSlot(int pos)
+	{
+		int low = 0;
+		int high = _slotStarts.length;
+		while (low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			if (_slotStarts[mid] < pos)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	private void findActions(String htmlLower, String keyword, boolean link, List<Action> actions)
+	{
+		int start = htmlLower.indexOf(keyword);
+		while (start != -1)
+		{
+			final int actionStart = start + keyword.length();
+			final int end = htmlLower.indexOf('"', actionStart);
+			if (end == -1)
+			{
+				break;
+			}
+			
+			final int slot = nextSlot(actionStart);
+			final boolean hasSlot = (slot < _slotStarts.length) && (_slotStarts[slot] < end);
+			actions.add(new Action(link, actionStart, end, hasSlot, hasSlot ? null : resolveAction(link, _html.substring(actionStart, end))));
+			start = htmlLower.indexOf(keyword, end);
+		}
+	}
+	
+	private static String resolveAction(boolean link, String text)
+	{
+		if (link)
+		{
+			final String htmlLink = Util.parseHtmlLink(text);
+			return htmlLink != null ? "link " + htmlLink : null;
+		}
+		return Util.parseHtmlBypass(text);
+	}
+	
+	/**
+	 * @return the page as parsed
+	 */
+	public String getHtml()
+	{
+		return _html;
+	}
+	
+	/**
+	 * @return {@code true} if the page has placeholders
+	 */
+	public boolean hasSlots()
+	{
+		return _slots.length > 0;
+	}
+	
+	/**
+	 * Renders the page.
+	 * @param tokens the tokens substituted, in the order of the substitutions
+	 * @param values the values of the substitutions
+	 * @return the page with the substitutions made
+	 */
+	public String render(List<String> tokens, List<String> values)
+	{
+		if (tokens.isEmpty())
+		{
+			return _html;
+		}
+		
+		final StringBuilder sb = new StringBuilder(_html.length() + 256);
+		render(sb, 0, _html.length(), tokens, values);
+		return sb.toString();
+	}
+	
+	private void render(StringBuilder sb, int from, int to, List<String> tokens, List<String> values)
+	{
+		int pos = from;
+		for (int slot = nextSlot(from); (slot < _slotStarts.length) && (_slotStarts[slot] < to); slot++)
+		{
+			sb.append(_html, pos, _slotStarts[slot]);
+			appendSlot(sb, _slots[slot], 0, tokens, values);
+			pos = _slotStarts[slot] + _slots[slot].length();
+		}
+		sb.append(_html, pos, to);
+	}
+	
+	private static void appendSlot(StringBuilder sb, String token, int firstSubstitution, List<String> tokens, List<String> values)
+	{
+		final int substitution = tokens.subList(firstSubstitution, tokens.size()).indexOf(token);
+		if (substitution == -1)
+		{
+			sb.append(token);
+			return;
+		}
+		
+		// Placeholders of the value are substituted by the later substitutions only.
+		final int index = firstSubstitution + substitution;
+		final String value = values.get(index);
+		int pos = 0;
+		int percent = value.indexOf('%');
+		while (percent != -1)
+		{
+			final int end = tokenEnd(value, percent);
+			if (end == -1)
+			{
+				percent = value.indexOf('%', percent + 1);
+				continue;
+			}
+			sb.append(value, pos, percent);
+			appendSlot(sb, value.substring(percent, end), index + 1, tokens, values);
+			pos = end;
+			percent = value.indexOf('%', end);
+		}
+		sb.append(value, pos, value.length());
+	}
+	
+	/**
+	 * @param tokens the tokens substituted, in the order of the substitutions
+	 * @param values the values of the substitutions
+	 * @return the bypasses and links of the rendered page, {@code null} if they cannot be known without searching the rendered page
+	 */
+	public List<String> getActions(List<String> tokens, List<String> values)
+	{
+		if (_dynamicActions)
+		{
+			return null;
+		}
+		// A value with quotes can close an attribute or open a new one.
+		for (int i = 0; i < tokens.size(); i++)
+		{
+			if (values.get(i).indexOf('"') != -1)
+			{
+				return null;
+			}
+		}
+		
+		final List<String> actions = new ArrayList<>(_actions.length);
+		for (Action action : _actions)
+		{
+			String resolved = action._action;
+			if (action._hasSlot)
+			{
+				final StringBuilder sb = new StringBuilder();
+				render(sb, action._start, action._end, tokens, values);
+				resolved = resolveAction(action._link, sb.toString());
+			}
+			if (resolved != null)
+			{
+				actions.add(resolved);
+			}
+		}
+		return actions;
+	}
+}
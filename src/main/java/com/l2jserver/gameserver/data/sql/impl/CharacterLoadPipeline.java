@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.data.sql.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.Config;
+import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
+
+/**
+ * Character load pipeline.<br>
+ * Once the character row is read, the queries of the rest of the character data (items, skills, shortcuts, henna, ...) are all started at once on a pool of {@link Config#CHARACTER_LOAD_THREADS} threads, their rows being fetched into disconnected row sets.<br>
+ * The character is still restored one step after the other, in the usual order, each step taking the rows of its queries through {@link #query(int, String, RowHandler, Object...)} as soon as they are fetched. A query which was not prefetched is run on its own connection when it is asked for, its rows being read straight from the database.<br>
+ * Also keeps the time spent in each phase of the character load.
+ */
+public final class CharacterLoadPipeline
+{
+	private static final Logger LOG = LoggerFactory.getLogger(CharacterLoadPipeline.class);
+	
+	/**
+	 * Phases of the character load.
+	 */
+	public enum Phase
+	{
+		/** The character row and sub-classes. */
+		CHARACTER,
+		/** The inventory and freight. */
+		ITEMS,
+		/** Skills, macros, shortcuts, henna, bookmarks, recipes, premium and pet items. */
+		DATA,
+		/** Item reuse, friends, UI settings and the final state. */
+		FINISH
+	}
+	
+	/**
+	 * Reader of the rows of a query.
+	 */
+	@FunctionalInterface
+	public interface RowHandler
+	{
+		/**
+		 * @param rs the rows, positioned before the first one
+		 * @throws SQLException if the rows could not be read
+		 */
+		void handle(ResultSet rs) throws SQLException;
+	}
+	
+	private static final class QueryKey
+	{
+		private final String _sql;
+		private final Object[] _params;
+		
+		protected QueryKey(String sql, Object[] params)
+		{
+			_sql = sql;
+			_params = params;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (31 * _sql.hashCode()) + Arrays.hashCode(_params);
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof QueryKey))
+			{
+				return false;
+			}
+			final QueryKey key = (QueryKey) obj;
+			return _sql.equals(key._sql) && Arrays.equals(_params, key._params);
+		}
+	}
+	
+	/**
+	 * Queries prefetched for a character being loaded.
+	 */
+	public final class Prefetch implements AutoCloseable
+	{
+		private final int _charId;
+		private final Map<QueryKey, Future<CachedRowSet>> _results = new ConcurrentHashMap<>();
+		
+		protected Prefetch(int charId)
+		{
+			_charId = charId;
+		}
+		
+		/**
+		 * Starts a query of the character data, does nothing if the pipeline is disabled.
+		 * @param sql the query
+		 * @param params the parameters of the query
+		 */
+		public void add(String sql, Object... params)
+		{
+			if (_executor != null)
+			{
+				_results.putIfAbsent(new QueryKey(sql, params), _executor.submit(() -> fetch(sql, params)));
+			}
+		}
+		
+		protected CachedRowSet take(String sql, Object[] params) throws SQLException
+		{
+			final Future<CachedRowSet> result = _results.remove(new QueryKey(sql, params));
+			if (result == null)
+			{
+				return null;
+			}
+			
+			final long start = System.nanoTime();
+			try
+			{
+				return result.get();
+			}
+			catch (ExecutionException e)
+			{
+				throw e.getCause() instanceof SQLException ? (SQLException) e.getCause() : new SQLException(e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new SQLException(e);
+			}
+			finally
+			{
+				_prefetchWait.add(System.nanoTime() - start);
+				_prefetched.increment();
+			}
+		}
+		
+		/**
+		 * Ends the load of the character, the queries which were not used are cancelled.
+		 */
+		@Override
+		public void close()
+		{
+			_loading.remove(_charId, this);
+			for (Future<CachedRowSet> result : _results.values())
+			{
+				result.cancel(false);
+				_unused.increment();
+			}
+			_results.clear();
+		}
+	}
+	
+	private static final RowSetFactory ROW_SET_FACTORY;
+	static
+	{
+		try
+		{
+			ROW_SET_FACTORY = RowSetProvider.newFactory();
+		}
+		catch (SQLException e)
+		{
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private final ThreadPoolExecutor _executor;
+	private final Map<Integer, Prefetch> _loading = new ConcurrentHashMap<>();
+	
+	private final LongAdder _loads = new LongAdder();
+	private final LongAdder[] _phaseTime = new LongAdder[Phase.values().length];
+	private final LongAccumulator[] _maxPhaseTime = new LongAccumulator[Phase.values().length];
+	private final LongAdder _totalTime = new LongAdder();
+	private final LongAccumulator _maxTotalTime = new LongAccumulator(Math::max, 0);
+	private final LongAdder _prefetched = new LongAdder();
+	private final LongAdder _prefetchWait = new LongAdder();
+	private final LongAdder _unused = new LongAdder();
+	private final LongAdder _direct = new LongAdder();
+	
+	protected CharacterLoadPipeline()
+	{
+		for (Phase phase : Phase.values())
+		{
+			_phaseTime[phase.ordinal()] = new LongAdder();
+			_maxPhaseTime[phase.ordinal()] = new LongAccumulator(Math::max, 0);
+		}
+		
+		if (Config.CHARACTER_LOAD_PIPELINE)
+		{
+			final AtomicInteger threadNumber = new AtomicInteger(1);
+			_executor = new ThreadPoolExecutor(Config.CHARACTER_LOAD_THREADS, Config.CHARACTER_LOAD_THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r ->
+			{
+				final Thread thread = new Thread(r, "CharacterLoad-" + threadNumber.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+			LOG.info("{}: Started {} character load threads.", getClass().getSimpleName(), Config.CHARACTER_LOAD_THREADS);
+		}
+		else
+		{
+			_executor = null;
+		}
+	}
+	
+	/**
+	 * Starts the load of a character, the data queries are added to the returned prefetch.
+	 * @param charId the character id
+	 * @return the prefetch, to close once the character is loaded
+	 */
+	public Prefetch start(int charId)
+	{
+		final Prefetch prefetch = new Prefetch(charId);
+		final Prefetch previous = _loading.put(charId, prefetch);
+		if (previous != null)
+		{
+			previous.close();
+		}
+		return prefetch;
+	}
+	
+	/**
+	 * Runs a query of the data of a character, taking its rows from the prefetch of the character if it is being loaded.<br>
+	 * A query which was not prefetched is run on its own connection, the handler reading its rows straight from the database.
+	 * @param charId the character id
+	 * @param sql the query
+	 * @param handler the reader of the rows
+	 * @param params the parameters of the query
+	 * @throws SQLException if the query failed
+	 */
+	public static void query(int charId, String sql, RowHandler handler, Object... params) throws SQLException
+	{
+		final CharacterLoadPipeline pipeline = getInstance();
+		final Prefetch prefetch = pipeline._loading.get(charId);
+		if (prefetch != null)
+		{
+			try (CachedRowSet rows = prefetch.take(sql, params))
+			{
+				if (rows != null)
+				{
+					handler.handle(rows);
+					return;
+				}
+			}
+		}
+		
+		pipeline._direct.increment();
+		try (Connection con = ConnectionFactory.getInstance().getConnection();
+			PreparedStatement ps = con.prepareStatement(sql))
+		{
+			setParameters(ps, params);
+			try (ResultSet rs = ps.executeQuery())
+			{
+				handler.handle(rs);
+			}
+		}
+	}
+	
+	/**
+	 * Fetches the rows of a prefetched query into a disconnected row set.
+	 */
+	private static CachedRowSet fetch(String sql, Object[] params) throws SQLException
+	{
+		try (Connection con = ConnectionFactory.getInstance().getConnection();
+			PreparedStatement ps = con.prepareStatement(sql))
+		{
+			setParameters(ps, params);
+			try (ResultSet rs = ps.executeQuery())
+			{
+				final CachedRowSet rows = ROW_SET_FACTORY.createCachedRowSet();
+				rows.populate(rs);
+				return rows;
+			}
+		}
+	}
+	
+	private static void setParameters(PreparedStatement ps, Object[] params) throws SQLException
+	{
+		for (int i = 0; i < params.length; i++)
+		{
+			ps.setObject(i + 1, params[i]);
+		}
+	}
+	
+	/**
+	 * Records the time of a phase of a character load.
+	 * @param phase the phase
+	 * @param start the start of the phase, in nanoseconds
+	 * @return the end of the phase, in nanoseconds
+	 */
+	public long record(Phase phase, long start)
+	{
+		final long end = System.nanoTime();
+		_phaseTime[phase.ordinal()].add(end - start);
+		_maxPhaseTime[phase.ordinal()].accumulate(end - start);
+		return end;
+	}
+	
+	/**
+	 * Records the total time of a character load.
+	 * @param start the start of the load, in nanoseconds
+	 * @return the time of the load, in milliseconds
+	 */
+	public long recordLoad(long start)
+	{
+		final long time = System.nanoTime() - start;
+		_loads.increment();
+		_totalTime.add(time);
+		_maxTotalTime.accumulate(time);
+		return TimeUnit.NANOSECONDS.toMillis(time);
+	}
+	
+	public String[] getStats()
+	{
+		final long loads = _loads.sum();
+		final String[] stats = new String[Phase.values().length + 8];
+		int i = 0;
+		stats[i++] = "Character Load:";
+		stats[i++] = " |- Pipeline:       " + (_executor != null ? Config.CHARACTER_LOAD_THREADS + " threads, " + _executor.getQueue().size() + " queued" : "false");
+		stats[i++] = " |- Loads:          " + loads;
+		stats[i++] = " |- AvgLoadTime:    " + average(_totalTime.sum(), loads) + "ms (max " + String.format("%.2f", _maxTotalTime.get() / 1e6) + "ms)";
+		for (Phase phase : Phase.values())
+		{
+			stats[i++] = String.format(" |- %-15s ", phase.name().charAt(0) + phase.name().substring(1).toLowerCase() + ":") + average(_phaseTime[phase.ordinal()].sum(), loads) + "ms (max " + String.format("%.2f", _maxPhaseTime[phase.ordinal()].get() / 1e6) + "ms)";
+		}
+		stats[i++] = " |- Prefetched:     " + _prefetched.sum() + " (avg wait " + average(_prefetchWait.sum(), _prefetched.sum()) + "ms)";
+		stats[i++] = " |- Unused:         " + _unused.sum();
+		stats[i++] = " |- Direct:         " + _direct.sum();
+		stats[i++] = " |- Loading:        " + _loading.size();
+		return stats;
+	}
+	
+	private static String average(long nanos, long count)
+	{
+		return count > 0 ? String.format("%.2f", (nanos / 1e6) / count) : "0";
+	}
+	
+	public static CharacterLoadPipeline getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final CharacterLoadPipeline _instance = new CharacterLoadPipeline();
+	}
+}
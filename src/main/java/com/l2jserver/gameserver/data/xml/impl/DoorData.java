@@ -18,13 +18,12 @@
  */
 package com.l2jserver.gameserver.data.xml.impl;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
@@ -32,9 +31,11 @@ import org.w3c.dom.Node;
 
 import com.l2jserver.gameserver.instancemanager.InstanceManager;
 import com.l2jserver.gameserver.instancemanager.MapRegionManager;
+import com.l2jserver.gameserver.model.DoorGrid;
 import com.l2jserver.gameserver.model.StatsSet;
 import com.l2jserver.gameserver.model.actor.instance.L2DoorInstance;
 import com.l2jserver.gameserver.model.actor.templates.L2DoorTemplate;
+import com.l2jserver.gameserver.model.entity.Instance;
 import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
 import com.l2jserver.util.data.xml.IXmlReader;
 
@@ -47,7 +48,8 @@ public class DoorData implements IXmlReader
 	private static final Map<String, Set<Integer>> _groups = new HashMap<>();
 	private final Map<Integer, L2DoorInstance> _doors = new HashMap<>();
 	private final Map<Integer, StatsSet> _templates = new HashMap<>();
-	private final Map<Integer, List<L2DoorInstance>> _regions = new HashMap<>();
+	private final Map<Integer, DoorGrid> _regions = new HashMap<>();
+	private final AtomicInteger _stateVersion = new AtomicInteger();
 	
 	protected DoorData()
 	{
@@ -139,11 +141,24 @@ public class DoorData implements IXmlReader
 	{
 		_doors.put(door.getId(), door);
 		
-		if (!_regions.containsKey(region))
-		{
-			_regions.put(region, new ArrayList<L2DoorInstance>());
-		}
-		_regions.get(region).add(door);
+		_regions.computeIfAbsent(region, k -> new DoorGrid()).add(door);
+		onDoorStateChange();
+	}
+	
+	/**
+	 * Called when a door is spawned, opened, closed, destroyed or restored, so cached line of sight results are no longer used.
+	 */
+	public void onDoorStateChange()
+	{
+		_stateVersion.incrementAndGet();
+	}
+	
+	/**
+	 * @return the door state version, changed by {@link #onDoorStateChange()}
+	 */
+	public int getStateVersion()
+	{
+		return _stateVersion.get();
 	}
 	
 	public static void addDoorGroup(String groupName, int doorId)
@@ -191,59 +206,22 @@ public class DoorData implements IXmlReader
 	 */
 	public boolean checkIfDoorsBetween(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean doubleFaceCheck)
 	{
-		Collection<L2DoorInstance> allDoors;
-		if ((instanceId > 0) && (InstanceManager.getInstance().getInstance(instanceId) != null))
+		final DoorGrid doors;
+		final Instance instance = instanceId > 0 ? InstanceManager.getInstance().getInstance(instanceId) : null;
+		if (instance != null)
 		{
-			allDoors = InstanceManager.getInstance().getInstance(instanceId).getDoors();
+			doors = instance.getDoorGrid();
 		}
 		else
 		{
-			allDoors = _regions.get(MapRegionManager.getInstance().getMapRegionLocId(x, y));
+			doors = _regions.get(MapRegionManager.getInstance().getMapRegionLocId(x, y));
 		}
 		
-		if (allDoors == null)
+		if (doors == null)
 		{
 			return false;
 		}
-		
-		for (L2DoorInstance doorInst : allDoors)
-		{
-			// check dead and open
-			if (doorInst.isDead() || doorInst.getOpen() || !doorInst.checkCollision() || (doorInst.getX(0) == 0))
-			{
-				continue;
-			}
-			
-			boolean intersectFace = false;
-			for (int i = 0; i < 4; i++)
-			{
-				int j = (i + 1) < 4 ? i + 1 : 0;
-				// lower part of the multiplier fraction, if it is 0 we avoid an error and also know that the lines are parallel
-				int denominator = ((ty - y) * (doorInst.getX(i) - doorInst.getX(j))) - ((tx - x) * (doorInst.getY(i) - doorInst.getY(j)));
-				if (denominator == 0)
-				{
-					continue;
-				}
-				
-				// multipliers to the equations of the lines. If they are lower than 0 or bigger than 1, we know that segments don't intersect
-				float multiplier1 = (float) (((doorInst.getX(j) - doorInst.getX(i)) * (y - doorInst.getY(i))) - ((doorInst.getY(j) - doorInst.getY(i)) * (x - doorInst.getX(i)))) / denominator;
-				float multiplier2 = (float) (((tx - x) * (y - doorInst.getY(i))) - ((ty - y) * (x - doorInst.getX(i)))) / denominator;
-				if ((multiplier1 >= 0) && (multiplier1 <= 1) && (multiplier2 >= 0) && (multiplier2 <= 1))
-				{
-					int intersectZ = Math.round(z + (multiplier1 * (tz - z)));
-					// now checking if the resulting point is between door's min and max z
-					if ((intersectZ > doorInst.getZMin()) && (intersectZ < doorInst.getZMax()))
-					{
-						if (!doubleFaceCheck || intersectFace)
-						{
-							return true;
-						}
-						intersectFace = true;
-					}
-				}
-			}
-		}
-		return false;
+		return doors.checkIfDoorsBetween(x, y, z, tx, ty, tz, doubleFaceCheck);
 	}
 	
 	public static DoorData getInstance()
@@ -133,6 +133,7 @@ import com.l2jserver.gameserver.model.skills.EffectScope;
 import com.l2jserver.gameserver.model.skills.Skill;
 import com.l2jserver.gameserver.model.stats.Stats;
 import com.l2jserver.gameserver.model.stats.functions.FuncTemplate;
+import com.l2jserver.util.data.xml.XmlSnapshotCache;
 
 /**
  * @author mkizub
@@ -154,10 +155,7 @@ public abstract class DocumentBase
 		Document doc = null;
 		try
 		{
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setValidating(false);
-			factory.setIgnoringComments(true);
-			doc = factory.newDocumentBuilder().parse(_file);
+			doc = read(_file);
 			parseDocument(doc);
 		}
 		catch (Exception e)
@@ -167,6 +165,36 @@ public abstract class DocumentBase
 		return doc;
 	}
 	
+	/**
+	 * Parses the already read document of the file.
+	 * @param doc the document
+	 */
+	public void parse(Document doc)
+	{
+		try
+		{
+			parseDocument(doc);
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.SEVERE, "Error loading file " + _file, e);
+		}
+	}
+	
+	/**
+	 * Reads the document of a file, from its snapshot if the {@link XmlSnapshotCache} is enabled.
+	 * @param file the file
+	 * @return the document
+	 * @throws Exception if the file could not be read
+	 */
+	public static Document read(File file) throws Exception
+	{
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setValidating(false);
+		factory.setIgnoringComments(true);
+		return XmlSnapshotCache.getInstance().read(file, factory.newDocumentBuilder());
+	}
+	
 	protected abstract void parseDocument(Document doc);
 	
 	protected abstract StatsSet getStatsSet();
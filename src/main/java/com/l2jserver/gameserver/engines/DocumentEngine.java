@@ -22,6 +22,8 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.Config;
@@ -30,6 +32,7 @@ import com.l2jserver.gameserver.engines.items.DocumentItem;
 import com.l2jserver.gameserver.engines.skills.DocumentSkill;
 import com.l2jserver.gameserver.model.items.L2Item;
 import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.util.data.xml.ParallelDocumentLoader;
 import com.l2jserver.util.file.filter.XMLFilter;
 
 /**
@@ -94,21 +97,30 @@ public class DocumentEngine
 	
 	public void loadAllSkills(final Map<Integer, Skill> allSkills)
 	{
-		int count = 0;
-		for (File file : _skillFiles)
+		final long start = System.currentTimeMillis();
+		final AtomicInteger count = new AtomicInteger();
+		ParallelDocumentLoader.load(_skillFiles, DocumentBase::read, (file, doc, error) ->
 		{
-			List<Skill> s = loadSkills(file);
+			if (error != null)
+			{
+				_log.log(Level.SEVERE, "Error loading file " + file, error);
+				return;
+			}
+			
+			final DocumentSkill document = new DocumentSkill(file);
+			document.parse(doc);
+			final List<Skill> s = document.getSkills();
 			if (s == null)
 			{
-				continue;
+				return;
 			}
 			for (Skill skill : s)
 			{
 				allSkills.put(SkillData.getSkillHashCode(skill), skill);
-				count++;
+				count.incrementAndGet();
 			}
-		}
-		_log.info(getClass().getSimpleName() + ": Loaded " + count + " Skill templates from XML files.");
+		});
+		_log.info(getClass().getSimpleName() + ": Loaded " + count.get() + " Skill templates from XML files in " + (System.currentTimeMillis() - start) + "ms.");
 	}
 	
 	/**
@@ -117,13 +129,19 @@ public class DocumentEngine
 	 */
 	public List<L2Item> loadItems()
 	{
-		List<L2Item> list = new ArrayList<>();
-		for (File f : _itemFiles)
+		final List<L2Item> list = new ArrayList<>();
+		ParallelDocumentLoader.load(_itemFiles, DocumentBase::read, (file, doc, error) ->
 		{
-			DocumentItem document = new DocumentItem(f);
-			document.parse();
+			if (error != null)
+			{
+				_log.log(Level.SEVERE, "Error loading file " + file, error);
+				return;
+			}
+			
+			final DocumentItem document = new DocumentItem(file);
+			document.parse(doc);
 			list.addAll(document.getItemList());
-		}
+		});
 		return list;
 	}
 	
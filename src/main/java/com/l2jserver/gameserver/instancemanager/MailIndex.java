@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.instancemanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.l2jserver.gameserver.model.entity.Message;
+
+/**
+ * Index of the messages by character.<br>
+ * Keeps the inbox and the outbox of each character, without the messages it deleted, and the unread messages it received, so the mail of a character is found without scanning all stored messages.
+ */
+public final class MailIndex
+{
+	private static final class Mailbox
+	{
+		protected final Map<Integer, Message> _inbox = new ConcurrentHashMap<>();
+		protected final Map<Integer, Message> _outbox = new ConcurrentHashMap<>();
+		protected final Set<Integer> _unread = ConcurrentHashMap.newKeySet();
+	}
+	
+	private final Map<Integer, Mailbox> _mailboxes = new ConcurrentHashMap<>();
+	
+	private Mailbox getMailbox(int objectId)
+	{
+		return _mailboxes.computeIfAbsent(objectId, k -> new Mailbox());
+	}
+	
+	/**
+	 * Indexes a stored or sent message.
+	 * @param msg the message
+	 */
+	public void add(Message msg)
+	{
+		if (!msg.isDeletedByReceiver() || msg.isUnread())
+		{
+			final Mailbox receiver = getMailbox(msg.getReceiverId());
+			if (!msg.isDeletedByReceiver())
+			{
+				receiver._inbox.put(msg.getId(), msg);
+			}
+			if (msg.isUnread())
+			{
+				receiver._unread.add(msg.getId());
+			}
+		}
+		if (!msg.isDeletedBySender())
+		{
+			getMailbox(msg.getSenderId())._outbox.put(msg.getId(), msg);
+		}
+	}
+	
+	/**
+	 * Removes a deleted message.
+	 * @param msg the message
+	 */
+	public void remove(Message msg)
+	{
+		final Mailbox receiver = _mailboxes.get(msg.getReceiverId());
+		if (receiver != null)
+		{
+			receiver._inbox.remove(msg.getId());
+			receiver._unread.remove(msg.getId());
+		}
+		final Mailbox sender = _mailboxes.get(msg.getSenderId());
+		if (sender != null)
+		{
+			sender._outbox.remove(msg.getId());
+		}
+	}
+	
+	/**
+	 * @param msg the message read by its receiver
+	 */
+	public void markAsRead(Message msg)
+	{
+		final Mailbox receiver = _mailboxes.get(msg.getReceiverId());
+		if (receiver != null)
+		{
+			receiver._unread.remove(msg.getId());
+		}
+	}
+	
+	/**
+	 * @param msg the message deleted by its sender
+	 */
+	public void markAsDeletedBySender(Message msg)
+	{
+		final Mailbox sender = _mailboxes.get(msg.getSenderId());
+		if (sender != null)
+		{
+			sender._outbox.remove(msg.getId());
+		}
+	}
+	
+	/**
+	 * @param msg the message deleted by its receiver
+	 */
+	public void markAsDeletedByReceiver(Message msg)
+	{
+		final Mailbox receiver = _mailboxes.get(msg.getReceiverId());
+		if (receiver != null)
+		{
+			receiver._inbox.remove(msg.getId());
+		}
+	}
+	
+	/**
+	 * @param objectId the character object id
+	 * @return the number of unread messages received by the character, including the ones it deleted
+	 */
+	public int getUnreadCount(int objectId)
+	{
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? mailbox._unread.size() : 0;
+	}
+	
+	public int getInboxSize(int objectId)
+	{
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? mailbox._inbox.size() : 0;
+	}
+	
+	public int getOutboxSize(int objectId)
+	{
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? mailbox._outbox.size() : 0;
+	}
+	
+	public List<Message> getInbox(int objectId)
+	{
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? new ArrayList<>(mailbox._inbox.values()) : new ArrayList<>();
+	}
+	
+	public List<Message> getOutbox(int objectId)
+	{
+		final Mailbox mailbox = _mailboxes.get(objectId);
+		return mailbox != null ? new ArrayList<>(mailbox._outbox.values()) : new ArrayList<>();
+	}
+}
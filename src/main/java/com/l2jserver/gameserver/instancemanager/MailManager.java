@@ -23,7 +23,6 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +47,7 @@ public final class MailManager
 	private static final Logger _log = Logger.getLogger(MailManager.class.getName());
 	
 	private final Map<Integer, Message> _messages = new ConcurrentHashMap<>();
+	private final MailIndex _index = new MailIndex();
 	
 	protected MailManager()
 	{
@@ -68,6 +68,7 @@ public final class MailManager
 				
 				int msgId = msg.getId();
 				_messages.put(msgId, msg);
+				_index.add(msg);
 				
 				count++;
 				
@@ -102,72 +103,33 @@ public final class MailManager
 	
 	public final boolean hasUnreadPost(L2PcInstance player)
 	{
-		final int objectId = player.getObjectId();
-		for (Message msg : getMessages())
-		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && msg.isUnread())
-			{
-				return true;
-			}
-		}
-		return false;
+		return _index.getUnreadCount(player.getObjectId()) > 0;
 	}
 	
 	public final int getInboxSize(int objectId)
 	{
-		int size = 0;
-		for (Message msg : getMessages())
-		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver())
-			{
-				size++;
-			}
-		}
-		return size;
+		return _index.getInboxSize(objectId);
 	}
 	
 	public final int getOutboxSize(int objectId)
 	{
-		int size = 0;
-		for (Message msg : getMessages())
-		{
-			if ((msg != null) && (msg.getSenderId() == objectId) && !msg.isDeletedBySender())
-			{
-				size++;
-			}
-		}
-		return size;
+		return _index.getOutboxSize(objectId);
 	}
 	
 	public final List<Message> getInbox(int objectId)
 	{
-		final List<Message> inbox = new ArrayList<>();
-		for (Message msg : getMessages())
-		{
-			if ((msg != null) && (msg.getReceiverId() == objectId) && !msg.isDeletedByReceiver())
-			{
-				inbox.add(msg);
-			}
-		}
-		return inbox;
+		return _index.getInbox(objectId);
 	}
 	
 	public final List<Message> getOutbox(int objectId)
 	{
-		final List<Message> outbox = new ArrayList<>();
-		for (Message msg : getMessages())
-		{
-			if ((msg != null) && (msg.getSenderId() == objectId) && !msg.isDeletedBySender())
-			{
-				outbox.add(msg);
-			}
-		}
-		return outbox;
+		return _index.getOutbox(objectId);
 	}
 	
 	public void sendMessage(Message msg)
 	{
 		_messages.put(msg.getId(), msg);
+		_index.add(msg);
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = Message.getStatement(msg, con))
 		{
@@ -189,6 +151,12 @@ public final class MailManager
 	
 	public final void markAsReadInDb(int msgId)
 	{
+		final Message msg = _messages.get(msgId);
+		if (msg != null)
+		{
+			_index.markAsRead(msg);
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("UPDATE messages SET isUnread = 'false' WHERE messageId = ?"))
 		{
@@ -203,6 +171,12 @@ public final class MailManager
 	
 	public final void markAsDeletedBySenderInDb(int msgId)
 	{
+		final Message msg = _messages.get(msgId);
+		if (msg != null)
+		{
+			_index.markAsDeletedBySender(msg);
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("UPDATE messages SET isDeletedBySender = 'true' WHERE messageId = ?"))
 		{
@@ -217,6 +191,12 @@ public final class MailManager
 	
 	public final void markAsDeletedByReceiverInDb(int msgId)
 	{
+		final Message msg = _messages.get(msgId);
+		if (msg != null)
+		{
+			_index.markAsDeletedByReceiver(msg);
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("UPDATE messages SET isDeletedByReceiver = 'true' WHERE messageId = ?"))
 		{
@@ -256,7 +236,11 @@ public final class MailManager
 			_log.log(Level.WARNING, getClass().getSimpleName() + ": Error deleting message:" + e.getMessage(), e);
 		}
 		
-		_messages.remove(msgId);
+		final Message msg = _messages.remove(msgId);
+		if (msg != null)
+		{
+			_index.remove(msg);
+		}
 		IdFactory.getInstance().releaseId(msgId);
 	}
 	
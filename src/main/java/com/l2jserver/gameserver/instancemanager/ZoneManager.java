@@ -21,11 +21,15 @@ package com.l2jserver.gameserver.instancemanager;
 import java.io.File;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
@@ -40,6 +44,7 @@ import com.l2jserver.gameserver.model.zone.AbstractZoneSettings;
 import com.l2jserver.gameserver.model.zone.L2ZoneForm;
 import com.l2jserver.gameserver.model.zone.L2ZoneRespawn;
 import com.l2jserver.gameserver.model.zone.L2ZoneType;
+import com.l2jserver.gameserver.model.zone.ZoneCell;
 import com.l2jserver.gameserver.model.zone.form.ZoneCuboid;
 import com.l2jserver.gameserver.model.zone.form.ZoneCylinder;
 import com.l2jserver.gameserver.model.zone.form.ZoneNPoly;
@@ -383,6 +388,18 @@ public final class ZoneManager implements IXmlReader
 		parseDatapackDirectory("data/zones", false);
 		parseDatapackDirectory("data/zones/npcSpawnTerritories", false);
 		LOG.info("{}: Loaded {} zone classes and {} zones.", getClass().getSimpleName(), _classZones.size(), getSize());
+		
+		// Index the zones of each region by cell.
+		final long start = System.currentTimeMillis();
+		final Set<ZoneCell> cells = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (L2WorldRegion[] worldRegions : L2World.getInstance().getWorldRegions())
+		{
+			for (L2WorldRegion worldRegion : worldRegions)
+			{
+				cells.addAll(Arrays.asList(worldRegion.buildZoneCells()));
+			}
+		}
+		LOG.info("{}: Indexed zones in {} distinct cells in {}ms.", getClass().getSimpleName(), cells.size(), System.currentTimeMillis() - start);
 		LOG.info("{}: Loaded {} NPC spawn territoriers.", getClass().getSimpleName(), _spawnTerritories.size());
 	}
 	
@@ -532,13 +549,13 @@ public final class ZoneManager implements IXmlReader
 	 */
 	public List<L2ZoneType> getZones(int x, int y)
 	{
-		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
+		final ZoneCell cell = L2World.getInstance().getRegion(x, y).getZoneCell(x, y);
 		final List<L2ZoneType> temp = new ArrayList<>();
-		for (L2ZoneType zone : region.getZones())
+		for (int i = 0; i < cell.size(); i++)
 		{
-			if (zone.isInsideZone(x, y))
+			if (cell.isInsideZone(i, x, y, cell.getZone(i).getZone().getHighZ()))
 			{
-				temp.add(zone);
+				temp.add(cell.getZone(i));
 			}
 		}
 		return temp;
@@ -553,13 +570,13 @@ public final class ZoneManager implements IXmlReader
 	 */
 	public List<L2ZoneType> getZones(int x, int y, int z)
 	{
-		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
+		final ZoneCell cell = L2World.getInstance().getRegion(x, y).getZoneCell(x, y);
 		final List<L2ZoneType> temp = new ArrayList<>();
-		for (L2ZoneType zone : region.getZones())
+		for (int i = 0; i < cell.size(); i++)
 		{
-			if (zone.isInsideZone(x, y, z))
+			if (cell.isInsideZone(i, x, y, z))
 			{
-				temp.add(zone);
+				temp.add(cell.getZone(i));
 			}
 		}
 		return temp;
@@ -577,12 +594,12 @@ public final class ZoneManager implements IXmlReader
 	@SuppressWarnings("unchecked")
 	public <T extends L2ZoneType> T getZone(int x, int y, int z, Class<T> type)
 	{
-		final L2WorldRegion region = L2World.getInstance().getRegion(x, y);
-		for (L2ZoneType zone : region.getZones())
+		final ZoneCell cell = L2World.getInstance().getRegion(x, y).getZoneCell(x, y);
+		for (int i = 0; i < cell.size(); i++)
 		{
-			if (zone.isInsideZone(x, y, z) && type.isInstance(zone))
+			if (type.isInstance(cell.getZone(i)) && cell.isInsideZone(i, x, y, z))
 			{
-				return (T) zone;
+				return (T) cell.getZone(i);
 			}
 		}
 		return null;
@@ -65,10 +65,21 @@ public class CharSelectInfoPackage
 	 * @param name the character's name.
 	 */
 	public CharSelectInfoPackage(int objectId, String name)
+	{
+		this(objectId, name, PcInventory.restoreVisibleInventory(objectId));
+	}
+	
+	/**
+	 * Constructor for CharSelectInfoPackage.
+	 * @param objectId character object Id.
+	 * @param name the character's name.
+	 * @param paperdoll the character's visible inventory, already restored.
+	 */
+	public CharSelectInfoPackage(int objectId, String name, int[][] paperdoll)
 	{
 		setObjectId(objectId);
 		_name = name;
-		_paperdoll = PcInventory.restoreVisibleInventory(objectId);
+		_paperdoll = paperdoll;
 	}
 	
 	/**
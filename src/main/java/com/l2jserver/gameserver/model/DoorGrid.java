@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.l2jserver.gameserver.model.actor.instance.L2DoorInstance;
+
+/**
+ * Spatial index of door collision.<br>
+ * Splits the space into cells of {@link #CELL_SIZE} units and registers every door in the cells its bounding box overlaps, so a movement only tests the doors of the cells its segment walks through.<br>
+ * Only the geometry of the doors is indexed, which never changes: whether a door is dead, open or closed is checked when the segment is tested, so the index stays valid whatever happens to the doors.
+ */
+public final class DoorGrid
+{
+	private static final int CELL_SHIFT = 9;
+	public static final int CELL_SIZE = 1 << CELL_SHIFT;
+	
+	private static final class Entry
+	{
+		protected final L2DoorInstance _door;
+		protected final int _minX;
+		protected final int _minY;
+		protected final int _maxX;
+		protected final int _maxY;
+		
+		protected Entry(L2DoorInstance door, int minX, int minY, int maxX, int maxY)
+		{
+			_door = door;
+			_minX = minX;
+			_minY = minY;
+			_maxX = maxX;
+			_maxY = maxY;
+		}
+	}
+	
+	private static final Entry[] EMPTY = new Entry[0];
+	
+	/** Doors of each cell, the arrays are replaced on change so they can be walked without lock. */
+	private final Map<Long, Entry[]> _cells = new ConcurrentHashMap<>();
+	private int _size;
+	
+	private static long key(int cx, int cy)
+	{
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Registers a door in the cells overlapped by its bounding box.<br>
+	 * The box is grown by one unit, so a segment only touching it on the corner of a cell still finds it.
+	 * @param door the door
+	 */
+	public synchronized void add(L2DoorInstance door)
+	{
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int i = 0; i < 4; i++)
+		{
+			minX = Math.min(minX, door.getX(i));
+			minY = Math.min(minY, door.getY(i));
+			maxX = Math.max(maxX, door.getX(i));
+			maxY = Math.max(maxY, door.getY(i));
+		}
+		
+		final Entry entry = new Entry(door, minX, minY, maxX, maxY);
+		for (int cx = (minX - 1) >> CELL_SHIFT; cx <= ((maxX + 1) >> CELL_SHIFT); cx++)
+		{
+			for (int cy = (minY - 1) >> CELL_SHIFT; cy <= ((maxY + 1) >> CELL_SHIFT); cy++)
+			{
+				final Entry[] entries = _cells.getOrDefault(key(cx, cy), EMPTY);
+				final Entry[] newEntries = new Entry[entries.length + 1];
+				System.arraycopy(entries, 0, newEntries, 0, entries.length);
+				newEntries[entries.length] = entry;
+				_cells.put(key(cx, cy), newEntries);
+			}
+		}
+		_size++;
+	}
+	
+	/**
+	 * Removes all doors.
+	 */
+	public synchronized void clear()
+	{
+		_cells.clear();
+		_size = 0;
+	}
+	
+	/**
+	 * @return the number of doors
+	 */
+	public synchronized int size()
+	{
+		return _size;
+	}
+	
+	/**
+	 * Checks if a closed door blocks the segment, walking the cells crossed by the segment and testing the doors registered in them.
+	 * @param x the x coordinate of the start
+	 * @param y the y coordinate of the start
+	 * @param z the z coordinate of the start
+	 * @param tx the x coordinate of the end
+	 * @param ty the y coordinate of the end
+	 * @param tz the z coordinate of the end
+	 * @param doubleFaceCheck if both faces of a door must be crossed for it to block
+	 * @return {@code true} if a door blocks the segment
+	 */
+	public boolean checkIfDoorsBetween(int x, int y, int z, int tx, int ty, int tz, boolean doubleFaceCheck)
+	{
+		if (_cells.isEmpty())
+		{
+			return false;
+		}
+		
+		int cx = x >> CELL_SHIFT;
+		int cy = y >> CELL_SHIFT;
+		final int endX = tx >> CELL_SHIFT;
+		final int endY = ty >> CELL_SHIFT;
+		if (checkCell(cx, cy, x, y, z, tx, ty, tz, doubleFaceCheck))
+		{
+			return true;
+		}
+		
+		// Cell by cell walk along the segment, stepping on the axis whose next cell border is the nearest.
+		final int stepX = Integer.signum(endX - cx);
+		final int stepY = Integer.signum(endY - cy);
+		final double dx = tx - x;
+		final double dy = ty - y;
+		double tMaxX = stepX != 0 ? ((((cx + (stepX > 0 ? 1 : 0)) << CELL_SHIFT) - x) / dx) : Double.POSITIVE_INFINITY;
+		double tMaxY = stepY != 0 ? ((((cy + (stepY > 0 ? 1 : 0)) << CELL_SHIFT) - y) / dy) : Double.POSITIVE_INFINITY;
+		final double tDeltaX = stepX != 0 ? CELL_SIZE / Math.abs(dx) : 0;
+		final double tDeltaY = stepY != 0 ? CELL_SIZE / Math.abs(dy) : 0;
+		while ((cx != endX) || (cy != endY))
+		{
+			if ((cy == endY) || ((cx != endX) && (tMaxX < tMaxY)))
+			{
+				cx += stepX;
+				tMaxX += tDeltaX;
+			}
+			else
+			{
+				cy += stepY;
+				tMaxY += tDeltaY;
+			}
+			
+			if (checkCell(cx, cy, x, y, z, tx, ty, tz, doubleFaceCheck))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private boolean checkCell(int cx, int cy, int x, int y, int z, int tx, int ty, int tz, boolean doubleFaceCheck)
+	{
+		final Entry[] entries = _cells.get(key(cx, cy));
+		if (entries == null)
+		{
+			return false;
+		}
+		
+		for (Entry entry : entries)
+		{
+			// bounding box of the door against the one of the segment
+			if ((entry._maxX < Math.min(x, tx)) || (entry._minX > Math.max(x, tx)) || (entry._maxY < Math.min(y, ty)) || (entry._minY > Math.max(y, ty)))
+			{
+				continue;
+			}
+			
+			if (isBlocking(entry._door, x, y, z, tx, ty, tz, doubleFaceCheck))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @param door the door
+	 * @param x the x coordinate of the start
+	 * @param y the y coordinate of the start
+	 * @param z the z coordinate of the start
+	 * @param tx the x coordinate of the end
+	 * @param ty the y coordinate of the end
+	 * @param tz the z coordinate of the end
+	 * @param doubleFaceCheck if both faces of the door must be crossed for it to block
+	 * @return {@code true} if the door is closed and the segment crosses it
+	 */
+	public static boolean isBlocking(L2DoorInstance door, int x, int y, int z, int tx, int ty, int tz, boolean doubleFaceCheck)
+	{
+		// check dead and open
+		if (door.isDead() || door.getOpen() || !door.checkCollision() || (door.getX(0) == 0))
+		{
+			return false;
+		}
+		
+		boolean intersectFace = false;
+		for (int i = 0; i < 4; i++)
+		{
+			int j = (i + 1) < 4 ? i + 1 : 0;
+			// lower part of the multiplier fraction, if it is 0 we avoid an error and also know that the lines are parallel
+			int denominator = ((ty - y) * (door.getX(i) - door.getX(j))) - ((tx - x) * (door.getY(i) - door.getY(j)));
+			if (denominator == 0)
+			{
+				continue;
+			}
+			
+			// multipliers to the equations of the lines. If they are lower than 0 or bigger than 1, we know that segments don't intersect
+			float multiplier1 = (float) (((door.getX(j) - door.getX(i)) * (y - door.getY(i))) - ((door.getY(j) - door.getY(i)) * (x - door.getX(i)))) / denominator;
+			float multiplier2 = (float) (((tx - x) * (y - door.getY(i))) - ((ty - y) * (x - door.getX(i)))) / denominator;
+			if ((multiplier1 >= 0) && (multiplier1 <= 1) && (multiplier2 >= 0) && (multiplier2 <= 1))
+			{
+				int intersectZ = Math.round(z + (multiplier1 * (tz - z)));
+				// now checking if the resulting point is between door's min and max z
+				if ((intersectZ > door.getZMin()) && (intersectZ < door.getZMax()))
+				{
+					if (!doubleFaceCheck || intersectFace)
+					{
+						return true;
+					}
+					intersectFace = true;
+				}
+			}
+		}
+		return false;
+	}
+}
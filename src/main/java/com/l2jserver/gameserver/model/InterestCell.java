@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.l2jserver.gameserver.model.actor.L2Playable;
+
+/**
+ * A single cell of the {@link InterestGrid}.<br>
+ * Holds the visible objects whose position currently falls inside the cell bounds.
+ */
+public final class InterestCell
+{
+	private final int _cellX;
+	private final int _cellY;
+	private final Map<Integer, L2Object> _objects = new ConcurrentHashMap<>();
+	private final Map<Integer, L2Playable> _playables = new ConcurrentHashMap<>();
+	
+	public InterestCell(int cellX, int cellY)
+	{
+		_cellX = cellX;
+		_cellY = cellY;
+	}
+	
+	void addObject(L2Object object)
+	{
+		_objects.put(object.getObjectId(), object);
+		if (object.isPlayable())
+		{
+			_playables.put(object.getObjectId(), (L2Playable) object);
+		}
+	}
+	
+	void removeObject(L2Object object)
+	{
+		_objects.remove(object.getObjectId());
+		if (object.isPlayable())
+		{
+			_playables.remove(object.getObjectId());
+		}
+	}
+	
+	public Collection<L2Object> getObjects()
+	{
+		return _objects.values();
+	}
+	
+	public Collection<L2Playable> getPlayables()
+	{
+		return _playables.values();
+	}
+	
+	public boolean isEmpty()
+	{
+		return _objects.isEmpty();
+	}
+	
+	public int getCellX()
+	{
+		return _cellX;
+	}
+	
+	public int getCellY()
+	{
+		return _cellY;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "InterestCell(" + _cellX + ", " + _cellY + ")";
+	}
+}
@@ -0,0 +1,573 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.model.actor.L2Character;
+import com.l2jserver.gameserver.model.actor.knownlist.ObjectKnownList;
+import com.l2jserver.gameserver.util.Util;
+
+/**
+ * Interest management grid.<br>
+ * Splits the world into cells much smaller than a {@link L2WorldRegion} and keeps every visible object registered in the cell matching its position.<br>
+ * Objects changing cell, or moving more than {@link Config#INTEREST_GRID_DIRTY_DISTANCE} inside their cell, are marked as dirty and only those are processed by {@link #updateDirtyObjects()},
+ * which computes the enter/leave deltas of their known lists against the objects found in the surrounding cells.<br>
+ * Until then the known list getters of a dirty object bring its own side up to date through {@link #refresh(L2Object)}, so it is never read stale.<br>
+ * Objects standing still cost nothing between two passes.
+ */
+public final class InterestGrid
+{
+	private static final Logger LOG = LoggerFactory.getLogger(InterestGrid.class);
+	
+	private final int _cellShift;
+	private final int _cellSize;
+	private final int _cellsX;
+	private final int _cellsY;
+	private final int _offsetX;
+	private final int _offsetY;
+	private final long _sqDirtyDistance;
+	private final AtomicReferenceArray<InterestCell> _cells;
+	
+	/** Objects that changed cell, moved far enough or were spawned since the last pass. */
+	private final Set<L2Object> _dirtyObjects = ConcurrentHashMap.newKeySet();
+	/** Identifier of the running pass, only used by the known list update thread. */
+	private int _pass;
+	
+	private final AtomicLong _cellChanges = new AtomicLong();
+	private final AtomicLong _processedObjects = new AtomicLong();
+	private final AtomicLong _scannedObjects = new AtomicLong();
+	private final AtomicLong _refreshes = new AtomicLong();
+	
+	protected InterestGrid()
+	{
+		// The cell size must be a power of two so positions can be mapped with a shift.
+		_cellShift = 31 - Integer.numberOfLeadingZeros(Math.max(64, Math.min(4096, Config.INTEREST_GRID_CELL_SIZE)));
+		_cellSize = 1 << _cellShift;
+		_offsetX = Math.abs(L2World.MAP_MIN_X >> _cellShift);
+		_offsetY = Math.abs(L2World.MAP_MIN_Y >> _cellShift);
+		_cellsX = (L2World.MAP_MAX_X >> _cellShift) + _offsetX + 1;
+		_cellsY = (L2World.MAP_MAX_Y >> _cellShift) + _offsetY + 1;
+		_sqDirtyDistance = (long) Config.INTEREST_GRID_DIRTY_DISTANCE * Config.INTEREST_GRID_DIRTY_DISTANCE;
+		_cells = new AtomicReferenceArray<>(_cellsX * _cellsY);
+		LOG.info("{}: ({} by {}) cells of {} units set up.", getClass().getSimpleName(), _cellsX, _cellsY, _cellSize);
+	}
+	
+	/**
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @return the cell containing the given position, created on demand
+	 */
+	public InterestCell getCell(int x, int y)
+	{
+		final int cx = Math.max(0, Math.min(_cellsX - 1, (x >> _cellShift) + _offsetX));
+		final int cy = Math.max(0, Math.min(_cellsY - 1, (y >> _cellShift) + _offsetY));
+		return getOrCreateCell(cx, cy);
+	}
+	
+	private InterestCell getOrCreateCell(int cx, int cy)
+	{
+		final int index = (cx * _cellsY) + cy;
+		InterestCell cell = _cells.get(index);
+		if (cell == null)
+		{
+			cell = new InterestCell(cx, cy);
+			if (!_cells.compareAndSet(index, null, cell))
+			{
+				cell = _cells.get(index);
+			}
+		}
+		return cell;
+	}
+	
+	/**
+	 * Registers a visible object in the cell matching its position.
+	 * @param object the object entering the world
+	 */
+	public void addObject(L2Object object)
+	{
+		final InterestCell cell = getCell(object.getX(), object.getY());
+		synchronized (object)
+		{
+			final InterestCell old = object.getInterestCell();
+			if (old != null)
+			{
+				old.removeObject(object);
+			}
+			cell.addObject(object);
+			object.setInterestCell(cell);
+		}
+		markDirty(object);
+	}
+	
+	/**
+	 * Unregisters an object leaving the world.
+	 * @param object the object leaving the world
+	 */
+	public void removeObject(L2Object object)
+	{
+		synchronized (object)
+		{
+			final InterestCell old = object.getInterestCell();
+			if (old != null)
+			{
+				old.removeObject(object);
+				object.setInterestCell(null);
+			}
+			object.setInterestStale(false);
+			
+			// Known lists are cleared on decay, the next spawn starts without history.
+			if (!object.isVisible())
+			{
+				object.setInterestPass(0);
+			}
+		}
+		_dirtyObjects.remove(object);
+	}
+	
+	/**
+	 * Moves the object to the cell matching its current position, if it changed.<br>
+	 * An object moving inside its cell is marked dirty once it went {@link Config#INTEREST_GRID_DIRTY_DISTANCE} away from where its known list was last brought up to date.
+	 * @param object the object that moved
+	 * @return {@code true} if the object crossed a cell boundary
+	 */
+	public boolean updatePosition(L2Object object)
+	{
+		final InterestCell current = object.getInterestCell();
+		if (current == null)
+		{
+			return false;
+		}
+		
+		final InterestCell cell = getCell(object.getX(), object.getY());
+		if (cell == current)
+		{
+			if (!object.isInterestStale())
+			{
+				final long dx = object.getX() - object.getInterestRefreshX();
+				final long dy = object.getY() - object.getInterestRefreshY();
+				if (((dx * dx) + (dy * dy)) > _sqDirtyDistance)
+				{
+					markDirty(object);
+				}
+			}
+			return false;
+		}
+		
+		synchronized (object)
+		{
+			// Removed from the world in the meantime.
+			if (object.getInterestCell() != current)
+			{
+				return false;
+			}
+			cell.addObject(object);
+			current.removeObject(object);
+			object.setInterestCell(cell);
+		}
+		_cellChanges.incrementAndGet();
+		markDirty(object);
+		return true;
+	}
+	
+	/**
+	 * Marks the object so its known list is recomputed on the next pass, and brought up to date by its getters until then.
+	 * @param object the object
+	 */
+	public void markDirty(L2Object object)
+	{
+		if (object.getInterestCell() != null)
+		{
+			object.setInterestStale(true);
+			_dirtyObjects.add(object);
+		}
+	}
+	
+	/**
+	 * Brings the known list of the object up to date if it is dirty, against the objects of the surrounding cells.<br>
+	 * Only its own side is updated, the known lists of the objects around it are left to the next pass which still processes it.
+	 * @param object the object whose known list is read
+	 */
+	public void refresh(L2Object object)
+	{
+		if (!object.isInterestStale())
+		{
+			return;
+		}
+		
+		// Cleared first, so the known list getters called from here return at once.
+		object.setInterestStale(false);
+		if (object.getInterestCell() == null)
+		{
+			return;
+		}
+		_refreshes.incrementAndGet();
+		
+		final ObjectKnownList knownList = object.getKnownList();
+		for (L2Object known : knownList.getKnownObjects().values())
+		{
+			final long forget = knownList.getDistanceToForgetObject(known);
+			if (!known.isVisible() || (getSqDistance(object, known) > (forget * forget)))
+			{
+				knownList.removeKnownObject(known);
+			}
+		}
+		
+		final int range = Config.INTEREST_GRID_SCAN_RANGE;
+		final int minX = Math.max(0, (Math.max(L2World.MAP_MIN_X, object.getX() - range) >> _cellShift) + _offsetX);
+		final int maxX = Math.min(_cellsX - 1, (Math.min(L2World.MAP_MAX_X, object.getX() + range) >> _cellShift) + _offsetX);
+		final int minY = Math.max(0, (Math.max(L2World.MAP_MIN_Y, object.getY() - range) >> _cellShift) + _offsetY);
+		final int maxY = Math.min(_cellsY - 1, (Math.min(L2World.MAP_MAX_Y, object.getY() + range) >> _cellShift) + _offsetY);
+		for (int cx = minX; cx <= maxX; cx++)
+		{
+			for (int cy = minY; cy <= maxY; cy++)
+			{
+				final InterestCell cell = _cells.get((cx * _cellsY) + cy);
+				if ((cell == null) || cell.isEmpty())
+				{
+					continue;
+				}
+				
+				for (L2Object obj : cell.getObjects())
+				{
+					if (obj == object)
+					{
+						continue;
+					}
+					
+					final long watch = knownList.getDistanceToWatchObject(obj);
+					if (getSqDistance(object, obj) <= (watch * watch))
+					{
+						knownList.addKnownObject(obj);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Gets all visible objects inside the given 2D radius around the object.
+	 * @param object the center object, excluded from the result
+	 * @param radius the radius
+	 * @return the objects in range
+	 */
+	public List<L2Object> getVisibleObjects(L2Object object, int radius)
+	{
+		final List<L2Object> result = new ArrayList<>();
+		final long sqRadius = (long) radius * radius;
+		final int minX = (Math.max(L2World.MAP_MIN_X, object.getX() - radius) >> _cellShift) + _offsetX;
+		final int maxX = (Math.min(L2World.MAP_MAX_X, object.getX() + radius) >> _cellShift) + _offsetX;
+		final int minY = (Math.max(L2World.MAP_MIN_Y, object.getY() - radius) >> _cellShift) + _offsetY;
+		final int maxY = (Math.min(L2World.MAP_MAX_Y, object.getY() + radius) >> _cellShift) + _offsetY;
+		for (int cx = Math.max(0, minX); cx <= Math.min(_cellsX - 1, maxX); cx++)
+		{
+			for (int cy = Math.max(0, minY); cy <= Math.min(_cellsY - 1, maxY); cy++)
+			{
+				final InterestCell cell = _cells.get((cx * _cellsY) + cy);
+				if ((cell == null) || cell.isEmpty())
+				{
+					continue;
+				}
+				
+				for (L2Object obj : cell.getObjects())
+				{
+					if (obj == object)
+					{
+						continue;
+					}
+					
+					final long dx = obj.getX() - object.getX();
+					final long dy = obj.getY() - object.getY();
+					if (((dx * dx) + (dy * dy)) <= sqRadius)
+					{
+						result.add(obj);
+					}
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Gets the characters inside the given 3D radius around the object which are known by it.
+	 * @param object the center object
+	 * @param radius the radius
+	 * @return the known characters in range
+	 */
+	public List<L2Character> getKnownCharactersInRadius(L2Object object, int radius)
+	{
+		final List<L2Character> result = new ArrayList<>();
+		final ObjectKnownList knownList = object.getKnownList();
+		// Widened by a cell so collision radiuses accounted by checkIfInRange are not missed.
+		for (L2Object obj : getVisibleObjects(object, radius + _cellSize))
+		{
+			if ((obj instanceof L2Character) && knownList.knowsObject(obj) && Util.checkIfInRange(radius, object, obj, true))
+			{
+				result.add((L2Character) obj);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Estimates if a radius query through the grid is cheaper than walking a known list of the given size.
+	 * @param radius the radius of the query
+	 * @param knownSize the size of the known list
+	 * @return {@code true} if the grid should be used
+	 */
+	public boolean isCheaperThanKnownList(int radius, int knownSize)
+	{
+		final int span = ((2 * radius) >> _cellShift) + 4;
+		return (span * span) < knownSize;
+	}
+	
+	/**
+	 * Recomputes the known lists of all dirty objects.<br>
+	 * Each of them updates its own known list against the objects of the surrounding cells, and the known lists of the objects standing still around it.
+	 * @return the number of processed objects
+	 */
+	public int updateDirtyObjects()
+	{
+		if (_dirtyObjects.isEmpty())
+		{
+			return 0;
+		}
+		
+		// Objects marked dirty while the pass runs are kept for the next one.
+		final int pass = (++_pass == 0) ? ++_pass : _pass;
+		final List<L2Object> pending = new ArrayList<>(_dirtyObjects.size());
+		final Iterator<L2Object> it = _dirtyObjects.iterator();
+		while (it.hasNext())
+		{
+			pending.add(it.next());
+			it.remove();
+		}
+		
+		// Positions of the previous pass are kept aside, the stamp tells the other objects that this one updates its own side.
+		final int[][] previous = new int[pending.size()][];
+		for (int i = 0; i < pending.size(); i++)
+		{
+			final L2Object object = pending.get(i);
+			previous[i] = new int[]
+			{
+				object.getInterestPass(),
+				object.getInterestX(),
+				object.getInterestY(),
+				object.getInterestZ()
+			};
+			object.setInterestPass(pass);
+			object.setInterestStale(false);
+		}
+		
+		int processed = 0;
+		for (int i = 0; i < pending.size(); i++)
+		{
+			final L2Object object = pending.get(i);
+			if (!object.isVisible())
+			{
+				continue;
+			}
+			
+			try
+			{
+				updateObject(object, pass, previous[i]);
+			}
+			catch (Exception e)
+			{
+				LOG.warn("{}: Failed to update known list of {}!", getClass().getSimpleName(), object, e);
+			}
+			processed++;
+		}
+		_processedObjects.addAndGet(processed);
+		return processed;
+	}
+	
+	/**
+	 * @param object the object to process
+	 * @param pass the running pass
+	 * @param previous the pass in which the object was previously processed and its position at that time
+	 */
+	private void updateObject(L2Object object, int pass, int[] previous)
+	{
+		final int previousPass = previous[0];
+		final ObjectKnownList knownList = object.getKnownList();
+		
+		// Leave delta: forget known objects that are now out of range.
+		for (L2Object known : knownList.getKnownObjects().values())
+		{
+			if (!known.isVisible())
+			{
+				knownList.removeKnownObject(known);
+				continue;
+			}
+			
+			final long sqDistance = getSqDistance(object, known);
+			final long forget = knownList.getDistanceToForgetObject(known);
+			if (sqDistance > (forget * forget))
+			{
+				knownList.removeKnownObject(known);
+			}
+			
+			// Objects of this pass update their own side.
+			if (known.getInterestPass() == pass)
+			{
+				continue;
+			}
+			
+			final ObjectKnownList other = known.getKnownList();
+			final long otherForget = other.getDistanceToForgetObject(object);
+			if ((sqDistance > (otherForget * otherForget)) && other.knowsObject(object))
+			{
+				other.removeKnownObject(object);
+			}
+		}
+		
+		// Enter delta: offer the objects of the surrounding cells, the known lists apply their own watch distance.
+		final int range = Config.INTEREST_GRID_SCAN_RANGE;
+		final long sqRange = (long) range * range;
+		final int minX = Math.max(0, (Math.max(L2World.MAP_MIN_X, object.getX() - range) >> _cellShift) + _offsetX);
+		final int maxX = Math.min(_cellsX - 1, (Math.min(L2World.MAP_MAX_X, object.getX() + range) >> _cellShift) + _offsetX);
+		final int minY = Math.max(0, (Math.max(L2World.MAP_MIN_Y, object.getY() - range) >> _cellShift) + _offsetY);
+		final int maxY = Math.min(_cellsY - 1, (Math.min(L2World.MAP_MAX_Y, object.getY() + range) >> _cellShift) + _offsetY);
+		long scanned = 0;
+		for (int cx = minX; cx <= maxX; cx++)
+		{
+			for (int cy = minY; cy <= maxY; cy++)
+			{
+				final InterestCell cell = _cells.get((cx * _cellsY) + cy);
+				if ((cell == null) || cell.isEmpty())
+				{
+					continue;
+				}
+				
+				for (L2Object obj : cell.getObjects())
+				{
+					if (obj == object)
+					{
+						continue;
+					}
+					
+					final long sqDistance = getSqDistance(object, obj);
+					if (sqDistance > sqRange)
+					{
+						continue;
+					}
+					scanned++;
+					
+					// Distances are checked first, most of the scanned objects are out of range for both sides.
+					final long watch = knownList.getDistanceToWatchObject(obj);
+					if (sqDistance <= (watch * watch))
+					{
+						knownList.addKnownObject(obj);
+					}
+					
+					// Objects of this pass update their own side, only the ones standing still are updated from here.
+					if (obj.getInterestPass() == pass)
+					{
+						continue;
+					}
+					
+					// The other side only changes if this object crossed its watch or forget distance since the previous pass,
+					// unless the other object was processed in between or this one has no previous position.
+					final boolean incremental = (previousPass != 0) && (obj.getInterestPass() <= previousPass);
+					final long sqPrevious = incremental ? getSqDistance(obj, previous[1], previous[2], previous[3]) : 0;
+					final ObjectKnownList other = obj.getKnownList();
+					final long otherWatch = other.getDistanceToWatchObject(object);
+					if (sqDistance <= (otherWatch * otherWatch))
+					{
+						if (!incremental || (sqPrevious > (otherWatch * otherWatch)))
+						{
+							other.addKnownObject(object);
+						}
+						continue;
+					}
+					
+					// Pairs known by this object were checked by the leave delta, only one sided relations remain.
+					final long otherForget = other.getDistanceToForgetObject(object);
+					if ((sqDistance > (otherForget * otherForget)) && (!incremental || (sqPrevious <= (otherForget * otherForget))) && other.knowsObject(object))
+					{
+						other.removeKnownObject(object);
+					}
+				}
+			}
+		}
+		_scannedObjects.addAndGet(scanned);
+	}
+	
+	private static long getSqDistance(L2Object a, L2Object b)
+	{
+		return getSqDistance(a, b.getX(), b.getY(), b.getZ());
+	}
+	
+	private static long getSqDistance(L2Object a, int x, int y, int z)
+	{
+		final long dx = a.getX() - x;
+		final long dy = a.getY() - y;
+		final long dz = a.getZ() - z;
+		return (dx * dx) + (dy * dy) + (dz * dz);
+	}
+	
+	/**
+	 * @return the number of objects waiting for the next pass
+	 */
+	public int getDirtyCount()
+	{
+		return _dirtyObjects.size();
+	}
+	
+	public int getCellSize()
+	{
+		return _cellSize;
+	}
+	
+	public String[] getStats()
+	{
+		return new String[]
+		{
+			"Interest Grid:",
+			" |- CellSize:         " + _cellSize,
+			" |- Cells:            " + _cellsX + "x" + _cellsY,
+			" |- DirtyObjects:     " + _dirtyObjects.size(),
+			" |- CellChanges:      " + _cellChanges.get(),
+			" |- ProcessedObjects: " + _processedObjects.get(),
+			" |- ScannedObjects:   " + _scannedObjects.get(),
+			" |- Refreshes:        " + _refreshes.get()
+		};
+	}
+	
+	public static InterestGrid getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final InterestGrid _instance = new InterestGrid();
+	}
+}
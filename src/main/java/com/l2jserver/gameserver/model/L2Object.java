@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.enums.InstanceType;
 import com.l2jserver.gameserver.enums.ShotType;
 import com.l2jserver.gameserver.handler.ActionHandler;
@@ -79,6 +80,17 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 	private boolean _isVisible;
 	private boolean _isInvisible;
 	private ObjectKnownList _knownList;
+	/** Cell of the interest grid containing this object, {@code null} when not visible */
+	private volatile InterestCell _interestCell;
+	/** Last pass of the interest grid in which this object was processed, and its position at that time */
+	private int _interestPass;
+	private int _interestX;
+	private int _interestY;
+	private int _interestZ;
+	/** If this object moved since its known list was last brought up to date, and its position at that time */
+	private volatile boolean _interestStale;
+	private int _interestRefreshX;
+	private int _interestRefreshY;
 	
 	public L2Object(int objectId)
 	{
@@ -637,6 +649,69 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		return _worldRegion;
 	}
 	
+	final InterestCell getInterestCell()
+	{
+		return _interestCell;
+	}
+	
+	final void setInterestCell(InterestCell cell)
+	{
+		_interestCell = cell;
+	}
+	
+	final int getInterestPass()
+	{
+		return _interestPass;
+	}
+	
+	final void setInterestPass(int pass)
+	{
+		_interestPass = pass;
+		_interestX = getX();
+		_interestY = getY();
+		_interestZ = getZ();
+	}
+	
+	final boolean isInterestStale()
+	{
+		return _interestStale;
+	}
+	
+	final void setInterestStale(boolean stale)
+	{
+		_interestStale = stale;
+		if (!stale)
+		{
+			_interestRefreshX = getX();
+			_interestRefreshY = getY();
+		}
+	}
+	
+	final int getInterestRefreshX()
+	{
+		return _interestRefreshX;
+	}
+	
+	final int getInterestRefreshY()
+	{
+		return _interestRefreshY;
+	}
+	
+	final int getInterestX()
+	{
+		return _interestX;
+	}
+	
+	final int getInterestY()
+	{
+		return _interestY;
+	}
+	
+	final int getInterestZ()
+	{
+		return _interestZ;
+	}
+	
 	public void setWorldRegion(L2WorldRegion value)
 	{
 		if ((getWorldRegion() != null) && isCharacter()) // confirm revalidation of old region's zones
@@ -761,10 +836,19 @@ public abstract class L2Object extends ListenersContainer implements IIdentifiab
 		
 		try
 		{
-			if (L2World.getInstance().getRegion(getLocation()) != getWorldRegion())
+			final L2WorldRegion region = getWorldRegion();
+			if (L2World.getInstance().getRegion(getLocation()) != region)
 			{
 				updateWorldRegion();
 			}
+			else
+			{
+				region.markChanged();
+				if (Config.INTEREST_GRID)
+				{
+					InterestGrid.getInstance().updatePosition(this);
+				}
+			}
 		}
 		catch (Exception e)
 		{
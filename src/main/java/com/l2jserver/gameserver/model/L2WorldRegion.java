@@ -18,6 +18,9 @@
  */
 package com.l2jserver.gameserver.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -36,13 +39,23 @@ import com.l2jserver.gameserver.model.actor.L2Npc;
 import com.l2jserver.gameserver.model.actor.L2Playable;
 import com.l2jserver.gameserver.model.actor.L2Vehicle;
 import com.l2jserver.gameserver.model.skills.Skill;
+import com.l2jserver.gameserver.model.zone.L2ZoneForm;
 import com.l2jserver.gameserver.model.zone.L2ZoneType;
+import com.l2jserver.gameserver.model.zone.ZoneCell;
 import com.l2jserver.gameserver.model.zone.type.L2PeaceZone;
 
 public final class L2WorldRegion
 {
 	private static final Logger _log = Logger.getLogger(L2WorldRegion.class.getName());
 	
+	/** Zone cells are squares of 2^ZONE_CELL_SHIFT units. */
+	public static final int ZONE_CELL_SHIFT = 9;
+	/** Number of zone cells on each side of a region. */
+	private static final int ZONE_CELLS = 1 << (L2World.SHIFT_BY - ZONE_CELL_SHIFT);
+	private static final byte CELL_OUTSIDE = 0;
+	private static final byte CELL_PARTIAL = 1;
+	private static final byte CELL_INSIDE = 2;
+	
 	/** Map containing all playable characters in game in this world region. */
 	private final Map<Integer, L2Playable> _allPlayable = new ConcurrentHashMap<>();
 	
@@ -54,6 +67,10 @@ public final class L2WorldRegion
 	private boolean _active = false;
 	private ScheduledFuture<?> _neighborsTask = null;
 	private final List<L2ZoneType> _zones = new CopyOnWriteArrayList<>();
+	/** Zones of each cell of this region, built on demand and dropped when the zones change. */
+	private volatile ZoneCell[] _zoneCells;
+	/** Set when an object of this region moved, appeared or disappeared, cleared by the knownlist update. */
+	private volatile boolean _changed = true;
 	
 	public L2WorldRegion(int pTileX, int pTileY)
 	{
@@ -71,15 +88,130 @@ public final class L2WorldRegion
 	
 	public void addZone(L2ZoneType zone)
 	{
-		_zones.add(zone);
+		synchronized (_zones)
+		{
+			_zones.add(zone);
+			_zoneCells = null;
+		}
 	}
 	
 	public void removeZone(L2ZoneType zone)
 	{
-		_zones.remove(zone);
+		synchronized (_zones)
+		{
+			_zones.remove(zone);
+			_zoneCells = null;
+		}
+	}
+	
+	/**
+	 * @param x the x coordinate, inside this region
+	 * @param y the y coordinate, inside this region
+	 * @return the zones of the cell containing the given position
+	 */
+	public ZoneCell getZoneCell(int x, int y)
+	{
+		ZoneCell[] cells = _zoneCells;
+		if (cells == null)
+		{
+			cells = buildZoneCells();
+		}
+		return cells[(((x >> ZONE_CELL_SHIFT) & (ZONE_CELLS - 1)) * ZONE_CELLS) + ((y >> ZONE_CELL_SHIFT) & (ZONE_CELLS - 1))];
+	}
+	
+	/**
+	 * Splits this region into cells and finds the zones overlapping each of them, and whether they cover it entirely.<br>
+	 * Cells with the same zones share the same {@link ZoneCell}.
+	 * @return the zone cells
+	 */
+	public ZoneCell[] buildZoneCells()
+	{
+		synchronized (_zones)
+		{
+			final ZoneCell[] cells = new ZoneCell[ZONE_CELLS * ZONE_CELLS];
+			if (_zones.isEmpty())
+			{
+				Arrays.fill(cells, ZoneCell.EMPTY);
+				_zoneCells = cells;
+				return cells;
+			}
+			
+			final byte[][] states = new byte[_zones.size()][];
+			for (int i = 0; i < states.length; i++)
+			{
+				states[i] = new byte[cells.length];
+				classifyZoneCells(_zones.get(i).getZone(), states[i], 0, 0, ZONE_CELLS);
+			}
+			
+			final Map<ZoneCell, ZoneCell> shared = new HashMap<>();
+			final List<L2ZoneType> zones = new ArrayList<>();
+			final List<Boolean> partial = new ArrayList<>();
+			for (int cell = 0; cell < cells.length; cell++)
+			{
+				zones.clear();
+				partial.clear();
+				for (int i = 0; i < states.length; i++)
+				{
+					if (states[i][cell] != CELL_OUTSIDE)
+					{
+						zones.add(_zones.get(i));
+						partial.add(states[i][cell] == CELL_PARTIAL);
+					}
+				}
+				final ZoneCell zoneCell = ZoneCell.of(zones, partial);
+				final ZoneCell existing = shared.putIfAbsent(zoneCell, zoneCell);
+				cells[cell] = existing != null ? existing : zoneCell;
+			}
+			_zoneCells = cells;
+			return cells;
+		}
+	}
+	
+	/**
+	 * Classifies a square of cells against a zone, splitting it in four while it is crossed by the border of the zone.
+	 */
+	private void classifyZoneCells(L2ZoneForm form, byte[] states, int cx, int cy, int size)
+	{
+		final int x1 = ((_tileX - L2World.OFFSET_X) << L2World.SHIFT_BY) + (cx << ZONE_CELL_SHIFT);
+		final int y1 = ((_tileY - L2World.OFFSET_Y) << L2World.SHIFT_BY) + (cy << ZONE_CELL_SHIFT);
+		final int x2 = (x1 + (size << ZONE_CELL_SHIFT)) - 1;
+		final int y2 = (y1 + (size << ZONE_CELL_SHIFT)) - 1;
+		if (form.containsRectangle(x1, x2, y1, y2))
+		{
+			for (int x = cx; x < (cx + size); x++)
+			{
+				Arrays.fill(states, (x * ZONE_CELLS) + cy, (x * ZONE_CELLS) + cy + size, CELL_INSIDE);
+			}
+		}
+		// Grown by one unit, so a zone only touching the border of the square is not missed.
+		else if (form.intersectsRectangle(x1 - 1, x2 + 1, y1 - 1, y2 + 1))
+		{
+			if (size == 1)
+			{
+				states[(cx * ZONE_CELLS) + cy] = CELL_PARTIAL;
+				return;
+			}
+			
+			final int half = size / 2;
+			classifyZoneCells(form, states, cx, cy, half);
+			classifyZoneCells(form, states, cx + half, cy, half);
+			classifyZoneCells(form, states, cx, cy + half, half);
+			classifyZoneCells(form, states, cx + half, cy + half, half);
+		}
 	}
 	
 	public void revalidateZones(L2Character character)
+	{
+		revalidateZones(character, true);
+	}
+	
+	/**
+	 * Revalidates the character in the zones of the cell it stands in, and removes it from the other zones of this region when it enters the cell.<br>
+	 * Unless forced, nothing is done while the character stays in a cell whose zones all cover it entirely, without crossing one of their heights.
+	 * @param character the character
+	 * @param force if the zones must be revalidated even if the character did not leave its cell
+	 */
+	public void revalidateZones(L2Character character, boolean force)
 	{
 		// do NOT update the world region while the character is still in the process of teleporting
 		// Once the teleport is COMPLETED, revalidation occurs safely, at that time.
@@ -89,17 +221,52 @@ public final class L2WorldRegion
 			return;
 		}
 		
-		for (L2ZoneType z : getZones())
+		final int x = character.getX();
+		final int y = character.getY();
+		final int z = character.getZ();
+		if ((((x >> L2World.SHIFT_BY) + L2World.OFFSET_X) != _tileX) || (((y >> L2World.SHIFT_BY) + L2World.OFFSET_Y) != _tileY))
 		{
-			if (z != null)
+			// Leaving this region, the zones spanning both regions keep the character.
+			character.setZoneCell(null, 0);
+			for (L2ZoneType zone : getZones())
+			{
+				zone.revalidateInZone(character);
+			}
+			return;
+		}
+		
+		final ZoneCell cell = getZoneCell(x, y);
+		if (cell == character.getZoneCell())
+		{
+			if (!force && cell.isStable(character.getZoneCellZ(), z))
 			{
-				z.revalidateInZone(character);
+				return;
 			}
 		}
+		else
+		{
+			// Entering the cell, the character can only be inside its zones.
+			for (L2ZoneType zone : getZones())
+			{
+				if (!cell.contains(zone))
+				{
+					zone.removeCharacter(character);
+				}
+			}
+		}
+		character.setZoneCell(cell, z);
+		
+		final int instanceId = character.getInstanceId();
+		for (int i = 0; i < cell.size(); i++)
+		{
+			final L2ZoneType zone = cell.getZone(i);
+			zone.revalidateInZone(character, zone.isInInstance(instanceId) && cell.isInsideZone(i, x, y, z));
+		}
 	}
 	
 	public void removeFromZones(L2Character character)
 	{
+		character.setZoneCell(null, 0);
 		for (L2ZoneType z : getZones())
 		{
 			if (z != null)
@@ -401,6 +568,11 @@ public final class L2WorldRegion
 		assert object.getWorldRegion() == this;
 		
 		_visibleObjects.put(object.getObjectId(), object);
+		markChanged();
+		if (Config.INTEREST_GRID)
+		{
+			InterestGrid.getInstance().addObject(object);
+		}
 		
 		if (object instanceof L2Playable)
 		{
@@ -429,6 +601,11 @@ public final class L2WorldRegion
 		assert (object.getWorldRegion() == this) || (object.getWorldRegion() == null);
 		
 		_visibleObjects.remove(object.getObjectId());
+		markChanged();
+		if (Config.INTEREST_GRID)
+		{
+			InterestGrid.getInstance().removeObject(object);
+		}
 		
 		if (object instanceof L2Playable)
 		{
@@ -441,6 +618,32 @@ public final class L2WorldRegion
 		}
 	}
 	
+	/**
+	 * Marks this region as changed for the knownlist update.
+	 */
+	public void markChanged()
+	{
+		// Avoid writing the shared flag on every movement.
+		if (!_changed)
+		{
+			_changed = true;
+		}
+	}
+	
+	/**
+	 * Clears the changed state of this region.
+	 * @return {@code true} if an object of this region moved, appeared or disappeared since the last call
+	 */
+	public boolean resetChanged()
+	{
+		if (!_changed)
+		{
+			return false;
+		}
+		_changed = false;
+		return true;
+	}
+	
 	public void addSurroundingRegion(L2WorldRegion region)
 	{
 		_surroundingRegions.add(region);
@@ -20,7 +20,6 @@ package com.l2jserver.gameserver.model;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -32,6 +31,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
+import com.l2jserver.gameserver.data.sql.impl.CharacterLoadPipeline;
 import com.l2jserver.gameserver.enums.MacroType;
 import com.l2jserver.gameserver.enums.ShortcutType;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
@@ -43,6 +43,8 @@ public class MacroList implements IRestorable
 {
 	private static final Logger _log = Logger.getLogger(MacroList.class.getName());
 	
+	public static final String RESTORE_MACROS = "SELECT charId, id, icon, name, descr, acronym, commands FROM character_macroses WHERE charId=?";
+	
 	private final L2PcInstance _owner;
 	private int _revision;
 	private int _macroId;
@@ -184,11 +186,9 @@ public class MacroList implements IRestorable
 	public boolean restoreMe()
 	{
 		_macroses.clear();
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("SELECT charId, id, icon, name, descr, acronym, commands FROM character_macroses WHERE charId=?"))
+		try
 		{
-			ps.setInt(1, _owner.getObjectId());
-			try (ResultSet rset = ps.executeQuery())
+			CharacterLoadPipeline.query(_owner.getObjectId(), RESTORE_MACROS, rset ->
 			{
 				while (rset.next())
 				{
@@ -218,7 +218,7 @@ public class MacroList implements IRestorable
 					}
 					_macroses.put(id, new Macro(id, icon, name, descr, acronym, commands));
 				}
-			}
+			}, _owner.getObjectId());
 		}
 		catch (Exception e)
 		{
@@ -20,13 +20,13 @@ package com.l2jserver.gameserver.model;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
+import com.l2jserver.gameserver.data.sql.impl.CharacterLoadPipeline;
 import com.l2jserver.gameserver.enums.ShortcutType;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.interfaces.IRestorable;
@@ -40,6 +40,8 @@ public class ShortCuts implements IRestorable
 {
 	private static Logger _log = Logger.getLogger(ShortCuts.class.getName());
 	private static final int MAX_SHORTCUTS_PER_BAR = 12;
+	
+	public static final String RESTORE_SHORTCUTS = "SELECT charId, slot, page, type, shortcut_id, level FROM character_shortcuts WHERE charId=? AND class_index=?";
 	private final L2PcInstance _owner;
 	private final Map<Integer, Shortcut> _shortCuts = new TreeMap<>();
 	
@@ -178,13 +180,9 @@ public class ShortCuts implements IRestorable
 	public boolean restoreMe()
 	{
 		_shortCuts.clear();
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement statement = con.prepareStatement("SELECT charId, slot, page, type, shortcut_id, level FROM character_shortcuts WHERE charId=? AND class_index=?"))
+		try
 		{
-			statement.setInt(1, _owner.getObjectId());
-			statement.setInt(2, _owner.getClassIndex());
-			
-			try (ResultSet rset = statement.executeQuery())
+			CharacterLoadPipeline.query(_owner.getObjectId(), RESTORE_SHORTCUTS, rset ->
 			{
 				while (rset.next())
 				{
@@ -196,7 +194,7 @@ public class ShortCuts implements IRestorable
 					
 					_shortCuts.put(slot + (page * MAX_SHORTCUTS_PER_BAR), new Shortcut(slot, page, ShortcutType.values()[type], id, level, 1));
 				}
-			}
+			}, _owner.getObjectId(), _owner.getClassIndex());
 		}
 		catch (Exception e)
 		{
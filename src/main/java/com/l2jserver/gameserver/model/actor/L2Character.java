@@ -27,10 +27,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.StampedLock;
 
@@ -126,6 +128,7 @@ import com.l2jserver.gameserver.model.stats.Calculator;
 import com.l2jserver.gameserver.model.stats.Formulas;
 import com.l2jserver.gameserver.model.stats.Stats;
 import com.l2jserver.gameserver.model.stats.functions.AbstractFunction;
+import com.l2jserver.gameserver.model.zone.ZoneCell;
 import com.l2jserver.gameserver.model.zone.ZoneId;
 import com.l2jserver.gameserver.network.SystemMessageId;
 import com.l2jserver.gameserver.network.serverpackets.AbstractNpcInfo;
@@ -149,7 +152,7 @@ import com.l2jserver.gameserver.network.serverpackets.StopMove;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
 import com.l2jserver.gameserver.network.serverpackets.TeleportToLocation;
 import com.l2jserver.gameserver.pathfinding.AbstractNodeLoc;
-import com.l2jserver.gameserver.pathfinding.PathFinding;
+import com.l2jserver.gameserver.pathfinding.PathFindingService;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
 import com.l2jserver.gameserver.util.Util;
 import com.l2jserver.util.EmptyQueue;
@@ -223,6 +226,9 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	
 	private final byte[] _zones = new byte[ZoneId.getZoneCount()];
 	protected byte _zoneValidateCounter = 4;
+	/** Zone cell and height of the last zone revalidation. */
+	private ZoneCell _zoneCell;
+	private int _zoneCellZ;
 	
 	private L2Character _debugger = null;
 	
@@ -256,6 +262,31 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	
 	/** Movement data of this L2Character */
 	protected MoveData _move;
+	/** Incremented by each move request, so a path found asynchronously for a superseded request is dropped. */
+	private final AtomicInteger _pathRequest = new AtomicInteger();
+	/** The move waiting for its path to be found asynchronously, if still current. */
+	private volatile PendingPath _pendingPath;
+	
+	/**
+	 * Move request waiting for its path.
+	 */
+	private static final class PendingPath
+	{
+		protected final int _request;
+		protected final int _x;
+		protected final int _y;
+		protected final int _z;
+		protected final int _offset;
+		
+		protected PendingPath(int request, int x, int y, int z, int offset)
+		{
+			_request = request;
+			_x = x;
+			_y = y;
+			_z = z;
+			_offset = offset;
+		}
+	}
 	
 	/** This creature's target. */
 	private L2Object _target;
@@ -3105,6 +3136,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	protected final void setTemplate(L2CharTemplate template)
 	{
 		_template = template;
+		getStat().invalidateAll();
 	}
 	
 	/**
@@ -3545,6 +3577,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			
 			// Add the Func to the calculator corresponding to the state
 			_calculators[stat].addFunc(function);
+			getStat().invalidate(function.getStat());
 		}
 	}
 	
@@ -3618,6 +3651,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			
 			// Remove the Func object from the Calculator
 			_calculators[stat].removeFunc(function);
+			getStat().invalidate(function.getStat());
 			
 			if (_calculators[stat].size() == 0)
 			{
@@ -3729,6 +3763,14 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 				i++;
 			}
 			
+			if (modifiedStats != null)
+			{
+				for (Stats stat : modifiedStats)
+				{
+					getStat().invalidate(stat);
+				}
+			}
+			
 			// If possible, free the memory and just create a link on NPC_STD_CALCULATOR
 			if (isNpc())
 			{
@@ -4198,7 +4240,33 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 			}
 		}
 		
-		getWorldRegion().revalidateZones(this);
+		getWorldRegion().revalidateZones(this, force);
+	}
+	
+	/**
+	 * @return the zone cell of the last zone revalidation, {@code null} if none
+	 */
+	public ZoneCell getZoneCell()
+	{
+		return _zoneCell;
+	}
+	
+	/**
+	 * @return the height of the last zone revalidation
+	 */
+	public int getZoneCellZ()
+	{
+		return _zoneCellZ;
+	}
+	
+	/**
+	 * @param cell the zone cell of the zone revalidation
+	 * @param z the height of the zone revalidation
+	 */
+	public void setZoneCell(ZoneCell cell, int z)
+	{
+		_zoneCell = cell;
+		_zoneCellZ = z;
 	}
 	
 	/**
@@ -4222,6 +4290,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	{
 		// Delete movement data of the L2Character
 		_move = null;
+		_pathRequest.incrementAndGet();
 		
 		// if (getAI() != null)
 		// getAI().setIntention(CtrlIntention.AI_INTENTION_IDLE);
@@ -4331,9 +4400,52 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	 * @param y The Y position of the destination
 	 * @param z The Y position of the destination
 	 * @param offset The size of the interaction area of the L2Character targeted
+	 * @return {@code true} if the move waits for its path to be found asynchronously, the movement data being set and a MoveToLocation broadcast once it is found
 	 */
-	public void moveToLocation(int x, int y, int z, int offset)
+	public boolean moveToLocation(int x, int y, int z, int offset)
 	{
+		// The same move is already waiting for its path, requesting it again would drop the search.
+		final PendingPath pending = _pendingPath;
+		if (isPathPending(pending) && (pending._x == x) && (pending._y == y) && (pending._z == z) && (pending._offset == offset))
+		{
+			return true;
+		}
+		
+		moveToLocation(x, y, z, offset, null, false);
+		return isPathPending();
+	}
+	
+	/**
+	 * @return {@code true} if the current move waits for its path to be found asynchronously
+	 */
+	public boolean isPathPending()
+	{
+		return isPathPending(_pendingPath);
+	}
+	
+	private boolean isPathPending(PendingPath pending)
+	{
+		return (pending != null) && (pending._request == _pathRequest.get());
+	}
+	
+	/**
+	 * Calculate movement data for a move to location action, see {@link #moveToLocation(int, int, int, int)}.<br>
+	 * When the path finding service is asynchronous, the path search is handed over to it and the move starts over with the path found.
+	 * @param x The X position of the destination
+	 * @param y The Y position of the destination
+	 * @param z The Y position of the destination
+	 * @param offset The size of the interaction area of the L2Character targeted
+	 * @param foundPath the path found for this move, if already searched
+	 * @param pathSearched if the path was already searched
+	 */
+	private void moveToLocation(int x, int y, int z, int offset, List<AbstractNodeLoc> foundPath, boolean pathSearched)
+	{
+		final int request = _pathRequest.incrementAndGet();
+		final int requestX = x;
+		final int requestY = y;
+		final int requestZ = z;
+		final int requestOffset = offset;
+		
 		// Get the Move Speed of the L2Charcater
 		double speed = getMoveSpeed();
 		if ((speed <= 0) || isMovementDisabled())
@@ -4507,7 +4619,40 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 				// Overrides previous movement check
 				if ((isPlayable() && !isInVehicle) || isMinion() || isInCombat())
 				{
-					m.geoPath = PathFinding.getInstance().findPath(curX, curY, curZ, originalX, originalY, originalZ, getInstanceId(), isPlayable());
+					if (pathSearched)
+					{
+						m.geoPath = foundPath;
+					}
+					else if (Config.PATHFIND_ASYNC)
+					{
+						final CompletableFuture<List<AbstractNodeLoc>> future = PathFindingService.getInstance().findPathAsync(curX, curY, curZ, originalX, originalY, originalZ, getInstanceId(), isPlayable());
+						if (!future.isDone())
+						{
+							// The current movement goes on until the path is found, the move then starts over with it unless another move was requested meanwhile.
+							_pendingPath = new PendingPath(request, requestX, requestY, requestZ, requestOffset);
+							future.thenAccept(path -> ThreadPoolManager.getInstance().executeAi(() ->
+							{
+								if (_pathRequest.get() == request)
+								{
+									moveToLocation(requestX, requestY, requestZ, requestOffset, path, true);
+									if (isMoving())
+									{
+										broadcastPacket(new MoveToLocation(this));
+									}
+									else
+									{
+										sendPacket(ActionFailed.STATIC_PACKET);
+									}
+								}
+							}));
+							return;
+						}
+						m.geoPath = future.join();
+					}
+					else
+					{
+						m.geoPath = PathFindingService.getInstance().findPath(curX, curY, curZ, originalX, originalY, originalZ, getInstanceId(), isPlayable());
+					}
 					if ((m.geoPath == null) || (m.geoPath.size() < 2)) // No path found
 					{
 						// Even though there's no path found (remember geonodes aren't perfect),
@@ -5764,7 +5909,7 @@ public abstract class L2Character extends L2Object implements ISkillsHolder, IDe
 	// Quest event ON_SPELL_FNISHED
 	protected void notifyQuestEventSkillFinished(Skill skill, L2Object target)
 	{
-	
+		
 	}
 	
 	/**
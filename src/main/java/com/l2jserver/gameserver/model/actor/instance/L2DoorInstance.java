@@ -249,6 +249,7 @@ public class L2DoorInstance extends L2Character
 	public void setOpen(boolean open)
 	{
 		_open = open;
+		DoorData.getInstance().onDoorStateChange();
 		if (getChildId() > 0)
 		{
 			L2DoorInstance sibling = getSiblingDoor(getChildId());
@@ -661,6 +662,7 @@ public class L2DoorInstance extends L2Character
 		{
 			return false;
 		}
+		DoorData.getInstance().onDoorStateChange();
 		
 		boolean isFort = ((getFort() != null) && (getFort().getResidenceId() > 0) && getFort().getSiege().isInProgress());
 		boolean isCastle = ((getCastle() != null) && (getCastle().getResidenceId() > 0) && getCastle().getSiege().isInProgress());
@@ -674,8 +676,23 @@ public class L2DoorInstance extends L2Character
 	}
 	
 	@Override
-	public void moveToLocation(int x, int y, int z, int offset)
+	public void doRevive()
 	{
+		super.doRevive();
+		DoorData.getInstance().onDoorStateChange();
+	}
+	
+	@Override
+	public void onSpawn()
+	{
+		super.onSpawn();
+		DoorData.getInstance().onDoorStateChange();
+	}
+	
+	@Override
+	public boolean moveToLocation(int x, int y, int z, int offset)
+	{
+		return false;
 	}
 	
 	@Override
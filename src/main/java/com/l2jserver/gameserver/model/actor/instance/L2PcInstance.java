@@ -69,6 +69,8 @@ import com.l2jserver.gameserver.communitybbs.BB.Forum;
 import com.l2jserver.gameserver.communitybbs.Manager.ForumsBBSManager;
 import com.l2jserver.gameserver.data.sql.impl.CharNameTable;
 import com.l2jserver.gameserver.data.sql.impl.CharSummonTable;
+import com.l2jserver.gameserver.data.sql.impl.CharacterLoadPipeline;
+import com.l2jserver.gameserver.data.sql.impl.CharacterLoadPipeline.Phase;
 import com.l2jserver.gameserver.data.sql.impl.ClanTable;
 import com.l2jserver.gameserver.data.xml.impl.AdminData;
 import com.l2jserver.gameserver.data.xml.impl.ClassListData;
@@ -87,6 +89,7 @@ import com.l2jserver.gameserver.datatables.SkillData;
 import com.l2jserver.gameserver.enums.HtmlActionScope;
 import com.l2jserver.gameserver.enums.IllegalActionPunishmentType;
 import com.l2jserver.gameserver.enums.InstanceType;
+import com.l2jserver.gameserver.enums.ItemLocation;
 import com.l2jserver.gameserver.enums.MountType;
 import com.l2jserver.gameserver.enums.PartyDistributionType;
 import com.l2jserver.gameserver.enums.PlayerAction;
@@ -323,6 +326,8 @@ import com.l2jserver.gameserver.network.serverpackets.TradeStart;
 import com.l2jserver.gameserver.network.serverpackets.UserInfo;
 import com.l2jserver.gameserver.network.serverpackets.ValidateLocation;
 import com.l2jserver.gameserver.taskmanager.AttackStanceTaskManager;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager;
+import com.l2jserver.gameserver.taskmanager.QuestVarUpdateTaskManager;
 import com.l2jserver.gameserver.util.Broadcast;
 import com.l2jserver.gameserver.util.FloodProtectors;
 import com.l2jserver.gameserver.util.Util;
@@ -386,6 +391,12 @@ public final class L2PcInstance extends L2Playable
 	private static final String INSERT_CHAR_RECIPE_SHOP = "REPLACE INTO character_recipeshoplist (`charId`, `recipeId`, `price`, `index`) VALUES (?, ?, ?, ?)";
 	private static final String RESTORE_CHAR_RECIPE_SHOP = "SELECT * FROM character_recipeshoplist WHERE charId=? ORDER BY `index`";
 	
+	private static final String RESTORE_RECIPE_BOOK = "SELECT id, type, classIndex FROM character_recipebook WHERE charId=?";
+	private static final String RESTORE_DWARVEN_RECIPE_BOOK = "SELECT id FROM character_recipebook WHERE charId=? AND classIndex=? AND type = 1";
+	private static final String RESTORE_PREMIUM_ITEMS = "SELECT itemNum, itemId, itemCount, itemSender FROM character_premium_items WHERE charId=?";
+	private static final String RESTORE_PET_INVENTORY_ITEMS = "SELECT object_id FROM `items` WHERE `owner_id`=? AND (`loc`='PET' OR `loc`='PET_EQUIP') LIMIT 1;";
+	private static final String RESTORE_FRIENDS = "SELECT friendId FROM character_friends WHERE charId=? AND relation=0";
+	
 	private static final String COND_OVERRIDE_KEY = "cond_override";
 	
 	public static final String NEWBIE_KEY = "NEWBIE";
@@ -1719,7 +1730,7 @@ public final class L2PcInstance extends L2Playable
 			}
 		}
 		
-		getWorldRegion().revalidateZones(this);
+		getWorldRegion().revalidateZones(this, force);
 		
 		if (Config.ALLOW_WATER)
 		{
@@ -4723,6 +4734,7 @@ public final class L2PcInstance extends L2Playable
 		_transformation = transformation;
 		getEffectList().stopAllToggles();
 		transformation.onTransform(this);
+		getStat().invalidateAll();
 		sendSkillList();
 		sendPacket(new SkillCoolTime(this));
 		broadcastUserInfo();
@@ -4739,6 +4751,7 @@ public final class L2PcInstance extends L2Playable
 			setQueuedSkill(null, false, false);
 			_transformation.onUntransform(this);
 			_transformation = null;
+			getStat().invalidateAll();
 			getEffectList().stopSkillEffects(false, AbnormalType.TRANSFORM);
 			sendSkillList();
 			sendPacket(new SkillCoolTime(this));
@@ -6745,183 +6758,191 @@ public final class L2PcInstance extends L2Playable
 		double currentCp = 0;
 		double currentHp = 0;
 		double currentMp = 0;
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(RESTORE_CHARACTER))
+		final CharacterLoadPipeline pipeline = CharacterLoadPipeline.getInstance();
+		final long start = System.nanoTime();
+		try (CharacterLoadPipeline.Prefetch prefetch = pipeline.start(objectId))
 		{
-			// Retrieve the L2PcInstance from the characters table of the database
-			ps.setInt(1, objectId);
-			try (ResultSet rset = ps.executeQuery())
+			// Fetch the data which does not depend on the active class while the character is read.
+			prefetchCharData(prefetch, objectId);
+			
+			try (Connection con = ConnectionFactory.getInstance().getConnection();
+				PreparedStatement ps = con.prepareStatement(RESTORE_CHARACTER))
 			{
-				if (rset.next())
+				// Retrieve the L2PcInstance from the characters table of the database
+				ps.setInt(1, objectId);
+				try (ResultSet rset = ps.executeQuery())
 				{
-					final int activeClassId = rset.getInt("classid");
-					final boolean female = rset.getInt("sex") != Sex.MALE.ordinal();
-					final L2PcTemplate template = PlayerTemplateData.getInstance().getTemplate(activeClassId);
-					PcAppearance app = new PcAppearance(rset.getByte("face"), rset.getByte("hairColor"), rset.getByte("hairStyle"), female);
-					
-					player = new L2PcInstance(objectId, template, rset.getString("account_name"), app);
-					player.setName(rset.getString("char_name"));
-					player._lastAccess = rset.getLong("lastAccess");
-					
-					player.getStat().setExp(rset.getLong("exp"));
-					player.setExpBeforeDeath(rset.getLong("expBeforeDeath"));
-					player.getStat().setLevel(rset.getByte("level"));
-					player.getStat().setSp(rset.getInt("sp"));
-					
-					player.setWantsPeace(rset.getInt("wantspeace"));
-					
-					player.setHeading(rset.getInt("heading"));
-					
-					player.setKarma(rset.getInt("karma"));
-					player.setFame(rset.getInt("fame"));
-					player.setPvpKills(rset.getInt("pvpkills"));
-					player.setPkKills(rset.getInt("pkkills"));
-					player.setOnlineTime(rset.getLong("onlinetime"));
-					player.setNewbie(rset.getInt("newbie"));
-					player.setNoble(rset.getInt("nobless") == 1);
-					
-					player.setClanJoinExpiryTime(rset.getLong("clan_join_expiry_time"));
-					if (player.getClanJoinExpiryTime() < System.currentTimeMillis())
-					{
-						player.setClanJoinExpiryTime(0);
-					}
-					player.setClanCreateExpiryTime(rset.getLong("clan_create_expiry_time"));
-					if (player.getClanCreateExpiryTime() < System.currentTimeMillis())
-					{
-						player.setClanCreateExpiryTime(0);
-					}
-					
-					player.setPowerGrade(rset.getInt("power_grade"));
-					player.setPledgeType(rset.getInt("subpledge"));
-					// player.setApprentice(rset.getInt("apprentice"));
-					
-					player.setDeleteTimer(rset.getLong("deletetime"));
-					player.setTitle(rset.getString("title"));
-					player.setAccessLevel(rset.getInt("accesslevel"));
-					int titleColor = rset.getInt("title_color");
-					if (titleColor != PcAppearance.DEFAULT_TITLE_COLOR)
-					{
-						player.getAppearance().setTitleColor(titleColor);
-					}
-					player.setFistsWeaponItem(player.findFistsWeaponItem(activeClassId));
-					player.setUptime(System.currentTimeMillis());
-					
-					currentHp = rset.getDouble("curHp");
-					currentCp = rset.getDouble("curCp");
-					currentMp = rset.getDouble("curMp");
-					
-					player._classIndex = 0;
-					try
-					{
-						player.setBaseClass(rset.getInt("base_class"));
-					}
-					catch (Exception e)
+					if (rset.next())
 					{
-						// TODO: Should this be logged?
-						player.setBaseClass(activeClassId);
-					}
-					
-					// Restore Subclass Data (cannot be done earlier in function)
-					if (restoreSubClassData(player))
-					{
-						if (activeClassId != player.getBaseClass())
+						final int activeClassId = rset.getInt("classid");
+						final boolean female = rset.getInt("sex") != Sex.MALE.ordinal();
+						final L2PcTemplate template = PlayerTemplateData.getInstance().getTemplate(activeClassId);
+						PcAppearance app = new PcAppearance(rset.getByte("face"), rset.getByte("hairColor"), rset.getByte("hairStyle"), female);
+						
+						player = new L2PcInstance(objectId, template, rset.getString("account_name"), app);
+						player.setName(rset.getString("char_name"));
+						player._lastAccess = rset.getLong("lastAccess");
+						
+						player.getStat().setExp(rset.getLong("exp"));
+						player.setExpBeforeDeath(rset.getLong("expBeforeDeath"));
+						player.getStat().setLevel(rset.getByte("level"));
+						player.getStat().setSp(rset.getInt("sp"));
+						
+						player.setWantsPeace(rset.getInt("wantspeace"));
+						
+						player.setHeading(rset.getInt("heading"));
+						
+						player.setKarma(rset.getInt("karma"));
+						player.setFame(rset.getInt("fame"));
+						player.setPvpKills(rset.getInt("pvpkills"));
+						player.setPkKills(rset.getInt("pkkills"));
+						player.setOnlineTime(rset.getLong("onlinetime"));
+						player.setNewbie(rset.getInt("newbie"));
+						player.setNoble(rset.getInt("nobless") == 1);
+						
+						player.setClanJoinExpiryTime(rset.getLong("clan_join_expiry_time"));
+						if (player.getClanJoinExpiryTime() < System.currentTimeMillis())
+						{
+							player.setClanJoinExpiryTime(0);
+						}
+						player.setClanCreateExpiryTime(rset.getLong("clan_create_expiry_time"));
+						if (player.getClanCreateExpiryTime() < System.currentTimeMillis())
+						{
+							player.setClanCreateExpiryTime(0);
+						}
+						
+						player.setPowerGrade(rset.getInt("power_grade"));
+						player.setPledgeType(rset.getInt("subpledge"));
+						// player.setApprentice(rset.getInt("apprentice"));
+						
+						player.setDeleteTimer(rset.getLong("deletetime"));
+						player.setTitle(rset.getString("title"));
+						player.setAccessLevel(rset.getInt("accesslevel"));
+						int titleColor = rset.getInt("title_color");
+						if (titleColor != PcAppearance.DEFAULT_TITLE_COLOR)
+						{
+							player.getAppearance().setTitleColor(titleColor);
+						}
+						player.setFistsWeaponItem(player.findFistsWeaponItem(activeClassId));
+						player.setUptime(System.currentTimeMillis());
+						
+						currentHp = rset.getDouble("curHp");
+						currentCp = rset.getDouble("curCp");
+						currentMp = rset.getDouble("curMp");
+						
+						player._classIndex = 0;
+						try
+						{
+							player.setBaseClass(rset.getInt("base_class"));
+						}
+						catch (Exception e)
+						{
+							// TODO: Should this be logged?
+							player.setBaseClass(activeClassId);
+						}
+						
+						// Restore Subclass Data (cannot be done earlier in function)
+						if (restoreSubClassData(player))
 						{
-							for (SubClass subClass : player.getSubClasses().values())
+							if (activeClassId != player.getBaseClass())
 							{
-								if (subClass.getClassId() == activeClassId)
+								for (SubClass subClass : player.getSubClasses().values())
 								{
-									player._classIndex = subClass.getClassIndex();
+									if (subClass.getClassId() == activeClassId)
+									{
+										player._classIndex = subClass.getClassIndex();
+									}
 								}
 							}
 						}
-					}
-					if ((player.getClassIndex() == 0) && (activeClassId != player.getBaseClass()))
-					{
-						// Subclass in use but doesn't exist in DB -
-						// a possible restart-while-modifysubclass cheat has been attempted.
-						// Switching to use base class
-						player.setClassId(player.getBaseClass());
-						LOG.warn("{} reverted to base class. Possibly has tried a relogin exploit while subclassing.", player);
-					}
-					else
-					{
-						player._activeClass = activeClassId;
-					}
-					
-					player.setApprentice(rset.getInt("apprentice"));
-					player.setSponsor(rset.getInt("sponsor"));
-					player.setLvlJoinedAcademy(rset.getInt("lvl_joined_academy"));
-					player.setIsIn7sDungeon(rset.getInt("isin7sdungeon") == 1);
-					
-					CursedWeaponsManager.getInstance().checkPlayer(player);
-					
-					player.setDeathPenaltyBuffLevel(rset.getInt("death_penalty_level"));
-					
-					player.setVitalityPoints(rset.getInt("vitality_points"), true);
-					
-					// Set the x,y,z position of the L2PcInstance and make it invisible
-					player.setXYZInvisible(rset.getInt("x"), rset.getInt("y"), rset.getInt("z"));
-					
-					// Set Teleport Bookmark Slot
-					player.setBookMarkSlot(rset.getInt("BookmarkSlot"));
-					
-					// character creation Time
-					player.getCreateDate().setTimeInMillis(rset.getTimestamp("createDate").getTime());
-					
-					// Language
-					player.setLang(rset.getString("language"));
-					
-					// Set Hero status if it applies
-					player.setHero(Hero.getInstance().isHero(objectId));
-					
-					int clanId = rset.getInt("clanid");
-					if (clanId > 0)
-					{
-						player.setClan(ClanTable.getInstance().getClan(clanId));
-					}
-					
-					if (player.getClan() != null)
-					{
-						if (player.getClan().getLeaderId() != player.getObjectId())
+						if ((player.getClassIndex() == 0) && (activeClassId != player.getBaseClass()))
 						{
-							if (player.getPowerGrade() == 0)
-							{
-								player.setPowerGrade(5);
-							}
-							player.setClanPrivileges(player.getClan().getRankPrivs(player.getPowerGrade()));
+							// Subclass in use but doesn't exist in DB -
+							// a possible restart-while-modifysubclass cheat has been attempted.
+							// Switching to use base class
+							player.setClassId(player.getBaseClass());
+							LOG.warn("{} reverted to base class. Possibly has tried a relogin exploit while subclassing.", player);
 						}
 						else
 						{
-							player.getClanPrivileges().setAll();
-							player.setPowerGrade(1);
+							player._activeClass = activeClassId;
 						}
-						player.setPledgeClass(L2ClanMember.calculatePledgeClass(player));
-					}
-					else
-					{
-						if (player.isNoble())
+						
+						player.setApprentice(rset.getInt("apprentice"));
+						player.setSponsor(rset.getInt("sponsor"));
+						player.setLvlJoinedAcademy(rset.getInt("lvl_joined_academy"));
+						player.setIsIn7sDungeon(rset.getInt("isin7sdungeon") == 1);
+						
+						CursedWeaponsManager.getInstance().checkPlayer(player);
+						
+						player.setDeathPenaltyBuffLevel(rset.getInt("death_penalty_level"));
+						
+						player.setVitalityPoints(rset.getInt("vitality_points"), true);
+						
+						// Set the x,y,z position of the L2PcInstance and make it invisible
+						player.setXYZInvisible(rset.getInt("x"), rset.getInt("y"), rset.getInt("z"));
+						
+						// Set Teleport Bookmark Slot
+						player.setBookMarkSlot(rset.getInt("BookmarkSlot"));
+						
+						// character creation Time
+						player.getCreateDate().setTimeInMillis(rset.getTimestamp("createDate").getTime());
+						
+						// Language
+						player.setLang(rset.getString("language"));
+						
+						// Set Hero status if it applies
+						player.setHero(Hero.getInstance().isHero(objectId));
+						
+						int clanId = rset.getInt("clanid");
+						if (clanId > 0)
 						{
-							player.setPledgeClass(5);
+							player.setClan(ClanTable.getInstance().getClan(clanId));
 						}
 						
-						if (player.isHero())
+						if (player.getClan() != null)
 						{
-							player.setPledgeClass(8);
+							if (player.getClan().getLeaderId() != player.getObjectId())
+							{
+								if (player.getPowerGrade() == 0)
+								{
+									player.setPowerGrade(5);
+								}
+								player.setClanPrivileges(player.getClan().getRankPrivs(player.getPowerGrade()));
+							}
+							else
+							{
+								player.getClanPrivileges().setAll();
+								player.setPowerGrade(1);
+							}
+							player.setPledgeClass(L2ClanMember.calculatePledgeClass(player));
+						}
+						else
+						{
+							if (player.isNoble())
+							{
+								player.setPledgeClass(5);
+							}
+							
+							if (player.isHero())
+							{
+								player.setPledgeClass(8);
+							}
+							
+							player.getClanPrivileges().clear();
 						}
 						
-						player.getClanPrivileges().clear();
-					}
-					
-					// Retrieve the name and ID of the other characters assigned to this account.
-					try (PreparedStatement stmt = con.prepareStatement("SELECT charId, char_name FROM characters WHERE account_name=? AND charId<>?"))
-					{
-						stmt.setString(1, player._accountName);
-						stmt.setInt(2, objectId);
-						try (ResultSet chars = stmt.executeQuery())
+						// Retrieve the name and ID of the other characters assigned to this account.
+						try (PreparedStatement stmt = con.prepareStatement("SELECT charId, char_name FROM characters WHERE account_name=? AND charId<>?"))
 						{
-							while (chars.next())
+							stmt.setString(1, player._accountName);
+							stmt.setInt(2, objectId);
+							try (ResultSet chars = stmt.executeQuery())
 							{
-								player._chars.put(chars.getInt("charId"), chars.getString("char_name"));
+								while (chars.next())
+								{
+									player._chars.put(chars.getInt("charId"), chars.getString("char_name"));
+								}
 							}
 						}
 					}
@@ -6933,6 +6954,11 @@ public final class L2PcInstance extends L2Playable
 				return null;
 			}
 			
+			prefetch.add(RESTORE_SKILLS_FOR_CHAR, objectId, player.getClassIndex());
+			prefetch.add(ShortCuts.RESTORE_SHORTCUTS, objectId, player.getClassIndex());
+			prefetch.add(RESTORE_CHAR_HENNAS, objectId, player.getClassIndex());
+			long phaseStart = pipeline.record(Phase.CHARACTER, start);
+			
 			// Retrieve from the database all items of this L2PcInstance and add them to _inventory
 			player.getInventory().restore();
 			player.getFreight().restore();
@@ -6940,6 +6966,7 @@ public final class L2PcInstance extends L2Playable
 			{
 				player.getWarehouse();
 			}
+			phaseStart = pipeline.record(Phase.ITEMS, phaseStart);
 			
 			// Retrieve from the database all secondary data of this L2PcInstance
 			// Note that Clan, Noblesse and Hero skills are given separately and not here.
@@ -6948,6 +6975,7 @@ public final class L2PcInstance extends L2Playable
 			
 			// Reward auto-get skills and all available skills if auto-learn skills is true.
 			player.rewardSkills();
+			phaseStart = pipeline.record(Phase.DATA, phaseStart);
 			
 			player.restoreItemReuse();
 			
@@ -6988,6 +7016,8 @@ public final class L2PcInstance extends L2Playable
 				final long masks = player.getVariables().getLong(COND_OVERRIDE_KEY, PcCondOverride.getAllExceptionsMask());
 				player.setOverrideCond(masks);
 			}
+			pipeline.record(Phase.FINISH, phaseStart);
+			LOG.debug("{} loaded in {}ms.", player, pipeline.recordLoad(start));
 		}
 		catch (Exception e)
 		{
@@ -6996,6 +7026,35 @@ public final class L2PcInstance extends L2Playable
 		return player;
 	}
 	
+	/**
+	 * Starts the queries of the character data which does not depend on the active class.
+	 * @param prefetch the prefetch of the character load
+	 * @param objectId the character id
+	 */
+	private static void prefetchCharData(CharacterLoadPipeline.Prefetch prefetch, int objectId)
+	{
+		final String inventory = ItemLocation.INVENTORY.name();
+		final String paperdoll = ItemLocation.PAPERDOLL.name();
+		final String freight = ItemLocation.FREIGHT.name();
+		prefetch.add(Inventory.RESTORE_INVENTORY, objectId, inventory, paperdoll);
+		prefetch.add(L2ItemInstance.RESTORE_OWNER_ATTRIBUTES, objectId, inventory, paperdoll);
+		prefetch.add(L2ItemInstance.RESTORE_OWNER_ELEMENTALS, objectId, inventory, paperdoll);
+		prefetch.add(ItemContainer.RESTORE_ITEMS, objectId, freight);
+		prefetch.add(L2ItemInstance.RESTORE_OWNER_ATTRIBUTES, objectId, freight, freight);
+		prefetch.add(L2ItemInstance.RESTORE_OWNER_ELEMENTALS, objectId, freight, freight);
+		prefetch.add(MacroList.RESTORE_MACROS, objectId);
+		prefetch.add(RESTORE_TP_BOOKMARK, objectId);
+		prefetch.add(RESTORE_RECIPE_BOOK, objectId);
+		if (Config.STORE_RECIPE_SHOPLIST)
+		{
+			prefetch.add(RESTORE_CHAR_RECIPE_SHOP, objectId);
+		}
+		prefetch.add(RESTORE_PREMIUM_ITEMS, objectId);
+		prefetch.add(RESTORE_PET_INVENTORY_ITEMS, objectId);
+		prefetch.add(RESTORE_ITEM_REUSE_SAVE, objectId);
+		prefetch.add(RESTORE_FRIENDS, objectId);
+	}
+	
 	/**
 	 * @return
 	 */
@@ -7137,17 +7196,18 @@ public final class L2PcInstance extends L2Playable
 	 */
 	private void restoreRecipeBook(boolean loadCommon)
 	{
-		final String sql = loadCommon ? "SELECT id, type, classIndex FROM character_recipebook WHERE charId=?" : "SELECT id FROM character_recipebook WHERE charId=? AND classIndex=? AND type = 1";
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(sql))
+		final String sql = loadCommon ? RESTORE_RECIPE_BOOK : RESTORE_DWARVEN_RECIPE_BOOK;
+		final Object[] params = loadCommon ? new Object[]
 		{
-			ps.setInt(1, getObjectId());
-			if (!loadCommon)
-			{
-				ps.setInt(2, _classIndex);
-			}
-			
-			try (ResultSet rset = ps.executeQuery())
+			getObjectId()
+		} : new Object[]
+		{
+			getObjectId(),
+			_classIndex
+		};
+		try
+		{
+			CharacterLoadPipeline.query(getObjectId(), sql, rset ->
 			{
 				_dwarvenRecipeBook.clear();
 				
@@ -7175,7 +7235,7 @@ public final class L2PcInstance extends L2Playable
 						registerDwarvenRecipeList(recipe, false);
 					}
 				}
-			}
+			}, params);
 		}
 		catch (Exception e)
 		{
@@ -7190,12 +7250,9 @@ public final class L2PcInstance extends L2Playable
 	
 	private void loadPremiumItemList()
 	{
-		final String sql = "SELECT itemNum, itemId, itemCount, itemSender FROM character_premium_items WHERE charId=?";
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(sql))
+		try
 		{
-			ps.setInt(1, getObjectId());
-			try (ResultSet rset = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_PREMIUM_ITEMS, rset ->
 			{
 				while (rset.next())
 				{
@@ -7205,7 +7262,7 @@ public final class L2PcInstance extends L2Playable
 					String itemSender = rset.getString("itemSender");
 					_premiumItems.put(itemNum, new L2PremiumItem(itemId, itemCount, itemSender));
 				}
-			}
+			}, getObjectId());
 		}
 		catch (Exception e)
 		{
@@ -7737,13 +7794,10 @@ public final class L2PcInstance extends L2Playable
 	 */
 	private void restoreSkills()
 	{
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(RESTORE_SKILLS_FOR_CHAR))
+		// Retrieve all skills of this L2PcInstance from the database
+		try
 		{
-			// Retrieve all skills of this L2PcInstance from the database
-			ps.setInt(1, getObjectId());
-			ps.setInt(2, getClassIndex());
-			try (ResultSet rs = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_SKILLS_FOR_CHAR, rs ->
 			{
 				while (rs.next())
 				{
@@ -7774,7 +7828,7 @@ public final class L2PcInstance extends L2Playable
 						}
 					}
 				}
-			}
+			}, getObjectId(), getClassIndex());
 		}
 		catch (Exception e)
 		{
@@ -7845,12 +7899,9 @@ public final class L2PcInstance extends L2Playable
 	 */
 	private void restoreItemReuse()
 	{
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(RESTORE_ITEM_REUSE_SAVE);
-			PreparedStatement delete = con.prepareStatement(DELETE_ITEM_REUSE_SAVE);)
+		try
 		{
-			ps.setInt(1, getObjectId());
-			try (ResultSet rs = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_ITEM_REUSE_SAVE, rs ->
 			{
 				int itemId;
 				@SuppressWarnings("unused")
@@ -7894,15 +7945,23 @@ public final class L2PcInstance extends L2Playable
 						}
 					}
 				}
-			}
-			
-			// Delete item reuse.
+			}, getObjectId());
+		}
+		catch (Exception e)
+		{
+			LOG.error("Could not restore {} Item Reuse data: {}", this, e);
+		}
+		
+		// Delete item reuse.
+		try (Connection con = ConnectionFactory.getInstance().getConnection();
+			PreparedStatement delete = con.prepareStatement(DELETE_ITEM_REUSE_SAVE))
+		{
 			delete.setInt(1, getObjectId());
 			delete.executeUpdate();
 		}
 		catch (Exception e)
 		{
-			LOG.error("Could not restore {} Item Reuse data: {}", this, e);
+			LOG.error("Could not delete {} Item Reuse data: {}", this, e);
 		}
 	}
 	
@@ -7916,12 +7975,9 @@ public final class L2PcInstance extends L2Playable
 			_henna[i] = null;
 		}
 		
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(RESTORE_CHAR_HENNAS))
+		try
 		{
-			ps.setInt(1, getObjectId());
-			ps.setInt(2, getClassIndex());
-			try (ResultSet rset = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_CHAR_HENNAS, rset ->
 			{
 				int slot;
 				int symbolId;
@@ -7940,7 +7996,7 @@ public final class L2PcInstance extends L2Playable
 					}
 					_henna[slot - 1] = HennaData.getInstance().getHenna(symbolId);
 				}
-			}
+			}, getObjectId(), getClassIndex());
 		}
 		catch (Exception e)
 		{
@@ -8112,6 +8168,7 @@ public final class L2PcInstance extends L2Playable
 			_hennaWIT += ((_hennaWIT + h.getStatWIT()) > 5) ? 5 - _hennaWIT : h.getStatWIT();
 			_hennaDEX += ((_hennaDEX + h.getStatDEX()) > 5) ? 5 - _hennaDEX : h.getStatDEX();
 		}
+		getStat().invalidateAll();
 	}
 	
 	/**
@@ -9666,6 +9723,8 @@ public final class L2PcInstance extends L2Playable
 	public void setIsInOlympiadMode(boolean b)
 	{
 		_inOlympiadMode = b;
+		// Enchant bonuses are limited in olympiad.
+		getStat().invalidateAll();
 	}
 	
 	public void setIsOlympiadStart(boolean b)
@@ -10227,6 +10286,7 @@ public final class L2PcInstance extends L2Playable
 				}
 			}
 			_classIndex = classIndex;
+			getStat().invalidateAll();
 			
 			setLearningClass(getClassId());
 			
@@ -11104,6 +11164,14 @@ public final class L2PcInstance extends L2Playable
 	{
 		cleanup();
 		storeMe();
+		if (Config.ITEMS_WRITE_BEHIND)
+		{
+			ItemUpdateTaskManager.getInstance().flush(getObjectId());
+		}
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().flush(getObjectId());
+		}
 		return super.deleteMe();
 	}
 	
@@ -13035,17 +13103,15 @@ public final class L2PcInstance extends L2Playable
 	
 	public void restoreTeleportBookmark()
 	{
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(RESTORE_TP_BOOKMARK))
+		try
 		{
-			ps.setInt(1, getObjectId());
-			try (ResultSet rs = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_TP_BOOKMARK, rs ->
 			{
 				while (rs.next())
 				{
 					_tpbookmarks.put(rs.getInt("Id"), new TeleportBookmark(rs.getInt("Id"), rs.getInt("x"), rs.getInt("y"), rs.getInt("z"), rs.getInt("icon"), rs.getString("tag"), rs.getString("name")));
 				}
-			}
+			}, getObjectId());
 		}
 		catch (Exception e)
 		{
@@ -13256,12 +13322,9 @@ public final class L2PcInstance extends L2Playable
 	{
 		_friendList.clear();
 		
-		final String sqlQuery = "SELECT friendId FROM character_friends WHERE charId=? AND relation=0";
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(sqlQuery))
+		try
 		{
-			ps.setInt(1, getObjectId());
-			try (ResultSet rs = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_FRIENDS, rs ->
 			{
 				while (rs.next())
 				{
@@ -13272,7 +13335,7 @@ public final class L2PcInstance extends L2Playable
 					}
 					_friendList.add(friendId);
 				}
-			}
+			}, getObjectId());
 		}
 		catch (Exception e)
 		{
@@ -13383,17 +13446,15 @@ public final class L2PcInstance extends L2Playable
 			_manufactureItems.clear();
 		}
 		
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement(RESTORE_CHAR_RECIPE_SHOP))
+		try
 		{
-			ps.setInt(1, getObjectId());
-			try (ResultSet rs = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_CHAR_RECIPE_SHOP, rs ->
 			{
 				while (rs.next())
 				{
 					getManufactureItems().put(rs.getInt("recipeId"), new L2ManufactureItem(rs.getInt("recipeId"), rs.getLong("price")));
 				}
-			}
+			}, getObjectId());
 		}
 		catch (Exception e)
 		{
@@ -13816,14 +13877,12 @@ public final class L2PcInstance extends L2Playable
 	 */
 	private void restorePetInventoryItems()
 	{
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("SELECT object_id FROM `items` WHERE `owner_id`=? AND (`loc`='PET' OR `loc`='PET_EQUIP') LIMIT 1;"))
+		try
 		{
-			ps.setInt(1, getObjectId());
-			try (ResultSet rs = ps.executeQuery())
+			CharacterLoadPipeline.query(getObjectId(), RESTORE_PET_INVENTORY_ITEMS, rs ->
 			{
 				setPetInvItems(rs.next() && (rs.getInt("object_id") > 0));
-			}
+			}, getObjectId());
 		}
 		catch (Exception e)
 		{
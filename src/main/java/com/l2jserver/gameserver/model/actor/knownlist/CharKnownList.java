@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.model.InterestGrid;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.actor.L2Character;
 import com.l2jserver.gameserver.model.actor.L2Summon;
@@ -211,6 +213,12 @@ public class CharKnownList extends ObjectKnownList
 	
 	public List<L2Character> getKnownCharactersInRadius(long radius)
 	{
+		// Small radius around a crowded known list, walk the few grid cells in range instead.
+		if (Config.INTEREST_GRID && getActiveChar().isVisible() && InterestGrid.getInstance().isCheaperThanKnownList((int) radius, getKnownObjects().size()))
+		{
+			return InterestGrid.getInstance().getKnownCharactersInRadius(getActiveChar(), (int) radius);
+		}
+		
 		List<L2Character> result = new LinkedList<>();
 		for (L2Object obj : getKnownObjects().values())
 		{
@@ -238,8 +246,17 @@ public class CharKnownList extends ObjectKnownList
 		return result;
 	}
 	
+	/**
+	 * Brings the known list up to date from the interest grid first if the character moved since its last update.
+	 * @return the players known by the character
+	 */
 	public final Map<Integer, L2PcInstance> getKnownPlayers()
 	{
+		if (Config.INTEREST_GRID)
+		{
+			InterestGrid.getInstance().refresh(getActiveObject());
+		}
+		
 		if (_knownPlayers == null)
 		{
 			synchronized (this)
@@ -270,6 +287,11 @@ public class CharKnownList extends ObjectKnownList
 	
 	public final Map<Integer, L2Summon> getKnownSummons()
 	{
+		if (Config.INTEREST_GRID)
+		{
+			InterestGrid.getInstance().refresh(getActiveObject());
+		}
+		
 		if (_knownSummons == null)
 		{
 			synchronized (this)
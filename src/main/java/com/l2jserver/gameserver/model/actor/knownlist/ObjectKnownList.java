@@ -22,6 +22,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.model.InterestGrid;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2WorldRegion;
 import com.l2jserver.gameserver.model.actor.L2Character;
@@ -195,10 +197,16 @@ public class ObjectKnownList
 	}
 	
 	/**
+	 * Brings the known list up to date from the interest grid first if the object moved since its last update.
 	 * @return the _knownObjects containing all L2Object known by the L2Character.
 	 */
 	public final Map<Integer, L2Object> getKnownObjects()
 	{
+		if (Config.INTEREST_GRID)
+		{
+			InterestGrid.getInstance().refresh(_activeObject);
+		}
+		
 		if (_knownObjects == null)
 		{
 			synchronized (this)
@@ -19,6 +19,8 @@
 package com.l2jserver.gameserver.model.actor.stat;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.l2jserver.Config;
 import com.l2jserver.gameserver.model.Elementals;
@@ -35,7 +37,44 @@ import com.l2jserver.gameserver.model.zone.ZoneId;
 
 public class CharStat
 {
+	/** Index of the version shared by all stats in the stat versions. */
+	private static final int ALL_STATS = Stats.NUM_STATS;
+	
+	private static final LongAdder CACHE_HITS = new LongAdder();
+	private static final LongAdder CACHE_MISSES = new LongAdder();
+	private static final LongAdder LIVE_CALCS = new LongAdder();
+	
+	/**
+	 * Cached value of a stat, valid while the versions of the stat did not change and for the same initial value.
+	 */
+	private static final class StatSnapshot
+	{
+		protected final int _version;
+		protected final int _allVersion;
+		protected final double _initVal;
+		protected final double _value;
+		
+		protected StatSnapshot(int version, int allVersion, double initVal, double value)
+		{
+			_version = version;
+			_allVersion = allVersion;
+			_initVal = initVal;
+			_value = value;
+		}
+	}
+	
+	/**
+	 * Stat cache of a character, created on the first cached calculation or invalidation.
+	 */
+	private static final class StatCache
+	{
+		protected final StatSnapshot[] _snapshots = new StatSnapshot[Stats.NUM_STATS];
+		protected final AtomicIntegerArray _versions = new AtomicIntegerArray(Stats.NUM_STATS + 1);
+	}
+	
 	private final L2Character _activeChar;
+	private final boolean _cacheable;
+	private volatile StatCache _statCache;
 	private long _exp = 0;
 	private int _sp = 0;
 	private byte _level = 1;
@@ -48,6 +87,8 @@ public class CharStat
 	public CharStat(L2Character activeChar)
 	{
 		_activeChar = activeChar;
+		// Door defence depends on the Seven Signs period, which is not tracked.
+		_cacheable = Config.STAT_CACHE && !activeChar.isDoor();
 		Arrays.fill(_attackTraits, 1.0f);
 		Arrays.fill(_defenceTraits, 1.0f);
 	}
@@ -64,6 +105,7 @@ public class CharStat
 	 * When the calc method of a calculator is launched, each mathematical function is called according to its priority <B>_order</B>.<br>
 	 * Indeed, Func with lowest priority order is executed firsta and Funcs with the same order are executed in unspecified order.<br>
 	 * The result of the calculation is stored in the value property of an Env class instance.<br>
+	 * If the stat cache is enabled and no Func object of the calculator has an apply condition, the result only depends on the character and is cached until the stat is invalidated.<br>
 	 * @param stat The stat to calculate the new value with modifiers
 	 * @param initVal The initial value of the stat before applying modifiers
 	 * @param target The L2Charcater whose properties will be used in the calculation (ex : CON, INT...)
@@ -72,10 +114,9 @@ public class CharStat
 	 */
 	public final double calcStat(Stats stat, double initVal, L2Character target, Skill skill)
 	{
-		double value = initVal;
 		if (stat == null)
 		{
-			return value;
+			return initVal;
 		}
 		
 		final int id = stat.ordinal();
@@ -84,9 +125,36 @@ public class CharStat
 		// If no Func object found, no modifier is applied
 		if ((c == null) || (c.size() == 0))
 		{
-			return value;
+			return initVal;
+		}
+		
+		if (!_cacheable || c.hasConditions())
+		{
+			LIVE_CALCS.increment();
+			return computeStat(stat, initVal, c, target, skill);
 		}
 		
+		// Versions are read before calculating, so a change made meanwhile leaves a snapshot which is already stale.
+		final StatCache cache = getStatCache();
+		final int version = cache._versions.get(id);
+		final int allVersion = cache._versions.get(ALL_STATS);
+		final StatSnapshot snapshot = cache._snapshots[id];
+		if ((snapshot != null) && (snapshot._version == version) && (snapshot._allVersion == allVersion) && (snapshot._initVal == initVal))
+		{
+			CACHE_HITS.increment();
+			return snapshot._value;
+		}
+		
+		CACHE_MISSES.increment();
+		final double value = computeStat(stat, initVal, c, target, skill);
+		cache._snapshots[id] = new StatSnapshot(version, allVersion, initVal, value);
+		return value;
+	}
+	
+	private double computeStat(Stats stat, double initVal, Calculator c, L2Character target, Skill skill)
+	{
+		double value = initVal;
+		
 		// Apply transformation stats.
 		if (getActiveChar().isPlayer() && getActiveChar().isTransformed())
 		{
@@ -130,6 +198,64 @@ public class CharStat
 		return value;
 	}
 	
+	private StatCache getStatCache()
+	{
+		StatCache cache = _statCache;
+		if (cache == null)
+		{
+			synchronized (this)
+			{
+				cache = _statCache;
+				if (cache == null)
+				{
+					cache = new StatCache();
+					_statCache = cache;
+				}
+			}
+		}
+		return cache;
+	}
+	
+	/**
+	 * Invalidates the cached value of a stat, after one of its Func objects was added or removed.<br>
+	 * Base stats are used by the formulas of most other stats, so changing one of them invalidates all stats.
+	 * @param stat the stat
+	 */
+	public final void invalidate(Stats stat)
+	{
+		if (!_cacheable)
+		{
+			return;
+		}
+		
+		final StatCache cache = getStatCache();
+		switch (stat)
+		{
+			case STAT_STR:
+			case STAT_CON:
+			case STAT_DEX:
+			case STAT_INT:
+			case STAT_WIT:
+			case STAT_MEN:
+				cache._versions.incrementAndGet(ALL_STATS);
+				break;
+			default:
+				cache._versions.incrementAndGet(stat.ordinal());
+				break;
+		}
+	}
+	
+	/**
+	 * Invalidates the cached values of all stats, after a change used by the formulas: level, class, equipment, transformation...
+	 */
+	public final void invalidateAll()
+	{
+		if (_cacheable)
+		{
+			getStatCache()._versions.incrementAndGet(ALL_STATS);
+		}
+	}
+	
 	/**
 	 * @return the Accuracy (base+modifier) of the L2Character in function of the Weapon Expertise Penalty.
 	 */
@@ -243,6 +369,7 @@ public class CharStat
 	public void setLevel(byte value)
 	{
 		_level = value;
+		invalidateAll();
 	}
 	
 	/**
@@ -795,4 +922,21 @@ public class CharStat
 	{
 		return (int) calcStat(Stats.ENLARGE_ABNORMAL_SLOT, Config.BUFFS_MAX_AMOUNT);
 	}
+	
+	public static String[] getStats()
+	{
+		final long hits = CACHE_HITS.sum();
+		final long misses = CACHE_MISSES.sum();
+		final long live = LIVE_CALCS.sum();
+		final long total = hits + misses + live;
+		return new String[]
+		{
+			"Stat Cache:",
+			" |- Enabled:      " + Config.STAT_CACHE,
+			" |- Hits:         " + hits,
+			" |- Misses:       " + misses,
+			" |- LiveCalcs:    " + live,
+			" |- Calculations: " + (misses + live) + "/" + total + (total > 0 ? String.format(" (%.2f%%)", ((misses + live) * 100.0) / total) : ""),
+		};
+	}
 }
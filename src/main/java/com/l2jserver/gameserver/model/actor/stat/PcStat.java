@@ -462,6 +462,7 @@ public class PcStat extends PlayableStat
 		if (getActiveChar().isSubClassActive())
 		{
 			getActiveChar().getSubClasses().get(getActiveChar().getClassIndex()).setLevel(value);
+			invalidateAll();
 		}
 		else
 		{
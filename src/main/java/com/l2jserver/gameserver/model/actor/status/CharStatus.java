@@ -209,7 +209,14 @@ public class CharStatus
 			int period = Formulas.getRegeneratePeriod(getActiveChar());
 			
 			// Create the HP/MP/CP Regeneration task
-			_regTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(new RegenTask(), period, period);
+			if (Config.TIMING_WHEEL_REGENERATION)
+			{
+				_regTask = ThreadPoolManager.getInstance().scheduleEffectTimerAtFixedRate(new RegenTask(), period, period);
+			}
+			else
+			{
+				_regTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(new RegenTask(), period, period);
+			}
 		}
 	}
 	
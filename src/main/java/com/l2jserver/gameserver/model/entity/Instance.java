@@ -44,6 +44,7 @@ import com.l2jserver.gameserver.data.xml.impl.DoorData;
 import com.l2jserver.gameserver.enums.InstanceReenterType;
 import com.l2jserver.gameserver.enums.InstanceRemoveBuffType;
 import com.l2jserver.gameserver.instancemanager.InstanceManager;
+import com.l2jserver.gameserver.model.DoorGrid;
 import com.l2jserver.gameserver.model.L2Spawn;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.L2WorldRegion;
@@ -80,6 +81,7 @@ public final class Instance
 	private final List<Integer> _players = new CopyOnWriteArrayList<>();
 	private final List<L2Npc> _npcs = new CopyOnWriteArrayList<>();
 	private final Map<Integer, L2DoorInstance> _doors = new ConcurrentHashMap<>();
+	private final DoorGrid _doorGrid = new DoorGrid();
 	private final Map<String, List<L2Spawn>> _manualSpawn = new HashMap<>();
 	private Location _spawnLoc = null;
 	private boolean _allowSummon = true;
@@ -275,6 +277,7 @@ public final class Instance
 		newdoor.setCurrentHp(newdoor.getMaxHp());
 		newdoor.spawnMe(newdoor.getTemplate().getX(), newdoor.getTemplate().getY(), newdoor.getTemplate().getZ());
 		_doors.put(doorId, newdoor);
+		_doorGrid.add(newdoor);
 	}
 	
 	public List<Integer> getPlayers()
@@ -292,6 +295,14 @@ public final class Instance
 		return _doors.values();
 	}
 	
+	/**
+	 * @return the collision index of the doors of this instance
+	 */
+	public DoorGrid getDoorGrid()
+	{
+		return _doorGrid;
+	}
+	
 	public L2DoorInstance getDoor(int id)
 	{
 		return _doors.get(id);
@@ -396,6 +407,7 @@ public final class Instance
 			}
 		}
 		_doors.clear();
+		_doorGrid.clear();
 	}
 	
 	/**
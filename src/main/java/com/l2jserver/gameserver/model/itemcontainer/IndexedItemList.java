@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.itemcontainer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Items of an item container, indexed by object id and by item id.<br>
+ * Lookups are lock free. Changes are serialized and cost a few map operations whatever the number of items.<br>
+ * Iteration goes over a snapshot of the items in insertion order. The snapshot is shared until the next change, and only rebuilt when iterated again, so a burst of changes (restoring a warehouse) copies nothing.
+ */
+public final class IndexedItemList implements Iterable<L2ItemInstance>
+{
+	private static final L2ItemInstance[] EMPTY = new L2ItemInstance[0];
+	
+	private final Map<Integer, L2ItemInstance> _byObjectId = new ConcurrentHashMap<>();
+	/** Items of each item id in insertion order, replaced on change. */
+	private final Map<Integer, L2ItemInstance[]> _byItemId = new ConcurrentHashMap<>();
+	/** Insertion order, guarded by this. */
+	private final Map<Integer, L2ItemInstance> _order = new LinkedHashMap<>();
+	/** Items in insertion order, {@code null} after a change until iterated again. */
+	private volatile L2ItemInstance[] _snapshot = EMPTY;
+	
+	/**
+	 * Adds an item, an item already held is kept at its place.
+	 * @param item the item
+	 * @return {@code true} if the item was not held
+	 */
+	public synchronized boolean add(L2ItemInstance item)
+	{
+		if (item == null)
+		{
+			return false;
+		}
+		
+		final L2ItemInstance old = _byObjectId.put(item.getObjectId(), item);
+		if (old == item)
+		{
+			return false;
+		}
+		if (old != null)
+		{
+			unindex(old);
+		}
+		_order.put(item.getObjectId(), item);
+		
+		final L2ItemInstance[] items = _byItemId.get(item.getId());
+		if (items == null)
+		{
+			_byItemId.put(item.getId(), new L2ItemInstance[]
+			{
+				item
+			});
+		}
+		else
+		{
+			final L2ItemInstance[] newItems = Arrays.copyOf(items, items.length + 1);
+			newItems[items.length] = item;
+			_byItemId.put(item.getId(), newItems);
+		}
+		_snapshot = null;
+		return true;
+	}
+	
+	/**
+	 * @param item the item
+	 * @return {@code true} if the item was held
+	 */
+	public synchronized boolean remove(L2ItemInstance item)
+	{
+		if ((item == null) || !_byObjectId.remove(item.getObjectId(), item))
+		{
+			return false;
+		}
+		
+		_order.remove(item.getObjectId());
+		unindex(item);
+		_snapshot = null;
+		return true;
+	}
+	
+	/**
+	 * @return the item added first, removed, {@code null} if there is none
+	 */
+	public synchronized L2ItemInstance removeFirst()
+	{
+		final Iterator<L2ItemInstance> it = _order.values().iterator();
+		if (!it.hasNext())
+		{
+			return null;
+		}
+		
+		final L2ItemInstance item = it.next();
+		remove(item);
+		return item;
+	}
+	
+	private void unindex(L2ItemInstance item)
+	{
+		final L2ItemInstance[] items = _byItemId.get(item.getId());
+		if (items == null)
+		{
+			return;
+		}
+		
+		for (int i = 0; i < items.length; i++)
+		{
+			if (items[i] == item)
+			{
+				if (items.length == 1)
+				{
+					_byItemId.remove(item.getId());
+				}
+				else
+				{
+					final L2ItemInstance[] newItems = new L2ItemInstance[items.length - 1];
+					System.arraycopy(items, 0, newItems, 0, i);
+					System.arraycopy(items, i + 1, newItems, i, newItems.length - i);
+					_byItemId.put(item.getId(), newItems);
+				}
+				return;
+			}
+		}
+	}
+	
+	public synchronized void clear()
+	{
+		_byObjectId.clear();
+		_byItemId.clear();
+		_order.clear();
+		_snapshot = EMPTY;
+	}
+	
+	/**
+	 * @param objectId the object id
+	 * @return the item, {@code null} if it is not held
+	 */
+	public L2ItemInstance getByObjectId(int objectId)
+	{
+		return _byObjectId.get(objectId);
+	}
+	
+	/**
+	 * @param itemId the item id
+	 * @return the items of the item id in insertion order, not to be modified
+	 */
+	public L2ItemInstance[] getByItemId(int itemId)
+	{
+		final L2ItemInstance[] items = _byItemId.get(itemId);
+		return items != null ? items : EMPTY;
+	}
+	
+	/**
+	 * @param itemId the item id
+	 * @return the item of the item id added first, {@code null} if there is none
+	 */
+	public L2ItemInstance getFirstByItemId(int itemId)
+	{
+		final L2ItemInstance[] items = _byItemId.get(itemId);
+		return items != null ? items[0] : null;
+	}
+	
+	/**
+	 * @param item the item
+	 * @return {@code true} if the item is held
+	 */
+	public boolean contains(L2ItemInstance item)
+	{
+		return (item != null) && (_byObjectId.get(item.getObjectId()) == item);
+	}
+	
+	public int size()
+	{
+		return _byObjectId.size();
+	}
+	
+	public boolean isEmpty()
+	{
+		return _byObjectId.isEmpty();
+	}
+	
+	/**
+	 * @return the items in insertion order, shared until the next change and not to be modified
+	 */
+	public L2ItemInstance[] snapshot()
+	{
+		L2ItemInstance[] snapshot = _snapshot;
+		if (snapshot == null)
+		{
+			synchronized (this)
+			{
+				snapshot = _snapshot;
+				if (snapshot == null)
+				{
+					snapshot = _snapshot = _order.values().toArray(new L2ItemInstance[_order.size()]);
+				}
+			}
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * @return a live view of the items in no particular order, for sums over all of them without taking a snapshot
+	 */
+	public Collection<L2ItemInstance> values()
+	{
+		return Collections.unmodifiableCollection(_byObjectId.values());
+	}
+	
+	/**
+	 * @return the items in insertion order, a copy
+	 */
+	public L2ItemInstance[] toArray()
+	{
+		return snapshot().clone();
+	}
+	
+	/**
+	 * Iterates over the items held when called, changes made meanwhile are not seen.
+	 */
+	@Override
+	public Iterator<L2ItemInstance> iterator()
+	{
+		return Arrays.asList(snapshot()).iterator();
+	}
+}
@@ -18,16 +18,13 @@
  */
 package com.l2jserver.gameserver.model.itemcontainer;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.Config;
-import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
+import com.l2jserver.gameserver.data.sql.impl.CharacterLoadPipeline;
 import com.l2jserver.gameserver.data.xml.impl.ArmorSetsData;
 import com.l2jserver.gameserver.datatables.ItemTable;
 import com.l2jserver.gameserver.enums.ItemLocation;
@@ -53,6 +50,8 @@ public abstract class Inventory extends ItemContainer
 {
 	protected static final Logger _log = Logger.getLogger(Inventory.class.getName());
 	
+	public static final String RESTORE_INVENTORY = "SELECT object_id, item_id, count, enchant_level, loc, loc_data, custom_type1, custom_type2, mana_left, time FROM items WHERE owner_id=? AND (loc=? OR loc=?) ORDER BY loc_data";
+	
 	public interface PaperdollListener
 	{
 		public void notifyEquiped(int slot, L2ItemInstance inst, Inventory inventory);
@@ -1099,6 +1098,11 @@ public abstract class Inventory extends ItemContainer
 				}
 				item.updateDatabase();
 			}
+			
+			if (getOwner() != null)
+			{
+				getOwner().getStat().invalidateAll();
+			}
 		}
 		return old;
 	}
@@ -1571,7 +1575,7 @@ public abstract class Inventory extends ItemContainer
 	{
 		long weight = 0;
 		
-		for (L2ItemInstance item : _items)
+		for (L2ItemInstance item : _items.values())
 		{
 			if ((item != null) && (item.getItem() != null))
 			{
@@ -1644,52 +1648,56 @@ public abstract class Inventory extends ItemContainer
 	@Override
 	public void restore()
 	{
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("SELECT object_id, item_id, count, enchant_level, loc, loc_data, custom_type1, custom_type2, mana_left, time FROM items WHERE owner_id=? AND (loc=? OR loc=?) ORDER BY loc_data"))
+		final String baseLocation = getBaseLocation().name();
+		final String equipLocation = getEquipLocation().name();
+		final List<L2ItemInstance> items = new ArrayList<>();
+		try
 		{
-			ps.setInt(1, getOwnerId());
-			ps.setString(2, getBaseLocation().name());
-			ps.setString(3, getEquipLocation().name());
-			try (ResultSet inv = ps.executeQuery())
+			CharacterLoadPipeline.query(getOwnerId(), RESTORE_INVENTORY, inv ->
 			{
-				L2ItemInstance item;
 				while (inv.next())
 				{
-					item = L2ItemInstance.restoreFromDb(getOwnerId(), inv);
-					if (item == null)
-					{
-						continue;
-					}
-					
-					if (getOwner() instanceof L2PcInstance)
-					{
-						L2PcInstance player = (L2PcInstance) getOwner();
-						
-						if (!player.canOverrideCond(PcCondOverride.ITEM_CONDITIONS) && !player.isHero() && item.isHeroItem())
-						{
-							item.setItemLocation(ItemLocation.INVENTORY);
-						}
-					}
-					
-					L2World.getInstance().storeObject(item);
-					
-					// If stackable item is found in inventory just add to current quantity
-					if (item.isStackable() && (getItemByItemId(item.getId()) != null))
-					{
-						addItem("Restore", item, getOwner().getActingPlayer(), null);
-					}
-					else
+					final L2ItemInstance item = L2ItemInstance.restoreFromDb(getOwnerId(), inv, false);
+					if (item != null)
 					{
-						addItem(item);
+						items.add(item);
 					}
 				}
-			}
-			refreshWeight();
+			}, getOwnerId(), baseLocation, equipLocation);
 		}
 		catch (Exception e)
 		{
 			_log.log(Level.WARNING, "Could not restore inventory: " + e.getMessage(), e);
+			return;
+		}
+		
+		// Attributes are restored before the items are added, equipped items give their stats when added.
+		L2ItemInstance.restoreAttributes(getOwnerId(), items, baseLocation, equipLocation);
+		for (L2ItemInstance item : items)
+		{
+			if (getOwner() instanceof L2PcInstance)
+			{
+				L2PcInstance player = (L2PcInstance) getOwner();
+				
+				if (!player.canOverrideCond(PcCondOverride.ITEM_CONDITIONS) && !player.isHero() && item.isHeroItem())
+				{
+					item.setItemLocation(ItemLocation.INVENTORY);
+				}
+			}
+			
+			L2World.getInstance().storeObject(item);
+			
+			// If stackable item is found in inventory just add to current quantity
+			if (item.isStackable() && (getItemByItemId(item.getId()) != null))
+			{
+				addItem("Restore", item, getOwner().getActingPlayer(), null);
+			}
+			else
+			{
+				addItem(item);
+			}
 		}
+		refreshWeight();
 	}
 	
 	public int getTalismanSlots()
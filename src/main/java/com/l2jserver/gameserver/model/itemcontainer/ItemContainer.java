@@ -18,18 +18,15 @@
  */
 package com.l2jserver.gameserver.model.itemcontainer;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.Config;
-import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
 import com.l2jserver.gameserver.GameTimeController;
+import com.l2jserver.gameserver.data.sql.impl.CharacterLoadPipeline;
 import com.l2jserver.gameserver.datatables.ItemTable;
 import com.l2jserver.gameserver.enums.ItemLocation;
 import com.l2jserver.gameserver.model.L2World;
@@ -45,7 +42,9 @@ public abstract class ItemContainer
 {
 	protected static final Logger _log = Logger.getLogger(ItemContainer.class.getName());
 	
-	protected final List<L2ItemInstance> _items = new CopyOnWriteArrayList<>();
+	public static final String RESTORE_ITEMS = "SELECT object_id, item_id, count, enchant_level, loc, loc_data, custom_type1, custom_type2, mana_left, time FROM items WHERE owner_id=? AND (loc=?)";
+	
+	protected final IndexedItemList _items = new IndexedItemList();
 	
 	protected ItemContainer()
 	{
@@ -81,7 +80,7 @@ public abstract class ItemContainer
 	 */
 	public L2ItemInstance[] getItems()
 	{
-		return _items.toArray(new L2ItemInstance[_items.size()]);
+		return _items.toArray();
 	}
 	
 	/**
@@ -90,14 +89,7 @@ public abstract class ItemContainer
 	 */
 	public L2ItemInstance getItemByItemId(int itemId)
 	{
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getId() == itemId))
-			{
-				return item;
-			}
-		}
-		return null;
+		return _items.getFirstByItemId(itemId);
 	}
 	
 	/**
@@ -121,15 +113,7 @@ public abstract class ItemContainer
 	 */
 	public List<L2ItemInstance> getItemsByItemId(int itemId)
 	{
-		final List<L2ItemInstance> returnList = new LinkedList<>();
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getId() == itemId))
-			{
-				returnList.add(item);
-			}
-		}
-		return returnList;
+		return new ArrayList<>(Arrays.asList(_items.getByItemId(itemId)));
 	}
 	
 	/**
@@ -139,9 +123,9 @@ public abstract class ItemContainer
 	 */
 	public L2ItemInstance getItemByItemId(int itemId, L2ItemInstance itemToIgnore)
 	{
-		for (L2ItemInstance item : _items)
+		for (L2ItemInstance item : _items.getByItemId(itemId))
 		{
-			if ((item != null) && (item.getId() == itemId) && !item.equals(itemToIgnore))
+			if (!item.equals(itemToIgnore))
 			{
 				return item;
 			}
@@ -155,14 +139,7 @@ public abstract class ItemContainer
 	 */
 	public L2ItemInstance getItemByObjectId(int objectId)
 	{
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getObjectId() == objectId))
-			{
-				return item;
-			}
-		}
-		return null;
+		return _items.getByObjectId(objectId);
 	}
 	
 	/**
@@ -187,9 +164,9 @@ public abstract class ItemContainer
 	{
 		long count = 0;
 		
-		for (L2ItemInstance item : _items)
+		for (L2ItemInstance item : _items.getByItemId(itemId))
 		{
-			if ((item.getId() == itemId) && ((item.getEnchantLevel() == enchantLevel) || (enchantLevel < 0)) && (includeEquipped || !item.isEquipped()))
+			if (((item.getEnchantLevel() == enchantLevel) || (enchantLevel < 0)) && (includeEquipped || !item.isEquipped()))
 			{
 				if (item.isStackable())
 				{
@@ -547,16 +524,8 @@ public abstract class ItemContainer
 	 */
 	public long getAdena()
 	{
-		long count = 0;
-		for (L2ItemInstance item : _items)
-		{
-			if ((item != null) && (item.getId() == Inventory.ADENA_ID))
-			{
-				count = item.getCount();
-				return count;
-			}
-		}
-		return count;
+		final L2ItemInstance adena = _items.getFirstByItemId(Inventory.ADENA_ID);
+		return adena != null ? adena.getCount() : 0;
 	}
 	
 	/**
@@ -627,43 +596,47 @@ public abstract class ItemContainer
 	 */
 	public void restore()
 	{
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("SELECT object_id, item_id, count, enchant_level, loc, loc_data, custom_type1, custom_type2, mana_left, time FROM items WHERE owner_id=? AND (loc=?)"))
+		final String location = getBaseLocation().name();
+		final List<L2ItemInstance> items = new ArrayList<>();
+		try
 		{
-			ps.setInt(1, getOwnerId());
-			ps.setString(2, getBaseLocation().name());
-			try (ResultSet inv = ps.executeQuery())
+			CharacterLoadPipeline.query(getOwnerId(), RESTORE_ITEMS, inv ->
 			{
-				L2ItemInstance item;
 				while (inv.next())
 				{
-					item = L2ItemInstance.restoreFromDb(getOwnerId(), inv);
-					if (item == null)
-					{
-						continue;
-					}
-					
-					L2World.getInstance().storeObject(item);
-					
-					L2PcInstance owner = getOwner() == null ? null : getOwner().getActingPlayer();
-					
-					// If stackable item is found in inventory just add to current quantity
-					if (item.isStackable() && (getItemByItemId(item.getId()) != null))
-					{
-						addItem("Restore", item, owner, null);
-					}
-					else
+					final L2ItemInstance item = L2ItemInstance.restoreFromDb(getOwnerId(), inv, false);
+					if (item != null)
 					{
-						addItem(item);
+						items.add(item);
 					}
 				}
-			}
-			refreshWeight();
+			}, getOwnerId(), location);
 		}
 		catch (Exception e)
 		{
 			_log.log(Level.WARNING, "could not restore container:", e);
+			return;
 		}
+		
+		// Attributes are restored before the items are added, equipped items give their stats when added.
+		L2ItemInstance.restoreAttributes(getOwnerId(), items, location, location);
+		for (L2ItemInstance item : items)
+		{
+			L2World.getInstance().storeObject(item);
+			
+			L2PcInstance owner = getOwner() == null ? null : getOwner().getActingPlayer();
+			
+			// If stackable item is found in inventory just add to current quantity
+			if (item.isStackable() && (getItemByItemId(item.getId()) != null))
+			{
+				addItem("Restore", item, owner, null);
+			}
+			else
+			{
+				addItem(item);
+			}
+		}
+		refreshWeight();
 	}
 	
 	public boolean validateCapacity(long slots)
@@ -21,8 +21,12 @@ package com.l2jserver.gameserver.model.itemcontainer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -128,6 +132,7 @@ public class PcInventory extends Inventory
 	public L2ItemInstance[] getUniqueItems(boolean allowAdena, boolean allowAncientAdena, boolean onlyAvailable)
 	{
 		List<L2ItemInstance> list = new LinkedList<>();
+		final Set<Integer> itemIds = new HashSet<>();
 		for (L2ItemInstance item : _items)
 		{
 			if (item == null)
@@ -142,18 +147,10 @@ public class PcInventory extends Inventory
 			{
 				continue;
 			}
-			boolean isDuplicate = false;
-			for (L2ItemInstance litem : list)
-			{
-				if (litem.getId() == item.getId())
-				{
-					isDuplicate = true;
-					break;
-				}
-			}
-			if (!isDuplicate && (!onlyAvailable || (item.isSellable() && item.isAvailable(getOwner(), false, false))))
+			if (!itemIds.contains(item.getId()) && (!onlyAvailable || (item.isSellable() && item.isAvailable(getOwner(), false, false))))
 			{
 				list.add(item);
+				itemIds.add(item.getId());
 			}
 		}
 		return list.toArray(new L2ItemInstance[list.size()]);
@@ -173,6 +170,7 @@ public class PcInventory extends Inventory
 	public L2ItemInstance[] getUniqueItemsByEnchantLevel(boolean allowAdena, boolean allowAncientAdena, boolean onlyAvailable)
 	{
 		List<L2ItemInstance> list = new LinkedList<>();
+		final Set<Long> keys = new HashSet<>();
 		for (L2ItemInstance item : _items)
 		{
 			if (item == null)
@@ -188,19 +186,11 @@ public class PcInventory extends Inventory
 				continue;
 			}
 			
-			boolean isDuplicate = false;
-			for (L2ItemInstance litem : list)
-			{
-				if ((litem.getId() == item.getId()) && (litem.getEnchantLevel() == item.getEnchantLevel()))
-				{
-					isDuplicate = true;
-					break;
-				}
-			}
-			
-			if (!isDuplicate && (!onlyAvailable || (item.isSellable() && item.isAvailable(getOwner(), false, false))))
+			final long key = ((long) item.getId() << 32) | (item.getEnchantLevel() & 0xFFFFFFFFL);
+			if (!keys.contains(key) && (!onlyAvailable || (item.isSellable() && item.isAvailable(getOwner(), false, false))))
 			{
 				list.add(item);
+				keys.add(key);
 			}
 		}
 		return list.toArray(new L2ItemInstance[list.size()]);
@@ -224,14 +214,9 @@ public class PcInventory extends Inventory
 	public L2ItemInstance[] getAllItemsByItemId(int itemId, boolean includeEquipped)
 	{
 		List<L2ItemInstance> list = new LinkedList<>();
-		for (L2ItemInstance item : _items)
+		for (L2ItemInstance item : _items.getByItemId(itemId))
 		{
-			if (item == null)
-			{
-				continue;
-			}
-			
-			if ((item.getId() == itemId) && (includeEquipped || !item.isEquipped()))
+			if (includeEquipped || !item.isEquipped())
 			{
 				list.add(item);
 			}
@@ -259,14 +244,9 @@ public class PcInventory extends Inventory
 	public L2ItemInstance[] getAllItemsByItemId(int itemId, int enchantment, boolean includeEquipped)
 	{
 		List<L2ItemInstance> list = new LinkedList<>();
-		for (L2ItemInstance item : _items)
+		for (L2ItemInstance item : _items.getByItemId(itemId))
 		{
-			if (item == null)
-			{
-				continue;
-			}
-			
-			if ((item.getId() == itemId) && (item.getEnchantLevel() == enchantment) && (includeEquipped || !item.isEquipped()))
+			if ((item.getEnchantLevel() == enchantment) && (includeEquipped || !item.isEquipped()))
 			{
 				list.add(item);
 			}
@@ -811,6 +791,37 @@ public class PcInventory extends Inventory
 		return paperdoll;
 	}
 	
+	/**
+	 * Restores the visible inventory of all characters of an account in one query.
+	 * @param con the connection to use
+	 * @param accountName the account name
+	 * @return the visible inventories, by character object id
+	 */
+	public static Map<Integer, int[][]> restoreVisibleInventories(Connection con, String accountName)
+	{
+		final Map<Integer, int[][]> paperdolls = new HashMap<>();
+		try (PreparedStatement ps = con.prepareStatement("SELECT i.owner_id, i.object_id, i.item_id, i.loc_data, i.enchant_level FROM items i INNER JOIN characters c ON c.charId = i.owner_id WHERE c.account_name=? AND i.loc='PAPERDOLL'"))
+		{
+			ps.setString(1, accountName);
+			try (ResultSet invdata = ps.executeQuery())
+			{
+				while (invdata.next())
+				{
+					final int[][] paperdoll = paperdolls.computeIfAbsent(invdata.getInt("owner_id"), k -> new int[31][3]);
+					int slot = invdata.getInt("loc_data");
+					paperdoll[slot][0] = invdata.getInt("object_id");
+					paperdoll[slot][1] = invdata.getInt("item_id");
+					paperdoll[slot][2] = invdata.getInt("enchant_level");
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "Could not restore visible inventories of account " + accountName + ": " + e.getMessage(), e);
+		}
+		return paperdolls;
+	}
+	
 	/**
 	 * @param itemList the items that needs to be validated.
 	 * @param sendMessage if {@code true} will send a message of inventory full.
@@ -26,7 +26,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -37,6 +39,7 @@ import com.l2jserver.Config;
 import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
 import com.l2jserver.gameserver.GeoData;
 import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.data.sql.impl.CharacterLoadPipeline;
 import com.l2jserver.gameserver.data.xml.impl.EnchantItemOptionsData;
 import com.l2jserver.gameserver.data.xml.impl.OptionData;
 import com.l2jserver.gameserver.datatables.ItemTable;
@@ -81,6 +84,8 @@ import com.l2jserver.gameserver.network.serverpackets.InventoryUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SpawnItem;
 import com.l2jserver.gameserver.network.serverpackets.StatusUpdate;
 import com.l2jserver.gameserver.network.serverpackets.SystemMessage;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager;
+import com.l2jserver.gameserver.taskmanager.ItemUpdateTaskManager.Change;
 import com.l2jserver.gameserver.util.GMAudit;
 
 /**
@@ -152,6 +157,11 @@ public final class L2ItemInstance extends L2Object
 	public static final int[] DEFAULT_ENCHANT_OPTIONS = new int[] { 0, 0, 0 };
 	//@formatter:on
 	
+	public static final String INSERT_QUERY = "INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
+	public static final String UPDATE_QUERY = "UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?";
+	public static final String RESTORE_OWNER_ATTRIBUTES = "SELECT ia.itemId, ia.augAttributes FROM item_attributes ia INNER JOIN items i ON i.object_id = ia.itemId WHERE i.owner_id=? AND (i.loc=? OR i.loc=?)";
+	public static final String RESTORE_OWNER_ELEMENTALS = "SELECT ie.itemId, ie.elemType, ie.elemValue FROM item_elementals ie INNER JOIN items i ON i.object_id = ie.itemId WHERE i.owner_id=? AND (i.loc=? OR i.loc=?)";
+	
 	private int _lastChange = 2; // 1 ??, 2 modified, 3 removed
 	private boolean _existsInDb; // if a record exists in DB.
 	private boolean _storedInDb; // if DB data is up-to-date.
@@ -896,6 +906,16 @@ public final class L2ItemInstance extends L2Object
 		_enchantLevel = enchantLevel;
 		applyEnchantStats();
 		_storedInDb = false;
+		
+		if (isEquipped())
+		{
+			// The enchant bonus of equipped items is read by their Func objects.
+			final L2PcInstance player = getActingPlayer();
+			if (player != null)
+			{
+				player.getStat().invalidateAll();
+			}
+		}
 	}
 	
 	/**
@@ -1011,6 +1031,86 @@ public final class L2ItemInstance extends L2Object
 		}
 	}
 	
+	/**
+	 * Restores the augmentation and elementals of the items of an owner in two queries, instead of two queries per item.
+	 * @param ownerId the owner of the items
+	 * @param items the restored items, only equipable ones are given attributes
+	 * @param location1 a location of the items
+	 * @param location2 another location of the items
+	 */
+	public static void restoreAttributes(int ownerId, List<L2ItemInstance> items, String location1, String location2)
+	{
+		final Map<Integer, L2ItemInstance> equipables = new HashMap<>();
+		for (L2ItemInstance item : items)
+		{
+			if (item.isEquipable())
+			{
+				equipables.put(item.getObjectId(), item);
+			}
+		}
+		if (equipables.isEmpty())
+		{
+			return;
+		}
+		
+		try
+		{
+			CharacterLoadPipeline.query(ownerId, RESTORE_OWNER_ATTRIBUTES, rs ->
+			{
+				while (rs.next())
+				{
+					final L2ItemInstance item = equipables.get(rs.getInt(1));
+					final int augAttributes = rs.getInt(2);
+					if ((item != null) && (augAttributes != -1))
+					{
+						item._augmentation = new L2Augmentation(augAttributes);
+					}
+				}
+			}, ownerId, location1, location2);
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.SEVERE, "Could not restore augmentation data for items of " + ownerId + " from DB: " + e.getMessage(), e);
+		}
+		
+		try
+		{
+			CharacterLoadPipeline.query(ownerId, RESTORE_OWNER_ELEMENTALS, rs ->
+			{
+				while (rs.next())
+				{
+					final L2ItemInstance item = equipables.get(rs.getInt(1));
+					final byte elemType = rs.getByte(2);
+					final int elemValue = rs.getInt(3);
+					if ((item != null) && (elemType != -1) && (elemValue != -1))
+					{
+						item.applyAttribute(elemType, elemValue);
+					}
+				}
+			}, ownerId, location1, location2);
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.SEVERE, "Could not restore elemental data for items of " + ownerId + " from DB: " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Stores the augmentation and elementals of a newly inserted item.
+	 * @param con the connection of the insert
+	 */
+	public void storeAttributes(Connection con)
+	{
+		if (_augmentation != null)
+		{
+			updateItemAttributes(con);
+		}
+		if (_elementals != null)
+		{
+			updateItemElements(con);
+		}
+	}
+	
 	private void updateItemAttributes(Connection con)
 	{
 		try (PreparedStatement ps = con.prepareStatement("REPLACE INTO item_attributes VALUES(?,?)"))
@@ -1442,13 +1542,22 @@ public final class L2ItemInstance extends L2Object
 	 */
 	public void updateDatabase(boolean force)
 	{
+		if (Config.ITEMS_WRITE_BEHIND)
+		{
+			if (!_wear && (!_existsInDb || isRemovableFromDb() || !Config.LAZY_ITEMS_UPDATE || force))
+			{
+				ItemUpdateTaskManager.getInstance().add(this);
+			}
+			return;
+		}
+		
 		_dbLock.lock();
 		
 		try
 		{
 			if (_existsInDb)
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE)))
+				if (isRemovableFromDb())
 				{
 					removeFromDb();
 				}
@@ -1459,7 +1568,7 @@ public final class L2ItemInstance extends L2Object
 			}
 			else
 			{
-				if ((_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE)))
+				if (isRemovableFromDb())
 				{
 					return;
 				}
@@ -1472,6 +1581,124 @@ public final class L2ItemInstance extends L2Object
 		}
 	}
 	
+	/**
+	 * @return {@code true} if this item must not have a record in DB
+	 */
+	private boolean isRemovableFromDb()
+	{
+		return (_ownerId == 0) || (_loc == ItemLocation.VOID) || (_loc == ItemLocation.REFUND) || ((getCount() == 0) && (_loc != ItemLocation.LEASE));
+	}
+	
+	/**
+	 * Claims the pending database change of this item for the write-behind item update.<br>
+	 * The item is marked as stored as if the change was already written; if writing it fails, the change must be given back with {@link #unclaimDbChange(Change)}.
+	 * @return the change to write
+	 */
+	public Change claimDbChange()
+	{
+		_dbLock.lock();
+		try
+		{
+			if (_wear)
+			{
+				return Change.NONE;
+			}
+			
+			if (_existsInDb)
+			{
+				if (isRemovableFromDb())
+				{
+					_existsInDb = false;
+					_storedInDb = false;
+					return Change.DELETE;
+				}
+				if (!_storedInDb)
+				{
+					_storedInDb = true;
+					return Change.UPDATE;
+				}
+			}
+			else if (!isRemovableFromDb())
+			{
+				_existsInDb = true;
+				_storedInDb = true;
+				return Change.INSERT;
+			}
+			return Change.NONE;
+		}
+		finally
+		{
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Gives back a change claimed with {@link #claimDbChange()} which could not be written.
+	 * @param change the change
+	 */
+	public void unclaimDbChange(Change change)
+	{
+		_dbLock.lock();
+		try
+		{
+			switch (change)
+			{
+				case INSERT:
+					_existsInDb = false;
+					break;
+				case DELETE:
+					_existsInDb = true;
+					break;
+				default:
+					break;
+			}
+			_storedInDb = false;
+		}
+		finally
+		{
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Sets the parameters of {@link #INSERT_QUERY} for this item.
+	 * @param ps the statement
+	 * @throws SQLException
+	 */
+	public void setInsertParameters(PreparedStatement ps) throws SQLException
+	{
+		ps.setInt(1, _ownerId);
+		ps.setInt(2, _itemId);
+		ps.setLong(3, getCount());
+		ps.setString(4, _loc.name());
+		ps.setInt(5, _locData);
+		ps.setInt(6, getEnchantLevel());
+		ps.setInt(7, getObjectId());
+		ps.setInt(8, _type1);
+		ps.setInt(9, _type2);
+		ps.setInt(10, getMana());
+		ps.setLong(11, getTime());
+	}
+	
+	/**
+	 * Sets the parameters of {@link #UPDATE_QUERY} for this item.
+	 * @param ps the statement
+	 * @throws SQLException
+	 */
+	public void setUpdateParameters(PreparedStatement ps) throws SQLException
+	{
+		ps.setInt(1, _ownerId);
+		ps.setLong(2, getCount());
+		ps.setString(3, _loc.name());
+		ps.setInt(4, _locData);
+		ps.setInt(5, getEnchantLevel());
+		ps.setInt(6, getCustomType1());
+		ps.setInt(7, getCustomType2());
+		ps.setInt(8, getMana());
+		ps.setLong(9, getTime());
+		ps.setInt(10, getObjectId());
+	}
+	
 	/**
 	 * Returns a L2ItemInstance stored in database from its objectID
 	 * @param ownerId
@@ -1479,6 +1706,18 @@ public final class L2ItemInstance extends L2Object
 	 * @return L2ItemInstance
 	 */
 	public static L2ItemInstance restoreFromDb(int ownerId, ResultSet rs)
+	{
+		return restoreFromDb(ownerId, rs, true);
+	}
+	
+	/**
+	 * Returns a L2ItemInstance stored in database from its objectID
+	 * @param ownerId
+	 * @param rs
+	 * @param restoreAttributes if {@code false} the augmentation and elementals are left to {@link #restoreAttributes(int, List, String, String)}
+	 * @return L2ItemInstance
+	 */
+	public static L2ItemInstance restoreFromDb(int ownerId, ResultSet rs, boolean restoreAttributes)
 	{
 		L2ItemInstance inst = null;
 		int objectId, item_id, loc_data, enchant_level, custom_type1, custom_type2, manaLeft;
@@ -1524,7 +1763,7 @@ public final class L2ItemInstance extends L2Object
 		inst._time = time;
 		
 		// load augmentation and elemental enchant
-		if (inst.isEquipable())
+		if (restoreAttributes && inst.isEquipable())
 		{
 			inst.restoreAttributes();
 		}
@@ -1640,18 +1879,9 @@ public final class L2ItemInstance extends L2Object
 		}
 		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? " + "WHERE object_id = ?"))
-		{
-			ps.setInt(1, _ownerId);
-			ps.setLong(2, getCount());
-			ps.setString(3, _loc.name());
-			ps.setInt(4, _locData);
-			ps.setInt(5, getEnchantLevel());
-			ps.setInt(6, getCustomType1());
-			ps.setInt(7, getCustomType2());
-			ps.setInt(8, getMana());
-			ps.setLong(9, getTime());
-			ps.setInt(10, getObjectId());
+			PreparedStatement ps = con.prepareStatement(UPDATE_QUERY))
+		{
+			setUpdateParameters(ps);
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
@@ -1675,32 +1905,14 @@ public final class L2ItemInstance extends L2Object
 		}
 		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement ps = con.prepareStatement("INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) " + "VALUES (?,?,?,?,?,?,?,?,?,?,?)"))
-		{
-			ps.setInt(1, _ownerId);
-			ps.setInt(2, _itemId);
-			ps.setLong(3, getCount());
-			ps.setString(4, _loc.name());
-			ps.setInt(5, _locData);
-			ps.setInt(6, getEnchantLevel());
-			ps.setInt(7, getObjectId());
-			ps.setInt(8, _type1);
-			ps.setInt(9, _type2);
-			ps.setInt(10, getMana());
-			ps.setLong(11, getTime());
-			
+			PreparedStatement ps = con.prepareStatement(INSERT_QUERY))
+		{
+			setInsertParameters(ps);
 			ps.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
 			
-			if (_augmentation != null)
-			{
-				updateItemAttributes(con);
-			}
-			if (_elementals != null)
-			{
-				updateItemElements(con);
-			}
+			storeAttributes(con);
 		}
 		catch (Exception e)
 		{
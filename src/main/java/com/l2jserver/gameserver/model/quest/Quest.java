@@ -66,6 +66,7 @@ import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.NpcHtmlMessage;
 import com.l2jserver.gameserver.network.serverpackets.NpcQuestHtmlMessage;
 import com.l2jserver.gameserver.scripting.ScriptManager;
+import com.l2jserver.gameserver.taskmanager.QuestVarUpdateTaskManager;
 import com.l2jserver.util.Rnd;
 import com.l2jserver.util.Util;
 
@@ -1567,6 +1568,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public final void saveGlobalQuestVar(String var, String value)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().setGlobalVar(getName(), var, value);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("REPLACE INTO quest_global_data (quest_name,var,value) VALUES (?,?,?)"))
 		{
@@ -1592,6 +1599,15 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public final String loadGlobalQuestVar(String var)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			final String queued = QuestVarUpdateTaskManager.getInstance().getGlobalVar(getName(), var);
+			if (queued != null)
+			{
+				return queued;
+			}
+		}
+		
 		String result = "";
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("SELECT value FROM quest_global_data WHERE quest_name = ? AND var = ?"))
@@ -1619,6 +1635,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public final void deleteGlobalQuestVar(String var)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().deleteGlobalVar(getName(), var);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("DELETE FROM quest_global_data WHERE quest_name = ? AND var = ?"))
 		{
@@ -1637,6 +1659,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public final void deleteAllGlobalQuestVars()
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().deleteGlobalQuest(getName());
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("DELETE FROM quest_global_data WHERE quest_name = ?"))
 		{
@@ -1657,6 +1685,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public static void createQuestVarInDb(QuestState qs, String var, String value)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().setVar(qs.getPlayer().getObjectId(), qs.getQuestName(), var, value);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("INSERT INTO character_quests (charId,name,var,value) VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE value=?"))
 		{
@@ -1681,6 +1715,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public static void updateQuestVarInDb(QuestState qs, String var, String value)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().setVar(qs.getPlayer().getObjectId(), qs.getQuestName(), var, value);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("UPDATE character_quests SET value=? WHERE charId=? AND name=? AND var = ?"))
 		{
@@ -1703,6 +1743,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public static void deleteQuestVarInDb(QuestState qs, String var)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().deleteVar(qs.getPlayer().getObjectId(), qs.getQuestName(), var);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("DELETE FROM character_quests WHERE charId=? AND name=? AND var=?"))
 		{
@@ -1724,6 +1770,12 @@ public class Quest extends AbstractScript implements IIdentifiable
 	 */
 	public static void deleteQuestInDb(QuestState qs, boolean repeatable)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().deleteQuest(qs.getPlayer().getObjectId(), qs.getQuestName(), !repeatable);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement(repeatable ? QUEST_DELETE_FROM_CHAR_QUERY : QUEST_DELETE_FROM_CHAR_QUERY_NON_REPEATABLE_QUERY))
 		{
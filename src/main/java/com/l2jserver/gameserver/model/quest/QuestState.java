@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.l2jserver.Config;
 import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
 import com.l2jserver.gameserver.cache.HtmCache;
 import com.l2jserver.gameserver.enums.QuestSound;
@@ -45,6 +46,7 @@ import com.l2jserver.gameserver.network.serverpackets.TutorialCloseHtml;
 import com.l2jserver.gameserver.network.serverpackets.TutorialEnableClientEvent;
 import com.l2jserver.gameserver.network.serverpackets.TutorialShowHtml;
 import com.l2jserver.gameserver.network.serverpackets.TutorialShowQuestionMark;
+import com.l2jserver.gameserver.taskmanager.QuestVarUpdateTaskManager;
 import com.l2jserver.gameserver.util.Util;
 
 /**
@@ -402,6 +404,12 @@ public final class QuestState
 	// TODO: these methods should not be here, they could be used by other classes to save some variables, but they can't because they require to create a QuestState first.
 	public final void saveGlobalQuestVar(String var, String value)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().setCharGlobalVar(_player.getObjectId(), var, value);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("REPLACE INTO character_quest_global_data (charId, var, value) VALUES (?, ?, ?)"))
 		{
@@ -428,6 +436,15 @@ public final class QuestState
 	// TODO: these methods should not be here, they could be used by other classes to save some variables, but they can't because they require to create a QuestState first.
 	public final String getGlobalQuestVar(String var)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			final String queued = QuestVarUpdateTaskManager.getInstance().getCharGlobalVar(_player.getObjectId(), var);
+			if (queued != null)
+			{
+				return queued;
+			}
+		}
+		
 		String result = "";
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("SELECT value FROM character_quest_global_data WHERE charId = ? AND var = ?"))
@@ -455,6 +472,12 @@ public final class QuestState
 	 */
 	public final void deleteGlobalQuestVar(String var)
 	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			QuestVarUpdateTaskManager.getInstance().deleteCharGlobalVar(_player.getObjectId(), var);
+			return;
+		}
+		
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement ps = con.prepareStatement("DELETE FROM character_quest_global_data WHERE charId = ? AND var = ?"))
 		{
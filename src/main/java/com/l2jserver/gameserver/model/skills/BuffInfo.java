@@ -266,7 +266,14 @@ public final class BuffInfo
 		// Creates a task that will stop all the effects.
 		if (_abnormalTime > 0)
 		{
-			_scheduledFutureTimeTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(new BuffTimeTask(this), 0, 1000L);
+			if (Config.TIMING_WHEEL_BUFFS)
+			{
+				_scheduledFutureTimeTask = ThreadPoolManager.getInstance().scheduleEffectTimerAtFixedRate(new BuffTimeTask(this), 0, 1000L);
+			}
+			else
+			{
+				_scheduledFutureTimeTask = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(new BuffTimeTask(this), 0, 1000L);
+			}
 		}
 		
 		boolean update = false;
@@ -285,7 +292,16 @@ public final class BuffInfo
 			{
 				// The task for the effect ticks.
 				final EffectTickTask effectTask = new EffectTickTask(this, effect);
-				final ScheduledFuture<?> scheduledFuture = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(effectTask, effect.getTicks() * Config.EFFECT_TICK_RATIO, effect.getTicks() * Config.EFFECT_TICK_RATIO);
+				final long period = effect.getTicks() * Config.EFFECT_TICK_RATIO;
+				final ScheduledFuture<?> scheduledFuture;
+				if (Config.TIMING_WHEEL_BUFFS)
+				{
+					scheduledFuture = ThreadPoolManager.getInstance().scheduleEffectTimerAtFixedRate(effectTask, period, period);
+				}
+				else
+				{
+					scheduledFuture = ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(effectTask, period, period);
+				}
 				// Adds the task for ticking.
 				addTask(effect, new EffectTaskInfo(effectTask, scheduledFuture));
 			}
@@ -42,6 +42,9 @@ public final class Calculator
 	/** Table of Func object */
 	private AbstractFunction[] _functions;
 	
+	/** Number of Func object with an apply condition */
+	private int _conditionalFuncs;
+	
 	/**
 	 * Constructor of Calculator (Init value : emptyFuncs).
 	 */
@@ -57,6 +60,7 @@ public final class Calculator
 	public Calculator(Calculator c)
 	{
 		_functions = c._functions;
+		_conditionalFuncs = c._conditionalFuncs;
 	}
 	
 	/**
@@ -115,6 +119,15 @@ public final class Calculator
 		return _functions.length;
 	}
 	
+	/**
+	 * Check if the result of the Calculator depends on apply conditions, and so on the target, the skill or the state of the character.
+	 * @return {@code true} if at least one function has an apply condition
+	 */
+	public boolean hasConditions()
+	{
+		return _conditionalFuncs > 0;
+	}
+	
 	/**
 	 * Adds a function to the Calculator.
 	 * @param function the function
@@ -140,6 +153,10 @@ public final class Calculator
 		}
 		
 		_functions = tmp;
+		if (function.getApplayCond() != null)
+		{
+			_conditionalFuncs++;
+		}
 	}
 	
 	/**
@@ -163,6 +180,7 @@ public final class Calculator
 			return;
 		}
 		
+		final AbstractFunction removed = funcs[i];
 		for (i++; i < funcs.length; i++)
 		{
 			tmp[i - 1] = funcs[i];
@@ -176,6 +194,11 @@ public final class Calculator
 		{
 			_functions = tmp;
 		}
+		
+		if (removed.getApplayCond() != null)
+		{
+			_conditionalFuncs--;
+		}
 	}
 	
 	/**
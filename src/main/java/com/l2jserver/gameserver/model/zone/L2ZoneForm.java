@@ -34,6 +34,28 @@ public abstract class L2ZoneForm
 	
 	public abstract boolean intersectsRectangle(int x1, int x2, int y1, int y2);
 	
+	/**
+	 * Checks if every point of the rectangle is within the zone's plane, false negatives being allowed.
+	 * @param x1 the lowest x of the rectangle, inclusive
+	 * @param x2 the highest x of the rectangle, inclusive
+	 * @param y1 the lowest y of the rectangle, inclusive
+	 * @param y2 the highest y of the rectangle, inclusive
+	 * @return {@code true} if the whole rectangle is inside the zone's plane
+	 */
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		return false;
+	}
+	
+	/**
+	 * @param z the z coordinate
+	 * @return {@code true} if the height is between the lowest and the highest z of the zone
+	 */
+	public boolean isInsideHeight(int z)
+	{
+		return (z >= getLowZ()) && (z <= getHighZ());
+	}
+	
 	public abstract double getDistanceToZone(int x, int y);
 	
 	public abstract int getLowZ(); // Support for the ability to extract the z coordinates of zones.
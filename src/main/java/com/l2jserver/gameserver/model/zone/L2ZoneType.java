@@ -390,7 +390,7 @@ public abstract class L2ZoneType extends ListenersContainer
 	{
 		// It will check if coords are within the zone if the given instanceId or
 		// the zone's _instanceId are in the multiverse or they match
-		if ((_instanceId == -1) || (instanceId == -1) || (_instanceId == instanceId))
+		if (isInInstance(instanceId))
 		{
 			return _zone.isInsideZone(x, y, z);
 		}
@@ -398,6 +398,15 @@ public abstract class L2ZoneType extends ListenersContainer
 		return false;
 	}
 	
+	/**
+	 * @param instanceId the instance id
+	 * @return {@code true} if the zone or the given instance is in the multiverse, or if they match
+	 */
+	public boolean isInInstance(int instanceId)
+	{
+		return (_instanceId == -1) || (instanceId == -1) || (_instanceId == instanceId);
+	}
+	
 	/**
 	 * Checks if the given object is inside the zone.
 	 * @param object
@@ -419,6 +428,16 @@ public abstract class L2ZoneType extends ListenersContainer
 	}
 	
 	public void revalidateInZone(L2Character character)
+	{
+		revalidateInZone(character, isInsideZone(character));
+	}
+	
+	/**
+	 * Revalidates the character in this zone, its position being already checked.
+	 * @param character the character
+	 * @param isInside {@code true} if the character is inside the zone
+	 */
+	public void revalidateInZone(L2Character character, boolean isInside)
 	{
 		// If the character can't be affected by this zone return
 		if (_checkAffected)
@@ -430,7 +449,7 @@ public abstract class L2ZoneType extends ListenersContainer
 		}
 		
 		// If the object is inside the zone...
-		if (isInsideZone(character))
+		if (isInside)
 		{
 			// Was the character not yet inside this zone?
 			if (!_characterList.containsKey(character.getObjectId()))
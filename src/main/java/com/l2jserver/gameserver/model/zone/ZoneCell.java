@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.model.zone;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zones of a small square cell of a world region.<br>
+ * Only the zones overlapping the cell are kept, in the order of the region. Each one is marked as either covering the whole cell on the plane, so only the height of a position has to be checked, or as partial, needing the test of its form.
+ */
+public final class ZoneCell
+{
+	public static final ZoneCell EMPTY = new ZoneCell(new L2ZoneType[0], new boolean[0]);
+	
+	private final L2ZoneType[] _zones;
+	private final boolean[] _partial;
+	private final boolean _hasPartial;
+	
+	/**
+	 * @param zones the zones overlapping the cell
+	 * @param partial for each zone, {@code true} if it does not cover the whole cell
+	 */
+	public ZoneCell(L2ZoneType[] zones, boolean[] partial)
+	{
+		_zones = zones;
+		_partial = partial;
+		boolean hasPartial = false;
+		for (boolean p : partial)
+		{
+			hasPartial |= p;
+		}
+		_hasPartial = hasPartial;
+	}
+	
+	/**
+	 * @param zones the zones overlapping the cell
+	 * @param partial for each zone, {@code true} if it does not cover the whole cell
+	 * @return the cell
+	 */
+	public static ZoneCell of(List<L2ZoneType> zones, List<Boolean> partial)
+	{
+		if (zones.isEmpty())
+		{
+			return EMPTY;
+		}
+		
+		final boolean[] flags = new boolean[partial.size()];
+		for (int i = 0; i < flags.length; i++)
+		{
+			flags[i] = partial.get(i);
+		}
+		return new ZoneCell(zones.toArray(new L2ZoneType[zones.size()]), flags);
+	}
+	
+	/**
+	 * @return the number of zones overlapping the cell
+	 */
+	public int size()
+	{
+		return _zones.length;
+	}
+	
+	public L2ZoneType getZone(int index)
+	{
+		return _zones[index];
+	}
+	
+	/**
+	 * @param zone the zone
+	 * @return {@code true} if the zone overlaps the cell
+	 */
+	public boolean contains(L2ZoneType zone)
+	{
+		for (L2ZoneType z : _zones)
+		{
+			if (z == zone)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Checks if a position of this cell is within a zone, ignores instanceId check.
+	 * @param index the index of the zone
+	 * @param x the x coordinate, inside the cell
+	 * @param y the y coordinate, inside the cell
+	 * @param z the z coordinate
+	 * @return {@code true} if the position is inside the zone
+	 */
+	public boolean isInsideZone(int index, int x, int y, int z)
+	{
+		final L2ZoneForm form = _zones[index].getZone();
+		return _partial[index] ? form.isInsideZone(x, y, z) : form.isInsideHeight(z);
+	}
+	
+	/**
+	 * @param oldZ the height of the last check
+	 * @param newZ the current height
+	 * @return {@code true} if a position moving inside this cell from the old to the new height is still in the same zones: all zones cover the whole cell and none of their heights is crossed
+	 */
+	public boolean isStable(int oldZ, int newZ)
+	{
+		if (_hasPartial)
+		{
+			return false;
+		}
+		
+		for (L2ZoneType zone : _zones)
+		{
+			if (zone.getZone().isInsideHeight(oldZ) != zone.getZone().isInsideHeight(newZ))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (!(obj instanceof ZoneCell))
+		{
+			return false;
+		}
+		final ZoneCell cell = (ZoneCell) obj;
+		return Arrays.equals(_zones, cell._zones) && Arrays.equals(_partial, cell._partial);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return (31 * Arrays.hashCode(_zones)) + Arrays.hashCode(_partial);
+	}
+}
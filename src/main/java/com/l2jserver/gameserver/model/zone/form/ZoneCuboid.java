@@ -59,6 +59,14 @@ public class ZoneCuboid extends L2ZoneForm
 		return (_r.intersects(Math.min(ax1, ax2), Math.min(ay1, ay2), Math.abs(ax2 - ax1), Math.abs(ay2 - ay1)));
 	}
 	
+	@Override
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		// The zone is convex, it contains the rectangle if it contains its corners.
+		final int z = getHighZ();
+		return isInsideZone(x1, y1, z) && isInsideZone(x1, y2, z) && isInsideZone(x2, y1, z) && isInsideZone(x2, y2, z);
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
@@ -105,6 +105,14 @@ public class ZoneCylinder extends L2ZoneForm
 		return false;
 	}
 	
+	@Override
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		// The zone is convex, it contains the rectangle if it contains its corners.
+		final int z = getHighZ();
+		return isInsideZone(x1, y1, z) && isInsideZone(x1, y2, z) && isInsideZone(x2, y1, z) && isInsideZone(x2, y2, z);
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
@@ -52,7 +52,7 @@ public class ZoneNPoly extends L2ZoneForm
 	@Override
 	public boolean isInsideZone(int x, int y, int z)
 	{
-		return (_p.contains(x, y) && (z >= _z1) && (z <= _z2));
+		return ((z >= _z1) && (z <= _z2) && _p.contains(x, y));
 	}
 	
 	@Override
@@ -61,6 +61,13 @@ public class ZoneNPoly extends L2ZoneForm
 		return (_p.intersects(Math.min(ax1, ax2), Math.min(ay1, ay2), Math.abs(ax2 - ax1), Math.abs(ay2 - ay1)));
 	}
 	
+	@Override
+	public boolean containsRectangle(int x1, int x2, int y1, int y2)
+	{
+		// Grown by one unit, so the points on the border of the rectangle are inside the polygon and not on its edges.
+		return _p.contains(x1 - 1, y1 - 1, (x2 - x1) + 2, (y2 - y1) + 2);
+	}
+	
 	@Override
 	public double getDistanceToZone(int x, int y)
 	{
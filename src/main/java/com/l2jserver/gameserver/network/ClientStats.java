@@ -19,6 +19,7 @@
 package com.l2jserver.gameserver.network;
 
 import com.l2jserver.Config;
+import com.l2jserver.gameserver.enums.PacketLane;
 
 public class ClientStats
 {
@@ -34,6 +35,13 @@ public class ClientStats
 	public int totalQueueOverflows = 0;
 	public int totalUnderflowExceptions = 0;
 	
+	// Packet queue lanes, indexed by PacketLane ordinal, wait times in nanoseconds measured on a sample of the packets
+	public final int[] laneMaxQueueSize = new int[PacketLane.values().length];
+	public final long[] laneProcessedPackets = new long[PacketLane.values().length];
+	public final long[] laneWaitSamples = new long[PacketLane.values().length];
+	public final long[] laneTotalWaitTime = new long[PacketLane.values().length];
+	public final long[] laneMaxWaitTime = new long[PacketLane.values().length];
+	
 	private final int[] _packetsInSecond;
 	private long _packetCountStartTick = 0;
 	private int _head;
@@ -94,6 +102,55 @@ public class ClientStats
 		return countPacket();
 	}
 	
+	/**
+	 * Called by the selector thread when a packet is queued.
+	 * @param lane the lane of the packet
+	 * @param queueSize the size of the lane
+	 */
+	protected final void countLaneQueued(PacketLane lane, int queueSize)
+	{
+		if (laneMaxQueueSize[lane.ordinal()] < queueSize)
+		{
+			laneMaxQueueSize[lane.ordinal()] = queueSize;
+		}
+	}
+	
+	/**
+	 * Called by the packet thread when a packet is taken from the queue.
+	 * @param lane the lane of the packet
+	 * @param waitTime the time the packet waited in the queue, in nanoseconds, -1 if it was not measured
+	 */
+	protected final void countLaneProcessed(PacketLane lane, long waitTime)
+	{
+		laneProcessedPackets[lane.ordinal()]++;
+		if (waitTime < 0)
+		{
+			return;
+		}
+		laneWaitSamples[lane.ordinal()]++;
+		laneTotalWaitTime[lane.ordinal()] += waitTime;
+		if (laneMaxWaitTime[lane.ordinal()] < waitTime)
+		{
+			laneMaxWaitTime[lane.ordinal()] = waitTime;
+		}
+	}
+	
+	/**
+	 * @return the depth and wait time of each lane of the packet queue
+	 */
+	public final String[] getLaneStats()
+	{
+		final PacketLane[] lanes = PacketLane.values();
+		final String[] stats = new String[lanes.length];
+		for (PacketLane lane : lanes)
+		{
+			final int i = lane.ordinal();
+			final long samples = laneWaitSamples[i];
+			stats[i] = String.format("%s: %d packets, max depth %d, avg wait %.3fms, max wait %.3fms", lane, laneProcessedPackets[i], laneMaxQueueSize[i], samples > 0 ? (laneTotalWaitTime[i] / 1e6) / samples : 0.0, laneMaxWaitTime[i] / 1e6);
+		}
+		return stats;
+	}
+	
 	/**
 	 * @return Counts unknown packets and return true if threshold is reached.
 	 */
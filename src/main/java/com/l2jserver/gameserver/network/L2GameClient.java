@@ -25,7 +25,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
@@ -42,6 +41,7 @@ import com.l2jserver.gameserver.ThreadPoolManager;
 import com.l2jserver.gameserver.data.sql.impl.CharNameTable;
 import com.l2jserver.gameserver.data.sql.impl.ClanTable;
 import com.l2jserver.gameserver.data.xml.impl.SecondaryAuthData;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.instancemanager.AntiFeedManager;
 import com.l2jserver.gameserver.model.CharSelectInfoPackage;
 import com.l2jserver.gameserver.model.L2Clan;
@@ -51,6 +51,7 @@ import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.entity.L2Event;
 import com.l2jserver.gameserver.model.olympiad.OlympiadManager;
 import com.l2jserver.gameserver.model.zone.ZoneId;
+import com.l2jserver.gameserver.network.clientpackets.L2GameClientPacket;
 import com.l2jserver.gameserver.network.serverpackets.ActionFailed;
 import com.l2jserver.gameserver.network.serverpackets.L2GameServerPacket;
 import com.l2jserver.gameserver.network.serverpackets.ServerClose;
@@ -96,6 +97,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	private boolean _isAuthedGG;
 	private final long _connectionStartTime;
 	private List<CharSelectInfoPackage> _charSlotMapping = null;
+	private volatile boolean _charSelectionValid;
 	
 	// flood protectors
 	private final FloodProtectors _floodProtectors = new FloodProtectors(this);
@@ -115,8 +117,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	
 	private boolean _protocol;
 	
-	private final ArrayBlockingQueue<ReceivablePacket<L2GameClient>> _packetQueue;
-	private final ReentrantLock _queueLock = new ReentrantLock();
+	private final PacketMailbox _packetQueue;
 	
 	private int[][] trace;
 	
@@ -128,7 +129,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		_crypt = new GameCrypt();
 		_stats = new ClientStats();
 		
-		_packetQueue = new ArrayBlockingQueue<>(Config.CLIENT_PACKET_QUEUE_SIZE);
+		_packetQueue = new PacketMailbox(Config.CLIENT_PACKET_QUEUE_SIZE, _stats);
 		
 		if (Config.CHAR_STORE_INTERVAL > 0)
 		{
@@ -304,6 +305,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return -1;
 		}
 		
+		invalidateCharSelection();
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement statement = con.prepareStatement("SELECT clanId FROM characters WHERE charId=?"))
 		{
@@ -397,6 +399,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
+		invalidateCharSelection();
 		try (Connection con = ConnectionFactory.getInstance().getConnection();
 			PreparedStatement statement = con.prepareStatement("UPDATE characters SET deletetime=0 WHERE charId=?"))
 		{
@@ -592,6 +595,9 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return null;
 		}
 		
+		// The character is going to play, its selection info will change.
+		invalidateCharSelection();
+		
 		L2PcInstance character = L2World.getInstance().getPlayer(objId);
 		if (character != null)
 		{
@@ -635,6 +641,39 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	public void setCharSelection(List<CharSelectInfoPackage> list)
 	{
 		_charSlotMapping = list;
+		_charSelectionValid = true;
+	}
+	
+	/**
+	 * Returns the character selection of the account, as long as no character was created, deleted, restored or played since it was loaded.
+	 * @return the cached character selection, {@code null} if it must be loaded again
+	 */
+	public List<CharSelectInfoPackage> getCachedCharSelection()
+	{
+		final List<CharSelectInfoPackage> list = _charSlotMapping;
+		if (!_charSelectionValid || (list == null))
+		{
+			return null;
+		}
+		
+		// Characters whose delete time is over are deleted when the selection is loaded.
+		final long now = System.currentTimeMillis();
+		for (CharSelectInfoPackage info : list)
+		{
+			if ((info.getDeleteTimer() > 0) && (info.getDeleteTimer() < now))
+			{
+				return null;
+			}
+		}
+		return list;
+	}
+	
+	/**
+	 * Makes the next character selection be loaded from the database.
+	 */
+	public void invalidateCharSelection()
+	{
+		_charSelectionValid = false;
 	}
 	
 	public CharSelectInfoPackage getCharSelection(int charslot)
@@ -1054,7 +1093,9 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
-		if (!_packetQueue.offer(packet))
+		// Lanes only in game, where reordering movement ahead of other packets is harmless.
+		final PacketLane lane = Config.CLIENT_PACKET_QUEUE_LANES && (_state == GameClientState.IN_GAME) && (packet instanceof L2GameClientPacket) ? ((L2GameClientPacket) packet).getLane() : PacketLane.NORMAL;
+		if (!_packetQueue.offer(packet, lane))
 		{
 			if (getStats().countQueueOverflow())
 			{
@@ -1068,24 +1109,34 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
-		if (_queueLock.isLocked())
+		if (!_packetQueue.schedule())
 		{
 			return;
 		}
 		
+		if ((_state == GameClientState.CONNECTED) && (getStats().processedPackets > 3))
+		{
+			if (Config.PACKET_HANDLER_DEBUG)
+			{
+				_log.severe("Client " + toString() + " - Disconnected, too many packets in non-authed state.");
+			}
+			closeNow();
+			_packetQueue.release();
+			return;
+		}
+		submit(packet);
+	}
+	
+	/**
+	 * Submits this client to a packet thread pool, the caller owning the scheduling flag of the packet queue.
+	 * @param packet the packet which caused the submission
+	 */
+	private void submit(ReceivablePacket<L2GameClient> packet)
+	{
 		try
 		{
 			if (_state == GameClientState.CONNECTED)
 			{
-				if (getStats().processedPackets > 3)
-				{
-					if (Config.PACKET_HANDLER_DEBUG)
-					{
-						_log.severe("Client " + toString() + " - Disconnected, too many packets in non-authed state.");
-					}
-					closeNow();
-					return;
-				}
 				ThreadPoolManager.getInstance().executeIOPacket(this);
 			}
 			else
@@ -1095,6 +1146,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		}
 		catch (RejectedExecutionException e)
 		{
+			_packetQueue.release();
 			// if the server is shutdown we ignore
 			if (!ThreadPoolManager.getInstance().isShutdown())
 			{
@@ -1106,48 +1158,47 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	@Override
 	public void run()
 	{
-		if (!_queueLock.tryLock())
-		{
-			return;
-		}
-		
-		try
+		int count = 0;
+		ReceivablePacket<L2GameClient> packet;
+		while (true)
 		{
-			int count = 0;
-			ReceivablePacket<L2GameClient> packet;
-			while (true)
+			packet = _packetQueue.poll();
+			if (packet == null)
 			{
-				packet = _packetQueue.poll();
-				if (packet == null)
-				{
-					return;
-				}
-				
-				if (_isDetached) // clear queue immediately after detach
-				{
-					_packetQueue.clear();
-					return;
-				}
-				
-				try
-				{
-					packet.run();
-				}
-				catch (Exception e)
+				if (_packetQueue.unschedule())
 				{
-					_log.severe("Exception during execution " + packet.getClass().getSimpleName() + ", client: " + toString() + "," + e.getMessage());
+					continue;
 				}
-				
-				count++;
-				if (getStats().countBurst(count))
+				return;
+			}
+			
+			if (_isDetached) // clear queue immediately after detach
+			{
+				_packetQueue.clear();
+				// packets queued meanwhile are dropped by the next poll
+				if (_packetQueue.unschedule())
 				{
-					return;
+					continue;
 				}
+				return;
+			}
+			
+			try
+			{
+				packet.run();
+			}
+			catch (Exception e)
+			{
+				_log.severe("Exception during execution " + packet.getClass().getSimpleName() + ", client: " + toString() + "," + e.getMessage());
+			}
+			
+			count++;
+			if (getStats().countBurst(count))
+			{
+				// give the thread back, the rest of the queue runs after the other clients
+				submit(packet);
+				return;
 			}
-		}
-		finally
-		{
-			_queueLock.unlock();
 		}
 	}
 	
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.l2jserver.gameserver.enums.PacketLane;
+import com.l2jserver.mmocore.ReceivablePacket;
+
+/**
+ * Packet queue of a game client.<br>
+ * Packets are queued by the selector thread and run one at a time by the packet thread pools. Each {@link PacketLane} is a lock-free multiple producers single consumer queue: queuing a packet is one atomic swap and one atomic increment, taking one is plain reads and writes.<br>
+ * The lanes are drained in order, so movement and attack packets queued behind a flood of bypasses run first.<br>
+ * The client is submitted to a thread pool only when {@link #schedule()} wins the scheduling flag, the consumer giving it back with {@link #unschedule()}.
+ */
+public final class PacketMailbox
+{
+	private static final PacketLane[] LANES = PacketLane.values();
+	/** The wait time is measured for one packet out of {@code WAIT_SAMPLE_MASK + 1} of each lane, reading the clock costs more than queuing. */
+	private static final int WAIT_SAMPLE_MASK = 7;
+	
+	private static final AtomicReferenceFieldUpdater<Node, Node> NEXT = AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "_next");
+	private static final AtomicLongFieldUpdater<Lane> POLLED = AtomicLongFieldUpdater.newUpdater(Lane.class, "_polled");
+	
+	protected static final class Node
+	{
+		protected ReceivablePacket<L2GameClient> _packet;
+		protected long _queueTime;
+		protected volatile Node _next;
+	}
+	
+	protected static final class Lane
+	{
+		private final AtomicReference<Node> _tail;
+		private final AtomicLong _offered = new AtomicLong();
+		// Consumer side
+		private Node _head;
+		protected volatile long _polled;
+		private volatile long _clearMark;
+		
+		protected Lane()
+		{
+			_head = new Node();
+			_tail = new AtomicReference<>(_head);
+		}
+		
+		/**
+		 * @return the queue size after queuing
+		 */
+		protected int offer(Node node)
+		{
+			// Ordered writes are enough, the swap and the increment are full barriers.
+			NEXT.lazySet(_tail.getAndSet(node), node);
+			// Counted once linked, the consumer may see a packet before it is counted but never a count without its packet.
+			return (int) (_offered.incrementAndGet() - Math.max(_polled, _clearMark));
+		}
+		
+		protected Node poll()
+		{
+			while (true)
+			{
+				final Node next = _head._next;
+				if (next == null)
+				{
+					return null;
+				}
+				_head = next;
+				final long polled = _polled + 1;
+				POLLED.lazySet(this, polled);
+				if (polled > _clearMark)
+				{
+					return next;
+				}
+				// queued before the last clear
+				next._packet = null;
+			}
+		}
+		
+		/**
+		 * @return the number of queued packets, those dropped by {@link #clear()} but not skipped yet not included
+		 */
+		protected int size()
+		{
+			return (int) Math.max(0, _offered.get() - Math.max(_polled, _clearMark));
+		}
+		
+		/**
+		 * Drops the queued packets, the consumer skipping them when it reaches them.
+		 */
+		protected void clear()
+		{
+			_clearMark = _offered.get();
+		}
+	}
+	
+	private final Lane[] _lanes = new Lane[LANES.length];
+	private final AtomicBoolean _scheduled = new AtomicBoolean();
+	private final int _capacity;
+	private final ClientStats _stats;
+	
+	/**
+	 * @param capacity the maximum number of packets in each lane
+	 * @param stats the statistics of the client
+	 */
+	public PacketMailbox(int capacity, ClientStats stats)
+	{
+		for (int i = 0; i < _lanes.length; i++)
+		{
+			_lanes[i] = new Lane();
+		}
+		_capacity = capacity;
+		_stats = stats;
+	}
+	
+	/**
+	 * Queues a packet.
+	 * @param packet the packet
+	 * @param lane the lane
+	 * @return {@code false} if the lane is full
+	 */
+	public boolean offer(ReceivablePacket<L2GameClient> packet, PacketLane lane)
+	{
+		final Lane queue = _lanes[lane.ordinal()];
+		if (queue.size() >= _capacity)
+		{
+			return false;
+		}
+		
+		final Node node = new Node();
+		node._packet = packet;
+		if ((queue._offered.get() & WAIT_SAMPLE_MASK) == 0)
+		{
+			node._queueTime = System.nanoTime();
+		}
+		_stats.countLaneQueued(lane, queue.offer(node));
+		return true;
+	}
+	
+	/**
+	 * Takes the oldest packet of the first lane which is not empty. Called by the consumer only.
+	 * @return the packet, {@code null} if all lanes are empty
+	 */
+	public ReceivablePacket<L2GameClient> poll()
+	{
+		for (int i = 0; i < _lanes.length; i++)
+		{
+			final Node node = _lanes[i].poll();
+			if (node != null)
+			{
+				final ReceivablePacket<L2GameClient> packet = node._packet;
+				node._packet = null;
+				_stats.countLaneProcessed(LANES[i], node._queueTime != 0 ? System.nanoTime() - node._queueTime : -1);
+				return packet;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return the number of queued packets
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (Lane lane : _lanes)
+		{
+			size += lane.size();
+		}
+		return size;
+	}
+	
+	public boolean isEmpty()
+	{
+		return size() == 0;
+	}
+	
+	/**
+	 * Drops all queued packets.
+	 */
+	public void clear()
+	{
+		for (Lane lane : _lanes)
+		{
+			lane.clear();
+		}
+	}
+	
+	/**
+	 * @return {@code true} if the caller must submit the client to a thread pool
+	 */
+	public boolean schedule()
+	{
+		return !_scheduled.get() && _scheduled.compareAndSet(false, true);
+	}
+	
+	/**
+	 * Called by the consumer when it found all lanes empty.
+	 * @return {@code true} if packets were queued meanwhile and the consumer must go on
+	 */
+	public boolean unschedule()
+	{
+		_scheduled.set(false);
+		return !isEmpty() && schedule();
+	}
+	
+	/**
+	 * Gives back the scheduling flag when the client could not be submitted, the queued packets wait for the next packet to schedule the client again.
+	 */
+	public void release()
+	{
+		_scheduled.set(false);
+	}
+}
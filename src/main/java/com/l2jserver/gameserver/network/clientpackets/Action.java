@@ -19,6 +19,7 @@
 package com.l2jserver.gameserver.network.clientpackets;
 
 import com.l2jserver.Config;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.PcCondOverride;
@@ -175,4 +176,10 @@ public final class Action extends L2GameClientPacket
 	{
 		return __C__1F_ACTION;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.ACTION;
+	}
 }
@@ -18,6 +18,7 @@
  */
 package com.l2jserver.gameserver.network.clientpackets;
 
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.enums.PrivateStoreType;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2World;
@@ -147,4 +148,10 @@ public final class Attack extends L2GameClientPacket
 	{
 		return _C__01_ATTACK;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.ACTION;
+	}
 }
\ No newline at end of file
@@ -18,6 +18,7 @@
  */
 package com.l2jserver.gameserver.network.clientpackets;
 
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.enums.PrivateStoreType;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2World;
@@ -137,4 +138,10 @@ public final class AttackRequest extends L2GameClientPacket
 	{
 		return _C__32_ATTACKREQUEST;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.ACTION;
+	}
 }
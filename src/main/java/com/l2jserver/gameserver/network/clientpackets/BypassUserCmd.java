@@ -18,6 +18,7 @@
  */
 package com.l2jserver.gameserver.network.clientpackets;
 
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.handler.IUserCommandHandler;
 import com.l2jserver.gameserver.handler.UserCommandHandler;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
@@ -67,4 +68,10 @@ public class BypassUserCmd extends L2GameClientPacket
 	{
 		return _C__B3_BYPASSUSERCMD;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.BULK;
+	}
 }
@@ -20,6 +20,7 @@ package com.l2jserver.gameserver.network.clientpackets;
 
 import com.l2jserver.Config;
 import com.l2jserver.gameserver.ai.CtrlEvent;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.model.Location;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 
@@ -86,4 +87,10 @@ public final class CannotMoveAnymore extends L2GameClientPacket
 	{
 		return _C__47_STOPMOVE;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.ACTION;
+	}
 }
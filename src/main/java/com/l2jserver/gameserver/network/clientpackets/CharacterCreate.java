@@ -317,6 +317,7 @@ public final class CharacterCreate extends L2GameClientPacket
 		newChar.setOnlineStatus(true, false);
 		newChar.deleteMe();
 		
+		client.invalidateCharSelection();
 		final CharSelectionInfo cl = new CharSelectionInfo(client.getAccountName(), client.getSessionId().playOkID1);
 		client.setCharSelection(cl.getCharInfo());
 		
@@ -23,6 +23,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.Config;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.network.L2GameClient;
 import com.l2jserver.gameserver.network.SystemMessageId;
@@ -129,6 +130,15 @@ public abstract class L2GameClientPacket extends ReceivablePacket<L2GameClient>
 		return true;
 	}
 	
+	/**
+	 * Overridden by movement and attack packets, run ahead of the others, and by bypasses, run after them.
+	 * @return the lane of the client packet queue
+	 */
+	public PacketLane getLane()
+	{
+		return PacketLane.NORMAL;
+	}
+	
 	/**
 	 * @return the active player if exist, otherwise null.
 	 */
@@ -22,6 +22,7 @@ import java.nio.BufferUnderflowException;
 
 import com.l2jserver.Config;
 import com.l2jserver.gameserver.ai.CtrlIntention;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.model.Location;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.network.SystemMessageId;
@@ -128,4 +129,10 @@ public class MoveBackwardToLocation extends L2GameClientPacket
 	{
 		return _C__0F_MOVEBACKWARDTOLOC;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.ACTION;
+	}
 }
@@ -30,6 +30,7 @@ import com.l2jserver.gameserver.data.xml.impl.PetDataTable;
 import com.l2jserver.gameserver.datatables.BotReportTable;
 import com.l2jserver.gameserver.datatables.SkillData;
 import com.l2jserver.gameserver.enums.MountType;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.enums.PrivateStoreType;
 import com.l2jserver.gameserver.instancemanager.AirShipManager;
 import com.l2jserver.gameserver.model.L2Object;
@@ -1186,4 +1187,10 @@ public final class RequestActionUse extends L2GameClientPacket
 	{
 		return (_actionId != 10) && (_actionId != 28);
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.ACTION;
+	}
 }
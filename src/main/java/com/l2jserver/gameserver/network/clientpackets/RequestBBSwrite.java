@@ -18,6 +18,7 @@
  */
 package com.l2jserver.gameserver.network.clientpackets;
 
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.handler.CommunityBoardHandler;
 
 /**
@@ -56,4 +57,10 @@ public final class RequestBBSwrite extends L2GameClientPacket
 	{
 		return _C__24_REQUESTBBSWRITE;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.BULK;
+	}
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import com.l2jserver.Config;
 import com.l2jserver.gameserver.ai.CtrlIntention;
 import com.l2jserver.gameserver.data.xml.impl.AdminData;
 import com.l2jserver.gameserver.enums.InstanceType;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.enums.PlayerAction;
 import com.l2jserver.gameserver.handler.AdminCommandHandler;
 import com.l2jserver.gameserver.handler.BypassHandler;
@@ -349,4 +350,10 @@ public final class RequestBypassToServer extends L2GameClientPacket
 	{
 		return _C__23_REQUESTBYPASSTOSERVER;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.BULK;
+	}
 }
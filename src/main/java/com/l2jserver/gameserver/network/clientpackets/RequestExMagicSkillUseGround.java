@@ -19,6 +19,7 @@
 package com.l2jserver.gameserver.network.clientpackets;
 
 import com.l2jserver.gameserver.datatables.SkillData;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.model.Location;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.model.skills.Skill;
@@ -97,4 +98,10 @@ public final class RequestExMagicSkillUseGround extends L2GameClientPacket
 	{
 		return _C__D0_44_REQUESTEXMAGICSKILLUSEGROUND;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.ACTION;
+	}
 }
@@ -18,6 +18,9 @@
  */
 package com.l2jserver.gameserver.network.clientpackets;
 
+import java.util.List;
+
+import com.l2jserver.gameserver.model.CharSelectInfoPackage;
 import com.l2jserver.gameserver.network.L2GameClient;
 import com.l2jserver.gameserver.network.serverpackets.CharSelectionInfo;
 
@@ -39,7 +42,13 @@ public class RequestGotoLobby extends L2GameClientPacket
 	protected void runImpl()
 	{
 		L2GameClient client = getClient();
-		client.sendPacket(new CharSelectionInfo(client.getAccountName(), client.getSessionId().playOkID1));
+		List<CharSelectInfoPackage> characters = client.getCachedCharSelection();
+		if (characters == null)
+		{
+			characters = CharSelectionInfo.loadCharacterSelectInfo(client.getAccountName());
+			client.setCharSelection(characters);
+		}
+		client.sendPacket(new CharSelectionInfo(client.getAccountName(), client.getSessionId().playOkID1, characters));
 	}
 	
 	@Override
@@ -19,6 +19,7 @@
 
 package com.l2jserver.gameserver.network.clientpackets;
 
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.model.actor.L2Npc;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.network.serverpackets.NpcHtmlMessage;
@@ -84,4 +85,10 @@ public final class RequestLinkHtml extends L2GameClientPacket
 	{
 		return _C__22_REQUESTLINKHTML;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.BULK;
+	}
 }
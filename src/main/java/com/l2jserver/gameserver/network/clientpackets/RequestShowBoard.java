@@ -19,6 +19,7 @@
 package com.l2jserver.gameserver.network.clientpackets;
 
 import com.l2jserver.Config;
+import com.l2jserver.gameserver.enums.PacketLane;
 import com.l2jserver.gameserver.handler.CommunityBoardHandler;
 
 /**
@@ -55,4 +56,10 @@ public final class RequestShowBoard extends L2GameClientPacket
 	{
 		return false;
 	}
+	
+	@Override
+	public PacketLane getLane()
+	{
+		return PacketLane.BULK;
+	}
 }
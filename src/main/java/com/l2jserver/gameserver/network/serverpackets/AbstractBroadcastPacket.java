@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.network.serverpackets;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Server packet serialized only once, however many players it is sent to.<br>
+ * The payload is rendered on the first write into a shared immutable byte array, which is then copied into the write buffer of each connection, the encryption of each client being applied afterwards as for any packet.<br>
+ * Subclasses must not depend on the receiving client, nor change once sent.
+ */
+public abstract class AbstractBroadcastPacket extends L2GameServerPacket
+{
+	/** Same size as the default write buffer of the selector. */
+	private static final int RENDER_BUFFER_SIZE = 64 * 1024;
+	private static final ThreadLocal<ByteBuffer> RENDER_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(RENDER_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+	
+	private static final LongAdder SERIALIZED_PACKETS = new LongAdder();
+	private static final LongAdder SERIALIZED_BYTES = new LongAdder();
+	private static final LongAdder SENT_PACKETS = new LongAdder();
+	private static final LongAdder SENT_BYTES = new LongAdder();
+	
+	private volatile byte[] _payload;
+	
+	@Override
+	protected final void write()
+	{
+		final byte[] payload = getPayload();
+		_buf.put(payload);
+		SENT_PACKETS.increment();
+		SENT_BYTES.add(payload.length);
+	}
+	
+	private byte[] getPayload()
+	{
+		byte[] payload = _payload;
+		if (payload == null)
+		{
+			synchronized (this)
+			{
+				payload = _payload;
+				if (payload == null)
+				{
+					_payload = payload = render();
+				}
+			}
+		}
+		return payload;
+	}
+	
+	private byte[] render()
+	{
+		final ByteBuffer connectionBuffer = _buf;
+		final ByteBuffer buffer = RENDER_BUFFER.get();
+		buffer.clear();
+		_buf = buffer;
+		try
+		{
+			writeImpl();
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.SEVERE, "Failed rendering broadcast packet: " + getClass().getSimpleName() + " ; " + e.getMessage(), e);
+		}
+		finally
+		{
+			_buf = connectionBuffer;
+		}
+		
+		final byte[] payload = Arrays.copyOf(buffer.array(), buffer.position());
+		SERIALIZED_PACKETS.increment();
+		SERIALIZED_BYTES.add(payload.length);
+		return payload;
+	}
+	
+	public static String[] getStats()
+	{
+		final long serialized = SERIALIZED_BYTES.sum();
+		final long sent = SENT_BYTES.sum();
+		return new String[]
+		{
+			"Broadcast Packets:",
+			" |- SerializedPackets: " + SERIALIZED_PACKETS.sum(),
+			" |- SentPackets:       " + SENT_PACKETS.sum(),
+			" |- SerializedBytes:   " + serialized,
+			" |- SentBytes:         " + sent,
+			" |- SavedBytes:        " + (sent - serialized),
+		};
+	}
+}
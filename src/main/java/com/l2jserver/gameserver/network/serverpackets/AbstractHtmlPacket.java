@@ -18,9 +18,14 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 
+import com.l2jserver.Config;
 import com.l2jserver.gameserver.cache.HtmCache;
+import com.l2jserver.gameserver.cache.HtmTemplate;
 import com.l2jserver.gameserver.enums.HtmlActionScope;
 import com.l2jserver.gameserver.model.actor.instance.L2PcInstance;
 import com.l2jserver.gameserver.util.Util;
@@ -35,6 +40,10 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 	private final int _npcObjId;
 	private String _html = null;
 	private boolean _disabledValidation = false;
+	/** Template of the page when {@link Config#HTML_TEMPLATES} is enabled, the html being rendered from it and its substitutions. */
+	private HtmTemplate _template = null;
+	private List<String> _tokens = null;
+	private List<String> _values = null;
 	
 	protected AbstractHtmlPacket()
 	{
@@ -87,10 +96,33 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 		}
 		
 		_html = html;
+		_template = null;
+		clearSubstitutions();
+	}
+	
+	private void clearSubstitutions()
+	{
+		if (_tokens != null)
+		{
+			_tokens.clear();
+			_values.clear();
+		}
 	}
 	
 	public final boolean setFile(String prefix, String path)
 	{
+		if (Config.HTML_TEMPLATES)
+		{
+			final HtmTemplate template = HtmCache.getInstance().getTemplate(prefix, path);
+			if ((template != null) && template.getHtml().contains("<html") && (template.getHtml().length() <= 17200))
+			{
+				_html = null;
+				_template = template;
+				clearSubstitutions();
+				return true;
+			}
+		}
+		
 		String content = HtmCache.getInstance().getHtm(prefix, path);
 		if (content == null)
 		{
@@ -105,6 +137,30 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 	
 	public final void replace(String pattern, String value)
 	{
+		if (Config.HTML_TEMPLATES)
+		{
+			if (HtmTemplate.isToken(pattern))
+			{
+				if (_template == null)
+				{
+					_template = new HtmTemplate(_html);
+				}
+				if (_tokens == null)
+				{
+					_tokens = new ArrayList<>();
+					_values = new ArrayList<>();
+				}
+				_tokens.add(pattern);
+				_values.add(value);
+				_html = null;
+				return;
+			}
+			
+			// Patterns which are not a placeholder are regular expressions, replaced on the rendered page.
+			_html = getHtml();
+			_template = null;
+			clearSubstitutions();
+		}
 		_html = _html.replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"));
 	}
 	
@@ -144,7 +200,16 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 			return;
 		}
 		
-		Util.buildHtmlActionCache(player, getScope(), _npcObjId, _html);
+		if (_template != null)
+		{
+			final List<String> actions = _tokens != null ? _template.getActions(_tokens, _values) : _template.getActions(Collections.emptyList(), Collections.emptyList());
+			if (actions != null)
+			{
+				Util.buildHtmlActionCache(player, getScope(), _npcObjId, actions);
+				return;
+			}
+		}
+		Util.buildHtmlActionCache(player, getScope(), _npcObjId, getHtml());
 	}
 	
 	public final int getNpcObjId()
@@ -154,6 +219,10 @@ public abstract class AbstractHtmlPacket extends L2GameServerPacket
 	
 	public final String getHtml()
 	{
+		if (_html == null)
+		{
+			_html = _tokens != null ? _template.render(_tokens, _values) : _template.getHtml();
+		}
 		return _html;
 	}
 	
@@ -26,7 +26,7 @@ import com.l2jserver.gameserver.model.Hit;
 import com.l2jserver.gameserver.model.Location;
 import com.l2jserver.gameserver.model.actor.L2Character;
 
-public class Attack extends L2GameServerPacket
+public class Attack extends AbstractBroadcastPacket
 {
 	private final int _attackerObjId;
 	private final boolean _soulshot;
@@ -18,7 +18,7 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
-public final class AutoAttackStart extends L2GameServerPacket
+public final class AutoAttackStart extends AbstractBroadcastPacket
 {
 	private final int _targetObjId;
 	
@@ -18,7 +18,7 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
-public class AutoAttackStop extends L2GameServerPacket
+public class AutoAttackStop extends AbstractBroadcastPacket
 {
 	private final int _targetObjId;
 	
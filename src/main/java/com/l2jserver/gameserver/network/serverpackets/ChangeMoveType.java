@@ -20,7 +20,7 @@ package com.l2jserver.gameserver.network.serverpackets;
 
 import com.l2jserver.gameserver.model.actor.L2Character;
 
-public class ChangeMoveType extends L2GameServerPacket
+public class ChangeMoveType extends AbstractBroadcastPacket
 {
 	public static final int WALK = 0;
 	public static final int RUN = 1;
@@ -20,7 +20,7 @@ package com.l2jserver.gameserver.network.serverpackets;
 
 import com.l2jserver.gameserver.model.actor.L2Character;
 
-public class ChangeWaitType extends L2GameServerPacket
+public class ChangeWaitType extends AbstractBroadcastPacket
 {
 	private final int _charObjId;
 	private final int _moveType;
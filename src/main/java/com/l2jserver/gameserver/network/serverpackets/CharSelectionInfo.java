@@ -22,7 +22,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,6 +35,7 @@ import com.l2jserver.gameserver.data.xml.impl.ExperienceData;
 import com.l2jserver.gameserver.model.CharSelectInfoPackage;
 import com.l2jserver.gameserver.model.L2Clan;
 import com.l2jserver.gameserver.model.itemcontainer.Inventory;
+import com.l2jserver.gameserver.model.itemcontainer.PcInventory;
 import com.l2jserver.gameserver.network.L2GameClient;
 
 public class CharSelectionInfo extends L2GameServerPacket
@@ -64,6 +67,20 @@ public class CharSelectionInfo extends L2GameServerPacket
 		_activeId = activeId;
 	}
 	
+	/**
+	 * Constructor for CharSelectionInfo with an already loaded character list.
+	 * @param loginName
+	 * @param sessionId
+	 * @param characterPackages
+	 */
+	public CharSelectionInfo(String loginName, int sessionId, List<CharSelectInfoPackage> characterPackages)
+	{
+		_sessionId = sessionId;
+		_loginName = loginName;
+		_characterPackages = characterPackages;
+		_activeId = -1;
+	}
+	
 	public List<CharSelectInfoPackage> getCharInfo()
 	{
 		return _characterPackages;
@@ -190,24 +207,45 @@ public class CharSelectionInfo extends L2GameServerPacket
 		}
 	}
 	
-	private static List<CharSelectInfoPackage> loadCharacterSelectInfo(String loginName)
+	/**
+	 * Loads the characters of an account in a fixed number of queries, whatever their number.
+	 * @param loginName the account name
+	 * @return the characters of the account
+	 */
+	public static List<CharSelectInfoPackage> loadCharacterSelectInfo(String loginName)
 	{
 		final List<CharSelectInfoPackage> characterList = new ArrayList<>();
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement statement = con.prepareStatement("SELECT * FROM characters WHERE account_name=? ORDER BY createDate"))
+		try (Connection con = ConnectionFactory.getInstance().getConnection())
 		{
-			statement.setString(1, loginName);
-			try (ResultSet charList = statement.executeQuery())
+			final Map<Integer, int[][]> paperdolls = PcInventory.restoreVisibleInventories(con, loginName);
+			final Map<Integer, CharSelectInfoPackage> subclassChars = new HashMap<>();
+			try (PreparedStatement statement = con.prepareStatement("SELECT * FROM characters WHERE account_name=? ORDER BY createDate"))
 			{
-				while (charList.next())// fills the package
+				statement.setString(1, loginName);
+				try (ResultSet charList = statement.executeQuery())
 				{
-					CharSelectInfoPackage charInfopackage = restoreChar(charList);
-					if (charInfopackage != null)
+					while (charList.next())// fills the package
 					{
-						characterList.add(charInfopackage);
+						CharSelectInfoPackage charInfopackage = restoreChar(charList, paperdolls);
+						if (charInfopackage != null)
+						{
+							characterList.add(charInfopackage);
+							
+							// if is in subclass, load subclass exp, sp, lvl info
+							if (charList.getInt("base_class") != charInfopackage.getClassId())
+							{
+								subclassChars.put(charInfopackage.getObjectId(), charInfopackage);
+							}
+						}
 					}
 				}
 			}
+			
+			if (!subclassChars.isEmpty())
+			{
+				loadCharacterSubclassInfo(con, loginName, subclassChars);
+			}
+			loadWeaponAugmentationInfo(con, loginName, characterList);
 		}
 		catch (Exception e)
 		{
@@ -216,20 +254,22 @@ public class CharSelectionInfo extends L2GameServerPacket
 		return characterList;
 	}
 	
-	private static void loadCharacterSubclassInfo(CharSelectInfoPackage charInfopackage, int ObjectId, int activeClassId)
+	private static void loadCharacterSubclassInfo(Connection con, String loginName, Map<Integer, CharSelectInfoPackage> subclassChars)
 	{
-		try (Connection con = ConnectionFactory.getInstance().getConnection();
-			PreparedStatement statement = con.prepareStatement("SELECT exp, sp, level FROM character_subclasses WHERE charId=? && class_id=? ORDER BY charId"))
+		try (PreparedStatement statement = con.prepareStatement("SELECT cs.charId, cs.exp, cs.sp, cs.level FROM character_subclasses cs INNER JOIN characters c ON c.charId = cs.charId AND c.classid = cs.class_id WHERE c.account_name=?"))
 		{
-			statement.setInt(1, ObjectId);
-			statement.setInt(2, activeClassId);
+			statement.setString(1, loginName);
 			try (ResultSet charList = statement.executeQuery())
 			{
-				if (charList.next())
+				while (charList.next())
 				{
-					charInfopackage.setExp(charList.getLong("exp"));
-					charInfopackage.setSp(charList.getInt("sp"));
-					charInfopackage.setLevel(charList.getInt("level"));
+					final CharSelectInfoPackage charInfopackage = subclassChars.get(charList.getInt("charId"));
+					if (charInfopackage != null)
+					{
+						charInfopackage.setExp(charList.getLong("exp"));
+						charInfopackage.setSp(charList.getInt("sp"));
+						charInfopackage.setLevel(charList.getInt("level"));
+					}
 				}
 			}
 		}
@@ -239,7 +279,47 @@ public class CharSelectionInfo extends L2GameServerPacket
 		}
 	}
 	
-	private static CharSelectInfoPackage restoreChar(ResultSet chardata) throws Exception
+	private static void loadWeaponAugmentationInfo(Connection con, String loginName, List<CharSelectInfoPackage> characterList)
+	{
+		// Get the augmentation id for equipped weapon
+		final Map<Integer, CharSelectInfoPackage> weaponChars = new HashMap<>();
+		for (CharSelectInfoPackage charInfopackage : characterList)
+		{
+			final int weaponObjId = charInfopackage.getPaperdollObjectId(Inventory.PAPERDOLL_RHAND);
+			if (weaponObjId > 0)
+			{
+				weaponChars.put(weaponObjId, charInfopackage);
+			}
+		}
+		if (weaponChars.isEmpty())
+		{
+			return;
+		}
+		
+		try (PreparedStatement statement = con.prepareStatement("SELECT ia.itemId, ia.augAttributes FROM item_attributes ia INNER JOIN items i ON i.object_id = ia.itemId INNER JOIN characters c ON c.charId = i.owner_id WHERE c.account_name=? AND i.loc='PAPERDOLL' AND i.loc_data=?"))
+		{
+			statement.setString(1, loginName);
+			statement.setInt(2, Inventory.PAPERDOLL_RHAND);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+				{
+					final CharSelectInfoPackage charInfopackage = weaponChars.get(result.getInt("itemId"));
+					if (charInfopackage != null)
+					{
+						int augment = result.getInt("augAttributes");
+						charInfopackage.setAugmentationId(augment == -1 ? 0 : augment);
+					}
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "Could not restore augmentation info: " + e.getMessage(), e);
+		}
+	}
+	
+	private static CharSelectInfoPackage restoreChar(ResultSet chardata, Map<Integer, int[][]> paperdolls) throws Exception
 	{
 		int objectId = chardata.getInt("charId");
 		String name = chardata.getString("char_name");
@@ -261,7 +341,8 @@ public class CharSelectionInfo extends L2GameServerPacket
 			}
 		}
 		
-		CharSelectInfoPackage charInfopackage = new CharSelectInfoPackage(objectId, name);
+		final int[][] paperdoll = paperdolls.get(objectId);
+		CharSelectInfoPackage charInfopackage = new CharSelectInfoPackage(objectId, name, paperdoll != null ? paperdoll : new int[31][3]);
 		charInfopackage.setAccessLevel(chardata.getInt("accesslevel"));
 		charInfopackage.setLevel(chardata.getInt("level"));
 		charInfopackage.setMaxHp(chardata.getInt("maxhp"));
@@ -300,42 +381,8 @@ public class CharSelectionInfo extends L2GameServerPacket
 			charInfopackage.setHtmlPrefix("data/lang/" + lang + "/");
 		}
 		
-		// if is in subclass, load subclass exp, sp, lvl info
-		if (baseClassId != activeClassId)
-		{
-			loadCharacterSubclassInfo(charInfopackage, objectId, activeClassId);
-		}
-		
 		charInfopackage.setClassId(activeClassId);
 		
-		// Get the augmentation id for equipped weapon
-		int weaponObjId = charInfopackage.getPaperdollObjectId(Inventory.PAPERDOLL_RHAND);
-		if (weaponObjId < 1)
-		{
-			weaponObjId = charInfopackage.getPaperdollObjectId(Inventory.PAPERDOLL_RHAND);
-		}
-		
-		if (weaponObjId > 0)
-		{
-			try (Connection con = ConnectionFactory.getInstance().getConnection();
-				PreparedStatement statement = con.prepareStatement("SELECT augAttributes FROM item_attributes WHERE itemId=?"))
-			{
-				statement.setInt(1, weaponObjId);
-				try (ResultSet result = statement.executeQuery())
-				{
-					if (result.next())
-					{
-						int augment = result.getInt("augAttributes");
-						charInfopackage.setAugmentationId(augment == -1 ? 0 : augment);
-					}
-				}
-			}
-			catch (Exception e)
-			{
-				_log.log(Level.WARNING, "Could not restore augmentation info: " + e.getMessage(), e);
-			}
-		}
-		
 		// Check if the base class is set to zero and also doesn't match with the current active class, otherwise send the base class ID. This prevents chars created before base class was introduced from being displayed incorrectly.
 		if ((baseClassId == 0) && (activeClassId > 0))
 		{
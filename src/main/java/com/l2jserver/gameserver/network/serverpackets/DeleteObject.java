@@ -20,7 +20,7 @@ package com.l2jserver.gameserver.network.serverpackets;
 
 import com.l2jserver.gameserver.model.L2Object;
 
-public final class DeleteObject extends L2GameServerPacket
+public final class DeleteObject extends AbstractBroadcastPacket
 {
 	private final int _objectId;
 	
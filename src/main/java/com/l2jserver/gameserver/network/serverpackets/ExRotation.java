@@ -21,7 +21,7 @@ package com.l2jserver.gameserver.network.serverpackets;
 /**
  * @author JIV
  */
-public class ExRotation extends L2GameServerPacket
+public class ExRotation extends AbstractBroadcastPacket
 {
 	private final int _charId, _heading;
 	
@@ -24,7 +24,7 @@ import com.l2jserver.gameserver.model.interfaces.ILocational;
 /**
  * @author KenM
  */
-public final class FlyToLocation extends L2GameServerPacket
+public final class FlyToLocation extends AbstractBroadcastPacket
 {
 	private final int _destX, _destY, _destZ;
 	private final int _chaObjId, _chaX, _chaY, _chaZ;
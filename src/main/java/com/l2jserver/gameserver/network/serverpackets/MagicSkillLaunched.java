@@ -28,7 +28,7 @@ import com.l2jserver.gameserver.model.actor.L2Character;
  * MagicSkillLaunched server packet implementation.
  * @author UnAfraid
  */
-public class MagicSkillLaunched extends L2GameServerPacket
+public class MagicSkillLaunched extends AbstractBroadcastPacket
 {
 	private final int _charObjId;
 	private final int _skillId;
@@ -30,7 +30,7 @@ import com.l2jserver.gameserver.model.interfaces.IPositionable;
  * MagicSkillUse server packet implementation.
  * @author UnAfraid, NosBit
  */
-public final class MagicSkillUse extends L2GameServerPacket
+public final class MagicSkillUse extends AbstractBroadcastPacket
 {
 	private final int _skillId;
 	private final int _skillLevel;
@@ -20,7 +20,7 @@ package com.l2jserver.gameserver.network.serverpackets;
 
 import com.l2jserver.gameserver.model.actor.L2Character;
 
-public final class MoveToLocation extends L2GameServerPacket
+public final class MoveToLocation extends AbstractBroadcastPacket
 {
 	private final int _charObjId, _x, _y, _z, _xDst, _yDst, _zDst;
 	
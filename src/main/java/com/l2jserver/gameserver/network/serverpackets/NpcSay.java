@@ -27,7 +27,7 @@ import com.l2jserver.gameserver.network.NpcStringId;
 /**
  * @author Kerberos
  */
-public final class NpcSay extends L2GameServerPacket
+public final class NpcSay extends AbstractBroadcastPacket
 {
 	private final int _objectId;
 	private final int _textType;
@@ -18,7 +18,7 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
-public final class StartRotation extends L2GameServerPacket
+public final class StartRotation extends AbstractBroadcastPacket
 {
 	private final int _charObjId, _degree, _side, _speed;
 	
@@ -22,7 +22,7 @@ import java.util.ArrayList;
 
 import com.l2jserver.gameserver.model.L2Object;
 
-public final class StatusUpdate extends L2GameServerPacket
+public final class StatusUpdate extends AbstractBroadcastPacket
 {
 	public static final int LEVEL = 0x01;
 	public static final int EXP = 0x02;
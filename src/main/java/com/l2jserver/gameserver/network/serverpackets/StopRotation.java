@@ -18,7 +18,7 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
-public class StopRotation extends L2GameServerPacket
+public class StopRotation extends AbstractBroadcastPacket
 {
 	private final int _charObjId, _degree, _speed;
 	
@@ -18,7 +18,7 @@
  */
 package com.l2jserver.gameserver.network.serverpackets;
 
-public final class TargetSelected extends L2GameServerPacket
+public final class TargetSelected extends AbstractBroadcastPacket
 {
 	private final int _objectId;
 	private final int _targetObjId;
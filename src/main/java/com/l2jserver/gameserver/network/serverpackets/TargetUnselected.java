@@ -20,7 +20,7 @@ package com.l2jserver.gameserver.network.serverpackets;
 
 import com.l2jserver.gameserver.model.actor.L2Character;
 
-public class TargetUnselected extends L2GameServerPacket
+public class TargetUnselected extends AbstractBroadcastPacket
 {
 	private final int _targetObjId;
 	private final int _x;
@@ -21,7 +21,7 @@ package com.l2jserver.gameserver.network.serverpackets;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.Location;
 
-public class ValidateLocation extends L2GameServerPacket
+public class ValidateLocation extends AbstractBroadcastPacket
 {
 	private final int _charObjId;
 	private final Location _loc;
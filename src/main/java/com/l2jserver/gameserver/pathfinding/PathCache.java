@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.pathfinding;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cache of recently computed paths.<br>
+ * Paths are keyed by the instance, the kind of searcher and both endpoints, quantized to geodata cells and to {@link #Z_STEP} units of height, so characters leaving the same cell for the same destination share them.<br>
+ * The table is direct mapped and bounded: a new path replaces whatever was stored at its slot. Paths expire after a short time to live, and all of them are dropped when the door state version changes.<br>
+ * Searches which found no path are cached as well, they are the most expensive ones.
+ */
+public final class PathCache
+{
+	/** Height quantization of the endpoints, the height of a geodata layer step. */
+	public static final int Z_STEP = 16;
+	
+	/** Cached result of a search which found no path. */
+	public static final List<AbstractNodeLoc> NO_PATH = Collections.emptyList();
+	
+	private static final class Entry
+	{
+		protected final long _from;
+		protected final long _to;
+		protected final int _instanceId;
+		protected final boolean _playable;
+		protected final long _expireTime;
+		protected final int _doorVersion;
+		protected final List<AbstractNodeLoc> _path;
+		
+		protected Entry(long from, long to, int instanceId, boolean playable, long expireTime, int doorVersion, List<AbstractNodeLoc> path)
+		{
+			_from = from;
+			_to = to;
+			_instanceId = instanceId;
+			_playable = playable;
+			_expireTime = expireTime;
+			_doorVersion = doorVersion;
+			_path = path;
+		}
+	}
+	
+	private final Entry[] _table;
+	private final int _mask;
+	private final long _ttl;
+	
+	/**
+	 * @param size the number of slots, rounded up to a power of two
+	 * @param ttl the time to live of the paths, in milliseconds
+	 */
+	public PathCache(int size, long ttl)
+	{
+		final int slots = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+		_table = new Entry[slots];
+		_mask = slots - 1;
+		_ttl = ttl;
+	}
+	
+	/**
+	 * @param geoX the geodata x of the endpoint
+	 * @param geoY the geodata y of the endpoint
+	 * @param z the world z of the endpoint
+	 * @return the key of the endpoint
+	 */
+	public static long key(int geoX, int geoY, int z)
+	{
+		return ((long) (geoX & 0xFFFF) << 32) | ((long) (geoY & 0xFFFF) << 16) | (Math.floorDiv(z, Z_STEP) & 0xFFFF);
+	}
+	
+	private int index(long from, long to, int instanceId, boolean playable)
+	{
+		long h = (from * 0x9E3779B97F4A7C15L) ^ (to * 0xC2B2AE3D27D4EB4FL) ^ ((instanceId * 2L) + (playable ? 1 : 0));
+		h ^= h >>> 31;
+		return (int) h & _mask;
+	}
+	
+	/**
+	 * @param from the key of the start
+	 * @param to the key of the destination
+	 * @param instanceId the instance id
+	 * @param playable if the searcher is playable
+	 * @param doorVersion the current door state version
+	 * @return the cached path, {@link #NO_PATH} if the search found none, {@code null} if nothing valid is cached
+	 */
+	public List<AbstractNodeLoc> get(long from, long to, int instanceId, boolean playable, int doorVersion)
+	{
+		final Entry entry = _table[index(from, to, instanceId, playable)];
+		if ((entry == null) || (entry._from != from) || (entry._to != to) || (entry._instanceId != instanceId) || (entry._playable != playable))
+		{
+			return null;
+		}
+		if ((entry._doorVersion != doorVersion) || (entry._expireTime < System.currentTimeMillis()))
+		{
+			return null;
+		}
+		return entry._path;
+	}
+	
+	/**
+	 * Stores a path, replacing the one at its slot.
+	 * @param from the key of the start
+	 * @param to the key of the destination
+	 * @param instanceId the instance id
+	 * @param playable if the searcher is playable
+	 * @param doorVersion the door state version the path was computed with
+	 * @param path the path, {@link #NO_PATH} if none was found
+	 */
+	public void put(long from, long to, int instanceId, boolean playable, int doorVersion, List<AbstractNodeLoc> path)
+	{
+		_table[index(from, to, instanceId, playable)] = new Entry(from, to, instanceId, playable, System.currentTimeMillis() + _ttl, doorVersion, path);
+	}
+	
+	public int size()
+	{
+		return _table.length;
+	}
+	
+	public long getTtl()
+	{
+		return _ttl;
+	}
+}
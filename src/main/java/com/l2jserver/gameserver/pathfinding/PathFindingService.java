@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.l2jserver.Config;
+import com.l2jserver.gameserver.GeoData;
+import com.l2jserver.gameserver.data.xml.impl.DoorData;
+
+/**
+ * Path finding service.<br>
+ * Front of {@link PathFinding} used by characters and AI: searches go through a cache of recent paths, and can be run by a dedicated worker pool, the caller being notified through a {@link CompletableFuture}.<br>
+ * Also keeps the search statistics: queue wait, search time, found paths and cache hits.
+ */
+public final class PathFindingService
+{
+	private static final Logger LOG = LoggerFactory.getLogger(PathFindingService.class);
+	
+	private final ThreadPoolExecutor _executor;
+	private final PathCache _cache;
+	
+	private final LongAdder _searches = new LongAdder();
+	private final LongAdder _found = new LongAdder();
+	private final LongAdder _notFound = new LongAdder();
+	private final LongAdder _cacheHits = new LongAdder();
+	private final LongAdder _cacheMisses = new LongAdder();
+	private final LongAdder _searchTime = new LongAdder();
+	private final LongAccumulator _maxSearchTime = new LongAccumulator(Math::max, 0);
+	private final LongAdder _queued = new LongAdder();
+	private final LongAdder _queueWait = new LongAdder();
+	private final LongAccumulator _maxQueueWait = new LongAccumulator(Math::max, 0);
+	
+	protected PathFindingService()
+	{
+		if (Config.PATHFIND_ASYNC)
+		{
+			final AtomicInteger threadNumber = new AtomicInteger(1);
+			_executor = new ThreadPoolExecutor(Config.PATHFIND_THREADS, Config.PATHFIND_THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r ->
+			{
+				final Thread thread = new Thread(r, "PathFinding-" + threadNumber.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+			LOG.info("{}: Started {} path finding threads.", getClass().getSimpleName(), Config.PATHFIND_THREADS);
+		}
+		else
+		{
+			_executor = null;
+		}
+		_cache = Config.PATH_CACHE ? new PathCache(Config.PATH_CACHE_SIZE, Config.PATH_CACHE_TTL) : null;
+	}
+	
+	/**
+	 * @return {@code true} if searches are run by the worker pool
+	 */
+	public boolean isAsync()
+	{
+		return _executor != null;
+	}
+	
+	/**
+	 * Finds a path on the calling thread.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param z the z coordinate
+	 * @param tx the target's x coordinate
+	 * @param ty the target's y coordinate
+	 * @param tz the target's z coordinate
+	 * @param instanceId the instance id
+	 * @param playable if the searcher is playable
+	 * @return the path, {@code null} if there is none
+	 */
+	public List<AbstractNodeLoc> findPath(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable)
+	{
+		final List<AbstractNodeLoc> cached = getCachedPath(x, y, z, tx, ty, tz, instanceId, playable);
+		if (cached != null)
+		{
+			return cached != PathCache.NO_PATH ? cached : null;
+		}
+		return search(x, y, z, tx, ty, tz, instanceId, playable);
+	}
+	
+	/**
+	 * Finds a path on the worker pool.<br>
+	 * The future is already completed when the path is cached or when the service is not asynchronous.
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param z the z coordinate
+	 * @param tx the target's x coordinate
+	 * @param ty the target's y coordinate
+	 * @param tz the target's z coordinate
+	 * @param instanceId the instance id
+	 * @param playable if the searcher is playable
+	 * @return the future path, completed with {@code null} if there is none
+	 */
+	public CompletableFuture<List<AbstractNodeLoc>> findPathAsync(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable)
+	{
+		final List<AbstractNodeLoc> cached = getCachedPath(x, y, z, tx, ty, tz, instanceId, playable);
+		if (cached != null)
+		{
+			return CompletableFuture.completedFuture(cached != PathCache.NO_PATH ? cached : null);
+		}
+		if (_executor == null)
+		{
+			return CompletableFuture.completedFuture(search(x, y, z, tx, ty, tz, instanceId, playable));
+		}
+		
+		final CompletableFuture<List<AbstractNodeLoc>> future = new CompletableFuture<>();
+		final long queuedTime = System.nanoTime();
+		try
+		{
+			_executor.execute(() ->
+			{
+				final long wait = System.nanoTime() - queuedTime;
+				_queued.increment();
+				_queueWait.add(wait);
+				_maxQueueWait.accumulate(wait);
+				try
+				{
+					future.complete(search(x, y, z, tx, ty, tz, instanceId, playable));
+				}
+				catch (Exception e)
+				{
+					LOG.warn("{}: Path search failed!", getClass().getSimpleName(), e);
+					future.complete(null);
+				}
+			});
+		}
+		catch (RejectedExecutionException e)
+		{
+			future.complete(null);
+		}
+		return future;
+	}
+	
+	private List<AbstractNodeLoc> getCachedPath(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable)
+	{
+		if (_cache == null)
+		{
+			return null;
+		}
+		
+		final GeoData geoData = GeoData.getInstance();
+		final List<AbstractNodeLoc> path = _cache.get(PathCache.key(geoData.getGeoX(x), geoData.getGeoY(y), z), PathCache.key(geoData.getGeoX(tx), geoData.getGeoY(ty), tz), instanceId, playable, DoorData.getInstance().getStateVersion());
+		if (path != null)
+		{
+			_cacheHits.increment();
+		}
+		else
+		{
+			_cacheMisses.increment();
+		}
+		return path;
+	}
+	
+	private List<AbstractNodeLoc> search(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean playable)
+	{
+		// Read before searching, so a door changing meanwhile leaves a path which is already stale.
+		final int doorVersion = DoorData.getInstance().getStateVersion();
+		final long start = System.nanoTime();
+		List<AbstractNodeLoc> path = PathFinding.getInstance().findPath(x, y, z, tx, ty, tz, instanceId, playable);
+		final long time = System.nanoTime() - start;
+		_searches.increment();
+		_searchTime.add(time);
+		_maxSearchTime.accumulate(time);
+		
+		if (path != null)
+		{
+			_found.increment();
+			// Paths are shared through the cache, nobody may change them.
+			path = Collections.unmodifiableList(path);
+		}
+		else
+		{
+			_notFound.increment();
+		}
+		
+		if (_cache != null)
+		{
+			final GeoData geoData = GeoData.getInstance();
+			_cache.put(PathCache.key(geoData.getGeoX(x), geoData.getGeoY(y), z), PathCache.key(geoData.getGeoX(tx), geoData.getGeoY(ty), tz), instanceId, playable, doorVersion, path != null ? path : PathCache.NO_PATH);
+		}
+		return path;
+	}
+	
+	public String[] getStats()
+	{
+		final long searches = _searches.sum();
+		final long queued = _queued.sum();
+		final long hits = _cacheHits.sum();
+		final long lookups = hits + _cacheMisses.sum();
+		final List<String> stats = new ArrayList<>();
+		stats.add("Path Finding:");
+		stats.add(" |- Async:         " + (_executor != null ? Config.PATHFIND_THREADS + " threads, " + _executor.getQueue().size() + " queued" : "false"));
+		stats.add(" |- Searches:      " + searches);
+		stats.add(" |- Found:         " + _found.sum());
+		stats.add(" |- NotFound:      " + _notFound.sum());
+		stats.add(" |- AvgSearchTime: " + (searches > 0 ? String.format("%.2f", (_searchTime.sum() / 1e6) / searches) : "0") + "ms");
+		stats.add(" |- MaxSearchTime: " + String.format("%.2f", _maxSearchTime.get() / 1e6) + "ms");
+		stats.add(" |- AvgQueueWait:  " + (queued > 0 ? String.format("%.2f", (_queueWait.sum() / 1e6) / queued) : "0") + "ms");
+		stats.add(" |- MaxQueueWait:  " + String.format("%.2f", _maxQueueWait.get() / 1e6) + "ms");
+		stats.add(" |- Cache:         " + (_cache != null ? _cache.size() + " slots, " + _cache.getTtl() + "ms TTL" : "false"));
+		stats.add(" |- CacheHits:     " + hits + "/" + lookups + (lookups > 0 ? String.format(" (%.2f%%)", (hits * 100.0) / lookups) : ""));
+		final String[] finderStats = PathFinding.getInstance().getStat();
+		if (finderStats != null)
+		{
+			stats.addAll(Arrays.asList(finderStats));
+		}
+		return stats.toArray(new String[stats.size()]);
+	}
+	
+	public static PathFindingService getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final PathFindingService _instance = new PathFindingService();
+	}
+}
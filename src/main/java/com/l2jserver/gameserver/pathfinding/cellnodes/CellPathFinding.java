@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,8 +43,8 @@ public class CellPathFinding extends PathFinding
 {
 	private static final Logger _log = Logger.getLogger(CellPathFinding.class.getName());
 	private BufferInfo[] _allBuffers;
-	private int _findSuccess = 0;
-	private int _findFails = 0;
+	private final LongAdder _tempBuffers = new LongAdder();
+	private final LongAdder _noBuffers = new LongAdder();
 	private int _postFilterUses = 0;
 	private int _postFilterPlayableUses = 0;
 	private int _postFilterPasses = 0;
@@ -111,6 +112,7 @@ public class CellPathFinding extends PathFinding
 		CellNodeBuffer buffer = alloc(64 + (2 * Math.max(Math.abs(gx - gtx), Math.abs(gy - gty))), playable);
 		if (buffer == null)
 		{
+			_noBuffers.increment();
 			return null;
 		}
 		
@@ -156,7 +158,6 @@ public class CellPathFinding extends PathFinding
 			
 			if (result == null)
 			{
-				_findFails++;
 				return null;
 			}
 			
@@ -174,7 +175,6 @@ public class CellPathFinding extends PathFinding
 		
 		if ((path.size() < 3) || (Config.MAX_POSTFILTER_PASSES <= 0))
 		{
-			_findSuccess++;
 			return path;
 		}
 		
@@ -230,7 +230,6 @@ public class CellPathFinding extends PathFinding
 			path.forEach(n -> dropDebugItem(65, 1, n));
 		}
 		
-		_findSuccess++;
 		_postFilterElapsed += System.currentTimeMillis() - timeStamp;
 		return path;
 	}
@@ -321,6 +320,7 @@ public class CellPathFinding extends PathFinding
 				}
 				
 				i.overflows++;
+				_tempBuffers.increment();
 				if (playable)
 				{
 					i.playableOverflows++;
@@ -389,7 +389,7 @@ public class CellPathFinding extends PathFinding
 		{
 			StringUtil.append(stat, " total/avg(ms):", String.valueOf(_postFilterElapsed), "/", String.format("%1.2f", (double) _postFilterElapsed / _postFilterUses), " passes total/avg:", String.valueOf(_postFilterPasses), "/", String.format("%1.1f", (double) _postFilterPasses / _postFilterUses), Config.EOL);
 		}
-		StringUtil.append(stat, "Pathfind success/fail:", String.valueOf(_findSuccess), "/", String.valueOf(_findFails));
+		StringUtil.append(stat, "Buffer exhaustion temporary/none:", String.valueOf(_tempBuffers.sum()), "/", String.valueOf(_noBuffers.sum()));
 		result[result.length - 1] = stat.toString();
 		
 		return result;
@@ -0,0 +1,445 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
+import com.l2jserver.gameserver.model.items.instance.L2ItemInstance;
+
+/**
+ * Write-behind item update.<br>
+ * Items to update are queued by object id, so repeated changes of the same item are merged and written once.<br>
+ * The queue is written in JDBC batches by a dedicated thread, every {@link Config#ITEMS_WRITE_BEHIND_INTERVAL} milliseconds or as soon as it holds {@link Config#ITEMS_WRITE_BEHIND_BATCH_SIZE} items.<br>
+ * The change of each item (insert, update or delete) is decided when it is written, from the state of the item at that time.<br>
+ * An item whose row still fails after {@link #MAX_WRITE_ATTEMPTS} tries is dropped from the queue until it changes again.
+ */
+public final class ItemUpdateTaskManager implements Runnable
+{
+	private static final Logger _log = Logger.getLogger(ItemUpdateTaskManager.class.getName());
+	
+	private static final String DELETE_ITEM = "DELETE FROM items WHERE object_id = ?";
+	private static final String DELETE_ITEM_ATTRIBUTES = "DELETE FROM item_attributes WHERE itemId = ?";
+	private static final String DELETE_ITEM_ELEMENTALS = "DELETE FROM item_elementals WHERE itemId = ?";
+	
+	private static final int MAX_WRITE_ATTEMPTS = 5;
+	
+	/**
+	 * Database change of an item.
+	 */
+	public enum Change
+	{
+		NONE,
+		INSERT,
+		UPDATE,
+		DELETE
+	}
+	
+	private interface Binder
+	{
+		void bind(PreparedStatement ps, L2ItemInstance item) throws SQLException;
+	}
+	
+	private final Map<Integer, L2ItemInstance> _pending = new ConcurrentHashMap<>();
+	private final Map<Integer, Integer> _failures = new HashMap<>();
+	private final ReentrantLock _flushLock = new ReentrantLock();
+	private final Thread _thread;
+	
+	private final LongAdder _queued = new LongAdder();
+	private final LongAdder _merged = new LongAdder();
+	private long _flushes;
+	private long _inserted;
+	private long _updated;
+	private long _deleted;
+	private long _failed;
+	private long _dropped;
+	private long _lastFlushTime;
+	private long _maxFlushTime;
+	private long _totalFlushTime;
+	private int _maxDepth;
+	
+	protected ItemUpdateTaskManager()
+	{
+		if (Config.ITEMS_WRITE_BEHIND)
+		{
+			_thread = new Thread(this, "ItemUpdateTaskManager");
+			_thread.setDaemon(true);
+			_thread.start();
+			_log.info(getClass().getSimpleName() + ": Write-behind item update started, interval " + Config.ITEMS_WRITE_BEHIND_INTERVAL + "ms, batch size " + Config.ITEMS_WRITE_BEHIND_BATCH_SIZE + ".");
+		}
+		else
+		{
+			_thread = null;
+		}
+	}
+	
+	/**
+	 * Queues the specified item to be written to the database.
+	 * @param item the item
+	 */
+	public void add(L2ItemInstance item)
+	{
+		_queued.increment();
+		if (_pending.put(item.getObjectId(), item) != null)
+		{
+			_merged.increment();
+		}
+		else if ((_thread != null) && (_pending.size() >= Config.ITEMS_WRITE_BEHIND_BATCH_SIZE))
+		{
+			LockSupport.unpark(_thread);
+		}
+	}
+	
+	/**
+	 * @return the number of items waiting to be written
+	 */
+	public int getQueueDepth()
+	{
+		return _pending.size();
+	}
+	
+	@Override
+	public void run()
+	{
+		while (true)
+		{
+			if (_pending.size() < Config.ITEMS_WRITE_BEHIND_BATCH_SIZE)
+			{
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Config.ITEMS_WRITE_BEHIND_INTERVAL));
+			}
+			
+			try
+			{
+				flush();
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.SEVERE, getClass().getSimpleName() + ": Error while writing items: " + e.getMessage(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Writes all queued items to the database, blocking until done.<br>
+	 * Called on server shutdown.
+	 */
+	public void flush()
+	{
+		_flushLock.lock();
+		try
+		{
+			if (_pending.isEmpty())
+			{
+				return;
+			}
+			
+			// Items are removed from the queue before their change is claimed, so a change made meanwhile queues them again.
+			final List<L2ItemInstance> items = new ArrayList<>(_pending.size());
+			for (Iterator<L2ItemInstance> it = _pending.values().iterator(); it.hasNext();)
+			{
+				items.add(it.next());
+				it.remove();
+			}
+			_maxDepth = Math.max(_maxDepth, items.size());
+			write(items);
+		}
+		finally
+		{
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes the queued items of the specified owner to the database, blocking until done.<br>
+	 * Called when a character leaves the world, so it is loaded again with its items while the rest of the queue is left to the writer thread.
+	 * @param ownerId the object id of the owner
+	 */
+	public void flush(int ownerId)
+	{
+		_flushLock.lock();
+		try
+		{
+			final List<L2ItemInstance> items = new ArrayList<>();
+			for (Iterator<L2ItemInstance> it = _pending.values().iterator(); it.hasNext();)
+			{
+				final L2ItemInstance item = it.next();
+				if (item.getOwnerId() == ownerId)
+				{
+					items.add(item);
+					it.remove();
+				}
+			}
+			if (!items.isEmpty())
+			{
+				write(items);
+			}
+		}
+		finally
+		{
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Claims the change of the specified items and writes them, the flush lock being held.
+	 */
+	private void write(List<L2ItemInstance> items)
+	{
+		final long start = System.nanoTime();
+		
+		final List<L2ItemInstance> inserts = new ArrayList<>();
+		final List<L2ItemInstance> updates = new ArrayList<>();
+		final List<L2ItemInstance> deletes = new ArrayList<>();
+		for (L2ItemInstance item : items)
+		{
+			switch (item.claimDbChange())
+			{
+				case INSERT:
+					inserts.add(item);
+					break;
+				case UPDATE:
+					updates.add(item);
+					break;
+				case DELETE:
+					deletes.add(item);
+					break;
+				default:
+					break;
+			}
+		}
+		
+		// The attributes of an item only follow its own row, items whose row could not be written are left as they are.
+		final List<L2ItemInstance> deleted = new ArrayList<>(deletes.size());
+		final List<L2ItemInstance> inserted = new ArrayList<>(inserts.size());
+		final List<L2ItemInstance> updated = new ArrayList<>(updates.size());
+		try (Connection con = ConnectionFactory.getInstance().getConnection())
+		{
+			write(con, DELETE_ITEM, deletes, Change.DELETE, ItemUpdateTaskManager::bindObjectId, deleted);
+			write(con, DELETE_ITEM_ATTRIBUTES, deleted, Change.NONE, ItemUpdateTaskManager::bindObjectId, null);
+			write(con, DELETE_ITEM_ELEMENTALS, deleted, Change.NONE, ItemUpdateTaskManager::bindObjectId, null);
+			write(con, L2ItemInstance.INSERT_QUERY, inserts, Change.INSERT, (ps, item) -> item.setInsertParameters(ps), inserted);
+			for (L2ItemInstance item : inserted)
+			{
+				item.storeAttributes(con);
+			}
+			write(con, L2ItemInstance.UPDATE_QUERY, updates, Change.UPDATE, (ps, item) -> item.setUpdateParameters(ps), updated);
+		}
+		catch (SQLException e)
+		{
+			// Connection lost, give back the claimed changes which were not written and queue their items again.
+			_log.log(Level.SEVERE, getClass().getSimpleName() + ": Could not write " + items.size() + " items: " + e.getMessage(), e);
+			requeue(unwritten(deletes, deleted), Change.DELETE);
+			requeue(unwritten(inserts, inserted), Change.INSERT);
+			requeue(unwritten(updates, updated), Change.UPDATE);
+		}
+		_deleted += deleted.size();
+		_inserted += inserted.size();
+		_updated += updated.size();
+		
+		final long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		_flushes++;
+		_lastFlushTime = time;
+		_maxFlushTime = Math.max(_maxFlushTime, time);
+		_totalFlushTime += time;
+	}
+	
+	/**
+	 * Writes the specified items in batches.<br>
+	 * If a batch fails it is rolled back and its items are written one by one, the claimed change of the items which still fail being given back and the items queued again for another try, up to {@link #MAX_WRITE_ATTEMPTS} tries.
+	 * @param written the list the written items are added to, {@code null} if not needed
+	 */
+	private void write(Connection con, String sql, List<L2ItemInstance> items, Change change, Binder binder, List<L2ItemInstance> written) throws SQLException
+	{
+		if (items.isEmpty())
+		{
+			return;
+		}
+		
+		final boolean autoCommit = con.getAutoCommit();
+		try (PreparedStatement ps = con.prepareStatement(sql))
+		{
+			con.setAutoCommit(false);
+			for (int from = 0; from < items.size(); from += Config.ITEMS_WRITE_BEHIND_BATCH_SIZE)
+			{
+				final List<L2ItemInstance> batch = items.subList(from, Math.min(from + Config.ITEMS_WRITE_BEHIND_BATCH_SIZE, items.size()));
+				try
+				{
+					for (L2ItemInstance item : batch)
+					{
+						binder.bind(ps, item);
+						ps.addBatch();
+					}
+					ps.executeBatch();
+					con.commit();
+					if (!_failures.isEmpty())
+					{
+						for (L2ItemInstance item : batch)
+						{
+							_failures.remove(item.getObjectId());
+						}
+					}
+					if (written != null)
+					{
+						written.addAll(batch);
+					}
+					continue;
+				}
+				catch (SQLException e)
+				{
+					ps.clearBatch();
+					con.rollback();
+				}
+				
+				for (L2ItemInstance item : batch)
+				{
+					try
+					{
+						binder.bind(ps, item);
+						ps.executeUpdate();
+						con.commit();
+						_failures.remove(item.getObjectId());
+						if (written != null)
+						{
+							written.add(item);
+						}
+					}
+					catch (SQLException e)
+					{
+						con.rollback();
+						_failed++;
+						if (change == Change.NONE)
+						{
+							_log.log(Level.SEVERE, getClass().getSimpleName() + ": Could not write item " + item + ": " + e.getMessage(), e);
+							continue;
+						}
+						
+						final int attempts = _failures.merge(item.getObjectId(), 1, Integer::sum);
+						if (attempts < MAX_WRITE_ATTEMPTS)
+						{
+							_log.warning(getClass().getSimpleName() + ": Could not write item " + item + " (" + change + "), attempt " + attempts + " of " + MAX_WRITE_ATTEMPTS + ": " + e.getMessage());
+							requeue(Collections.singletonList(item), change);
+							continue;
+						}
+						
+						// Given up, the item is queued again only by its next change.
+						_failures.remove(item.getObjectId());
+						_dropped++;
+						_log.log(Level.SEVERE, getClass().getSimpleName() + ": Dropped item " + item + " (" + change + ") after " + attempts + " failed attempts: " + e.getMessage(), e);
+						item.unclaimDbChange(change);
+					}
+				}
+			}
+		}
+		finally
+		{
+			con.setAutoCommit(autoCommit);
+		}
+	}
+	
+	private static List<L2ItemInstance> unwritten(List<L2ItemInstance> items, List<L2ItemInstance> written)
+	{
+		if (written.isEmpty())
+		{
+			return items;
+		}
+		final Set<L2ItemInstance> done = Collections.newSetFromMap(new IdentityHashMap<>());
+		done.addAll(written);
+		final List<L2ItemInstance> unwritten = new ArrayList<>(items.size() - written.size());
+		for (L2ItemInstance item : items)
+		{
+			if (!done.contains(item))
+			{
+				unwritten.add(item);
+			}
+		}
+		return unwritten;
+	}
+	
+	private void requeue(List<L2ItemInstance> items, Change change)
+	{
+		for (L2ItemInstance item : items)
+		{
+			item.unclaimDbChange(change);
+			_pending.putIfAbsent(item.getObjectId(), item);
+		}
+	}
+	
+	private static void bindObjectId(PreparedStatement ps, L2ItemInstance item) throws SQLException
+	{
+		ps.setInt(1, item.getObjectId());
+	}
+	
+	public String[] getStats()
+	{
+		_flushLock.lock();
+		try
+		{
+			return new String[]
+			{
+				"Item Write-Behind:",
+				" |- Enabled:        " + Config.ITEMS_WRITE_BEHIND,
+				" |- QueueDepth:     " + _pending.size(),
+				" |- MaxQueueDepth:  " + _maxDepth,
+				" |- Queued:         " + _queued.sum(),
+				" |- Merged:         " + _merged.sum(),
+				" |- Inserted:       " + _inserted,
+				" |- Updated:        " + _updated,
+				" |- Deleted:        " + _deleted,
+				" |- Failed:         " + _failed,
+				" |- Dropped:        " + _dropped,
+				" |- Flushes:        " + _flushes,
+				" |- LastFlushTime:  " + _lastFlushTime + "ms",
+				" |- AvgFlushTime:   " + (_flushes > 0 ? (_totalFlushTime / _flushes) : 0) + "ms",
+				" |- MaxFlushTime:   " + _maxFlushTime + "ms",
+			};
+		}
+		finally
+		{
+			_flushLock.unlock();
+		}
+	}
+	
+	public static ItemUpdateTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final ItemUpdateTaskManager _instance = new ItemUpdateTaskManager();
+	}
+}
@@ -18,14 +18,23 @@
  */
 package com.l2jserver.gameserver.taskmanager;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.Config;
 import com.l2jserver.gameserver.ThreadPoolManager;
+import com.l2jserver.gameserver.model.InterestGrid;
 import com.l2jserver.gameserver.model.L2Object;
 import com.l2jserver.gameserver.model.L2World;
 import com.l2jserver.gameserver.model.L2WorldRegion;
@@ -45,8 +54,39 @@ public class KnownListUpdateTaskManager
 	
 	protected static final Set<L2WorldRegion> FAILED_REGIONS = ConcurrentHashMap.newKeySet(1);
 	
+	/** Pool of the parallel update, {@code null} when the regions are updated sequentially. */
+	private final ForkJoinPool _pool;
+	/** Remaining passes (forget and add) to do for a changed region. */
+	private int[][] _changePasses;
+	/** Regions to update on the running pass: changed regions and their neighbors. */
+	private boolean[][] _changedRegions;
+	
+	// Pass metrics
+	private long _passes;
+	private long _totalPassTime;
+	private long _maxPassTime;
+	private volatile long _lastPassTime;
+	private volatile long _lastRegionsVisited;
+	private volatile long _lastRegionsSkipped;
+	private volatile long _lastObjectsScanned;
+	
 	protected KnownListUpdateTaskManager()
 	{
+		if (Config.KNOWNLIST_PARALLEL_UPDATE)
+		{
+			final int threads = Config.KNOWNLIST_UPDATE_THREADS > 0 ? Config.KNOWNLIST_UPDATE_THREADS : Runtime.getRuntime().availableProcessors();
+			_pool = new ForkJoinPool(threads, pool ->
+			{
+				final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("KnownListUpdate-" + thread.getPoolIndex());
+				return thread;
+			}, null, false);
+			_log.info(getClass().getSimpleName() + ": Parallel update using " + threads + " threads, stripes of " + Math.max(1, Config.KNOWNLIST_STRIPE_WIDTH) + " regions.");
+		}
+		else
+		{
+			_pool = null;
+		}
 		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(new KnownListUpdate(), 1000, Config.KNOWNLIST_UPDATE_INTERVAL);
 	}
 	
@@ -61,51 +101,195 @@ public class KnownListUpdateTaskManager
 		{
 			try
 			{
-				boolean failed;
-				for (L2WorldRegion regions[] : L2World.getInstance().getWorldRegions())
+				final long start = System.nanoTime();
+				
+				// With the interest grid only the dirty objects (changed cell or moved far enough) are processed,
+				// the whole world is still walked on the two passes (forget and add) of a full update.
+				if (Config.INTEREST_GRID && (_fullUpdateTimer < (FULL_UPDATE_TIMER - 1)) && FAILED_REGIONS.isEmpty())
+				{
+					final int processed = InterestGrid.getInstance().updateDirtyObjects();
+					nextPass();
+					passDone(start, 0, 0, processed);
+					return;
+				}
+				
+				final boolean fullUpdate = _fullUpdateTimer == FULL_UPDATE_TIMER;
+				final LongAdder visited = new LongAdder();
+				final LongAdder skipped = new LongAdder();
+				final LongAdder scanned = new LongAdder();
+				final L2WorldRegion[][] regions = L2World.getInstance().getWorldRegions();
+				if (_pool != null)
 				{
-					for (L2WorldRegion r : regions) // go through all world regions
+					final boolean[][] changed = collectChangedRegions(regions);
+					final int stripeWidth = Math.max(1, Config.KNOWNLIST_STRIPE_WIDTH);
+					final int stripes = ((regions.length + stripeWidth) - 1) / stripeWidth;
+					
+					// Even stripes first, then odd ones: a stripe never runs next to another one.
+					for (int parity = 0; parity < 2; parity++)
 					{
-						// avoid stopping update if something went wrong in updateRegion()
-						try
+						final List<Callable<Void>> tasks = new ArrayList<>((stripes / 2) + 1);
+						for (int stripe = parity; stripe < stripes; stripe += 2)
 						{
-							failed = FAILED_REGIONS.contains(r); // failed on last pass
-							if (r.isActive()) // and check only if the region is active
+							final int from = stripe * stripeWidth;
+							final int to = Math.min(regions.length, from + stripeWidth);
+							tasks.add(() ->
 							{
-								updateRegion(r, ((_fullUpdateTimer == FULL_UPDATE_TIMER) || failed), updatePass);
-							}
-							if (failed)
-							{
-								FAILED_REGIONS.remove(r); // if all ok, remove
-							}
+								updateRegions(regions, from, to, changed, fullUpdate, visited, skipped, scanned);
+								return null;
+							});
 						}
-						catch (Exception e)
+						
+						for (Future<Void> future : _pool.invokeAll(tasks))
 						{
-							_log.log(Level.WARNING, "KnownListUpdateTaskManager: updateRegion(" + _fullUpdateTimer + "," + updatePass + ") failed for region " + r.getName() + ". Full update scheduled. " + e.getMessage(), e);
-							FAILED_REGIONS.add(r);
+							future.get();
 						}
 					}
 				}
-				updatePass = !updatePass;
-				
-				if (_fullUpdateTimer > 0)
-				{
-					_fullUpdateTimer--;
-				}
 				else
 				{
-					_fullUpdateTimer = FULL_UPDATE_TIMER;
+					updateRegions(regions, 0, regions.length, null, fullUpdate, visited, skipped, scanned);
 				}
+				nextPass();
+				passDone(start, visited.sum(), skipped.sum(), scanned.sum());
 			}
 			catch (Exception e)
 			{
 				_log.log(Level.WARNING, "", e);
 			}
 		}
+		
+		private void nextPass()
+		{
+			updatePass = !updatePass;
+			
+			if (_fullUpdateTimer > 0)
+			{
+				_fullUpdateTimer--;
+			}
+			else
+			{
+				_fullUpdateTimer = FULL_UPDATE_TIMER;
+			}
+		}
 	}
 	
-	public void updateRegion(L2WorldRegion region, boolean fullUpdate, boolean forgetObjects)
+	/**
+	 * Updates the active regions of the given columns.
+	 * @param regions the world regions
+	 * @param fromX the first column
+	 * @param toX the column after the last one
+	 * @param changed the regions to update, {@code null} to update all of them
+	 * @param fullUpdate {@code true} on a full update
+	 * @param visited counter of updated regions
+	 * @param skipped counter of unchanged regions
+	 * @param scanned counter of scanned objects
+	 */
+	protected void updateRegions(L2WorldRegion[][] regions, int fromX, int toX, boolean[][] changed, boolean fullUpdate, LongAdder visited, LongAdder skipped, LongAdder scanned)
 	{
+		boolean failed;
+		for (int x = fromX; x < toX; x++)
+		{
+			for (int y = 0; y < regions[x].length; y++) // go through all world regions
+			{
+				final L2WorldRegion r = regions[x][y];
+				// avoid stopping update if something went wrong in updateRegion()
+				try
+				{
+					failed = FAILED_REGIONS.contains(r); // failed on last pass
+					if (r.isActive()) // and check only if the region is active
+					{
+						if ((changed != null) && !changed[x][y] && !fullUpdate && !failed)
+						{
+							skipped.increment();
+							continue;
+						}
+						
+						scanned.add(updateRegion(r, (fullUpdate || failed), updatePass));
+						visited.increment();
+					}
+					if (failed)
+					{
+						FAILED_REGIONS.remove(r); // if all ok, remove
+					}
+				}
+				catch (Exception e)
+				{
+					_log.log(Level.WARNING, "KnownListUpdateTaskManager: updateRegion(" + _fullUpdateTimer + "," + updatePass + ") failed for region " + r.getName() + ". Full update scheduled. " + e.getMessage(), e);
+					FAILED_REGIONS.add(r);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Collects the regions to update on this pass.<br>
+	 * A change is kept for two passes, so both the forget and the add pass see it, and extends to the surrounding regions whose objects may watch or forget the changed ones.
+	 * @param regions the world regions
+	 * @return the regions to update
+	 */
+	private boolean[][] collectChangedRegions(L2WorldRegion[][] regions)
+	{
+		if (_changePasses == null)
+		{
+			_changePasses = new int[regions.length][regions[0].length];
+			_changedRegions = new boolean[regions.length][regions[0].length];
+		}
+		
+		for (int x = 0; x < regions.length; x++)
+		{
+			for (int y = 0; y < regions[x].length; y++)
+			{
+				_changedRegions[x][y] = false;
+				if (regions[x][y].resetChanged())
+				{
+					_changePasses[x][y] = 2;
+				}
+			}
+		}
+		
+		for (int x = 0; x < regions.length; x++)
+		{
+			for (int y = 0; y < regions[x].length; y++)
+			{
+				if (_changePasses[x][y] == 0)
+				{
+					continue;
+				}
+				
+				_changePasses[x][y]--;
+				for (int i = Math.max(0, x - 1); i <= Math.min(regions.length - 1, x + 1); i++)
+				{
+					for (int j = Math.max(0, y - 1); j <= Math.min(regions[i].length - 1, y + 1); j++)
+					{
+						_changedRegions[i][j] = true;
+					}
+				}
+			}
+		}
+		return _changedRegions;
+	}
+	
+	private void passDone(long start, long visited, long skipped, long scanned)
+	{
+		final long time = System.nanoTime() - start;
+		_passes++;
+		_totalPassTime += time;
+		_maxPassTime = Math.max(_maxPassTime, time);
+		_lastPassTime = time;
+		_lastRegionsVisited = visited;
+		_lastRegionsSkipped = skipped;
+		_lastObjectsScanned = scanned;
+	}
+	
+	/**
+	 * @param region the region to update
+	 * @param fullUpdate {@code true} to offer all the surrounding objects to all the objects of the region
+	 * @param forgetObjects {@code true} for the forget pass, {@code false} for the add pass
+	 * @return the number of scanned objects
+	 */
+	public int updateRegion(L2WorldRegion region, boolean fullUpdate, boolean forgetObjects)
+	{
+		int scanned = 0;
 		Collection<L2Object> vObj = region.getVisibleObjects().values();
 		for (L2Object object : vObj) // and for all members in region
 		{
@@ -113,6 +297,7 @@ public class KnownListUpdateTaskManager
 			{
 				continue; // skip dying objects
 			}
+			scanned++;
 			
 			// Some mobs need faster knownlist update
 			final boolean aggro = (Config.GUARD_ATTACK_AGGRO_MOB && (object instanceof L2GuardInstance));
@@ -132,6 +317,7 @@ public class KnownListUpdateTaskManager
 						if (obj != object)
 						{
 							object.getKnownList().addKnownObject(obj);
+							scanned++;
 						}
 					}
 				}
@@ -146,12 +332,50 @@ public class KnownListUpdateTaskManager
 							if (obj != object)
 							{
 								object.getKnownList().addKnownObject(obj);
+								scanned++;
 							}
 						}
 					}
 				}
 			}
 		}
+		return scanned;
+	}
+	
+	public String[] getStats()
+	{
+		final String mode;
+		if (Config.INTEREST_GRID)
+		{
+			mode = "Interest grid";
+		}
+		else if (_pool != null)
+		{
+			mode = "Parallel (" + _pool.getParallelism() + " threads)";
+		}
+		else
+		{
+			mode = "Sequential";
+		}
+		
+		final long passes = _passes;
+		return new String[]
+		{
+			"KnownList Update:",
+			" |- Mode:            " + mode,
+			" |- Passes:          " + passes,
+			" |- LastPassTime:    " + formatTime(_lastPassTime),
+			" |- AvgPassTime:     " + formatTime(passes > 0 ? _totalPassTime / passes : 0),
+			" |- MaxPassTime:     " + formatTime(_maxPassTime),
+			" |- RegionsVisited:  " + _lastRegionsVisited,
+			" |- RegionsSkipped:  " + _lastRegionsSkipped,
+			" |- ObjectsScanned:  " + _lastObjectsScanned,
+		};
+	}
+	
+	private static String formatTime(long nanos)
+	{
+		return String.format("%.3f ms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
 	}
 	
 	public static KnownListUpdateTaskManager getInstance()
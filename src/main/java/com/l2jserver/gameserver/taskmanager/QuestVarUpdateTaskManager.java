@@ -0,0 +1,751 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.gameserver.taskmanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
+
+/**
+ * Write-behind quest variable update.<br>
+ * Changes of character quest variables, of global quest variables and of character global quest variables are queued by variable, so repeated changes of the same variable are merged and only the last one is written.<br>
+ * The queue is written in JDBC batches by a dedicated thread, every {@link Config#QUEST_VARS_WRITE_BEHIND_INTERVAL} milliseconds or as soon as it holds {@link Config#QUEST_VARS_WRITE_BEHIND_BATCH_SIZE} changes.<br>
+ * Deleting a whole quest drops the changes of its variables queued before, and is written before the changes queued after it.
+ */
+public final class QuestVarUpdateTaskManager implements Runnable
+{
+	private static final Logger _log = Logger.getLogger(QuestVarUpdateTaskManager.class.getName());
+	
+	private static final String STATE_VAR = "<state>";
+	
+	private static final String UPSERT_CHAR_VAR = "INSERT INTO character_quests (charId,name,var,value) VALUES (?,?,?,?) ON DUPLICATE KEY UPDATE value=VALUES(value)";
+	private static final String DELETE_CHAR_VAR = "DELETE FROM character_quests WHERE charId=? AND name=? AND var=?";
+	private static final String DELETE_CHAR_QUEST = "DELETE FROM character_quests WHERE charId=? AND name=?";
+	private static final String DELETE_CHAR_QUEST_KEEP_STATE = "DELETE FROM character_quests WHERE charId=? AND name=? AND var!=?";
+	private static final String UPSERT_GLOBAL_VAR = "REPLACE INTO quest_global_data (quest_name,var,value) VALUES (?,?,?)";
+	private static final String DELETE_GLOBAL_VAR = "DELETE FROM quest_global_data WHERE quest_name=? AND var=?";
+	private static final String DELETE_GLOBAL_QUEST = "DELETE FROM quest_global_data WHERE quest_name=?";
+	private static final String UPSERT_CHAR_GLOBAL_VAR = "REPLACE INTO character_quest_global_data (charId,var,value) VALUES (?,?,?)";
+	private static final String DELETE_CHAR_GLOBAL_VAR = "DELETE FROM character_quest_global_data WHERE charId=? AND var=?";
+	
+	/**
+	 * Value queued for a deleted variable.
+	 */
+	private static final String DELETED = new String("<deleted>");
+	
+	/**
+	 * Quest whose variables are queued, {@code 0} as character id for the global variables and an empty quest name for the character global variables.
+	 */
+	private static final class QuestKey
+	{
+		protected final int _charId;
+		protected final String _quest;
+		
+		protected QuestKey(int charId, String quest)
+		{
+			_charId = charId;
+			_quest = quest;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (31 * _charId) + _quest.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof QuestKey))
+			{
+				return false;
+			}
+			final QuestKey key = (QuestKey) obj;
+			return (_charId == key._charId) && _quest.equals(key._quest);
+		}
+	}
+	
+	/**
+	 * Queued changes of a quest: an optional delete of the quest, then the last value of each changed variable.
+	 */
+	private static final class QuestChanges
+	{
+		protected static final int DELETE_NONE = 0;
+		protected static final int DELETE_KEEP_STATE = 1;
+		protected static final int DELETE_ALL = 2;
+		
+		protected int _delete = DELETE_NONE;
+		protected final Map<String, String> _vars = new LinkedHashMap<>();
+		
+		protected void delete(int mode)
+		{
+			if (mode == DELETE_ALL)
+			{
+				_vars.clear();
+			}
+			else
+			{
+				_vars.keySet().removeIf(var -> !STATE_VAR.equals(var));
+			}
+			_delete = Math.max(_delete, mode);
+		}
+		
+		/**
+		 * Applies the changes queued after these ones.
+		 * @param later the later changes
+		 */
+		protected void merge(QuestChanges later)
+		{
+			if (later._delete != DELETE_NONE)
+			{
+				delete(later._delete);
+			}
+			_vars.putAll(later._vars);
+		}
+		
+		protected int size()
+		{
+			return _vars.size() + (_delete != DELETE_NONE ? 1 : 0);
+		}
+	}
+	
+	private interface Binder<T>
+	{
+		void bind(PreparedStatement ps, T change) throws SQLException;
+	}
+	
+	private static final class VarChange
+	{
+		protected final QuestKey _key;
+		protected final String _var;
+		protected final String _value;
+		
+		protected VarChange(QuestKey key, String var, String value)
+		{
+			_key = key;
+			_var = var;
+			_value = value;
+		}
+	}
+	
+	/**
+	 * Queued changes of a table.
+	 */
+	private static final class Table
+	{
+		protected Map<QuestKey, QuestChanges> _pending = new HashMap<>();
+		/** The changes being written, still looked up by the reads. */
+		protected Map<QuestKey, QuestChanges> _writing;
+		
+		protected String get(QuestKey key, String var)
+		{
+			// The changes being written are looked up after the ones queued since.
+			String value = get(_pending, key, var);
+			if ((value == null) && (_writing != null))
+			{
+				value = get(_writing, key, var);
+			}
+			return value;
+		}
+		
+		private static String get(Map<QuestKey, QuestChanges> changes, QuestKey key, String var)
+		{
+			final QuestChanges questChanges = changes.get(key);
+			if (questChanges == null)
+			{
+				return null;
+			}
+			final String value = questChanges._vars.get(var);
+			if (value != null)
+			{
+				return value != DELETED ? value : "";
+			}
+			return questChanges._delete != QuestChanges.DELETE_NONE ? "" : null;
+		}
+		
+		protected Map<QuestKey, QuestChanges> startWriting()
+		{
+			_writing = _pending;
+			_pending = new HashMap<>();
+			return _writing;
+		}
+		
+		protected Map<QuestKey, QuestChanges> startWriting(int charId)
+		{
+			_writing = new HashMap<>();
+			for (Iterator<Map.Entry<QuestKey, QuestChanges>> it = _pending.entrySet().iterator(); it.hasNext();)
+			{
+				final Map.Entry<QuestKey, QuestChanges> entry = it.next();
+				if (entry.getKey()._charId == charId)
+				{
+					_writing.put(entry.getKey(), entry.getValue());
+					it.remove();
+				}
+			}
+			return _writing;
+		}
+	}
+	
+	private final Object _lock = new Object();
+	private final Table _charVars = new Table();
+	private final Table _globalVars = new Table();
+	private final Table _charGlobalVars = new Table();
+	private int _pendingSize;
+	private final ReentrantLock _flushLock = new ReentrantLock();
+	private final Thread _thread;
+	
+	private final LongAdder _queued = new LongAdder();
+	private final LongAdder _merged = new LongAdder();
+	private long _flushes;
+	private long _written;
+	private long _failed;
+	private long _lastFlushTime;
+	private long _maxFlushTime;
+	private long _totalFlushTime;
+	private int _maxDepth;
+	
+	protected QuestVarUpdateTaskManager()
+	{
+		if (Config.QUEST_VARS_WRITE_BEHIND)
+		{
+			_thread = new Thread(this, "QuestVarUpdateTaskManager");
+			_thread.setDaemon(true);
+			_thread.start();
+			_log.info(getClass().getSimpleName() + ": Write-behind quest variable update started, interval " + Config.QUEST_VARS_WRITE_BEHIND_INTERVAL + "ms, batch size " + Config.QUEST_VARS_WRITE_BEHIND_BATCH_SIZE + ".");
+		}
+		else
+		{
+			_thread = null;
+		}
+	}
+	
+	/**
+	 * Queues the value of a character quest variable.
+	 * @param charId the character id
+	 * @param quest the quest name
+	 * @param var the variable name
+	 * @param value the value
+	 */
+	public void setVar(int charId, String quest, String var, String value)
+	{
+		queueVar(_charVars, charId, quest, var, value);
+	}
+	
+	/**
+	 * Queues the delete of a character quest variable.
+	 * @param charId the character id
+	 * @param quest the quest name
+	 * @param var the variable name
+	 */
+	public void deleteVar(int charId, String quest, String var)
+	{
+		queueVar(_charVars, charId, quest, var, DELETED);
+	}
+	
+	/**
+	 * Queues the delete of all variables of a character quest.
+	 * @param charId the character id
+	 * @param quest the quest name
+	 * @param keepState if {@code true} the state of the quest is kept
+	 */
+	public void deleteQuest(int charId, String quest, boolean keepState)
+	{
+		queueDelete(_charVars, charId, quest, keepState ? QuestChanges.DELETE_KEEP_STATE : QuestChanges.DELETE_ALL);
+	}
+	
+	/**
+	 * Queues the value of a global quest variable.
+	 * @param quest the quest name
+	 * @param var the variable name
+	 * @param value the value
+	 */
+	public void setGlobalVar(String quest, String var, String value)
+	{
+		queueVar(_globalVars, 0, quest, var, value);
+	}
+	
+	/**
+	 * Queues the delete of a global quest variable.
+	 * @param quest the quest name
+	 * @param var the variable name
+	 */
+	public void deleteGlobalVar(String quest, String var)
+	{
+		queueVar(_globalVars, 0, quest, var, DELETED);
+	}
+	
+	/**
+	 * Queues the delete of all global variables of a quest.
+	 * @param quest the quest name
+	 */
+	public void deleteGlobalQuest(String quest)
+	{
+		queueDelete(_globalVars, 0, quest, QuestChanges.DELETE_ALL);
+	}
+	
+	/**
+	 * Gets the queued value of a global quest variable, which is not written yet.
+	 * @param quest the quest name
+	 * @param var the variable name
+	 * @return the queued value, an empty string if the variable is queued to be deleted, {@code null} if nothing is queued and the value is the one of the database
+	 */
+	public String getGlobalVar(String quest, String var)
+	{
+		synchronized (_lock)
+		{
+			return _globalVars.get(new QuestKey(0, quest), var);
+		}
+	}
+	
+	/**
+	 * Queues the value of a character global quest variable.
+	 * @param charId the character id
+	 * @param var the variable name
+	 * @param value the value
+	 */
+	public void setCharGlobalVar(int charId, String var, String value)
+	{
+		queueVar(_charGlobalVars, charId, "", var, value);
+	}
+	
+	/**
+	 * Queues the delete of a character global quest variable.
+	 * @param charId the character id
+	 * @param var the variable name
+	 */
+	public void deleteCharGlobalVar(int charId, String var)
+	{
+		queueVar(_charGlobalVars, charId, "", var, DELETED);
+	}
+	
+	/**
+	 * Gets the queued value of a character global quest variable, which is not written yet.
+	 * @param charId the character id
+	 * @param var the variable name
+	 * @return the queued value, an empty string if the variable is queued to be deleted, {@code null} if nothing is queued and the value is the one of the database
+	 */
+	public String getCharGlobalVar(int charId, String var)
+	{
+		synchronized (_lock)
+		{
+			return _charGlobalVars.get(new QuestKey(charId, ""), var);
+		}
+	}
+	
+	private void queueVar(Table table, int charId, String quest, String var, String value)
+	{
+		_queued.increment();
+		synchronized (_lock)
+		{
+			final QuestChanges changes = table._pending.computeIfAbsent(new QuestKey(charId, quest), k -> new QuestChanges());
+			final int size = changes.size();
+			if (changes._vars.put(var, value) != null)
+			{
+				_merged.increment();
+			}
+			_pendingSize += changes.size() - size;
+		}
+		wakeUp();
+	}
+	
+	private void queueDelete(Table table, int charId, String quest, int mode)
+	{
+		_queued.increment();
+		synchronized (_lock)
+		{
+			final QuestChanges changes = table._pending.computeIfAbsent(new QuestKey(charId, quest), k -> new QuestChanges());
+			final int size = changes.size();
+			final int vars = changes._vars.size();
+			changes.delete(mode);
+			_merged.add(vars - changes._vars.size());
+			_pendingSize += changes.size() - size;
+		}
+		wakeUp();
+	}
+	
+	private void wakeUp()
+	{
+		if ((_thread != null) && (_pendingSize >= Config.QUEST_VARS_WRITE_BEHIND_BATCH_SIZE))
+		{
+			LockSupport.unpark(_thread);
+		}
+	}
+	
+	/**
+	 * @return the number of changes waiting to be written
+	 */
+	public int getQueueDepth()
+	{
+		synchronized (_lock)
+		{
+			return _pendingSize;
+		}
+	}
+	
+	@Override
+	public void run()
+	{
+		while (true)
+		{
+			if (getQueueDepth() < Config.QUEST_VARS_WRITE_BEHIND_BATCH_SIZE)
+			{
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Config.QUEST_VARS_WRITE_BEHIND_INTERVAL));
+			}
+			
+			try
+			{
+				flush();
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.SEVERE, getClass().getSimpleName() + ": Error while writing quest variables: " + e.getMessage(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Writes all queued changes to the database, blocking until done.<br>
+	 * Called on server shutdown.
+	 */
+	public void flush()
+	{
+		_flushLock.lock();
+		try
+		{
+			final Map<QuestKey, QuestChanges> charChanges;
+			final Map<QuestKey, QuestChanges> globalChanges;
+			final Map<QuestKey, QuestChanges> charGlobalChanges;
+			synchronized (_lock)
+			{
+				if (_pendingSize == 0)
+				{
+					return;
+				}
+				_maxDepth = Math.max(_maxDepth, _pendingSize);
+				charChanges = _charVars.startWriting();
+				globalChanges = _globalVars.startWriting();
+				charGlobalChanges = _charGlobalVars.startWriting();
+				_pendingSize = 0;
+			}
+			write(charChanges, globalChanges, charGlobalChanges);
+		}
+		finally
+		{
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes the queued changes of the variables of the specified character to the database, blocking until done.<br>
+	 * Called when a character leaves the world, so it is loaded again with its variables while the rest of the queue is left to the writer thread.
+	 * @param charId the object id of the character
+	 */
+	public void flush(int charId)
+	{
+		_flushLock.lock();
+		try
+		{
+			final Map<QuestKey, QuestChanges> charChanges;
+			final Map<QuestKey, QuestChanges> charGlobalChanges;
+			synchronized (_lock)
+			{
+				charChanges = _charVars.startWriting(charId);
+				charGlobalChanges = _charGlobalVars.startWriting(charId);
+				if (charChanges.isEmpty() && charGlobalChanges.isEmpty())
+				{
+					_charVars._writing = null;
+					_charGlobalVars._writing = null;
+					return;
+				}
+				_pendingSize -= size(charChanges) + size(charGlobalChanges);
+			}
+			write(charChanges, new HashMap<>(), charGlobalChanges);
+		}
+		finally
+		{
+			_flushLock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes the specified changes, the flush lock being held and the changes being set as written by their tables.
+	 */
+	private void write(Map<QuestKey, QuestChanges> charChanges, Map<QuestKey, QuestChanges> globalChanges, Map<QuestKey, QuestChanges> charGlobalChanges)
+	{
+		final long start = System.nanoTime();
+		final List<QuestKey> charDeletes = new ArrayList<>();
+		final List<QuestKey> charStateKeepingDeletes = new ArrayList<>();
+		final List<VarChange> charVarDeletes = new ArrayList<>();
+		final List<VarChange> charVarUpdates = new ArrayList<>();
+		split(charChanges, charDeletes, charStateKeepingDeletes, charVarDeletes, charVarUpdates);
+		final List<QuestKey> globalDeletes = new ArrayList<>();
+		final List<VarChange> globalVarDeletes = new ArrayList<>();
+		final List<VarChange> globalVarUpdates = new ArrayList<>();
+		split(globalChanges, globalDeletes, globalDeletes, globalVarDeletes, globalVarUpdates);
+		final List<VarChange> charGlobalVarDeletes = new ArrayList<>();
+		final List<VarChange> charGlobalVarUpdates = new ArrayList<>();
+		split(charGlobalChanges, null, null, charGlobalVarDeletes, charGlobalVarUpdates);
+		
+		try (Connection con = ConnectionFactory.getInstance().getConnection())
+		{
+			// Quest deletes first, the variables changed after them are written after.
+			write(con, DELETE_CHAR_QUEST, charDeletes, (ps, key) ->
+			{
+				ps.setInt(1, key._charId);
+				ps.setString(2, key._quest);
+			});
+			write(con, DELETE_CHAR_QUEST_KEEP_STATE, charStateKeepingDeletes, (ps, key) ->
+			{
+				ps.setInt(1, key._charId);
+				ps.setString(2, key._quest);
+				ps.setString(3, STATE_VAR);
+			});
+			write(con, DELETE_CHAR_VAR, charVarDeletes, (ps, change) ->
+			{
+				ps.setInt(1, change._key._charId);
+				ps.setString(2, change._key._quest);
+				ps.setString(3, change._var);
+			});
+			write(con, UPSERT_CHAR_VAR, charVarUpdates, (ps, change) ->
+			{
+				ps.setInt(1, change._key._charId);
+				ps.setString(2, change._key._quest);
+				ps.setString(3, change._var);
+				ps.setString(4, change._value);
+			});
+			write(con, DELETE_GLOBAL_QUEST, globalDeletes, (ps, key) -> ps.setString(1, key._quest));
+			write(con, DELETE_GLOBAL_VAR, globalVarDeletes, (ps, change) ->
+			{
+				ps.setString(1, change._key._quest);
+				ps.setString(2, change._var);
+			});
+			write(con, UPSERT_GLOBAL_VAR, globalVarUpdates, (ps, change) ->
+			{
+				ps.setString(1, change._key._quest);
+				ps.setString(2, change._var);
+				ps.setString(3, change._value);
+			});
+			write(con, DELETE_CHAR_GLOBAL_VAR, charGlobalVarDeletes, (ps, change) ->
+			{
+				ps.setInt(1, change._key._charId);
+				ps.setString(2, change._var);
+			});
+			write(con, UPSERT_CHAR_GLOBAL_VAR, charGlobalVarUpdates, (ps, change) ->
+			{
+				ps.setInt(1, change._key._charId);
+				ps.setString(2, change._var);
+				ps.setString(3, change._value);
+			});
+		}
+		catch (SQLException e)
+		{
+			// No connection, queue the changes again before the ones queued meanwhile.
+			_log.log(Level.SEVERE, getClass().getSimpleName() + ": Could not write quest variables: " + e.getMessage(), e);
+			synchronized (_lock)
+			{
+				_charVars._pending = requeue(charChanges, _charVars._pending);
+				_globalVars._pending = requeue(globalChanges, _globalVars._pending);
+				_charGlobalVars._pending = requeue(charGlobalChanges, _charGlobalVars._pending);
+				_pendingSize = size(_charVars._pending) + size(_globalVars._pending) + size(_charGlobalVars._pending);
+			}
+		}
+		finally
+		{
+			synchronized (_lock)
+			{
+				_charVars._writing = null;
+				_globalVars._writing = null;
+				_charGlobalVars._writing = null;
+			}
+		}
+		
+		final long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		_flushes++;
+		_lastFlushTime = time;
+		_maxFlushTime = Math.max(_maxFlushTime, time);
+		_totalFlushTime += time;
+	}
+	
+	private static void split(Map<QuestKey, QuestChanges> changes, List<QuestKey> deletes, List<QuestKey> stateKeepingDeletes, List<VarChange> varDeletes, List<VarChange> varUpdates)
+	{
+		for (Map.Entry<QuestKey, QuestChanges> entry : changes.entrySet())
+		{
+			final QuestKey key = entry.getKey();
+			final QuestChanges questChanges = entry.getValue();
+			if (questChanges._delete == QuestChanges.DELETE_ALL)
+			{
+				deletes.add(key);
+			}
+			else if (questChanges._delete == QuestChanges.DELETE_KEEP_STATE)
+			{
+				stateKeepingDeletes.add(key);
+			}
+			for (Map.Entry<String, String> var : questChanges._vars.entrySet())
+			{
+				if (var.getValue() == DELETED)
+				{
+					varDeletes.add(new VarChange(key, var.getKey(), null));
+				}
+				else
+				{
+					varUpdates.add(new VarChange(key, var.getKey(), var.getValue()));
+				}
+			}
+		}
+	}
+	
+	private static Map<QuestKey, QuestChanges> requeue(Map<QuestKey, QuestChanges> changes, Map<QuestKey, QuestChanges> pending)
+	{
+		for (Map.Entry<QuestKey, QuestChanges> entry : pending.entrySet())
+		{
+			final QuestChanges earlier = changes.get(entry.getKey());
+			if (earlier != null)
+			{
+				earlier.merge(entry.getValue());
+			}
+			else
+			{
+				changes.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return changes;
+	}
+	
+	private static int size(Map<QuestKey, QuestChanges> changes)
+	{
+		int size = 0;
+		for (QuestChanges questChanges : changes.values())
+		{
+			size += questChanges.size();
+		}
+		return size;
+	}
+	
+	/**
+	 * Writes the specified changes in batches.<br>
+	 * If a batch fails it is rolled back and its changes are written one by one, the ones which still fail being dropped.
+	 */
+	private <T> void write(Connection con, String sql, List<T> changes, Binder<T> binder) throws SQLException
+	{
+		if (changes.isEmpty())
+		{
+			return;
+		}
+		
+		final boolean autoCommit = con.getAutoCommit();
+		try (PreparedStatement ps = con.prepareStatement(sql))
+		{
+			con.setAutoCommit(false);
+			for (int from = 0; from < changes.size(); from += Config.QUEST_VARS_WRITE_BEHIND_BATCH_SIZE)
+			{
+				final List<T> batch = changes.subList(from, Math.min(from + Config.QUEST_VARS_WRITE_BEHIND_BATCH_SIZE, changes.size()));
+				try
+				{
+					for (T change : batch)
+					{
+						binder.bind(ps, change);
+						ps.addBatch();
+					}
+					ps.executeBatch();
+					con.commit();
+					_written += batch.size();
+					continue;
+				}
+				catch (SQLException e)
+				{
+					ps.clearBatch();
+					con.rollback();
+				}
+				
+				for (T change : batch)
+				{
+					try
+					{
+						binder.bind(ps, change);
+						ps.executeUpdate();
+						con.commit();
+						_written++;
+					}
+					catch (SQLException e)
+					{
+						con.rollback();
+						_failed++;
+						_log.log(Level.SEVERE, getClass().getSimpleName() + ": Could not write quest variable change (" + sql + "): " + e.getMessage(), e);
+					}
+				}
+			}
+		}
+		finally
+		{
+			con.setAutoCommit(autoCommit);
+		}
+	}
+	
+	public String[] getStats()
+	{
+		_flushLock.lock();
+		try
+		{
+			return new String[]
+			{
+				"Quest Variable Write-Behind:",
+				" |- Enabled:        " + Config.QUEST_VARS_WRITE_BEHIND,
+				" |- QueueDepth:     " + getQueueDepth(),
+				" |- MaxQueueDepth:  " + _maxDepth,
+				" |- Queued:         " + _queued.sum(),
+				" |- Merged:         " + _merged.sum(),
+				" |- Written:        " + _written,
+				" |- Failed:         " + _failed,
+				" |- Flushes:        " + _flushes,
+				" |- LastFlushTime:  " + _lastFlushTime + "ms",
+				" |- AvgFlushTime:   " + (_flushes > 0 ? (_totalFlushTime / _flushes) : 0) + "ms",
+				" |- MaxFlushTime:   " + _maxFlushTime + "ms",
+			};
+		}
+		finally
+		{
+			_flushLock.unlock();
+		}
+	}
+	
+	public static QuestVarUpdateTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final QuestVarUpdateTaskManager _instance = new QuestVarUpdateTaskManager();
+	}
+}
@@ -27,6 +27,7 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.StringJoiner;
 import java.util.logging.Logger;
@@ -496,23 +497,7 @@ public final class Util
 				break;
 			}
 			
-			int hParamPos = htmlLower.indexOf("-h ", bypassStartEnd);
-			String bypass;
-			if ((hParamPos != -1) && (hParamPos < bypassEnd))
-			{
-				bypass = html.substring(hParamPos + 3, bypassEnd).trim();
-			}
-			else
-			{
-				bypass = html.substring(bypassStartEnd, bypassEnd).trim();
-			}
-			
-			int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
-			if (firstParameterStart != -1)
-			{
-				bypass = bypass.substring(0, firstParameterStart + 1);
-			}
-			
+			final String bypass = parseHtmlBypass(html.substring(bypassStartEnd, bypassEnd));
 			if (Config.HTML_ACTION_CACHE_DEBUG)
 			{
 				LOGGER.info("Cached html bypass(" + scope.toString() + "): '" + bypass + "'");
@@ -522,6 +507,44 @@ public final class Util
 		}
 	}
 	
+	/**
+	 * @param text the text of a bypass attribute after the {@code bypass} keyword
+	 * @return the bypass to cache, without the {@code -h} option and cut after the first parameter
+	 */
+	public static String parseHtmlBypass(String text)
+	{
+		final int hParamPos = text.toLowerCase(Locale.ENGLISH).indexOf("-h ");
+		String bypass = hParamPos != -1 ? text.substring(hParamPos + 3).trim() : text.trim();
+		
+		final int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
+		if (firstParameterStart != -1)
+		{
+			bypass = bypass.substring(0, firstParameterStart + 1);
+		}
+		return bypass;
+	}
+	
+	/**
+	 * @param text the text of a link attribute after the {@code link} keyword
+	 * @return the link path, {@code null} if it is invalid
+	 */
+	public static String parseHtmlLink(String text)
+	{
+		final String htmlLink = text.trim();
+		if (htmlLink.isEmpty())
+		{
+			LOGGER.warning("Html link path is empty!");
+			return null;
+		}
+		
+		if (htmlLink.contains(".."))
+		{
+			LOGGER.warning("Html link path is invalid: " + htmlLink);
+			return null;
+		}
+		return htmlLink;
+	}
+	
 	private static final void buildHtmlLinkCache(L2PcInstance player, HtmlActionScope scope, String html)
 	{
 		String htmlLower = html.toLowerCase(Locale.ENGLISH);
@@ -537,25 +560,16 @@ public final class Util
 				break;
 			}
 			
-			String htmlLink = html.substring(linkStartEnd, linkEnd).trim();
-			if (htmlLink.isEmpty())
-			{
-				LOGGER.warning("Html link path is empty!");
-				continue;
-			}
-			
-			if (htmlLink.contains(".."))
-			{
-				LOGGER.warning("Html link path is invalid: " + htmlLink);
-				continue;
-			}
-			
-			if (Config.HTML_ACTION_CACHE_DEBUG)
+			final String htmlLink = parseHtmlLink(html.substring(linkStartEnd, linkEnd));
+			if (htmlLink != null)
 			{
-				LOGGER.info("Cached html link(" + scope.toString() + "): '" + htmlLink + "'");
+				if (Config.HTML_ACTION_CACHE_DEBUG)
+				{
+					LOGGER.info("Cached html link(" + scope.toString() + "): '" + htmlLink + "'");
+				}
+				// let's keep an action cache with "link " lowercase literal kept
+				player.addHtmlAction(scope, "link " + htmlLink);
 			}
-			// let's keep an action cache with "link " lowercase literal kept
-			player.addHtmlAction(scope, "link " + htmlLink);
 			linkStart = htmlLower.indexOf("=\"link ", linkEnd);
 		}
 	}
@@ -585,6 +599,36 @@ public final class Util
 		buildHtmlLinkCache(player, scope, html);
 	}
 	
+	/**
+	 * Builds the html action cache for the specified scope from actions already parsed.
+	 * @param player the player to build the html action cache for
+	 * @param scope the scope to build the html action cache for
+	 * @param npcObjId the npc object id the html actions are cached for
+	 * @param actions the bypasses and links of the html, the links prefixed with {@code link}
+	 * @see #buildHtmlActionCache(L2PcInstance, HtmlActionScope, int, String)
+	 */
+	public static void buildHtmlActionCache(L2PcInstance player, HtmlActionScope scope, int npcObjId, List<String> actions)
+	{
+		if ((player == null) || (scope == null) || (npcObjId < 0) || (actions == null))
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		if (Config.HTML_ACTION_CACHE_DEBUG)
+		{
+			LOGGER.info("Set html action npc(" + scope.toString() + "): " + npcObjId);
+		}
+		player.setHtmlActionOriginObjectId(scope, npcObjId);
+		for (String action : actions)
+		{
+			if (Config.HTML_ACTION_CACHE_DEBUG)
+			{
+				LOGGER.info("Cached html action(" + scope.toString() + "): '" + action + "'");
+			}
+			player.addHtmlAction(scope, action);
+		}
+	}
+	
 	/**
 	 * Helper method to send a NpcHtmlMessage to the specified player.
 	 * @param activeChar the player to send the html content to
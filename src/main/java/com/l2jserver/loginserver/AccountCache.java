@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.loginserver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.l2jserver.loginserver.model.data.AccountInfo;
+
+/**
+ * Short-lived cache of the accounts read from the database.<br>
+ * Spares the account SELECT of the logins following each other in a short time, as during a login storm. Entries expire after a short time to live, and are dropped as soon as the account is changed by the login server.
+ */
+public final class AccountCache
+{
+	private static final class Entry
+	{
+		protected final AccountInfo _info;
+		protected final long _expireTime;
+		
+		protected Entry(AccountInfo info, long expireTime)
+		{
+			_info = info;
+			_expireTime = expireTime;
+		}
+	}
+	
+	private final Map<String, Entry> _entries = new ConcurrentHashMap<>();
+	private final long _ttl;
+	
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _invalidated = new LongAdder();
+	
+	/**
+	 * @param ttl the time to live of the accounts, in milliseconds
+	 */
+	public AccountCache(long ttl)
+	{
+		_ttl = ttl;
+	}
+	
+	/**
+	 * @param login the account name
+	 * @return the cached account, {@code null} if nothing valid is cached
+	 */
+	public AccountInfo get(String login)
+	{
+		final Entry entry = _entries.get(login);
+		if ((entry == null) || (entry._expireTime < System.currentTimeMillis()))
+		{
+			_misses.increment();
+			return null;
+		}
+		_hits.increment();
+		return entry._info;
+	}
+	
+	/**
+	 * Stores an account just read from the database.
+	 * @param info the account
+	 */
+	public void put(AccountInfo info)
+	{
+		_entries.put(info.getLogin(), new Entry(info, System.currentTimeMillis() + _ttl));
+	}
+	
+	/**
+	 * Drops an account which was changed.
+	 * @param login the account name
+	 */
+	public void invalidate(String login)
+	{
+		if (_entries.remove(login) != null)
+		{
+			_invalidated.increment();
+		}
+	}
+	
+	/**
+	 * Drops the expired accounts.
+	 */
+	public void purge()
+	{
+		final long now = System.currentTimeMillis();
+		_entries.values().removeIf(entry -> entry._expireTime < now);
+	}
+	
+	public String[] getStats()
+	{
+		final long hits = _hits.sum();
+		final long total = hits + _misses.sum();
+		return new String[]
+		{
+			"Account Cache:",
+			" |- Size:        " + _entries.size(),
+			" |- TTL:         " + _ttl + "ms",
+			" |- Hits:        " + hits,
+			" |- Misses:      " + (total - hits),
+			" |- Invalidated: " + _invalidated.sum(),
+			" |- HitRatio:    " + (total > 0 ? String.format("%.2f%%", (hits * 100.0) / total) : "n/a"),
+		};
+	}
+}
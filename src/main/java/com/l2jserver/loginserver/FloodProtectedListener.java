@@ -20,8 +20,10 @@ package com.l2jserver.loginserver;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
@@ -40,13 +42,15 @@ public abstract class FloodProtectedListener extends Thread
 	
 	public FloodProtectedListener(String listenIp, int port) throws IOException
 	{
+		// Opened through a channel, so the accepted sockets can be used non-blocking.
+		_serverSocket = ServerSocketChannel.open().socket();
 		if (listenIp.equals("*"))
 		{
-			_serverSocket = new ServerSocket(port);
+			_serverSocket.bind(new InetSocketAddress(port), 50);
 		}
 		else
 		{
-			_serverSocket = new ServerSocket(port, 50, InetAddress.getByName(listenIp));
+			_serverSocket.bind(new InetSocketAddress(InetAddress.getByName(listenIp), port), 50);
 		}
 	}
 	
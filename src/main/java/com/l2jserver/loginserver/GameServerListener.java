@@ -20,32 +20,106 @@ package com.l2jserver.loginserver;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.l2jserver.Config;
+import com.l2jserver.util.network.LinkSelector;
 
 /**
+ * Listener of the game server links.<br>
+ * Accepts the game servers, all links being then served by a single selector thread. Their packets are handled on a small pool, in order for each game server.
  * @author KenM
  */
 public class GameServerListener extends FloodProtectedListener
 {
+	private static final Logger _log = Logger.getLogger(GameServerListener.class.getName());
+	
 	private static List<GameServerThread> _gameServers = new CopyOnWriteArrayList<>();
 	
+	private final LinkSelector _linkSelector;
+	private final ExecutorService _packetExecutor;
+	
 	public GameServerListener() throws IOException
 	{
 		super(Config.GAME_SERVER_LOGIN_HOST, Config.GAME_SERVER_LOGIN_PORT);
 		setName(getClass().getSimpleName());
+		
+		_linkSelector = new LinkSelector();
+		final Thread selectorThread = new Thread(() ->
+		{
+			while (true)
+			{
+				try
+				{
+					_linkSelector.select(0);
+				}
+				catch (Exception e)
+				{
+					_log.log(Level.SEVERE, "GameServerListener: Game server link selector failed!", e);
+				}
+			}
+		}, "GameServerLink");
+		selectorThread.setDaemon(true);
+		selectorThread.start();
+		
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		final int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+		_packetExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r ->
+		{
+			final Thread thread = new Thread(r, "GameServerPacket-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 	
 	@Override
 	public void addClient(Socket s)
 	{
-		_gameServers.add(new GameServerThread(s));
+		try
+		{
+			_gameServers.add(new GameServerThread(s.getChannel(), _linkSelector, _packetExecutor));
+		}
+		catch (IOException e)
+		{
+			_log.warning("GameServerListener: Could not register game server " + s.getInetAddress().getHostAddress() + ": " + e.getMessage());
+			removeFloodProtection(s.getInetAddress().getHostAddress());
+			try
+			{
+				s.close();
+			}
+			catch (IOException e1)
+			{
+				// Nothing to do.
+			}
+		}
 	}
 	
 	public void removeGameServer(GameServerThread gst)
 	{
 		_gameServers.remove(gst);
 	}
+	
+	public String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		stats.add("Game Server Link:");
+		stats.add(" |- " + _linkSelector.getStats());
+		for (GameServerThread gst : _gameServers)
+		{
+			for (String line : gst.getStats())
+			{
+				stats.add(" |- " + line);
+			}
+		}
+		return stats.toArray(new String[stats.size()]);
+	}
 }
@@ -18,16 +18,22 @@
  */
 package com.l2jserver.loginserver;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.security.KeyPair;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.Config;
@@ -42,21 +48,54 @@ import com.l2jserver.loginserver.network.loginserverpackets.RequestCharacters;
 import com.l2jserver.util.Util;
 import com.l2jserver.util.crypt.NewCrypt;
 import com.l2jserver.util.network.BaseSendablePacket;
+import com.l2jserver.util.network.LinkConnection;
+import com.l2jserver.util.network.LinkHandler;
+import com.l2jserver.util.network.LinkSelector;
 
 /**
+ * Link of a game server.<br>
+ * The connection is served by the selector of the {@link GameServerListener}. The frames read are handled on its packet pool, one at a time and in order, so a slow packet of a game server holds neither the selector nor the other game servers.
  * @author -Wooden-
  * @author KenM
  */
-public class GameServerThread extends Thread
+public class GameServerThread implements LinkHandler
 {
 	protected static final Logger _log = Logger.getLogger(GameServerThread.class.getName());
-	private final Socket _connection;
-	private InputStream _in;
-	private OutputStream _out;
+	
+	private static final class Frame
+	{
+		protected final byte[] _data;
+		protected final long _readTime;
+		
+		protected Frame(byte[] data, long readTime)
+		{
+			_data = data;
+			_readTime = readTime;
+		}
+	}
+	
+	private final LinkConnection _connection;
+	private final Executor _packetExecutor;
 	private final RSAPublicKey _publicKey;
 	private final RSAPrivateKey _privateKey;
-	private NewCrypt _blowfish;
-	private GameServerState _loginConnectionState = GameServerState.CONNECTED;
+	private volatile GameServerState _loginConnectionState = GameServerState.CONNECTED;
+	
+	// Frames read and not handled yet
+	private final Queue<Frame> _frames = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger _frameCount = new AtomicInteger();
+	private final AtomicBoolean _handling = new AtomicBoolean();
+	
+	/** Character requests waiting for their reply, by account, with the time they were sent. */
+	private final Map<String, Long> _characterRequests = new ConcurrentHashMap<>();
+	
+	// Statistics
+	private final LongAccumulator _maxFrameCount = new LongAccumulator(Math::max, 0);
+	private final LongAdder _handled = new LongAdder();
+	private final LongAdder _handleWait = new LongAdder();
+	private final LongAccumulator _maxHandleWait = new LongAccumulator(Math::max, 0);
+	private final LongAdder _characterReplies = new LongAdder();
+	private final LongAdder _characterRoundTrip = new LongAdder();
+	private final LongAccumulator _maxCharacterRoundTrip = new LongAccumulator(Math::max, 0);
 	
 	private final String _connectionIp;
 	
@@ -65,65 +104,61 @@ public class GameServerThread extends Thread
 	/** Authed Clients on a GameServer */
 	private final Set<String> _accountsOnGameServer = ConcurrentHashMap.newKeySet();
 	
-	private String _connectionIPAddress;
+	private final String _connectionIPAddress;
 	
-	@Override
-	public void run()
+	public GameServerThread(SocketChannel channel, LinkSelector selector, Executor packetExecutor) throws IOException
 	{
-		_connectionIPAddress = _connection.getInetAddress().getHostAddress();
+		_connectionIp = channel.socket().getInetAddress().getHostAddress();
+		_connectionIPAddress = _connectionIp;
+		_packetExecutor = packetExecutor;
+		KeyPair pair = GameServerTable.getInstance().getKeyPair();
+		_privateKey = (RSAPrivateKey) pair.getPrivate();
+		_publicKey = (RSAPublicKey) pair.getPublic();
+		_connection = selector.register(channel, new NewCrypt("_;v.]05-31!|+-%xT!^[$\00"), this);
+		
 		if (GameServerThread.isBannedGameserverIP(_connectionIPAddress))
 		{
 			_log.info("GameServerRegistration: IP Address " + _connectionIPAddress + " is on Banned IP list.");
 			forceClose(LoginServerFail.REASON_IP_BANNED);
-			// ensure no further processing for this connection
 			return;
 		}
 		
-		InitLS startPacket = new InitLS(_publicKey.getModulus().toByteArray());
-		try
+		sendPacket(new InitLS(_publicKey.getModulus().toByteArray()));
+	}
+	
+	@Override
+	public void onFrame(LinkConnection con, byte[] frame)
+	{
+		_frames.offer(new Frame(frame, System.nanoTime()));
+		_maxFrameCount.accumulate(_frameCount.incrementAndGet());
+		if (_handling.compareAndSet(false, true))
 		{
-			sendPacket(startPacket);
-			
-			int lengthHi = 0;
-			int lengthLo = 0;
-			int length = 0;
-			boolean checksumOk = false;
-			for (;;)
+			_packetExecutor.execute(this::handleFrames);
+		}
+	}
+	
+	/**
+	 * Handles the frames read so far, on the packet pool.<br>
+	 * Only one thread at a time handles the frames of a game server, which keeps them in order with the changes of the key and of the state.
+	 */
+	private void handleFrames()
+	{
+		for (;;)
+		{
+			Frame frame;
+			while ((frame = _frames.poll()) != null)
 			{
-				lengthLo = _in.read();
-				lengthHi = _in.read();
-				length = (lengthHi * 256) + lengthLo;
-				
-				if ((lengthHi < 0) || _connection.isClosed())
-				{
-					_log.finer("LoginServerThread: Login terminated the connection.");
-					break;
-				}
-				
-				byte[] data = new byte[length - 2];
-				
-				int receivedBytes = 0;
-				int newBytes = 0;
-				int left = length - 2;
-				while ((newBytes != -1) && (receivedBytes < (length - 2)))
-				{
-					newBytes = _in.read(data, receivedBytes, left);
-					receivedBytes = receivedBytes + newBytes;
-					left -= newBytes;
-				}
+				_frameCount.decrementAndGet();
+				final long wait = System.nanoTime() - frame._readTime;
+				_handled.increment();
+				_handleWait.add(wait);
+				_maxHandleWait.accumulate(wait);
 				
-				if (receivedBytes != (length - 2))
-				{
-					_log.warning("Incomplete Packet is sent to the server, closing connection.(LS)");
-					break;
-				}
-				
-				// decrypt if we have a key
-				_blowfish.decrypt(data, 0, data.length);
-				checksumOk = NewCrypt.verifyChecksum(data);
-				if (!checksumOk)
+				final byte[] data = frame._data;
+				if (!_connection.decrypt(data))
 				{
 					_log.warning("Incorrect packet checksum, closing connection (LS)");
+					_connection.close();
 					return;
 				}
 				
@@ -132,28 +167,46 @@ public class GameServerThread extends Thread
 					_log.warning("[C]" + Config.EOL + Util.printData(data));
 				}
 				
-				L2JGameServerPacketHandler.handlePacket(data, this);
+				try
+				{
+					L2JGameServerPacketHandler.handlePacket(data, this);
+				}
+				catch (Exception e)
+				{
+					_log.log(Level.WARNING, "GameServer " + getServerDescription() + ": Error while handling packet: " + e.getMessage(), e);
+				}
 			}
-		}
-		catch (IOException e)
-		{
-			String serverName = (getServerId() != -1 ? "[" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) : "(" + _connectionIPAddress + ")");
-			String msg = "GameServer " + serverName + ": Connection lost: " + e.getMessage();
-			_log.info(msg);
-			broadcastToTelnet(msg);
-		}
-		finally
-		{
-			if (isAuthed())
+			
+			_handling.set(false);
+			// A frame read meanwhile found the flag still set, it is handled here.
+			if (_frames.isEmpty() || !_handling.compareAndSet(false, true))
 			{
-				_gsi.setDown();
-				_log.info("Server [" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) + " is now set as disconnected");
+				return;
 			}
-			L2LoginServer.getInstance().getGameServerListener().removeGameServer(this);
-			L2LoginServer.getInstance().getGameServerListener().removeFloodProtection(_connectionIp);
 		}
 	}
 	
+	@Override
+	public void onDisconnection(LinkConnection con)
+	{
+		String msg = "GameServer " + getServerDescription() + ": Connection lost.";
+		_log.info(msg);
+		broadcastToTelnet(msg);
+		
+		if (isAuthed())
+		{
+			_gsi.setDown();
+			_log.info("Server [" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) + " is now set as disconnected");
+		}
+		L2LoginServer.getInstance().getGameServerListener().removeGameServer(this);
+		L2LoginServer.getInstance().getGameServerListener().removeFloodProtection(_connectionIp);
+	}
+	
+	private String getServerDescription()
+	{
+		return getServerId() != -1 ? "[" + getServerId() + "] " + GameServerTable.getInstance().getServerNameById(getServerId()) : "(" + _connectionIPAddress + ")";
+	}
+	
 	public boolean hasAccountOnGameServer(String account)
 	{
 		return _accountsOnGameServer.contains(account);
@@ -187,16 +240,7 @@ public class GameServerThread extends Thread
 	
 	public void forceClose(int reason)
 	{
-		sendPacket(new LoginServerFail(reason));
-		
-		try
-		{
-			_connection.close();
-		}
-		catch (IOException e)
-		{
-			_log.finer("GameServerThread: Failed disconnecting banned server, server already disconnected.");
-		}
+		_connection.close(new LoginServerFail(reason));
 	}
 	
 	/**
@@ -208,27 +252,6 @@ public class GameServerThread extends Thread
 		return false;
 	}
 	
-	public GameServerThread(Socket con)
-	{
-		_connection = con;
-		_connectionIp = con.getInetAddress().getHostAddress();
-		try
-		{
-			_in = _connection.getInputStream();
-			_out = new BufferedOutputStream(_connection.getOutputStream());
-		}
-		catch (IOException e)
-		{
-			_log.warning(getClass().getSimpleName() + ": " + e.getMessage());
-		}
-		KeyPair pair = GameServerTable.getInstance().getKeyPair();
-		_privateKey = (RSAPrivateKey) pair.getPrivate();
-		_publicKey = (RSAPublicKey) pair.getPublic();
-		_blowfish = new NewCrypt("_;v.]05-31!|+-%xT!^[$\00");
-		setName(getClass().getSimpleName() + "-" + getId() + "@" + _connectionIp);
-		start();
-	}
-	
 	/**
 	 * @param sl
 	 */
@@ -237,21 +260,11 @@ public class GameServerThread extends Thread
 		try
 		{
 			byte[] data = sl.getContent();
-			NewCrypt.appendChecksum(data);
 			if (Config.DEBUG)
 			{
 				_log.finest("[S] " + sl.getClass().getSimpleName() + ":" + Config.EOL + Util.printData(data));
 			}
-			_blowfish.crypt(data, 0, data.length);
-			
-			int len = data.length + 2;
-			synchronized (_out)
-			{
-				_out.write(len & 0xff);
-				_out.write((len >> 8) & 0xff);
-				_out.write(data);
-				_out.flush();
-			}
+			_connection.send(data);
 		}
 		catch (IOException e)
 		{
@@ -274,9 +287,26 @@ public class GameServerThread extends Thread
 	
 	public void requestCharacters(String account)
 	{
+		_characterRequests.put(account, System.nanoTime());
 		sendPacket(new RequestCharacters(account));
 	}
 	
+	/**
+	 * Called when the game server replied to a character request.
+	 * @param account the account
+	 */
+	public void onCharactersReply(String account)
+	{
+		final Long requestTime = _characterRequests.remove(account);
+		if (requestTime != null)
+		{
+			final long time = System.nanoTime() - requestTime;
+			_characterReplies.increment();
+			_characterRoundTrip.add(time);
+			_maxCharacterRoundTrip.accumulate(time);
+		}
+	}
+	
 	public void ChangePasswordResponse(byte successful, String characterName, String msgToSend)
 	{
 		sendPacket(new ChangePasswordResponse(successful, characterName, msgToSend));
@@ -354,7 +384,7 @@ public class GameServerThread extends Thread
 	
 	public void SetBlowFish(NewCrypt blowfish)
 	{
-		_blowfish = blowfish;
+		_connection.setCrypt(blowfish);
 	}
 	
 	public void addAccountOnGameServer(String account)
@@ -376,4 +406,19 @@ public class GameServerThread extends Thread
 	{
 		_loginConnectionState = state;
 	}
+	
+	public String[] getStats()
+	{
+		final long handled = _handled.sum();
+		final long replies = _characterReplies.sum();
+		return new String[]
+		{
+			"GameServer " + getServerDescription() + ":",
+			"   |- PendingPackets:    " + _frameCount.get() + " (max " + _maxFrameCount.get() + ")",
+			"   |- HandleWait:        " + (handled > 0 ? String.format("%.2f", (_handleWait.sum() / 1e6) / handled) : "0") + "ms avg, " + String.format("%.2f", _maxHandleWait.get() / 1e6) + "ms max, " + handled + " packets",
+			"   |- CharacterRequests: " + _characterRequests.size() + " in flight",
+			"   |- CharacterReplies:  " + (replies > 0 ? String.format("%.2f", (_characterRoundTrip.sum() / 1e6) / replies) : "0") + "ms avg, " + String.format("%.2f", _maxCharacterRoundTrip.get() / 1e6) + "ms max, " + replies + " replies",
+			"   |- " + _connection.getStats(),
+		};
+	}
 }
@@ -131,7 +131,7 @@ public final class L2LoginServer
 		final SelectorConfig sc = new SelectorConfig();
 		sc.MAX_READ_PER_PASS = Config.MMO_MAX_READ_PER_PASS;
 		sc.MAX_SEND_PER_PASS = Config.MMO_MAX_SEND_PER_PASS;
-		sc.SLEEP_TIME = Config.MMO_SELECTOR_SLEEP_TIME;
+		sc.SELECTOR_THREADS = Config.MMO_SELECTOR_THREADS;
 		sc.HELPER_BUFFER_COUNT = Config.MMO_HELPER_BUFFER_COUNT;
 		
 		final L2LoginPacketHandler lph = new L2LoginPacketHandler();
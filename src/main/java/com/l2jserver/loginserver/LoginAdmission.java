@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.loginserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.l2jserver.Config;
+import com.l2jserver.loginserver.network.L2LoginClient;
+import com.l2jserver.loginserver.network.clientpackets.RequestAuthLogin;
+
+/**
+ * Login admission pipeline.<br>
+ * Login requests run through two bounded stages: the RSA decryption on a crypto stage sized to the processors, then the account check on a database stage.<br>
+ * At most {@link #getWindow()} requests are in the stages at once, the others wait in the admission queue in order of arrival, so a login storm makes clients wait instead of piling up on the packet threads. The time spent queued does not count against the login timeout, and requests of clients which left meanwhile are dropped.<br>
+ * Also keeps the login statistics: logins per second and the latency of each stage, whether the pipeline is enabled or not.
+ */
+public final class LoginAdmission
+{
+	private static final Logger _log = Logger.getLogger(LoginAdmission.class.getName());
+	
+	/**
+	 * Stages of a login request.
+	 */
+	public enum Stage
+	{
+		QUEUE,
+		DECRYPT,
+		ACCOUNT,
+		CHECKIN
+	}
+	
+	private static final class Task
+	{
+		protected final RequestAuthLogin _request;
+		protected final long _queuedTime;
+		
+		protected Task(RequestAuthLogin request, long queuedTime)
+		{
+			_request = request;
+			_queuedTime = queuedTime;
+		}
+	}
+	
+	private final ThreadPoolExecutor _cryptoExecutor;
+	private final ThreadPoolExecutor _databaseExecutor;
+	private final int _window;
+	private final Queue<Task> _pending = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger _pendingCount = new AtomicInteger();
+	private final AtomicInteger _inFlight = new AtomicInteger();
+	
+	private final LongAdder _submitted = new LongAdder();
+	private final LongAdder _dropped = new LongAdder();
+	private final LongAccumulator _maxPending = new LongAccumulator(Math::max, 0);
+	private final LongAdder _logins = new LongAdder();
+	private final LongAdder _failed = new LongAdder();
+	private final LongAdder[] _stageCount = new LongAdder[Stage.values().length];
+	private final LongAdder[] _stageTime = new LongAdder[Stage.values().length];
+	private final LongAccumulator[] _stageMaxTime = new LongAccumulator[Stage.values().length];
+	
+	// Logins of the current and of the previous second.
+	private final Object _rateLock = new Object();
+	private volatile long _rateSecond;
+	private final AtomicInteger _rateCount = new AtomicInteger();
+	private long _previousSecond;
+	private int _previousCount;
+	private final LongAccumulator _peakRate = new LongAccumulator(Math::max, 0);
+	
+	protected LoginAdmission()
+	{
+		for (int i = 0; i < _stageCount.length; i++)
+		{
+			_stageCount[i] = new LongAdder();
+			_stageTime[i] = new LongAdder();
+			_stageMaxTime[i] = new LongAccumulator(Math::max, 0);
+		}
+		
+		if (Config.LOGIN_ADMISSION)
+		{
+			final int cryptoThreads = Config.LOGIN_ADMISSION_CRYPTO_THREADS > 0 ? Config.LOGIN_ADMISSION_CRYPTO_THREADS : Runtime.getRuntime().availableProcessors();
+			_window = cryptoThreads + Config.LOGIN_ADMISSION_DATABASE_THREADS + Config.LOGIN_ADMISSION_WINDOW;
+			// Both queues hold at most the requests of the window, they never reject.
+			_cryptoExecutor = createExecutor("LoginCrypto", cryptoThreads, _window);
+			_databaseExecutor = createExecutor("LoginDatabase", Config.LOGIN_ADMISSION_DATABASE_THREADS, _window);
+			_log.info(getClass().getSimpleName() + ": Started " + cryptoThreads + " crypto and " + Config.LOGIN_ADMISSION_DATABASE_THREADS + " database threads, window " + _window + ".");
+		}
+		else
+		{
+			_cryptoExecutor = null;
+			_databaseExecutor = null;
+			_window = 0;
+		}
+	}
+	
+	private static ThreadPoolExecutor createExecutor(String name, int threads, int capacity)
+	{
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), r ->
+		{
+			final Thread thread = new Thread(r, name + "-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * @return {@code true} if the login requests run through the pipeline
+	 */
+	public boolean isEnabled()
+	{
+		return _cryptoExecutor != null;
+	}
+	
+	/**
+	 * @return the number of requests admitted in the stages at once
+	 */
+	public int getWindow()
+	{
+		return _window;
+	}
+	
+	/**
+	 * Queues a login request, run as soon as the window allows.
+	 * @param request the request
+	 */
+	public void submit(RequestAuthLogin request)
+	{
+		_submitted.increment();
+		_pending.offer(new Task(request, System.nanoTime()));
+		_maxPending.accumulate(_pendingCount.incrementAndGet());
+		dispatch();
+	}
+	
+	/**
+	 * Moves queued requests into the crypto stage while the window allows.<br>
+	 * Called on submit and whenever a request leaves the stages, so a request queued while the window was full is picked up by the next one leaving.
+	 */
+	private void dispatch()
+	{
+		while (!_pending.isEmpty())
+		{
+			final int inFlight = _inFlight.get();
+			if (inFlight >= _window)
+			{
+				return;
+			}
+			if (!_inFlight.compareAndSet(inFlight, inFlight + 1))
+			{
+				continue;
+			}
+			
+			final Task task = _pending.poll();
+			if (task == null)
+			{
+				_inFlight.decrementAndGet();
+				continue;
+			}
+			_pendingCount.decrementAndGet();
+			_cryptoExecutor.execute(() -> decrypt(task));
+		}
+	}
+	
+	private void decrypt(Task task)
+	{
+		boolean handedOver = false;
+		try
+		{
+			final long start = System.nanoTime();
+			recordStage(Stage.QUEUE, start - task._queuedTime);
+			
+			final L2LoginClient client = task._request.getClient();
+			if (client.getConnection().isClosed())
+			{
+				_dropped.increment();
+				return;
+			}
+			// The client waited for the server, give it the whole login timeout from now.
+			client.setConnectionStartTime(System.currentTimeMillis());
+			
+			if (task._request.decrypt())
+			{
+				_databaseExecutor.execute(() -> authenticate(task));
+				handedOver = true;
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, getClass().getSimpleName() + ": Login request failed!", e);
+		}
+		finally
+		{
+			if (!handedOver)
+			{
+				release();
+			}
+		}
+	}
+	
+	private void authenticate(Task task)
+	{
+		try
+		{
+			task._request.authenticate();
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, getClass().getSimpleName() + ": Login request failed!", e);
+		}
+		finally
+		{
+			release();
+		}
+	}
+	
+	private void release()
+	{
+		_inFlight.decrementAndGet();
+		dispatch();
+	}
+	
+	/**
+	 * @param stage the stage
+	 * @param time the time spent in the stage, in nanoseconds
+	 */
+	public void recordStage(Stage stage, long time)
+	{
+		_stageCount[stage.ordinal()].increment();
+		_stageTime[stage.ordinal()].add(time);
+		_stageMaxTime[stage.ordinal()].accumulate(time);
+	}
+	
+	/**
+	 * @param success {@code true} if the client logged in, {@code false} if it was refused
+	 */
+	public void recordLogin(boolean success)
+	{
+		if (!success)
+		{
+			_failed.increment();
+			return;
+		}
+		
+		_logins.increment();
+		final long second = System.currentTimeMillis() / 1000;
+		if (second != _rateSecond)
+		{
+			synchronized (_rateLock)
+			{
+				if (second != _rateSecond)
+				{
+					_previousSecond = _rateSecond;
+					_previousCount = _rateCount.getAndSet(0);
+					_peakRate.accumulate(_previousCount);
+					_rateSecond = second;
+				}
+			}
+		}
+		_rateCount.incrementAndGet();
+	}
+	
+	/**
+	 * @return the number of logins during the last complete second
+	 */
+	private int getLastSecondLogins()
+	{
+		final long second = (System.currentTimeMillis() / 1000) - 1;
+		synchronized (_rateLock)
+		{
+			if (_rateSecond == second)
+			{
+				return _rateCount.get();
+			}
+			return _previousSecond == second ? _previousCount : 0;
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		stats.add("Login Admission:");
+		stats.add(" |- Enabled:         " + (isEnabled() ? _cryptoExecutor.getCorePoolSize() + " crypto threads, " + _databaseExecutor.getCorePoolSize() + " database threads, window " + _window : "false"));
+		stats.add(" |- Queued:          " + _pendingCount.get() + " (max " + _maxPending.get() + ")");
+		stats.add(" |- InFlight:        " + _inFlight.get());
+		stats.add(" |- Submitted:       " + _submitted.sum());
+		stats.add(" |- Dropped:         " + _dropped.sum());
+		stats.add(" |- Logins:          " + _logins.sum());
+		stats.add(" |- Refused:         " + _failed.sum());
+		stats.add(" |- LoginsPerSecond: " + getLastSecondLogins() + " (peak " + Math.max(_peakRate.get(), _rateCount.get()) + ")");
+		for (Stage stage : Stage.values())
+		{
+			final long count = _stageCount[stage.ordinal()].sum();
+			final String name = stage.name().charAt(0) + stage.name().substring(1).toLowerCase() + ":";
+			stats.add(" |- " + String.format("%-16s", name) + (count > 0 ? String.format("%.2f", (_stageTime[stage.ordinal()].sum() / 1e6) / count) : "0") + "ms avg, " + String.format("%.2f", _stageMaxTime[stage.ordinal()].get() / 1e6) + "ms max, " + count + " times");
+		}
+		
+		final LoginController lc = LoginController.getInstance();
+		stats.add(" |- FailedAttempts:  " + lc.getFailedLoginAttempsCount() + " addresses");
+		stats.add(" |- BannedIps:       " + lc.getBannedIps().size());
+		final AccountCache accountCache = lc.getAccountCache();
+		if (accountCache != null)
+		{
+			for (String line : accountCache.getStats())
+			{
+				stats.add(line);
+			}
+		}
+		return stats.toArray(new String[stats.size()]);
+	}
+	
+	public static LoginAdmission getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final LoginAdmission _instance = new LoginAdmission();
+	}
+}
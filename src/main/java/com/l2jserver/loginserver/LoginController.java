@@ -24,15 +24,16 @@ import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.KeyPairGenerator;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.spec.RSAKeyGenParameterSpec;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -63,9 +64,23 @@ public class LoginController
 	/** Authed Clients on LoginServer */
 	protected Map<String, L2LoginClient> _loginServerClients = new ConcurrentHashMap<>();
 	
-	private final Map<InetAddress, Integer> _failedLoginAttemps = new HashMap<>();
+	private final Map<InetAddress, Integer> _failedLoginAttemps = new ConcurrentHashMap<>();
 	private final Map<InetAddress, Long> _bannedIps = new ConcurrentHashMap<>();
 	
+	private final AccountCache _accountCache = Config.LOGIN_ACCOUNT_CACHE_TIME > 0 ? new AccountCache(Config.LOGIN_ACCOUNT_CACHE_TIME) : null;
+	
+	private static final ThreadLocal<MessageDigest> SHA_DIGEST = ThreadLocal.withInitial(() ->
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	});
+	
 	protected ScrambledKeyPair[] _keyPairs;
 	
 	protected byte[][] _blowfishKeys;
@@ -174,25 +189,8 @@ public class LoginController
 	
 	private void recordFailedLoginAttemp(InetAddress addr)
 	{
-		// We need to synchronize this!
-		// When multiple connections from the same address fail to login at the
-		// same time, unexpected behavior can happen.
-		Integer failedLoginAttemps;
-		synchronized (_failedLoginAttemps)
-		{
-			failedLoginAttemps = _failedLoginAttemps.get(addr);
-			if (failedLoginAttemps == null)
-			{
-				failedLoginAttemps = 1;
-			}
-			else
-			{
-				++failedLoginAttemps;
-			}
-			
-			_failedLoginAttemps.put(addr, failedLoginAttemps);
-		}
-		
+		// Counted atomically per address, connections from other addresses are not held up.
+		final int failedLoginAttemps = _failedLoginAttemps.merge(addr, 1, Integer::sum);
 		if (failedLoginAttemps >= Config.LOGIN_TRY_BEFORE_BAN)
 		{
 			addBanForAddress(addr, Config.LOGIN_BLOCK_AFTER_BAN * 1000);
@@ -204,46 +202,76 @@ public class LoginController
 	
 	private void clearFailedLoginAttemps(InetAddress addr)
 	{
-		synchronized (_failedLoginAttemps)
+		_failedLoginAttemps.remove(addr);
+	}
+	
+	/**
+	 * @return the number of addresses with failed login attempts
+	 */
+	public int getFailedLoginAttempsCount()
+	{
+		return _failedLoginAttemps.size();
+	}
+	
+	/**
+	 * @return the account cache, {@code null} if disabled
+	 */
+	public AccountCache getAccountCache()
+	{
+		return _accountCache;
+	}
+	
+	private AccountInfo loadAccountInfo(String login) throws SQLException
+	{
+		try (Connection con = ConnectionFactory.getInstance().getConnection();
+			PreparedStatement ps = con.prepareStatement(USER_INFO_SELECT))
 		{
-			_failedLoginAttemps.remove(addr);
+			ps.setString(1, Long.toString(System.currentTimeMillis()));
+			ps.setString(2, login);
+			try (ResultSet rset = ps.executeQuery())
+			{
+				if (rset.next())
+				{
+					if (Config.DEBUG)
+					{
+						_log.fine("Account '" + login + "' exists.");
+					}
+					return new AccountInfo(rset.getString("login"), rset.getString("password"), rset.getInt("accessLevel"), rset.getInt("lastServer"));
+				}
+			}
 		}
+		return null;
 	}
 	
 	private AccountInfo retriveAccountInfo(InetAddress addr, String login, String password, boolean autoCreateIfEnabled)
 	{
 		try
 		{
-			MessageDigest md = MessageDigest.getInstance("SHA");
 			byte[] raw = password.getBytes(StandardCharsets.UTF_8);
-			String hashBase64 = Base64.getEncoder().encodeToString(md.digest(raw));
+			String hashBase64 = Base64.getEncoder().encodeToString(SHA_DIGEST.get().digest(raw));
 			
-			try (Connection con = ConnectionFactory.getInstance().getConnection();
-				PreparedStatement ps = con.prepareStatement(USER_INFO_SELECT))
+			AccountInfo info = _accountCache != null ? _accountCache.get(login) : null;
+			if ((info == null) || !info.checkPassHash(hashBase64))
 			{
-				ps.setString(1, Long.toString(System.currentTimeMillis()));
-				ps.setString(2, login);
-				try (ResultSet rset = ps.executeQuery())
+				// Not cached, or cached before a password change.
+				info = loadAccountInfo(login);
+				if ((info != null) && (_accountCache != null))
 				{
-					if (rset.next())
-					{
-						if (Config.DEBUG)
-						{
-							_log.fine("Account '" + login + "' exists.");
-						}
-						
-						AccountInfo info = new AccountInfo(rset.getString("login"), rset.getString("password"), rset.getInt("accessLevel"), rset.getInt("lastServer"));
-						if (!info.checkPassHash(hashBase64))
-						{
-							// wrong password
-							recordFailedLoginAttemp(addr);
-							return null;
-						}
-						
-						clearFailedLoginAttemps(addr);
-						return info;
-					}
+					_accountCache.put(info);
+				}
+			}
+			
+			if (info != null)
+			{
+				if (!info.checkPassHash(hashBase64))
+				{
+					// wrong password
+					recordFailedLoginAttemp(addr);
+					return null;
 				}
+				
+				clearFailedLoginAttemps(addr);
+				return info;
 			}
 			
 			if (!autoCreateIfEnabled || !Config.AUTO_CREATE_ACCOUNTS)
@@ -329,19 +357,18 @@ public class LoginController
 	
 	public boolean isBannedAddress(InetAddress address) throws UnknownHostException
 	{
-		String[] parts = address.getHostAddress().split("\\.");
-		Long bi = _bannedIps.get(address);
-		if (bi == null)
-		{
-			bi = _bannedIps.get(InetAddress.getByName(parts[0] + "." + parts[1] + "." + parts[2] + ".0"));
-		}
-		if (bi == null)
+		if (_bannedIps.isEmpty())
 		{
-			bi = _bannedIps.get(InetAddress.getByName(parts[0] + "." + parts[1] + ".0.0"));
+			return false;
 		}
-		if (bi == null)
+		
+		Long bi = _bannedIps.get(address);
+		final byte[] parts = address.getAddress();
+		// Banned ranges are stored as addresses ending with zeros, built from the raw bytes without parsing.
+		for (int i = parts.length - 1; (bi == null) && (i > 0); i--)
 		{
-			bi = _bannedIps.get(InetAddress.getByName(parts[0] + ".0.0.0"));
+			parts[i] = 0;
+			bi = _bannedIps.get(InetAddress.getByAddress(parts));
 		}
 		if (bi != null)
 		{
@@ -464,6 +491,11 @@ public class LoginController
 				{
 					_log.log(Level.WARNING, "Could not set lastServer: " + e.getMessage(), e);
 				}
+				
+				if (_accountCache != null)
+				{
+					_accountCache.invalidate(client.getAccount());
+				}
 			}
 			return loginOk;
 		}
@@ -483,6 +515,11 @@ public class LoginController
 		{
 			_log.log(Level.WARNING, "Could not set accessLevel: " + e.getMessage(), e);
 		}
+		
+		if (_accountCache != null)
+		{
+			_accountCache.invalidate(account);
+		}
 	}
 	
 	public void setAccountLastTracert(String account, String pcIp, String hop1, String hop2, String hop3, String hop4)
@@ -674,6 +711,11 @@ public class LoginController
 					}
 				}
 				
+				if (_accountCache != null)
+				{
+					_accountCache.purge();
+				}
+				
 				try
 				{
 					Thread.sleep(LOGIN_TIMEOUT / 2);
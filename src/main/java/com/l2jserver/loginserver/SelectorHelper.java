@@ -25,6 +25,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import com.l2jserver.Config;
 import com.l2jserver.loginserver.network.L2LoginClient;
 import com.l2jserver.loginserver.network.serverpackets.Init;
 import com.l2jserver.mmocore.IAcceptFilter;
@@ -45,7 +46,7 @@ public class SelectorHelper implements IMMOExecutor<L2LoginClient>, IClientFacto
 	
 	public SelectorHelper()
 	{
-		_generalPacketsThreadPool = new ThreadPoolExecutor(4, 6, 15L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		_generalPacketsThreadPool = new ThreadPoolExecutor(Config.LOGIN_PACKET_THREADS, Config.LOGIN_PACKET_THREADS, 15L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
 		_ipv4filter = new IPv4Filter();
 	}
 	
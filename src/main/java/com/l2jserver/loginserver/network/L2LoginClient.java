@@ -72,7 +72,7 @@ public final class L2LoginClient extends MMOClient<MMOConnection<L2LoginClient>>
 	private Map<Integer, Integer> _charsOnServers;
 	private Map<Integer, long[]> _charsToDelete;
 	
-	private final long _connectionStartTime;
+	private volatile long _connectionStartTime;
 	
 	/**
 	 * @param con
@@ -214,6 +214,15 @@ public final class L2LoginClient extends MMOClient<MMOConnection<L2LoginClient>>
 		return _connectionStartTime;
 	}
 	
+	/**
+	 * Restarts the login timeout of the client, used when the client had to wait for the server.
+	 * @param connectionStartTime the new start time, in milliseconds
+	 */
+	public void setConnectionStartTime(long connectionStartTime)
+	{
+		_connectionStartTime = connectionStartTime;
+	}
+	
 	public void sendPacket(L2LoginServerPacket lsp)
 	{
 		getConnection().sendPacket(lsp);
@@ -27,6 +27,8 @@ import javax.crypto.Cipher;
 
 import com.l2jserver.Config;
 import com.l2jserver.loginserver.GameServerTable.GameServerInfo;
+import com.l2jserver.loginserver.LoginAdmission;
+import com.l2jserver.loginserver.LoginAdmission.Stage;
 import com.l2jserver.loginserver.LoginController;
 import com.l2jserver.loginserver.LoginController.AuthLoginResult;
 import com.l2jserver.loginserver.model.data.AccountInfo;
@@ -43,13 +45,25 @@ import com.l2jserver.loginserver.network.serverpackets.ServerList;
  * Format: x
  * 0 (a leading null)
  * x: the rsa encrypted block with the login an password.
- * 
+ *
  * <pre>
  */
 public class RequestAuthLogin extends L2LoginClientPacket
 {
 	private static Logger _log = Logger.getLogger(RequestAuthLogin.class.getName());
 	
+	private static final ThreadLocal<Cipher> RSA_CIPHER = ThreadLocal.withInitial(() ->
+	{
+		try
+		{
+			return Cipher.getInstance("RSA/ECB/nopadding");
+		}
+		catch (GeneralSecurityException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	});
+	
 	private final byte[] _raw = new byte[128];
 	
 	private String _user;
@@ -91,18 +105,39 @@ public class RequestAuthLogin extends L2LoginClientPacket
 	@Override
 	public void run()
 	{
+		final LoginAdmission admission = LoginAdmission.getInstance();
+		if (admission.isEnabled())
+		{
+			admission.submit(this);
+		}
+		else if (decrypt())
+		{
+			authenticate();
+		}
+	}
+	
+	/**
+	 * Decrypts the login and the password.
+	 * @return {@code true} if the block could be decrypted
+	 */
+	public boolean decrypt()
+	{
+		final long start = System.nanoTime();
 		byte[] decrypted = null;
-		final L2LoginClient client = getClient();
 		try
 		{
-			final Cipher rsaCipher = Cipher.getInstance("RSA/ECB/nopadding");
-			rsaCipher.init(Cipher.DECRYPT_MODE, client.getRSAPrivateKey());
+			final Cipher rsaCipher = RSA_CIPHER.get();
+			rsaCipher.init(Cipher.DECRYPT_MODE, getClient().getRSAPrivateKey());
 			decrypted = rsaCipher.doFinal(_raw, 0x00, 0x80);
 		}
 		catch (GeneralSecurityException e)
 		{
 			_log.log(Level.INFO, "", e);
-			return;
+			return false;
+		}
+		finally
+		{
+			LoginAdmission.getInstance().recordStage(Stage.DECRYPT, System.nanoTime() - start);
 		}
 		
 		try
@@ -117,21 +152,36 @@ public class RequestAuthLogin extends L2LoginClientPacket
 		catch (Exception e)
 		{
 			_log.log(Level.WARNING, "", e);
-			return;
+			return false;
 		}
-		
+		return true;
+	}
+	
+	/**
+	 * Checks the decrypted login and password, then logs the client in.
+	 */
+	public void authenticate()
+	{
+		final L2LoginClient client = getClient();
 		InetAddress clientAddr = getClient().getConnection().getInetAddress();
 		
+		final LoginAdmission admission = LoginAdmission.getInstance();
 		final LoginController lc = LoginController.getInstance();
+		long start = System.nanoTime();
 		AccountInfo info = lc.retriveAccountInfo(clientAddr, _user, _password);
+		admission.recordStage(Stage.ACCOUNT, System.nanoTime() - start);
 		if (info == null)
 		{
 			// user or pass wrong
+			admission.recordLogin(false);
 			client.close(LoginFailReason.REASON_USER_OR_PASS_WRONG);
 			return;
 		}
 		
+		start = System.nanoTime();
 		AuthLoginResult result = lc.tryCheckinAccount(client, clientAddr, info);
+		admission.recordStage(Stage.CHECKIN, System.nanoTime() - start);
+		admission.recordLogin(result == AuthLoginResult.AUTH_SUCCESS);
 		switch (result)
 		{
 			case AUTH_SUCCESS:
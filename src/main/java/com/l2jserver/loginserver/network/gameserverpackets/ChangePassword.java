@@ -28,9 +28,11 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.l2jserver.commons.database.pool.impl.ConnectionFactory;
+import com.l2jserver.loginserver.AccountCache;
 import com.l2jserver.loginserver.GameServerTable;
 import com.l2jserver.loginserver.GameServerTable.GameServerInfo;
 import com.l2jserver.loginserver.GameServerThread;
+import com.l2jserver.loginserver.LoginController;
 import com.l2jserver.util.network.BaseRecievePacket;
 
 /**
@@ -109,6 +111,13 @@ public class ChangePassword extends BaseRecievePacket
 						passUpdated = ps.executeUpdate();
 					}
 					
+					// the cached account still holds the old password
+					final AccountCache accountCache = LoginController.getInstance().getAccountCache();
+					if (accountCache != null)
+					{
+						accountCache.invalidate(accountName);
+					}
+					
 					_log.log(Level.INFO, "The password for account " + accountName + " has been changed from " + curpassEnc + " to " + Base64.getEncoder().encodeToString(password));
 					if (passUpdated > 0)
 					{
@@ -43,6 +43,7 @@ public class ReplyCharacters extends BaseRecievePacket
 		{
 			charsList[i] = readQ();
 		}
+		server.onCharactersReply(account);
 		LoginController.getInstance().setCharactersOnServer(account, chars, charsList, server.getServerId());
 	}
 }
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.mmocore;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection of a client, owned by one {@link SelectorWorker}.<br>
+ * Packets may be sent from any thread: they are queued and the selector is woken up once, then it writes all queued packets at once.<br>
+ * The outgoing data waits in a chain of pooled direct buffers, handed to the socket in a single gathering write.
+ * @param <T>
+ */
+public class MMOConnection<T extends MMOClient<?>>
+{
+	private static final Logger _log = Logger.getLogger(MMOConnection.class.getName());
+	
+	private final SelectorWorker<T> _worker;
+	
+	private final Socket _socket;
+	
+	private final InetAddress _address;
+	
+	private final SocketChannel _channel;
+	
+	private final int _port;
+	
+	private final Queue<SendablePacket<T>> _sendQueue = new ConcurrentLinkedQueue<>();
+	
+	/** Set while the connection is queued for writing or has outgoing data waiting for the socket. */
+	private final AtomicBoolean _writeScheduled = new AtomicBoolean();
+	
+	private final SelectionKey _selectionKey;
+	
+	// Used by the selector thread only.
+	private ByteBuffer _readBuffer;
+	
+	private final ArrayDeque<ByteBuffer> _outBuffers = new ArrayDeque<>();
+	
+	private ByteBuffer _outTail;
+	
+	private boolean _closed;
+	
+	private volatile boolean _pendingClose;
+	
+	private T _client;
+	
+	MMOConnection(final SelectorWorker<T> worker, final Socket socket, final SelectionKey key, boolean tcpNoDelay)
+	{
+		_worker = worker;
+		_socket = socket;
+		_address = socket.getInetAddress();
+		_channel = socket.getChannel();
+		_port = socket.getPort();
+		_selectionKey = key;
+		
+		try
+		{
+			_socket.setTcpNoDelay(tcpNoDelay);
+		}
+		catch (IOException e)
+		{
+			_log.log(Level.WARNING, "Could not set TCP_NODELAY for " + _address + ": " + e.getMessage(), e);
+		}
+	}
+	
+	final void setClient(final T client)
+	{
+		_client = client;
+	}
+	
+	public final T getClient()
+	{
+		return _client;
+	}
+	
+	public final void sendPacket(final SendablePacket<T> sp)
+	{
+		sp._client = _client;
+		
+		if (_pendingClose)
+		{
+			return;
+		}
+		
+		_sendQueue.add(sp);
+		scheduleWrite();
+	}
+	
+	/**
+	 * Queues the connection for writing on its selector, unless it is already.
+	 */
+	final void scheduleWrite()
+	{
+		if (_writeScheduled.compareAndSet(false, true))
+		{
+			_worker.scheduleWrite(this);
+		}
+	}
+	
+	/**
+	 * Called by the selector when the connection has nothing left to write.
+	 * @return {@code true} if packets were queued meanwhile and the connection must be written again
+	 */
+	final boolean writeDone()
+	{
+		_writeScheduled.set(false);
+		return !_sendQueue.isEmpty() && _writeScheduled.compareAndSet(false, true);
+	}
+	
+	final SelectionKey getSelectionKey()
+	{
+		return _selectionKey;
+	}
+	
+	final SelectorWorker<T> getWorker()
+	{
+		return _worker;
+	}
+	
+	public final InetAddress getInetAddress()
+	{
+		return _address;
+	}
+	
+	public final int getPort()
+	{
+		return _port;
+	}
+	
+	/**
+	 * Closes the socket.
+	 * @return {@code false} if it was already closed
+	 * @throws IOException
+	 */
+	final boolean close() throws IOException
+	{
+		if (_closed)
+		{
+			return false;
+		}
+		_closed = true;
+		_socket.close();
+		return true;
+	}
+	
+	final boolean isSocketClosed()
+	{
+		return _closed;
+	}
+	
+	final int read(final ByteBuffer buf) throws IOException
+	{
+		return _channel.read(buf);
+	}
+	
+	/**
+	 * Appends encrypted data to the outgoing buffers.
+	 * @param src the data, in read mode
+	 */
+	final void queueOutput(final ByteBuffer src)
+	{
+		while (src.hasRemaining())
+		{
+			if ((_outTail == null) || !_outTail.hasRemaining())
+			{
+				if (_outTail != null)
+				{
+					_outTail.flip();
+					_outBuffers.add(_outTail);
+				}
+				_outTail = _worker.getDirectBuffer();
+			}
+			
+			final int count = Math.min(src.remaining(), _outTail.remaining());
+			final int limit = src.limit();
+			src.limit(src.position() + count);
+			_outTail.put(src);
+			src.limit(limit);
+		}
+	}
+	
+	/**
+	 * Writes as much of the outgoing buffers as the socket accepts, in a single gathering write.
+	 * @param array scratch array of at least {@link #getOutputBufferCount()} elements
+	 * @return the number of bytes written, -1 if there was nothing to write
+	 * @throws IOException
+	 */
+	final long writeOutput(final ByteBuffer[] array) throws IOException
+	{
+		if (_outTail != null)
+		{
+			if (_outTail.position() > 0)
+			{
+				_outTail.flip();
+				_outBuffers.add(_outTail);
+			}
+			else
+			{
+				_worker.recycleDirectBuffer(_outTail);
+			}
+			_outTail = null;
+		}
+		
+		final int count = _outBuffers.size();
+		if (count == 0)
+		{
+			return -1;
+		}
+		
+		final long written = _channel.write(_outBuffers.toArray(array), 0, count);
+		while (!_outBuffers.isEmpty() && !_outBuffers.peek().hasRemaining())
+		{
+			_worker.recycleDirectBuffer(_outBuffers.poll());
+		}
+		return written;
+	}
+	
+	/**
+	 * @return the number of buffers {@link #writeOutput(ByteBuffer[])} will write
+	 */
+	final int getOutputBufferCount()
+	{
+		return _outBuffers.size() + 1;
+	}
+	
+	final boolean hasPendingOutput()
+	{
+		return !_outBuffers.isEmpty();
+	}
+	
+	final void setReadBuffer(final ByteBuffer buf)
+	{
+		_readBuffer = buf;
+	}
+	
+	final ByteBuffer getReadBuffer()
+	{
+		return _readBuffer;
+	}
+	
+	public final boolean isClosed()
+	{
+		return _pendingClose;
+	}
+	
+	final Queue<SendablePacket<T>> getSendQueue()
+	{
+		return _sendQueue;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public final void close(final SendablePacket<T> sp)
+	{
+		close(new SendablePacket[]
+		{
+			sp
+		});
+	}
+	
+	public final void close(final SendablePacket<T>[] closeList)
+	{
+		if (_pendingClose)
+		{
+			return;
+		}
+		
+		synchronized (this)
+		{
+			if (_pendingClose)
+			{
+				return;
+			}
+			_pendingClose = true;
+			
+			_sendQueue.clear();
+			for (SendablePacket<T> sp : closeList)
+			{
+				if (sp != null)
+				{
+					_sendQueue.add(sp);
+				}
+			}
+		}
+		
+		_worker.closeConnection(this);
+	}
+	
+	final void releaseBuffers()
+	{
+		if (_readBuffer != null)
+		{
+			_worker.recycleBuffer(_readBuffer);
+			_readBuffer = null;
+		}
+		if (_outTail != null)
+		{
+			_worker.recycleDirectBuffer(_outTail);
+			_outTail = null;
+		}
+		while (!_outBuffers.isEmpty())
+		{
+			_worker.recycleDirectBuffer(_outBuffers.poll());
+		}
+	}
+}
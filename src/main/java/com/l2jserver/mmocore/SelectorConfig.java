@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.mmocore;
+
+/**
+ * Settings of a {@link SelectorThread}.
+ */
+public final class SelectorConfig
+{
+	public int READ_BUFFER_SIZE = 64 * 1024;
+	
+	public int WRITE_BUFFER_SIZE = 64 * 1024;
+	
+	public int HELPER_BUFFER_COUNT = 20;
+	
+	public int HELPER_BUFFER_SIZE = 64 * 1024;
+	
+	/** Size of the direct buffers the outgoing data of the connections is queued in. */
+	public int DIRECT_BUFFER_SIZE = 8 * 1024;
+	
+	/** Number of direct buffers kept by each selector thread. */
+	public int DIRECT_BUFFER_COUNT = 64;
+	
+	/**
+	 * Maximum number of packets sent to a connection in a pass.<br>
+	 * All of them are coalesced in a single socket write.
+	 */
+	public int MAX_SEND_PER_PASS = 10;
+	
+	/** Maximum number of packets read from a connection in a pass. */
+	public int MAX_READ_PER_PASS = 10;
+	
+	/** Number of selector threads the connections are shared among, 0 for one per available processor. */
+	public int SELECTOR_THREADS = 1;
+	
+	/**
+	 * Enables/disables Nagle's algorithm on the sockets.
+	 */
+	public boolean TCP_NODELAY = false;
+}
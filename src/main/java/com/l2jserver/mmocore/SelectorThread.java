@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.mmocore;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Network engine.<br>
+ * This thread accepts the connections and shares them among {@link SelectorConfig#SELECTOR_THREADS} selector threads, each new connection going to the one with the fewest connections.<br>
+ * A connection stays on its selector thread until it is closed, so its packets are read and written in order.
+ * @param <T>
+ */
+public final class SelectorThread<T extends MMOClient<?>> extends Thread
+{
+	private static final Logger _log = Logger.getLogger(SelectorThread.class.getName());
+	
+	// default BYTE_ORDER
+	static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	// default HEADER_SIZE
+	static final int HEADER_SIZE = 2;
+	
+	// Selector of the server sockets
+	private final Selector _selector;
+	
+	private final IAcceptFilter _acceptFilter;
+	
+	private final SelectorWorker<T>[] _workers;
+	
+	private int _nextWorker;
+	
+	private volatile boolean _shutdown;
+	
+	// Statistics, written by this thread only.
+	private long _accepted;
+	private long _rejected;
+	
+	@SuppressWarnings("unchecked")
+	public SelectorThread(final SelectorConfig sc, final IMMOExecutor<T> executor, final IPacketHandler<T> packetHandler, final IClientFactory<T> clientFactory, final IAcceptFilter acceptFilter) throws IOException
+	{
+		super.setName("SelectorThread-" + super.getId());
+		
+		_acceptFilter = acceptFilter;
+		
+		final int threads = sc.SELECTOR_THREADS > 0 ? sc.SELECTOR_THREADS : Runtime.getRuntime().availableProcessors();
+		_workers = new SelectorWorker[threads];
+		for (int i = 0; i < threads; i++)
+		{
+			_workers[i] = new SelectorWorker<>(i + 1, sc, executor, packetHandler, clientFactory);
+		}
+		
+		_selector = Selector.open();
+	}
+	
+	public final void openServerSocket(InetAddress address, int tcpPort) throws IOException
+	{
+		final ServerSocketChannel selectable = ServerSocketChannel.open();
+		selectable.configureBlocking(false);
+		
+		final ServerSocket ss = selectable.socket();
+		
+		if (address == null)
+		{
+			ss.bind(new InetSocketAddress(tcpPort));
+		}
+		else
+		{
+			ss.bind(new InetSocketAddress(address, tcpPort));
+		}
+		
+		selectable.register(_selector, SelectionKey.OP_ACCEPT);
+	}
+	
+	@Override
+	public final void run()
+	{
+		for (SelectorWorker<T> worker : _workers)
+		{
+			worker.start();
+		}
+		
+		while (!_shutdown)
+		{
+			try
+			{
+				_selector.select();
+				
+				final Iterator<SelectionKey> selectedKeys = _selector.selectedKeys().iterator();
+				while (selectedKeys.hasNext())
+				{
+					final SelectionKey key = selectedKeys.next();
+					selectedKeys.remove();
+					if (key.isValid() && key.isAcceptable())
+					{
+						acceptConnections((ServerSocketChannel) key.channel());
+					}
+				}
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.WARNING, getName() + ": " + e.getMessage(), e);
+			}
+		}
+		
+		closeSelectorThread();
+	}
+	
+	private final void acceptConnections(final ServerSocketChannel ssc)
+	{
+		SocketChannel sc;
+		try
+		{
+			while ((sc = ssc.accept()) != null)
+			{
+				if ((_acceptFilter == null) || _acceptFilter.accept(sc))
+				{
+					_accepted++;
+					nextWorker().register(sc);
+				}
+				else
+				{
+					_rejected++;
+					sc.socket().close();
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			_log.log(Level.WARNING, getName() + ": Could not accept connection: " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * @return the selector thread with the fewest connections, ties going round-robin
+	 */
+	private final SelectorWorker<T> nextWorker()
+	{
+		final int count = _workers.length;
+		final int start = _nextWorker;
+		_nextWorker = (start + 1) % count;
+		
+		SelectorWorker<T> worker = _workers[start];
+		for (int i = 1; i < count; i++)
+		{
+			final SelectorWorker<T> other = _workers[(start + i) % count];
+			if (other.getConnectionCount() < worker.getConnectionCount())
+			{
+				worker = other;
+			}
+		}
+		return worker;
+	}
+	
+	public final void shutdown()
+	{
+		_shutdown = true;
+		_selector.wakeup();
+		for (SelectorWorker<T> worker : _workers)
+		{
+			worker.shutdown();
+		}
+	}
+	
+	protected void closeSelectorThread()
+	{
+		for (final SelectionKey key : _selector.keys())
+		{
+			try
+			{
+				key.channel().close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+		
+		try
+		{
+			_selector.close();
+		}
+		catch (IOException e)
+		{
+			// Ignore
+		}
+	}
+	
+	public final String[] getStats()
+	{
+		int connections = 0;
+		for (SelectorWorker<T> worker : _workers)
+		{
+			connections += worker.getConnectionCount();
+		}
+		
+		final List<String> stats = new ArrayList<>();
+		stats.add("Network (" + getName() + "):");
+		stats.add(" |- SelectorThreads: " + _workers.length);
+		stats.add(" |- Connections:     " + connections);
+		stats.add(" |- Accepted:        " + _accepted);
+		stats.add(" |- Rejected:        " + _rejected);
+		for (SelectorWorker<T> worker : _workers)
+		{
+			stats.add(" |- " + worker.getStats());
+		}
+		return stats.toArray(new String[stats.size()]);
+	}
+}
@@ -0,0 +1,726 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.mmocore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Selector thread of a share of the connections of a {@link SelectorThread}.<br>
+ * Blocks in {@link Selector#select()} until a socket is ready or until it is woken up by a new connection, a packet to send or a connection to close. Each of them wakes the selector up once per pass at most.<br>
+ * All reads, packet parsing, encryption and writes of its connections are done on this thread.
+ * @param <T>
+ */
+final class SelectorWorker<T extends MMOClient<?>> extends Thread
+{
+	private static final Logger _log = Logger.getLogger(SelectorWorker.class.getName());
+	
+	private final Selector _selector;
+	
+	// Implementations
+	private final IPacketHandler<T> _packetHandler;
+	private final IMMOExecutor<T> _executor;
+	private final IClientFactory<T> _clientFactory;
+	
+	// Configurations
+	private final int HELPER_BUFFER_SIZE;
+	private final int HELPER_BUFFER_COUNT;
+	private final int DIRECT_BUFFER_SIZE;
+	private final int DIRECT_BUFFER_COUNT;
+	private final int MAX_SEND_PER_PASS;
+	private final int MAX_READ_PER_PASS;
+	private final boolean TCP_NODELAY;
+	
+	// Main Buffers
+	private final ByteBuffer WRITE_BUFFER;
+	private final ByteBuffer READ_BUFFER;
+	
+	// String Buffer
+	private final NioNetStringBuffer STRING_BUFFER;
+	
+	// Pools of the partial read buffers and of the outgoing buffers
+	private final ArrayDeque<ByteBuffer> _bufferPool;
+	private final ArrayDeque<ByteBuffer> _directBufferPool;
+	
+	private ByteBuffer[] _gatherArray = new ByteBuffer[16];
+	
+	// Work handed over by other threads
+	private final Queue<SocketChannel> _pendingRegister = new ConcurrentLinkedQueue<>();
+	private final Queue<MMOConnection<T>> _pendingWrite = new ConcurrentLinkedQueue<>();
+	private final Queue<MMOConnection<T>> _pendingClose = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean _wakeupPending = new AtomicBoolean();
+	
+	// Connections with work left over from the last pass
+	private final ArrayDeque<MMOConnection<T>> _readAgain = new ArrayDeque<>();
+	private final ArrayDeque<MMOConnection<T>> _writeAgain = new ArrayDeque<>();
+	
+	private final AtomicInteger _connections = new AtomicInteger();
+	
+	private volatile boolean _shutdown;
+	
+	// Statistics, written by this thread only and read without synchronization.
+	private final LongAdder _wakeups = new LongAdder();
+	private long _selects;
+	private long _packetsRead;
+	private long _packetsWritten;
+	private long _bytesRead;
+	private long _bytesWritten;
+	private long _socketWrites;
+	private long _incompleteWrites;
+	private long _allocatedBuffers;
+	
+	SelectorWorker(int id, SelectorConfig sc, IMMOExecutor<T> executor, IPacketHandler<T> packetHandler, IClientFactory<T> clientFactory) throws IOException
+	{
+		super("SelectorWorker-" + id);
+		
+		HELPER_BUFFER_SIZE = sc.HELPER_BUFFER_SIZE;
+		HELPER_BUFFER_COUNT = sc.HELPER_BUFFER_COUNT;
+		DIRECT_BUFFER_SIZE = sc.DIRECT_BUFFER_SIZE;
+		DIRECT_BUFFER_COUNT = sc.DIRECT_BUFFER_COUNT;
+		MAX_SEND_PER_PASS = sc.MAX_SEND_PER_PASS;
+		MAX_READ_PER_PASS = sc.MAX_READ_PER_PASS;
+		TCP_NODELAY = sc.TCP_NODELAY;
+		
+		// The client ciphers work on the backing arrays, packets are read and written in heap buffers.
+		READ_BUFFER = ByteBuffer.wrap(new byte[sc.READ_BUFFER_SIZE]).order(SelectorThread.BYTE_ORDER);
+		WRITE_BUFFER = ByteBuffer.wrap(new byte[sc.WRITE_BUFFER_SIZE]).order(SelectorThread.BYTE_ORDER);
+		
+		_bufferPool = new ArrayDeque<>(HELPER_BUFFER_COUNT);
+		for (int i = 0; i < HELPER_BUFFER_COUNT; i++)
+		{
+			_bufferPool.add(ByteBuffer.wrap(new byte[HELPER_BUFFER_SIZE]).order(SelectorThread.BYTE_ORDER));
+		}
+		_directBufferPool = new ArrayDeque<>(DIRECT_BUFFER_COUNT);
+		for (int i = 0; i < DIRECT_BUFFER_COUNT; i++)
+		{
+			_directBufferPool.add(ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE));
+		}
+		
+		STRING_BUFFER = new NioNetStringBuffer(64 * 1024);
+		
+		_packetHandler = packetHandler;
+		_executor = executor;
+		_clientFactory = clientFactory;
+		_selector = Selector.open();
+	}
+	
+	/**
+	 * Hands an accepted socket over to this selector.
+	 * @param sc the socket
+	 */
+	final void register(final SocketChannel sc)
+	{
+		_connections.incrementAndGet();
+		_pendingRegister.add(sc);
+		wakeup();
+	}
+	
+	final void scheduleWrite(final MMOConnection<T> con)
+	{
+		_pendingWrite.add(con);
+		wakeup();
+	}
+	
+	final void closeConnection(final MMOConnection<T> con)
+	{
+		_pendingClose.add(con);
+		wakeup();
+	}
+	
+	private void wakeup()
+	{
+		if (_wakeupPending.compareAndSet(false, true))
+		{
+			_wakeups.increment();
+			_selector.wakeup();
+		}
+	}
+	
+	final ByteBuffer getPooledBuffer()
+	{
+		if (_bufferPool.isEmpty())
+		{
+			_allocatedBuffers++;
+			return ByteBuffer.wrap(new byte[HELPER_BUFFER_SIZE]).order(SelectorThread.BYTE_ORDER);
+		}
+		
+		return _bufferPool.poll();
+	}
+	
+	final void recycleBuffer(final ByteBuffer buf)
+	{
+		if (_bufferPool.size() < HELPER_BUFFER_COUNT)
+		{
+			buf.clear();
+			_bufferPool.add(buf);
+		}
+	}
+	
+	final ByteBuffer getDirectBuffer()
+	{
+		if (_directBufferPool.isEmpty())
+		{
+			_allocatedBuffers++;
+			return ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+		}
+		
+		return _directBufferPool.poll();
+	}
+	
+	final void recycleDirectBuffer(final ByteBuffer buf)
+	{
+		if (_directBufferPool.size() < DIRECT_BUFFER_COUNT)
+		{
+			buf.clear();
+			_directBufferPool.add(buf);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public final void run()
+	{
+		while (!_shutdown)
+		{
+			try
+			{
+				if (_readAgain.isEmpty() && _writeAgain.isEmpty())
+				{
+					_selector.select();
+				}
+				else
+				{
+					_selector.selectNow();
+				}
+				_selects++;
+				// Reset before taking the queued work: whatever is queued from now on wakes the next select up.
+				_wakeupPending.set(false);
+				
+				registerConnections();
+				
+				final Iterator<SelectionKey> selectedKeys = _selector.selectedKeys().iterator();
+				while (selectedKeys.hasNext())
+				{
+					final SelectionKey key = selectedKeys.next();
+					selectedKeys.remove();
+					
+					final MMOConnection<T> con = (MMOConnection<T>) key.attachment();
+					if ((con == null) || !key.isValid())
+					{
+						continue;
+					}
+					
+					final int readyOps = key.readyOps();
+					if ((readyOps & SelectionKey.OP_READ) != 0)
+					{
+						readPacket(key, con);
+					}
+					if (((readyOps & SelectionKey.OP_WRITE) != 0) && key.isValid())
+					{
+						key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+						writePacket(key, con);
+					}
+				}
+				
+				for (int i = _readAgain.size(); i > 0; i--)
+				{
+					final MMOConnection<T> con = _readAgain.poll();
+					final ByteBuffer buf = con.getReadBuffer();
+					if ((buf != null) && !con.isSocketClosed())
+					{
+						buf.flip();
+						parsePackets(con, buf);
+					}
+				}
+				
+				for (int i = _writeAgain.size(); i > 0; i--)
+				{
+					final MMOConnection<T> con = _writeAgain.poll();
+					writePacket(con.getSelectionKey(), con);
+				}
+				
+				MMOConnection<T> con;
+				while ((con = _pendingWrite.poll()) != null)
+				{
+					writePacket(con.getSelectionKey(), con);
+				}
+				
+				while ((con = _pendingClose.poll()) != null)
+				{
+					writeClosePacket(con);
+					closeConnectionImpl(con.getSelectionKey(), con);
+				}
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.WARNING, getName() + ": " + e.getMessage(), e);
+			}
+		}
+		closeSelector();
+	}
+	
+	private final void registerConnections()
+	{
+		SocketChannel sc;
+		while ((sc = _pendingRegister.poll()) != null)
+		{
+			try
+			{
+				sc.configureBlocking(false);
+				final SelectionKey clientKey = sc.register(_selector, SelectionKey.OP_READ);
+				final MMOConnection<T> con = new MMOConnection<>(this, sc.socket(), clientKey, TCP_NODELAY);
+				con.setClient(_clientFactory.create(con));
+				clientKey.attach(con);
+			}
+			catch (Exception e)
+			{
+				_connections.decrementAndGet();
+				try
+				{
+					sc.close();
+				}
+				catch (IOException e1)
+				{
+					// ignore
+				}
+				_log.log(Level.WARNING, getName() + ": Could not register connection: " + e.getMessage(), e);
+			}
+		}
+	}
+	
+	private final void readPacket(final SelectionKey key, final MMOConnection<T> con)
+	{
+		if (con.isClosed())
+		{
+			return;
+		}
+		
+		ByteBuffer buf;
+		if ((buf = con.getReadBuffer()) == null)
+		{
+			buf = READ_BUFFER;
+		}
+		
+		// a read with no space left in the buffer reads 0 bytes forever, the client sent a packet larger than the buffer
+		if (buf.position() == buf.limit())
+		{
+			con.getClient().onForcedDisconnection();
+			closeConnectionImpl(key, con);
+			return;
+		}
+		
+		int result = -2;
+		try
+		{
+			result = con.read(buf);
+		}
+		catch (IOException e)
+		{
+			// error handling goes bellow
+		}
+		
+		if (result > 0)
+		{
+			_bytesRead += result;
+			buf.flip();
+			parsePackets(con, buf);
+		}
+		else if (result == -1)
+		{
+			closeConnectionImpl(key, con);
+		}
+		else if (result == -2)
+		{
+			con.getClient().onForcedDisconnection();
+			closeConnectionImpl(key, con);
+		}
+	}
+	
+	/**
+	 * Parses up to {@link #MAX_READ_PER_PASS} packets, what is left is parsed in the next pass.
+	 * @param con the connection
+	 * @param buf the received data, in read mode
+	 */
+	private final void parsePackets(final MMOConnection<T> con, final ByteBuffer buf)
+	{
+		final T client = con.getClient();
+		for (int i = 0; i < MAX_READ_PER_PASS; i++)
+		{
+			if (!tryReadPacket(client, buf, con))
+			{
+				return;
+			}
+		}
+		
+		// only reachable if MAX_READ_PER_PASS has been reached, keep the remaining bytes for the next pass
+		if (buf.remaining() > 0)
+		{
+			if (buf == READ_BUFFER)
+			{
+				allocateReadBuffer(con);
+			}
+			else
+			{
+				buf.compact();
+			}
+			_readAgain.add(con);
+		}
+	}
+	
+	private final boolean tryReadPacket(final T client, final ByteBuffer buf, final MMOConnection<T> con)
+	{
+		switch (buf.remaining())
+		{
+			case 0:
+				// buffer is full nothing to read
+				return false;
+			case 1:
+				// we don`t have enough data for header so we need to read
+				if (buf == READ_BUFFER)
+				{
+					// move the pending byte to the connections READ_BUFFER
+					allocateReadBuffer(con);
+				}
+				else
+				{
+					// move the first byte to the beginning :)
+					buf.compact();
+				}
+				return false;
+			default:
+				// data size excluding header size :>
+				final int dataPending = (buf.getShort() & 0xFFFF) - SelectorThread.HEADER_SIZE;
+				
+				// do we got enough bytes for the packet?
+				if (dataPending <= buf.remaining())
+				{
+					// avoid parsing dummy packets (packets without body)
+					if (dataPending > 0)
+					{
+						final int pos = buf.position();
+						parseClientPacket(pos, buf, dataPending, client);
+						buf.position(pos + dataPending);
+					}
+					
+					// if we are done with this buffer
+					if (!buf.hasRemaining())
+					{
+						if (buf != READ_BUFFER)
+						{
+							con.setReadBuffer(null);
+							recycleBuffer(buf);
+						}
+						else
+						{
+							READ_BUFFER.clear();
+						}
+						return false;
+					}
+					return true;
+				}
+				
+				// we don`t have enough bytes for the dataPacket so we need to read
+				buf.position(buf.position() - SelectorThread.HEADER_SIZE);
+				if (buf == READ_BUFFER)
+				{
+					// move the pending bytes to the connections READ_BUFFER
+					allocateReadBuffer(con);
+				}
+				else
+				{
+					buf.compact();
+				}
+				return false;
+		}
+	}
+	
+	private final void allocateReadBuffer(final MMOConnection<T> con)
+	{
+		con.setReadBuffer(getPooledBuffer().put(READ_BUFFER));
+		READ_BUFFER.clear();
+	}
+	
+	private final void parseClientPacket(final int pos, final ByteBuffer buf, final int dataSize, final T client)
+	{
+		final boolean ret = client.decrypt(buf, dataSize);
+		
+		if (ret && buf.hasRemaining())
+		{
+			// apply limit
+			final int limit = buf.limit();
+			buf.limit(pos + dataSize);
+			final ReceivablePacket<T> cp = _packetHandler.handlePacket(buf, client);
+			
+			if (cp != null)
+			{
+				_packetsRead++;
+				cp._buf = buf;
+				cp._sbuf = STRING_BUFFER;
+				cp._client = client;
+				
+				if (cp.read())
+				{
+					_executor.execute(cp);
+				}
+				
+				cp._buf = null;
+				cp._sbuf = null;
+			}
+			buf.limit(limit);
+		}
+	}
+	
+	/**
+	 * Writes the queued packets of a connection.<br>
+	 * Up to {@link #MAX_SEND_PER_PASS} packets are encrypted into the outgoing buffers, then all of them are written at once. If the socket does not take everything, the rest is written when it becomes writable.
+	 * @param key the selection key of the connection
+	 * @param con the connection
+	 */
+	private final void writePacket(final SelectionKey key, final MMOConnection<T> con)
+	{
+		// closing connections are written by writeClosePacket
+		if (con.isSocketClosed() || con.isClosed())
+		{
+			return;
+		}
+		
+		if (!con.hasPendingOutput())
+		{
+			final T client = con.getClient();
+			SendablePacket<T> sp;
+			for (int i = 0; (i < MAX_SEND_PER_PASS) && ((sp = con.getSendQueue().poll()) != null); i++)
+			{
+				if (putPacketIntoWriteBuffer(client, sp))
+				{
+					WRITE_BUFFER.flip();
+					con.queueOutput(WRITE_BUFFER);
+				}
+			}
+		}
+		
+		try
+		{
+			final long written = con.writeOutput(getGatherArray(con));
+			if (written >= 0)
+			{
+				_bytesWritten += written;
+				_socketWrites++;
+			}
+		}
+		catch (IOException e)
+		{
+			con.getClient().onForcedDisconnection();
+			closeConnectionImpl(key, con);
+			return;
+		}
+		
+		if (con.hasPendingOutput())
+		{
+			// the socket is full, go on when it is writable again
+			_incompleteWrites++;
+			key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+		else if (!con.getSendQueue().isEmpty() || con.writeDone())
+		{
+			_writeAgain.add(con);
+		}
+	}
+	
+	private final void writeClosePacket(final MMOConnection<T> con)
+	{
+		if (con.isSocketClosed())
+		{
+			return;
+		}
+		
+		final T client = con.getClient();
+		SendablePacket<T> sp;
+		while ((sp = con.getSendQueue().poll()) != null)
+		{
+			if (putPacketIntoWriteBuffer(client, sp))
+			{
+				WRITE_BUFFER.flip();
+				con.queueOutput(WRITE_BUFFER);
+			}
+		}
+		
+		try
+		{
+			final long written = con.writeOutput(getGatherArray(con));
+			if (written >= 0)
+			{
+				_bytesWritten += written;
+				_socketWrites++;
+			}
+		}
+		catch (IOException e)
+		{
+			// ignore
+		}
+	}
+	
+	private final ByteBuffer[] getGatherArray(final MMOConnection<T> con)
+	{
+		final int count = con.getOutputBufferCount();
+		if (_gatherArray.length < count)
+		{
+			_gatherArray = new ByteBuffer[Integer.highestOneBit(count) << 1];
+		}
+		return _gatherArray;
+	}
+	
+	/**
+	 * Writes and encrypts a packet in the write buffer, after its size.
+	 * @param client the client
+	 * @param sp the packet
+	 * @return {@code false} if the packet could not be written
+	 */
+	private final boolean putPacketIntoWriteBuffer(final T client, final SendablePacket<T> sp)
+	{
+		WRITE_BUFFER.clear();
+		
+		// reserve space for the size
+		final int headerPos = WRITE_BUFFER.position();
+		final int dataPos = headerPos + SelectorThread.HEADER_SIZE;
+		WRITE_BUFFER.position(dataPos);
+		
+		// The same packet may be broadcast to clients of other selector threads.
+		synchronized (sp)
+		{
+			try
+			{
+				sp._buf = WRITE_BUFFER;
+				sp._client = client;
+				sp.write();
+			}
+			catch (RuntimeException e)
+			{
+				_log.log(Level.WARNING, getName() + ": Could not write packet " + sp.getClass().getSimpleName() + ": " + e.getMessage(), e);
+				return false;
+			}
+			finally
+			{
+				sp._buf = null;
+			}
+		}
+		
+		// size (inclusive header)
+		int dataSize = WRITE_BUFFER.position() - dataPos;
+		WRITE_BUFFER.position(dataPos);
+		client.encrypt(WRITE_BUFFER, dataSize);
+		
+		// recalculate size after encryption
+		dataSize = WRITE_BUFFER.position() - dataPos;
+		
+		WRITE_BUFFER.position(headerPos);
+		// write header
+		WRITE_BUFFER.putShort((short) (dataSize + SelectorThread.HEADER_SIZE));
+		WRITE_BUFFER.position(dataPos + dataSize);
+		_packetsWritten++;
+		return true;
+	}
+	
+	private final void closeConnectionImpl(final SelectionKey key, final MMOConnection<T> con)
+	{
+		if (con.isSocketClosed())
+		{
+			return;
+		}
+		
+		try
+		{
+			// notify connection
+			con.getClient().onDisconnection();
+		}
+		finally
+		{
+			try
+			{
+				// close socket and the SocketChannel
+				con.close();
+			}
+			catch (IOException e)
+			{
+				// ignore, we are closing anyway
+			}
+			finally
+			{
+				_connections.decrementAndGet();
+				con.releaseBuffers();
+				// clear attachment
+				key.attach(null);
+				// cancel key
+				key.cancel();
+			}
+		}
+	}
+	
+	final void shutdown()
+	{
+		_shutdown = true;
+		_selector.wakeup();
+	}
+	
+	private final void closeSelector()
+	{
+		for (final SelectionKey key : _selector.keys())
+		{
+			try
+			{
+				key.channel().close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+		
+		try
+		{
+			_selector.close();
+		}
+		catch (IOException e)
+		{
+			// Ignore
+		}
+	}
+	
+	final int getConnectionCount()
+	{
+		return _connections.get();
+	}
+	
+	final String getStats()
+	{
+		final long writes = _socketWrites;
+		return getName() + ": " + _connections.get() + " connections, " + _selects + " selects, " + _wakeups.sum() + " wakeups, read " + _packetsRead + " packets/" + _bytesRead + " bytes, written " + _packetsWritten + " packets/" + _bytesWritten + " bytes in " + writes + " writes (" + (writes > 0 ? String.format("%.2f", _packetsWritten / (double) writes) : "0") + " packets/write, " + _incompleteWrites + " incomplete), " + _allocatedBuffers + " buffers allocated";
+	}
+}
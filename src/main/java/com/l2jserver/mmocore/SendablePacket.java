@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.mmocore;
+
+/**
+ * @param <T>
+ */
+public abstract class SendablePacket<T extends MMOClient<?>> extends AbstractPacket<T>
+{
+	protected final void putInt(final int value)
+	{
+		_buf.putInt(value);
+	}
+	
+	protected final void putDouble(final double value)
+	{
+		_buf.putDouble(value);
+	}
+	
+	protected final void putFloat(final float value)
+	{
+		_buf.putFloat(value);
+	}
+	
+	/**
+	 * Write <B>byte</B> to the buffer.<br>
+	 * 8bit integer (00)
+	 * @param data
+	 */
+	protected final void writeC(final int data)
+	{
+		_buf.put((byte) data);
+	}
+	
+	/**
+	 * Write <B>double</B> to the buffer.<br>
+	 * 64bit double precision float (00 00 00 00 00 00 00 00)
+	 * @param value
+	 */
+	protected final void writeF(final double value)
+	{
+		_buf.putDouble(value);
+	}
+	
+	/**
+	 * Write <B>short</B> to the buffer.<br>
+	 * 16bit integer (00 00)
+	 * @param value
+	 */
+	protected final void writeH(final int value)
+	{
+		_buf.putShort((short) value);
+	}
+	
+	/**
+	 * Write <B>int</B> to the buffer.<br>
+	 * 32bit integer (00 00 00 00)
+	 * @param value
+	 */
+	protected final void writeD(final int value)
+	{
+		_buf.putInt(value);
+	}
+	
+	/**
+	 * Write <B>long</B> to the buffer.<br>
+	 * 64bit integer (00 00 00 00 00 00 00 00)
+	 * @param value
+	 */
+	protected final void writeQ(final long value)
+	{
+		_buf.putLong(value);
+	}
+	
+	/**
+	 * Write <B>byte[]</B> to the buffer.<br>
+	 * 8bit integer array (00 ...)
+	 * @param data
+	 */
+	protected final void writeB(final byte[] data)
+	{
+		_buf.put(data);
+	}
+	
+	/**
+	 * Write <B>String</B> to the buffer.
+	 * @param text
+	 */
+	protected final void writeS(final String text)
+	{
+		if (text != null)
+		{
+			final int len = text.length();
+			for (int i = 0; i < len; i++)
+			{
+				_buf.putChar(text.charAt(i));
+			}
+		}
+		
+		_buf.putChar('\000');
+	}
+	
+	protected abstract void write();
+}
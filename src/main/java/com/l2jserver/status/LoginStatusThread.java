@@ -33,6 +33,7 @@ import java.util.logging.Logger;
 import com.l2jserver.Config;
 import com.l2jserver.loginserver.GameServerTable;
 import com.l2jserver.loginserver.L2LoginServer;
+import com.l2jserver.loginserver.LoginAdmission;
 import com.l2jserver.loginserver.LoginController;
 
 public final class LoginStatusThread extends Thread
@@ -200,6 +201,8 @@ public final class LoginStatusThread extends Thread
 					_print.println("The following is a list of all available commands: ");
 					_print.println("help                - shows this help.");
 					_print.println("status              - displays basic server statistics.");
+					_print.println("loginstats          - displays login admission statistics.");
+					_print.println("linkstats           - displays game server link statistics.");
 					_print.println("unblock <ip>        - removes <ip> from banlist.");
 					_print.println("shutdown			- shuts down server.");
 					_print.println("restart				- restarts the server.");
@@ -212,6 +215,20 @@ public final class LoginStatusThread extends Thread
 					// TODO enhance the output
 					_print.println("Registered Server Count: " + GameServerTable.getInstance().getRegisteredGameServers().size());
 				}
+				else if (_usrCommand.equals("loginstats"))
+				{
+					for (String line : LoginAdmission.getInstance().getStats())
+					{
+						_print.println(line);
+					}
+				}
+				else if (_usrCommand.equals("linkstats"))
+				{
+					for (String line : L2LoginServer.getInstance().getGameServerListener().getStats())
+					{
+						_print.println(line);
+					}
+				}
 				else if (_usrCommand.startsWith("unblock"))
 				{
 					try
@@ -20,6 +20,8 @@ package com.l2jserver.util.data.xml;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -77,26 +79,49 @@ public interface IXmlReader
 			return;
 		}
 		
+		try
+		{
+			parseDocument(readFile(f), f);
+		}
+		catch (Exception e)
+		{
+			logParseError(f, e);
+		}
+	}
+	
+	/**
+	 * Reads the validated document of a XML file, from its snapshot if the {@link XmlSnapshotCache} is enabled.
+	 * @param f the XML file to read
+	 * @return the document
+	 * @throws Exception if the file could not be read or is not valid
+	 */
+	default Document readFile(File f) throws Exception
+	{
 		final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 		dbf.setNamespaceAware(true);
 		dbf.setValidating(true);
 		dbf.setIgnoringComments(true);
-		try
-		{
-			dbf.setAttribute(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
-			final DocumentBuilder db = dbf.newDocumentBuilder();
-			db.setErrorHandler(new XMLErrorHandler());
-			parseDocument(db.parse(f), f);
-		}
-		catch (SAXParseException e)
+		dbf.setAttribute(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
+		final DocumentBuilder db = dbf.newDocumentBuilder();
+		db.setErrorHandler(new XMLErrorHandler());
+		return XmlSnapshotCache.getInstance().read(f, db);
+	}
+	
+	/**
+	 * Logs the error which prevented parsing a XML file.
+	 * @param f the XML file
+	 * @param e the error
+	 */
+	default void logParseError(File f, Exception e)
+	{
+		if (e instanceof SAXParseException)
 		{
-			LOG.warn("{}: Could not parse file {} at line {}, column {}", getClass().getSimpleName(), f.getName(), e.getLineNumber(), e.getColumnNumber(), e);
-			return;
+			final SAXParseException spe = (SAXParseException) e;
+			LOG.warn("{}: Could not parse file {} at line {}, column {}", getClass().getSimpleName(), f.getName(), spe.getLineNumber(), spe.getColumnNumber(), e);
 		}
-		catch (Exception e)
+		else
 		{
 			LOG.warn("{}: Could not parse file {}", getClass().getSimpleName(), f.getName(), e);
-			return;
 		}
 	}
 	
@@ -132,7 +157,8 @@ public interface IXmlReader
 	}
 	
 	/**
-	 * Loads all XML files from {@code path} and calls {@link #parseFile(File)} for each one of them.
+	 * Loads all XML files from {@code path} and calls {@link #parseDocument(Document, File)} for each one of them.<br>
+	 * The files are parsed by the {@link ParallelDocumentLoader}, their documents are still parsed in order by the calling thread.
 	 * @param dir the directory object to scan.
 	 * @param recursive parses all sub folders if there is.
 	 * @return {@code false} if it fails to find the directory, {@code true} otherwise.
@@ -145,22 +171,52 @@ public interface IXmlReader
 			return false;
 		}
 		
-		final File[] files = dir.listFiles();
-		if (files != null)
+		final List<File> files = new ArrayList<>();
+		listFiles(dir, recursive, getCurrentFileFilter(), files);
+		ParallelDocumentLoader.load(files, this::readFile, (f, doc, error) ->
+		{
+			if (error != null)
+			{
+				logParseError(f, error);
+				return;
+			}
+			
+			try
+			{
+				parseDocument(doc, f);
+			}
+			catch (Exception e)
+			{
+				logParseError(f, e);
+			}
+		});
+		return true;
+	}
+	
+	/**
+	 * Lists the files of a directory accepted by a filter, sub folders being listed where they are found.
+	 * @param dir the directory
+	 * @param recursive lists all sub folders if there is
+	 * @param filter the file filter
+	 * @param files the list the files are added to
+	 */
+	static void listFiles(File dir, boolean recursive, FileFilter filter, List<File> files)
+	{
+		final File[] list = dir.listFiles();
+		if (list != null)
 		{
-			for (File f : files)
+			for (File f : list)
 			{
 				if (recursive && f.isDirectory())
 				{
-					parseDirectory(f, recursive);
+					listFiles(f, recursive, filter, files);
 				}
-				else if (getCurrentFileFilter().accept(f))
+				else if (filter.accept(f))
 				{
-					parseFile(f);
+					files.add(f);
 				}
 			}
 		}
-		return true;
 	}
 	
 	/**
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util.data.xml;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.w3c.dom.Document;
+
+import com.l2jserver.Config;
+
+/**
+ * Parallel loader of XML files.<br>
+ * Files are parsed concurrently by a bounded pool of {@link Config#XML_LOAD_THREADS} threads, while their documents are handled one by one on the calling thread, in the order of the files.<br>
+ * So the loaded data is the same as with a sequential load and the handlers need not be thread safe. Only a few files are parsed ahead of the one being handled, to bound the memory used by the documents.
+ */
+public final class ParallelDocumentLoader
+{
+	/**
+	 * Reader of the document of a file, called by the pool threads.
+	 */
+	public interface DocumentReader
+	{
+		Document read(File file) throws Exception;
+	}
+	
+	/**
+	 * Handler of a read document, called by the loading thread.
+	 */
+	public interface DocumentHandler
+	{
+		/**
+		 * @param file the file
+		 * @param doc the document, {@code null} if it could not be read
+		 * @param error the error which prevented reading the document, {@code null} if it was read
+		 */
+		void handle(File file, Document doc, Exception error);
+	}
+	
+	private static final class LoaderThread extends Thread
+	{
+		protected LoaderThread(Runnable r, String name)
+		{
+			super(r, name);
+			setDaemon(true);
+		}
+	}
+	
+	private ParallelDocumentLoader()
+	{
+	}
+	
+	/**
+	 * Reads the documents of the specified files and handles them in the order of the files.<br>
+	 * Files are read by the calling thread when {@link Config#XML_PARALLEL_LOAD} is disabled, or when called by a loader thread.
+	 * @param files the files
+	 * @param reader the document reader
+	 * @param handler the document handler
+	 */
+	public static void load(List<File> files, DocumentReader reader, DocumentHandler handler)
+	{
+		if (!Config.XML_PARALLEL_LOAD || (files.size() < 2) || (Thread.currentThread() instanceof LoaderThread))
+		{
+			for (File file : files)
+			{
+				Document doc = null;
+				Exception error = null;
+				try
+				{
+					doc = reader.read(file);
+				}
+				catch (Exception e)
+				{
+					error = e;
+				}
+				handler.handle(file, doc, error);
+			}
+			return;
+		}
+		
+		final int window = Config.XML_LOAD_THREADS * 4;
+		final List<Future<Document>> futures = new ArrayList<>(files.size());
+		try
+		{
+			for (int i = 0; i < files.size(); i++)
+			{
+				while ((futures.size() < files.size()) && (futures.size() < (i + window)))
+				{
+					final File file = files.get(futures.size());
+					futures.add(SingletonHolder._executor.submit(() -> reader.read(file)));
+				}
+				
+				// Released once handled, the document may be collected.
+				final Future<Document> future = futures.set(i, null);
+				Document doc = null;
+				Exception error = null;
+				try
+				{
+					doc = future.get();
+				}
+				catch (ExecutionException e)
+				{
+					error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				}
+				handler.handle(files.get(i), doc, error);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			for (Future<Document> future : futures)
+			{
+				if (future != null)
+				{
+					future.cancel(true);
+				}
+			}
+		}
+	}
+	
+	private static class SingletonHolder
+	{
+		private static final AtomicInteger _threadNumber = new AtomicInteger(1);
+		protected static final ThreadPoolExecutor _executor = new ThreadPoolExecutor(Config.XML_LOAD_THREADS, Config.XML_LOAD_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> new LoaderThread(r, "XmlLoader-" + _threadNumber.getAndIncrement()));
+		
+		static
+		{
+			// Files are loaded on startup and reload only, the threads don't outlive them.
+			_executor.allowCoreThreadTimeOut(true);
+		}
+	}
+}
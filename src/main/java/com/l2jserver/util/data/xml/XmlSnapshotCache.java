@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util.data.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.l2jserver.Config;
+
+/**
+ * Binary snapshot cache of XML documents.<br>
+ * Once a file is parsed its document tree is written to {@link Config#XML_SNAPSHOT_CACHE_PATH}, in a compact format where each distinct name or text is stored once.<br>
+ * Snapshots are keyed by the SHA-1 hash of the content of their file, as long as the file is unchanged its document is rebuilt from the snapshot, without tokenizing nor validating the XML again.<br>
+ * The key of a validated document also covers all schemas of the datapack, hashed once per run: a changed schema validates every document again and supplies its own default values.<br>
+ * Only documents which were parsed successfully get a snapshot, so validation errors are still reported on every startup.
+ */
+public final class XmlSnapshotCache
+{
+	private static final Logger LOG = LoggerFactory.getLogger(XmlSnapshotCache.class);
+	
+	private static final int MAGIC = 0x4C32584D;
+	private static final int VERSION = 2;
+	
+	private static final int ELEMENT = 1;
+	private static final int TEXT = 2;
+	private static final int CDATA = 3;
+	private static final int END = 0;
+	
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _written = new LongAdder();
+	private final LongAdder _failed = new LongAdder();
+	private final LongAdder _readTime = new LongAdder();
+	private final LongAdder _parseTime = new LongAdder();
+	
+	private volatile byte[] _schemaHash;
+	
+	protected XmlSnapshotCache()
+	{
+	}
+	
+	/**
+	 * Reads the document of a XML file, from its snapshot if the cache is enabled and the file didn't change since.
+	 * @param file the XML file
+	 * @param builder the builder parsing the file, it also creates the documents rebuilt from snapshots
+	 * @return the document
+	 * @throws Exception if the file could not be parsed
+	 */
+	public Document read(File file, DocumentBuilder builder) throws Exception
+	{
+		if (!Config.XML_SNAPSHOT_CACHE)
+		{
+			return builder.parse(file);
+		}
+		
+		final long start = System.nanoTime();
+		final byte[] content = Files.readAllBytes(file.toPath());
+		final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+		digest.update(content);
+		if (builder.isValidating())
+		{
+			digest.update(getSchemaHash());
+		}
+		final byte[] hash = digest.digest();
+		final int mode = (builder.isNamespaceAware() ? 1 : 0) | (builder.isValidating() ? 2 : 0);
+		final File snapshot = getSnapshotFile(file);
+		if (snapshot.isFile())
+		{
+			try
+			{
+				final Document doc = readSnapshot(Files.readAllBytes(snapshot.toPath()), hash, mode, builder);
+				if (doc != null)
+				{
+					_hits.increment();
+					_readTime.add(System.nanoTime() - start);
+					return doc;
+				}
+			}
+			catch (Exception e)
+			{
+				LOG.debug("{}: Could not read snapshot {}, parsing {} again.", getClass().getSimpleName(), snapshot, file, e);
+			}
+		}
+		
+		_misses.increment();
+		// The system id is needed to resolve the schema location, relative to the file.
+		final Document doc = builder.parse(new ByteArrayInputStream(content), file.toURI().toString());
+		_parseTime.add(System.nanoTime() - start);
+		try
+		{
+			writeSnapshot(snapshot, doc, hash, mode);
+			_written.increment();
+		}
+		catch (Exception e)
+		{
+			_failed.increment();
+			LOG.warn("{}: Could not write snapshot {}!", getClass().getSimpleName(), snapshot, e);
+		}
+		return doc;
+	}
+	
+	/**
+	 * @return the SHA-1 hash of the path and content of all schema files in the data folder of the datapack
+	 * @throws Exception if a schema file could not be read
+	 */
+	private byte[] getSchemaHash() throws Exception
+	{
+		byte[] hash = _schemaHash;
+		if (hash == null)
+		{
+			synchronized (this)
+			{
+				hash = _schemaHash;
+				if (hash == null)
+				{
+					final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+					final Path root = new File(Config.DATAPACK_ROOT, "data").toPath().toAbsolutePath().normalize();
+					final Path cache = new File(Config.XML_SNAPSHOT_CACHE_PATH).toPath().toAbsolutePath().normalize();
+					if (Files.isDirectory(root))
+					{
+						final List<Path> schemas;
+						try (Stream<Path> paths = Files.walk(root))
+						{
+							schemas = paths.filter(path -> !path.startsWith(cache) && path.getFileName().toString().endsWith(".xsd") && Files.isRegularFile(path)).sorted().collect(Collectors.toList());
+						}
+						for (Path schema : schemas)
+						{
+							digest.update(root.relativize(schema).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+							digest.update((byte) 0);
+							digest.update(Files.readAllBytes(schema));
+						}
+						LOG.debug("{}: Hashed {} schema files.", getClass().getSimpleName(), schemas.size());
+					}
+					hash = digest.digest();
+					_schemaHash = hash;
+				}
+			}
+		}
+		return hash;
+	}
+	
+	private static File getSnapshotFile(File file)
+	{
+		final Path root = Config.DATAPACK_ROOT.toPath().toAbsolutePath().normalize();
+		final Path path = file.toPath().toAbsolutePath().normalize();
+		final String name = path.startsWith(root) ? root.relativize(path).toString() : "external/" + Integer.toHexString(path.getParent().toString().hashCode()) + "/" + path.getFileName();
+		return new File(Config.XML_SNAPSHOT_CACHE_PATH, name + ".bin");
+	}
+	
+	private static Document readSnapshot(byte[] data, byte[] hash, int mode, DocumentBuilder builder) throws IOException
+	{
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		if ((in.readInt() != MAGIC) || (in.readUnsignedByte() != VERSION) || (in.readUnsignedByte() != mode))
+		{
+			return null;
+		}
+		final byte[] snapshotHash = new byte[hash.length];
+		in.readFully(snapshotHash);
+		if (!Arrays.equals(hash, snapshotHash))
+		{
+			return null;
+		}
+		
+		final String[] strings = new String[readVarInt(in)];
+		for (int i = 0; i < strings.length; i++)
+		{
+			final byte[] bytes = new byte[readVarInt(in)];
+			in.readFully(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		
+		final Document doc = builder.newDocument();
+		if (in.readUnsignedByte() != ELEMENT)
+		{
+			throw new IOException("Snapshot without root element");
+		}
+		doc.appendChild(readElement(in, doc, strings, (mode & 1) != 0));
+		return doc;
+	}
+	
+	private static Element readElement(DataInputStream in, Document doc, String[] strings, boolean namespaceAware) throws IOException
+	{
+		final String name = strings[readVarInt(in)];
+		final int ns = readVarInt(in);
+		final Element element = namespaceAware ? doc.createElementNS(ns > 0 ? strings[ns - 1] : null, name) : doc.createElement(name);
+		for (int i = readVarInt(in); i > 0; i--)
+		{
+			final String attrName = strings[readVarInt(in)];
+			final int attrNs = readVarInt(in);
+			final String value = strings[readVarInt(in)];
+			if (namespaceAware)
+			{
+				element.setAttributeNS(attrNs > 0 ? strings[attrNs - 1] : null, attrName, value);
+			}
+			else
+			{
+				element.setAttribute(attrName, value);
+			}
+		}
+		
+		int type;
+		while ((type = in.readUnsignedByte()) != END)
+		{
+			switch (type)
+			{
+				case ELEMENT:
+					element.appendChild(readElement(in, doc, strings, namespaceAware));
+					break;
+				case TEXT:
+					element.appendChild(doc.createTextNode(strings[readVarInt(in)]));
+					break;
+				case CDATA:
+					element.appendChild(doc.createCDATASection(strings[readVarInt(in)]));
+					break;
+				default:
+					throw new IOException("Unknown node type " + type);
+			}
+		}
+		return element;
+	}
+	
+	private static void writeSnapshot(File snapshot, Document doc, byte[] hash, int mode) throws IOException
+	{
+		final Map<String, Integer> strings = new HashMap<>();
+		final ByteArrayOutputStream tree = new ByteArrayOutputStream();
+		final DataOutputStream treeOut = new DataOutputStream(tree);
+		writeElement(treeOut, doc.getDocumentElement(), strings);
+		
+		final String[] table = new String[strings.size()];
+		for (Map.Entry<String, Integer> entry : strings.entrySet())
+		{
+			table[entry.getValue()] = entry.getKey();
+		}
+		
+		final ByteArrayOutputStream data = new ByteArrayOutputStream(tree.size() + 1024);
+		final DataOutputStream out = new DataOutputStream(data);
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeByte(mode);
+		out.write(hash);
+		writeVarInt(out, table.length);
+		for (String string : table)
+		{
+			final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(out, bytes.length);
+			out.write(bytes);
+		}
+		tree.writeTo(out);
+		out.flush();
+		
+		// Written aside and then moved, so a snapshot is never read half written.
+		final File dir = snapshot.getParentFile();
+		Files.createDirectories(dir.toPath());
+		final Path temp = Files.createTempFile(dir.toPath(), snapshot.getName(), ".tmp");
+		try
+		{
+			Files.write(temp, data.toByteArray());
+			Files.move(temp, snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally
+		{
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	private static void writeElement(DataOutputStream out, Element element, Map<String, Integer> strings) throws IOException
+	{
+		out.writeByte(ELEMENT);
+		writeVarInt(out, index(element.getNodeName(), strings));
+		writeVarInt(out, element.getNamespaceURI() != null ? index(element.getNamespaceURI(), strings) + 1 : 0);
+		final NamedNodeMap attrs = element.getAttributes();
+		writeVarInt(out, attrs.getLength());
+		for (int i = 0; i < attrs.getLength(); i++)
+		{
+			final Attr attr = (Attr) attrs.item(i);
+			writeVarInt(out, index(attr.getNodeName(), strings));
+			writeVarInt(out, attr.getNamespaceURI() != null ? index(attr.getNamespaceURI(), strings) + 1 : 0);
+			writeVarInt(out, index(attr.getValue(), strings));
+		}
+		
+		final NodeList children = element.getChildNodes();
+		for (int i = 0; i < children.getLength(); i++)
+		{
+			final Node child = children.item(i);
+			switch (child.getNodeType())
+			{
+				case Node.ELEMENT_NODE:
+					writeElement(out, (Element) child, strings);
+					break;
+				case Node.TEXT_NODE:
+					out.writeByte(TEXT);
+					writeVarInt(out, index(child.getNodeValue(), strings));
+					break;
+				case Node.CDATA_SECTION_NODE:
+					out.writeByte(CDATA);
+					writeVarInt(out, index(child.getNodeValue(), strings));
+					break;
+				default:
+					// Comments are ignored by the parsers, processing instructions are not used.
+					break;
+			}
+		}
+		out.writeByte(END);
+	}
+	
+	private static int index(String string, Map<String, Integer> strings)
+	{
+		final Integer index = strings.get(string);
+		if (index != null)
+		{
+			return index;
+		}
+		strings.put(string, strings.size());
+		return strings.size() - 1;
+	}
+	
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+	
+	private static int readVarInt(DataInputStream in) throws IOException
+	{
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7)
+		{
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+	
+	public String[] getStats()
+	{
+		final long hits = _hits.sum();
+		final long misses = _misses.sum();
+		return new String[]
+		{
+			"XML Snapshot Cache:",
+			" |- Enabled:      " + Config.XML_SNAPSHOT_CACHE,
+			" |- Hits:         " + hits,
+			" |- Misses:       " + misses,
+			" |- Written:      " + _written.sum(),
+			" |- Failed:       " + _failed.sum(),
+			" |- AvgReadTime:  " + (hits > 0 ? String.format("%.2f", (_readTime.sum() / 1e6) / hits) : "0") + "ms",
+			" |- AvgParseTime: " + (misses > 0 ? String.format("%.2f", (_parseTime.sum() / 1e6) / misses) : "0") + "ms",
+		};
+	}
+	
+	public static XmlSnapshotCache getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final XmlSnapshotCache _instance = new XmlSnapshotCache();
+	}
+}
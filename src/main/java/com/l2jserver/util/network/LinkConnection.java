@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util.network;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import com.l2jserver.util.crypt.NewCrypt;
+
+/**
+ * Non-blocking connection of the link between a game server and the login server.<br>
+ * A frame is made of its length on two bytes, little endian and counting itself, then of the packet with its checksum, encrypted with Blowfish.<br>
+ * Packets are encrypted by the sending thread and queued, the selector thread then writes all frames queued meanwhile in a single gathering write. Senders never block on the socket, and a burst of packets costs one system call.
+ */
+public final class LinkConnection
+{
+	private static final Logger _log = Logger.getLogger(LinkConnection.class.getName());
+	
+	/** Most frames written by a single gathering write. */
+	private static final int MAX_GATHER = 64;
+	
+	private final LinkSelector _selector;
+	private final SocketChannel _channel;
+	private final LinkHandler _handler;
+	private final InetAddress _address;
+	private volatile NewCrypt _crypt;
+	private volatile SelectionKey _key;
+	
+	private final ByteBuffer _readBuffer = ByteBuffer.allocate(0x10000).order(ByteOrder.LITTLE_ENDIAN);
+	
+	private final Queue<ByteBuffer> _sendQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean _writeScheduled = new AtomicBoolean();
+	private volatile boolean _closePending;
+	private final AtomicBoolean _closed = new AtomicBoolean();
+	
+	// Frames taken from the send queue and not completely written, selector thread only.
+	private final ArrayDeque<ByteBuffer> _writing = new ArrayDeque<>(MAX_GATHER);
+	private final ByteBuffer[] _gatherArray = new ByteBuffer[MAX_GATHER];
+	
+	// Statistics
+	private final LongAdder _framesQueued = new LongAdder();
+	private final LongAdder _framesSent = new LongAdder();
+	private final LongAdder _framesReceived = new LongAdder();
+	private final LongAdder _bytesSent = new LongAdder();
+	private final LongAdder _bytesReceived = new LongAdder();
+	private final LongAdder _writes = new LongAdder();
+	private final LongAdder _incompleteWrites = new LongAdder();
+	
+	LinkConnection(LinkSelector selector, SocketChannel channel, NewCrypt crypt, LinkHandler handler)
+	{
+		_selector = selector;
+		_channel = channel;
+		_crypt = crypt;
+		_handler = handler;
+		_address = channel.socket().getInetAddress();
+	}
+	
+	SocketChannel getChannel()
+	{
+		return _channel;
+	}
+	
+	SelectionKey getSelectionKey()
+	{
+		return _key;
+	}
+	
+	void setSelectionKey(SelectionKey key)
+	{
+		_key = key;
+	}
+	
+	public InetAddress getInetAddress()
+	{
+		return _address;
+	}
+	
+	/**
+	 * Changes the cipher of the following frames, in both directions.
+	 * @param crypt the cipher
+	 */
+	public void setCrypt(NewCrypt crypt)
+	{
+		_crypt = crypt;
+	}
+	
+	/**
+	 * Queues a packet.
+	 * @param packet the packet
+	 */
+	public void send(BaseSendablePacket packet)
+	{
+		final byte[] data;
+		try
+		{
+			data = packet.getContent();
+		}
+		catch (IOException e)
+		{
+			_log.warning(getClass().getSimpleName() + ": Could not write " + packet.getClass().getSimpleName() + ": " + e.getMessage());
+			return;
+		}
+		send(data);
+	}
+	
+	/**
+	 * Queues the content of a packet, the checksum is appended and the content encrypted in place.
+	 * @param data the content of the packet, as returned by {@link BaseSendablePacket#getContent()}
+	 */
+	public void send(byte[] data)
+	{
+		if (_closePending || _closed.get())
+		{
+			return;
+		}
+		
+		NewCrypt.appendChecksum(data);
+		_crypt.crypt(data, 0, data.length);
+		
+		final ByteBuffer frame = ByteBuffer.allocate(data.length + 2).order(ByteOrder.LITTLE_ENDIAN);
+		frame.putShort((short) (data.length + 2));
+		frame.put(data);
+		frame.flip();
+		_sendQueue.offer(frame);
+		_framesQueued.increment();
+		scheduleWrite();
+	}
+	
+	/**
+	 * Makes the selector thread write this connection, and call {@link LinkHandler#onWrite(LinkConnection)} before.
+	 */
+	public void scheduleWrite()
+	{
+		if (_writeScheduled.compareAndSet(false, true))
+		{
+			_selector.scheduleWrite(this);
+		}
+	}
+	
+	/**
+	 * Writes the queued frames, selector thread only.
+	 * @return {@code true} if all frames were written, {@code false} if the socket is full
+	 */
+	boolean write()
+	{
+		try
+		{
+			_handler.onWrite(this);
+			for (;;)
+			{
+				ByteBuffer frame;
+				while ((_writing.size() < MAX_GATHER) && ((frame = _sendQueue.poll()) != null))
+				{
+					_writing.add(frame);
+				}
+				
+				if (_writing.isEmpty())
+				{
+					_writeScheduled.set(false);
+					// Work queued while the flag was set did not schedule a write, it is picked up here.
+					_handler.onWrite(this);
+					if (_sendQueue.isEmpty() || !_writeScheduled.compareAndSet(false, true))
+					{
+						if (_closePending && _sendQueue.isEmpty())
+						{
+							close();
+						}
+						return true;
+					}
+					continue;
+				}
+				
+				final int count = _writing.size();
+				_writing.toArray(_gatherArray);
+				final long written = _channel.write(_gatherArray, 0, count);
+				_writes.increment();
+				_bytesSent.add(written);
+				while (!_writing.isEmpty() && !_writing.peek().hasRemaining())
+				{
+					_writing.poll();
+					_framesSent.increment();
+				}
+				if (!_writing.isEmpty())
+				{
+					_incompleteWrites.increment();
+					return false;
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			close();
+			return true;
+		}
+	}
+	
+	/**
+	 * Reads the available frames and hands them over to the handler, selector thread only.
+	 */
+	void read()
+	{
+		final int read;
+		try
+		{
+			read = _channel.read(_readBuffer);
+		}
+		catch (IOException e)
+		{
+			close();
+			return;
+		}
+		if (read < 0)
+		{
+			close();
+			return;
+		}
+		_bytesReceived.add(read);
+		
+		_readBuffer.flip();
+		while (_readBuffer.remaining() >= 2)
+		{
+			final int position = _readBuffer.position();
+			final int size = (_readBuffer.getShort() & 0xFFFF) - 2;
+			if ((size <= 0) || ((size % 8) != 0))
+			{
+				_log.warning(getClass().getSimpleName() + ": Invalid frame of " + size + " bytes from " + _address.getHostAddress() + ", closing connection.");
+				close();
+				return;
+			}
+			if (_readBuffer.remaining() < size)
+			{
+				_readBuffer.position(position);
+				break;
+			}
+			
+			final byte[] frame = new byte[size];
+			_readBuffer.get(frame);
+			_framesReceived.increment();
+			_handler.onFrame(this, frame);
+		}
+		_readBuffer.compact();
+	}
+	
+	/**
+	 * Decrypts a frame given to {@link LinkHandler#onFrame(LinkConnection, byte[])}, in place.<br>
+	 * Must be called in the order the frames were read.
+	 * @param frame the frame
+	 * @return {@code true} if the checksum of the frame is correct
+	 */
+	public boolean decrypt(byte[] frame)
+	{
+		_crypt.decrypt(frame, 0, frame.length);
+		return NewCrypt.verifyChecksum(frame);
+	}
+	
+	/**
+	 * Closes the connection once the packets queued so far are written.
+	 * @param packet a last packet to send, {@code null} for none
+	 */
+	public void close(BaseSendablePacket packet)
+	{
+		if (packet != null)
+		{
+			send(packet);
+		}
+		_closePending = true;
+		if (_writeScheduled.compareAndSet(false, true))
+		{
+			_selector.scheduleWrite(this);
+		}
+	}
+	
+	/**
+	 * Closes the connection at once, the queued frames are dropped.
+	 */
+	public void close()
+	{
+		if (!_closed.compareAndSet(false, true))
+		{
+			return;
+		}
+		
+		try
+		{
+			_channel.close();
+		}
+		catch (IOException e)
+		{
+			// Nothing to do.
+		}
+		_handler.onDisconnection(this);
+	}
+	
+	public boolean isClosed()
+	{
+		return _closed.get();
+	}
+	
+	/**
+	 * @return the number of frames queued and not written yet
+	 */
+	public int getSendQueueSize()
+	{
+		return (int) (_framesQueued.sum() - _framesSent.sum());
+	}
+	
+	public String getStats()
+	{
+		final long writes = _writes.sum();
+		final long framesSent = _framesSent.sum();
+		return "Link: " + getSendQueueSize() + " frames queued, read " + _framesReceived.sum() + " frames/" + _bytesReceived.sum() + " bytes, written " + framesSent + " frames/" + _bytesSent.sum() + " bytes in " + writes + " writes (" + (writes > 0 ? String.format("%.2f", framesSent / (double) writes) : "0") + " frames/write, " + _incompleteWrites.sum() + " incomplete)";
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util.network;
+
+/**
+ * Receiver of the events of a {@link LinkConnection}.
+ */
+public interface LinkHandler
+{
+	/**
+	 * Called by the selector thread for each frame read.<br>
+	 * The frame is still encrypted, see {@link LinkConnection#decrypt(byte[])}: decrypting it where it is handled keeps a change of the key in order with the frames.
+	 * @param con the connection
+	 * @param frame the encrypted frame, without its length
+	 */
+	void onFrame(LinkConnection con, byte[] frame);
+	
+	/**
+	 * Called by the selector thread before it writes the queued frames, to queue the packets the handler batches itself.
+	 * @param con the connection
+	 */
+	default void onWrite(LinkConnection con)
+	{
+	}
+	
+	/**
+	 * Called once, by the thread closing the connection.
+	 * @param con the connection
+	 */
+	void onDisconnection(LinkConnection con);
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2004-2015 L2J Server
+ * 
+ * This file is part of L2J Server.
+ * 
+ * L2J Server is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * L2J Server is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.l2jserver.util.network;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.l2jserver.util.crypt.NewCrypt;
+
+/**
+ * Selector of the links between the game servers and the login server.<br>
+ * All connections of the selector are read and written by the thread calling {@link #select(long)}. Other threads only queue frames, the connection being handed over to the selector thread once until all its frames are written.
+ */
+public final class LinkSelector
+{
+	private final Selector _selector;
+	
+	// Work handed over by other threads
+	private final Queue<LinkConnection> _pendingRegister = new ConcurrentLinkedQueue<>();
+	private final Queue<LinkConnection> _pendingWrite = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean _wakeupPending = new AtomicBoolean();
+	
+	// Statistics
+	private final LongAdder _wakeups = new LongAdder();
+	private volatile long _selects;
+	
+	public LinkSelector() throws IOException
+	{
+		_selector = Selector.open();
+	}
+	
+	/**
+	 * Hands a connected socket over to this selector.
+	 * @param channel the socket
+	 * @param crypt the initial cipher of the link
+	 * @param handler the receiver of the events of the connection
+	 * @return the connection, packets may be sent at once
+	 * @throws IOException if the socket could not be set non-blocking
+	 */
+	public LinkConnection register(SocketChannel channel, NewCrypt crypt, LinkHandler handler) throws IOException
+	{
+		channel.configureBlocking(false);
+		// Frames are batched by the connection, there is nothing to gain from Nagle's algorithm.
+		channel.socket().setTcpNoDelay(true);
+		final LinkConnection con = new LinkConnection(this, channel, crypt, handler);
+		_pendingRegister.offer(con);
+		wakeup();
+		return con;
+	}
+	
+	void scheduleWrite(LinkConnection con)
+	{
+		_pendingWrite.offer(con);
+		wakeup();
+	}
+	
+	private void wakeup()
+	{
+		if (_wakeupPending.compareAndSet(false, true))
+		{
+			_wakeups.increment();
+			_selector.wakeup();
+		}
+	}
+	
+	/**
+	 * Runs one pass of the selector: registers the new connections, writes the queued frames, waits for the ready connections and serves them.
+	 * @param timeout the longest wait in milliseconds, 0 to wait until a connection is ready or a frame is queued
+	 * @throws IOException if the selector failed
+	 */
+	public void select(long timeout) throws IOException
+	{
+		LinkConnection con;
+		while ((con = _pendingRegister.poll()) != null)
+		{
+			try
+			{
+				con.setSelectionKey(con.getChannel().register(_selector, SelectionKey.OP_READ, con));
+			}
+			catch (ClosedChannelException e)
+			{
+				con.close();
+			}
+		}
+		while ((con = _pendingWrite.poll()) != null)
+		{
+			write(con);
+		}
+		
+		_selects++;
+		_selector.select(timeout);
+		// Cleared before the work is served, a thread handing work over from now on wakes up the next select.
+		_wakeupPending.set(false);
+		
+		final Iterator<SelectionKey> it = _selector.selectedKeys().iterator();
+		while (it.hasNext())
+		{
+			final SelectionKey key = it.next();
+			it.remove();
+			con = (LinkConnection) key.attachment();
+			try
+			{
+				if (key.isReadable())
+				{
+					con.read();
+				}
+				if (key.isValid() && key.isWritable())
+				{
+					write(con);
+				}
+			}
+			catch (CancelledKeyException e)
+			{
+				con.close();
+			}
+		}
+	}
+	
+	private static void write(LinkConnection con)
+	{
+		final SelectionKey key = con.getSelectionKey();
+		if ((key == null) || !key.isValid())
+		{
+			con.close();
+			return;
+		}
+		
+		try
+		{
+			// Only wait for the socket to become writable while frames are left over.
+			key.interestOps(con.write() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+		catch (CancelledKeyException e)
+		{
+			con.close();
+		}
+	}
+	
+	/**
+	 * Closes the selector, the connections must be closed first.
+	 */
+	public void close()
+	{
+		try
+		{
+			_selector.close();
+		}
+		catch (IOException e)
+		{
+			// Nothing to do.
+		}
+	}
+	
+	public String getStats()
+	{
+		return "Selector: " + _selector.keys().size() + " connections, " + _selects + " selects, " + _wakeups.sum() + " wakeups";
+	}
+}